@@ -0,0 +1,132 @@
+package ch.cyberduck.core.azure;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.FlatListing;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.StringUtils;
+
+import java.net.URISyntaxException;
+import java.util.EnumSet;
+
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultSegment;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobListingDetails;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.azure.storage.blob.ListBlobItem;
+
+/**
+ * List all blobs with the directory key as prefix using flat blob listing
+ */
+public class AzureFlatListService implements FlatListing {
+
+    private final AzureSession session;
+
+    private final OperationContext context;
+
+    private final PathContainerService containerService
+            = new AzurePathContainerService();
+
+    public AzureFlatListService(final AzureSession session, final OperationContext context) {
+        this.session = session;
+        this.context = context;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(directory.isRoot()) {
+            // Container list
+            throw new UnsupportedException(directory.getAbsolute());
+        }
+        try {
+            final Path bucket = containerService.getContainer(directory);
+            final CloudBlobContainer container = session.getClient().getContainerReference(bucket.getName());
+            final AttributedList<Path> children = new AttributedList<Path>();
+            ResultContinuation token = null;
+            ResultSegment<ListBlobItem> result;
+            String prefix = StringUtils.EMPTY;
+            if(!containerService.isContainer(directory)) {
+                prefix = containerService.getKey(directory);
+                if(!prefix.endsWith(String.valueOf(Path.DELIMITER))) {
+                    prefix += Path.DELIMITER;
+                }
+            }
+            boolean hasDirectoryPlaceholder = containerService.isContainer(directory);
+            // Index of first file not yet notified to listener
+            int index = 0;
+            do {
+                final BlobRequestOptions options = new BlobRequestOptions();
+                result = container.listBlobsSegmented(
+                        prefix, true, EnumSet.noneOf(BlobListingDetails.class),
+                        PreferencesFactory.get().getInteger("azure.listing.chunksize"), token, options, context);
+                for(ListBlobItem object : result.getResults()) {
+                    if(!(object instanceof CloudBlob)) {
+                        continue;
+                    }
+                    final CloudBlob blob = (CloudBlob) object;
+                    // A directory is designated by a delimiter character.
+                    final EnumSet<Path.Type> types = blob.getName().endsWith(String.valueOf(Path.DELIMITER))
+                            ? EnumSet.of(Path.Type.directory, Path.Type.placeholder) : EnumSet.of(Path.Type.file);
+                    final PathAttributes attributes = new PathAttributes();
+                    attributes.setSize(blob.getProperties().getLength());
+                    attributes.setModificationDate(blob.getProperties().getLastModified().getTime());
+                    attributes.setETag(blob.getProperties().getEtag());
+                    if(StringUtils.isNotBlank(blob.getProperties().getContentMD5())) {
+                        attributes.setChecksum(Checksum.parse(Hex.encodeHexString(Base64.decodeBase64(blob.getProperties().getContentMD5()))));
+                    }
+                    final Path child = new Path(PathNormalizer.normalize(String.format("%s%s%s",
+                            bucket.getAbsolute(), Path.DELIMITER, blob.getName())), types, attributes);
+                    if(child.equals(directory)) {
+                        hasDirectoryPlaceholder = true;
+                        continue;
+                    }
+                    children.add(child);
+                }
+                listener.chunk(directory, children, index, !result.getHasMoreResults());
+                index = children.size();
+                token = result.getContinuationToken();
+            }
+            while(result.getHasMoreResults());
+            if(!hasDirectoryPlaceholder && children.isEmpty()) {
+                throw new NotfoundException(directory.getAbsolute());
+            }
+            return children;
+        }
+        catch(StorageException e) {
+            throw new AzureExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+        catch(URISyntaxException e) {
+            throw new NotfoundException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package ch.cyberduck.core.azure;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.UUIDRandomStringService;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Multipart;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.io.VoidStatusOutputStream;
+import ch.cyberduck.core.local.TemporaryFileServiceFactory;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.bouncycastle.util.encoders.Base64;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.Constants;
+import com.microsoft.azure.storage.OperationContext;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.BlobType;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+
+/**
+ * Write parts as uncommitted blocks of block blob committed in order of part number
+ */
+public class AzureMultipartFeature implements Multipart {
+    private static final Logger log = Logger.getLogger(AzureMultipartFeature.class);
+
+    private final AzureSession session;
+
+    private final OperationContext context;
+
+    private final PathContainerService containerService
+        = new AzurePathContainerService();
+
+    private final BlobType blobType;
+
+    public AzureMultipartFeature(final AzureSession session, final OperationContext context) {
+        this(session, BlobType.valueOf(PreferencesFactory.get().getProperty("azure.upload.blobtype")), context);
+    }
+
+    public AzureMultipartFeature(final AzureSession session, final BlobType blobType, final OperationContext context) {
+        this.session = session;
+        this.blobType = blobType;
+        this.context = context;
+    }
+
+    /**
+     * @return Random prefix for identifiers of blocks
+     */
+    @Override
+    public String start(final Path file, final TransferStatus status) {
+        return new UUIDRandomStringService().random();
+    }
+
+    /**
+     * Content of part is spooled to a temporary file and written as single block when the stream is closed
+     */
+    @Override
+    public StatusOutputStream<?> write(final Path file, final String upload, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        final CloudBlockBlob blob = this.getBlob(file);
+        final String block = this.getBlockId(upload, status.getPart());
+        final Local temporary = TemporaryFileServiceFactory.get().create(new AlphanumericRandomStringService().random());
+        return new VoidStatusOutputStream(temporary.getOutputStream(false)) {
+            private final AtomicBoolean close = new AtomicBoolean();
+
+            @Override
+            public void close() throws IOException {
+                if(close.get()) {
+                    log.warn(String.format("Skip double close of stream %s", this));
+                    return;
+                }
+                try {
+                    super.close();
+                    final long length = temporary.attributes().getSize();
+                    final BlobRequestOptions options = new BlobRequestOptions();
+                    // Content-MD5 of block verified by server
+                    options.setUseTransactionalContentMD5(true);
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Write block %s with %d bytes for part %d of %s", block, length, status.getPart(), file));
+                    }
+                    // File stream is marked by SDK to read again after computing checksum instead of copying to memory
+                    try (final FileInputStream in = new FileInputStream(temporary.getAbsolute())) {
+                        blob.uploadBlock(block, in, length, AccessCondition.generateEmptyCondition(), options, context);
+                    }
+                }
+                catch(StorageException e) {
+                    throw new IOException(e.getMessage(), new AzureExceptionMappingService().map("Upload {0} failed", e, file));
+                }
+                finally {
+                    try {
+                        temporary.delete();
+                    }
+                    catch(AccessDeniedException | NotfoundException e) {
+                        log.warn(String.format("Failure removing temporary file %s for part %d of %s", temporary, status.getPart(), file));
+                    }
+                    close.set(true);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void complete(final Path file, final String upload, final TransferStatus status) throws BackgroundException {
+        final CloudBlockBlob blob = this.getBlob(file);
+        try {
+            final BlobRequestOptions options = new BlobRequestOptions();
+            final Set<String> uncommitted = new HashSet<>();
+            for(BlockEntry entry : blob.downloadBlockList(BlockListingFilter.UNCOMMITTED, AccessCondition.generateEmptyCondition(), options, context)) {
+                uncommitted.add(entry.getId());
+            }
+            final List<BlockEntry> blocks = new ArrayList<>();
+            for(int part = 1; part <= status.getSegments().size(); part++) {
+                final String block = this.getBlockId(upload, part);
+                if(!uncommitted.contains(block)) {
+                    throw new InteroperabilityException(MessageFormat.format(LocaleFactory.localizedString("Upload {0} failed", "Error"), file.getName()),
+                        String.format("Missing block for part %d of upload with %d segments", part, status.getSegments().size()));
+                }
+                blocks.add(new BlockEntry(block));
+            }
+            if(StringUtils.isNotBlank(status.getMime())) {
+                blob.getProperties().setContentType(status.getMime());
+            }
+            blob.setMetadata(new HashMap<>(status.getMetadata()));
+            blob.commitBlockList(blocks, AccessCondition.generateEmptyCondition(), options, context);
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Committed %d blocks for %s", blocks.size(), file));
+            }
+        }
+        catch(StorageException e) {
+            throw new AzureExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+    }
+
+    /**
+     * Uncommitted blocks cannot be deleted and are discarded by the server after a week
+     */
+    @Override
+    public void abort(final Path file, final String upload) {
+        log.warn(String.format("Leave uncommitted blocks with prefix %s for %s", upload, file));
+    }
+
+    @Override
+    public long partsize(final long length, final long preferred) {
+        return Math.min(Math.max(length / (Constants.MAX_BLOCK_NUMBER - 1), preferred), Constants.MAX_BLOCK_SIZE);
+    }
+
+    /**
+     * @return False if files are not written as block blobs
+     */
+    @Override
+    public boolean isSupported(final Path file) {
+        return BlobType.BLOCK_BLOB == blobType && !containerService.isContainer(file);
+    }
+
+    private CloudBlockBlob getBlob(final Path file) throws BackgroundException {
+        try {
+            return session.getClient().getContainerReference(containerService.getContainer(file).getName())
+                .getBlockBlobReference(containerService.getKey(file));
+        }
+        catch(StorageException e) {
+            throw new AzureExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+        catch(URISyntaxException e) {
+            throw new NotfoundException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return Base64 encoded identifier of equal length for all blocks
+     */
+    private String getBlockId(final String upload, final int part) {
+        return Base64.toBase64String(String.format("%s-%05d", upload, part).getBytes(StandardCharsets.UTF_8));
+    }
+}
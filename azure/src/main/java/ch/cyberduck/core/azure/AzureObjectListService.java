@@ -78,6 +78,8 @@ public class AzureObjectListService implements ListService {
                 }
             }
             boolean hasDirectoryPlaceholder = containerService.isContainer(directory);
+            // Index of first file not yet notified to listener
+            int index = 0;
             do {
                 final BlobRequestOptions options = new BlobRequestOptions();
                 result = container.listBlobsSegmented(
@@ -104,7 +106,8 @@ public class AzureObjectListService implements ListService {
                     final Path child = new Path(directory, PathNormalizer.name(object.getUri().getPath()), types, attributes);
                     children.add(child);
                 }
-                listener.chunk(directory, children);
+                listener.chunk(directory, children, index, !result.getHasMoreResults());
+                index = children.size();
                 token = result.getContinuationToken();
             }
             while(result.getHasMoreResults());
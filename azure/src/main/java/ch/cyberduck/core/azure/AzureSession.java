@@ -183,12 +183,18 @@ public class AzureSession extends SSLSession<CloudBlobClient> {
         if(type == ListService.class) {
             return (T) new AzureListService(this, context);
         }
+        if(type == FlatListing.class) {
+            return (T) new AzureFlatListService(this, context);
+        }
         if(type == Read.class) {
             return (T) new AzureReadFeature(this, context);
         }
         if(type == Write.class) {
             return (T) new AzureWriteFeature(this, context);
         }
+        if(type == Multipart.class) {
+            return (T) new AzureMultipartFeature(this, context);
+        }
         if(type == Directory.class) {
             return (T) new AzureDirectoryFeature(this, context);
         }
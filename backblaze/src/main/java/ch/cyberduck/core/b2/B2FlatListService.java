@@ -0,0 +1,46 @@
+package ch.cyberduck.core.b2;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.FlatListing;
+
+/**
+ * List all file versions with the directory key as prefix without delimiter
+ */
+public class B2FlatListService implements FlatListing {
+
+    private final B2Session session;
+    private final B2FileidProvider fileid;
+
+    public B2FlatListService(final B2Session session, final B2FileidProvider fileid) {
+        this.session = session;
+        this.fileid = fileid;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(directory.isRoot()) {
+            // Bucket list
+            throw new UnsupportedException(directory.getAbsolute());
+        }
+        return new B2ObjectListService(session, fileid).list(directory, listener, null);
+    }
+}
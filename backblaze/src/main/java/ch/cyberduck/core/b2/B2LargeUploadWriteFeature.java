@@ -32,7 +32,7 @@ import ch.cyberduck.core.http.HttpResponseOutputStream;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
 import ch.cyberduck.core.io.HashAlgorithm;
-import ch.cyberduck.core.io.MemorySegementingOutputStream;
+import ch.cyberduck.core.io.SlabSegmentingOutputStream;
 import ch.cyberduck.core.io.StatusOutputStream;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
@@ -87,7 +87,7 @@ public class B2LargeUploadWriteFeature implements MultipartWrite<VersionId> {
     @Override
     public StatusOutputStream<VersionId> write(final Path file, final TransferStatus status, final ConnectionCallback callback) {
         final LargeUploadOutputStream proxy = new LargeUploadOutputStream(file, status);
-        return new HttpResponseOutputStream<VersionId>(new MemorySegementingOutputStream(proxy,
+        return new HttpResponseOutputStream<VersionId>(new SlabSegmentingOutputStream(proxy,
             PreferencesFactory.get().getInteger("b2.upload.largeobject.size.minimum"))) {
             @Override
             public VersionId getStatus() {
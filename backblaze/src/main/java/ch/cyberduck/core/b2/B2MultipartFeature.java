@@ -0,0 +1,193 @@
+package ch.cyberduck.core.b2;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.features.Multipart;
+import ch.cyberduck.core.io.BufferInputStream;
+import ch.cyberduck.core.io.BufferOutputStream;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.ChecksumComputeFactory;
+import ch.cyberduck.core.io.FileBuffer;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.io.VoidStatusOutputStream;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import synapticloop.b2.exception.B2ApiException;
+import synapticloop.b2.response.B2StartLargeFileResponse;
+import synapticloop.b2.response.B2UploadPartResponse;
+
+import static ch.cyberduck.core.b2.B2MetadataFeature.X_BZ_INFO_SRC_LAST_MODIFIED_MILLIS;
+
+/**
+ * Write parts of large file upload with part number given in transfer status
+ */
+public class B2MultipartFeature implements Multipart {
+    private static final Logger log = Logger.getLogger(B2MultipartFeature.class);
+
+    private final PathContainerService containerService
+        = new B2PathContainerService();
+
+    private final Preferences preferences
+        = PreferencesFactory.get();
+
+    private final B2Session session;
+    private final B2FileidProvider fileid;
+    private final B2LargeUploadPartService partService;
+
+    public B2MultipartFeature(final B2Session session, final B2FileidProvider fileid) {
+        this(session, fileid, new B2LargeUploadPartService(session, fileid));
+    }
+
+    public B2MultipartFeature(final B2Session session, final B2FileidProvider fileid, final B2LargeUploadPartService partService) {
+        this.session = session;
+        this.fileid = fileid;
+        this.partService = partService;
+    }
+
+    /**
+     * @return File id of unfinished large upload
+     */
+    @Override
+    public String start(final Path file, final TransferStatus status) throws BackgroundException {
+        final Map<String, String> fileinfo = new HashMap<>(status.getMetadata());
+        if(null != status.getTimestamp()) {
+            fileinfo.put(X_BZ_INFO_SRC_LAST_MODIFIED_MILLIS, String.valueOf(status.getTimestamp()));
+        }
+        try {
+            final B2StartLargeFileResponse response = session.getClient().startLargeFileUpload(
+                fileid.getFileid(containerService.getContainer(file), new DisabledListProgressListener()),
+                containerService.getKey(file), status.getMime(), fileinfo);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Multipart upload started for %s with ID %s", file, response.getFileId()));
+            }
+            return response.getFileId();
+        }
+        catch(B2ApiException e) {
+            throw new B2ExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+    }
+
+    /**
+     * Content of part is spooled to a temporary file to compute the SHA1 checksum required before upload
+     */
+    @Override
+    public StatusOutputStream<?> write(final Path file, final String upload, final TransferStatus status, final ConnectionCallback callback) {
+        final FileBuffer buffer = new FileBuffer();
+        return new VoidStatusOutputStream(new BufferOutputStream(buffer)) {
+            private final AtomicBoolean close = new AtomicBoolean();
+
+            @Override
+            public void close() throws IOException {
+                if(close.get()) {
+                    log.warn(String.format("Skip double close of stream %s", this));
+                    return;
+                }
+                try {
+                    super.close();
+                    final Checksum checksum = ChecksumComputeFactory.get(HashAlgorithm.sha1)
+                        .compute(new BufferInputStream(buffer), new TransferStatus().length(buffer.length()));
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Write part %d with %d bytes and checksum %s for upload %s", status.getPart(), buffer.length(), checksum, upload));
+                    }
+                    session.getClient().uploadLargeFilePart(upload, status.getPart(),
+                        new InputStreamEntity(new BufferInputStream(buffer), buffer.length()), checksum.hash);
+                }
+                catch(BackgroundException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+                catch(B2ApiException e) {
+                    throw new IOException(e.getMessage(), new B2ExceptionMappingService().map("Upload {0} failed", e, file));
+                }
+                finally {
+                    buffer.close();
+                    close.set(true);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void complete(final Path file, final String upload, final TransferStatus status) throws BackgroundException {
+        final List<B2UploadPartResponse> completed = partService.list(upload);
+        if(completed.size() != status.getSegments().size()) {
+            throw new InteroperabilityException(MessageFormat.format(LocaleFactory.localizedString("Upload {0} failed", "Error"), file.getName()),
+                String.format("Found %d parts for large file upload with %d segments", completed.size(), status.getSegments().size()));
+        }
+        completed.sort(new Comparator<B2UploadPartResponse>() {
+            @Override
+            public int compare(final B2UploadPartResponse o1, final B2UploadPartResponse o2) {
+                return o1.getPartNumber().compareTo(o2.getPartNumber());
+            }
+        });
+        final List<String> checksums = new ArrayList<String>();
+        for(B2UploadPartResponse part : completed) {
+            checksums.add(part.getContentSha1());
+        }
+        try {
+            session.getClient().finishLargeFileUpload(upload, checksums.toArray(new String[checksums.size()]));
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Finished large file upload %s with %d parts", file, completed.size()));
+            }
+        }
+        catch(B2ApiException e) {
+            throw new B2ExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+    }
+
+    @Override
+    public void abort(final Path file, final String upload) throws BackgroundException {
+        partService.delete(upload);
+    }
+
+    /**
+     * @return Part size limited to size configured for large upload parts
+     */
+    @Override
+    public long partsize(final long length, final long preferred) {
+        return Math.max(Math.max(length / (B2LargeUploadService.MAXIMUM_UPLOAD_PARTS - 1),
+            Math.min(preferred, preferences.getLong("b2.upload.largeobject.size"))),
+            preferences.getLong("b2.upload.largeobject.size.minimum"));
+    }
+}
@@ -69,6 +69,13 @@ public class B2ObjectListService implements ListService {
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        return this.list(directory, listener, String.valueOf(Path.DELIMITER));
+    }
+
+    /**
+     * @param delimiter Delimiter or null to list all files with the directory as prefix
+     */
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener, final String delimiter) throws BackgroundException {
         try {
             final AttributedList<Path> objects = new AttributedList<Path>();
             Marker marker;
@@ -82,6 +89,8 @@ public class B2ObjectListService implements ListService {
             // Seen placeholders
             final Map<String, Long> revisions = new HashMap<>();
             boolean hasDirectoryPlaceholder = containerService.isContainer(directory);
+            // Index of first file not yet notified to listener
+            int index = 0;
             do {
                 if(log.isDebugEnabled()) {
                     log.debug(String.format("List directory %s with marker %s", directory, marker));
@@ -92,14 +101,15 @@ public class B2ObjectListService implements ListService {
                     containerId,
                     marker.nextFilename, marker.nextFileId, chunksize,
                     containerService.isContainer(directory) ? null : String.format("%s%s", containerService.getKey(directory), String.valueOf(Path.DELIMITER)),
-                    String.valueOf(Path.DELIMITER));
-                marker = this.parse(directory, objects, response, revisions);
+                    delimiter);
+                marker = this.parse(directory, objects, response, revisions, delimiter);
                 if(null == marker.nextFileId) {
                     if(!response.getFiles().isEmpty()) {
                         hasDirectoryPlaceholder = true;
                     }
                 }
-                listener.chunk(directory, objects);
+                listener.chunk(directory, objects, index, !marker.hasNext());
+                index = objects.size();
             }
             while(marker.hasNext());
             if(!hasDirectoryPlaceholder && objects.isEmpty()) {
@@ -116,9 +126,16 @@ public class B2ObjectListService implements ListService {
     }
 
     protected Marker parse(final Path directory, final AttributedList<Path> objects,
-                           final B2ListFilesResponse response, final Map<String, Long> revisions) {
+                           final B2ListFilesResponse response, final Map<String, Long> revisions, final String delimiter) {
         for(B2FileInfoResponse info : response.getFiles()) {
             if(StringUtils.equals(PathNormalizer.name(info.getFileName()), B2PathContainerService.PLACEHOLDER)) {
+                if(null == delimiter) {
+                    final Path placeholder = this.toPath(directory, info.getFileName(), EnumSet.of(Path.Type.directory, Path.Type.placeholder),
+                        new PathAttributes(), delimiter).getParent();
+                    if(!placeholder.equals(directory)) {
+                        objects.add(placeholder);
+                    }
+                }
                 continue;
             }
             if(StringUtils.isBlank(info.getFileId())) {
@@ -139,8 +156,8 @@ public class B2ObjectListService implements ListService {
             }
             revisions.put(info.getFileName(), revision);
             attributes.setRevision(revision);
-            objects.add(new Path(directory, PathNormalizer.name(info.getFileName()),
-                info.getAction() == Action.start ? EnumSet.of(Path.Type.file, Path.Type.upload) : EnumSet.of(Path.Type.file), attributes));
+            objects.add(this.toPath(directory, info.getFileName(),
+                info.getAction() == Action.start ? EnumSet.of(Path.Type.file, Path.Type.upload) : EnumSet.of(Path.Type.file), attributes, delimiter));
         }
         if(null == response.getNextFileName()) {
             return new Marker(response.getNextFileName(), response.getNextFileId());
@@ -148,6 +165,18 @@ public class B2ObjectListService implements ListService {
         return new Marker(response.getNextFileName(), response.getNextFileId());
     }
 
+    /**
+     * @param filename  Full key in bucket
+     * @param delimiter Null for key in any subdirectory of directory
+     */
+    private Path toPath(final Path directory, final String filename, final EnumSet<Path.Type> type, final PathAttributes attributes, final String delimiter) {
+        if(null == delimiter) {
+            return new Path(String.format("%s%s%s", containerService.getContainer(directory).getAbsolute(),
+                Path.DELIMITER, filename), type, attributes);
+        }
+        return new Path(directory, PathNormalizer.name(filename), type, attributes);
+    }
+
     /**
      * @param response List filenames response from server
      * @return Null when respone filename is not child of working directory directory
@@ -113,6 +113,9 @@ public class B2Session extends HttpSession<B2ApiClient> {
         if(type == MultipartWrite.class) {
             return (T) new B2LargeUploadWriteFeature(this, fileid);
         }
+        if(type == Multipart.class) {
+            return (T) new B2MultipartFeature(this, fileid);
+        }
         if(type == Write.class) {
             return (T) new B2WriteFeature(this, fileid);
         }
@@ -158,6 +161,9 @@ public class B2Session extends HttpSession<B2ApiClient> {
         if(type == Search.class) {
             return (T) new B2SearchFeature(this, fileid);
         }
+        if(type == FlatListing.class) {
+            return (T) new B2FlatListService(this, fileid);
+        }
         if(type == Headers.class) {
             return (T) new B2MetadataFeature(this, fileid);
         }
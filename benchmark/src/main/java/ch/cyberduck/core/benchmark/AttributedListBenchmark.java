@@ -0,0 +1,129 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DefaultPathPredicate;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.ui.browser.SearchFilter;
+import ch.cyberduck.ui.comparator.FilenameComparator;
+import ch.cyberduck.ui.comparator.SizeComparator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build, lookup, filter and sort of directory listings compared to the previous copy on write implementation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class AttributedListBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private List<Path> files;
+    private AttributedList<Path> list;
+    private List<Path> baseline;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Path directory = new Path("/container/prefix", EnumSet.of(Path.Type.directory));
+        files = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            final Path file = new Path(directory, String.format("key-%d", i), EnumSet.of(Path.Type.file));
+            file.attributes().setSize(ThreadLocalRandom.current().nextLong(Integer.MAX_VALUE));
+            files.add(file);
+        }
+        list = new AttributedList<>(files);
+        baseline = new CopyOnWriteArrayList<>(files);
+    }
+
+    @Benchmark
+    public AttributedList<Path> build() {
+        final AttributedList<Path> children = new AttributedList<>();
+        for(Path file : files) {
+            children.add(file);
+        }
+        return children;
+    }
+
+    /**
+     * Appending to copy on write list as done previously
+     */
+    @Benchmark
+    public List<Path> buildBaseline() {
+        final List<Path> children = new CopyOnWriteArrayList<>();
+        for(Path file : files) {
+            children.add(file);
+        }
+        return children;
+    }
+
+    @Benchmark
+    public void lookup(final Blackhole blackhole) {
+        final Path file = files.get(ThreadLocalRandom.current().nextInt(size));
+        blackhole.consume(list.contains(file));
+        blackhole.consume(list.get(file));
+        blackhole.consume(list.find(new DefaultPathPredicate(file)));
+    }
+
+    @Benchmark
+    public void lookupBaseline(final Blackhole blackhole) {
+        final Path file = files.get(ThreadLocalRandom.current().nextInt(size));
+        blackhole.consume(baseline.contains(file));
+        blackhole.consume(baseline.get(baseline.indexOf(file)));
+        final DefaultPathPredicate predicate = new DefaultPathPredicate(file);
+        blackhole.consume(baseline.stream().filter(predicate).findFirst().orElse(null));
+    }
+
+    @Benchmark
+    public AttributedList<Path> filter() {
+        return list.filter(new SearchFilter("key-1"));
+    }
+
+    @Benchmark
+    public AttributedList<Path> sortFilename() {
+        return list.filter(new FilenameComparator(true));
+    }
+
+    @Benchmark
+    public AttributedList<Path> sortSize() {
+        return list.filter(new SizeComparator(false), new SearchFilter("key-1"));
+    }
+}
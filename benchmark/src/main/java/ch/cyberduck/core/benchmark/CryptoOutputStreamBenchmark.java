@@ -0,0 +1,78 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.cryptomator.CryptoOutputStream;
+import ch.cyberduck.core.cryptomator.random.FastSecureRandomProvider;
+import ch.cyberduck.core.cryptomator.random.RandomNonceGenerator;
+import ch.cyberduck.core.io.StatusOutputStream;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.cryptomator.cryptolib.Cryptors;
+import org.cryptomator.cryptolib.api.Cryptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encrypt file content in chunks written to a discarding stream
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class CryptoOutputStreamBenchmark {
+
+    @Param({"1048576", "16777216"})
+    public int size;
+
+    private byte[] content;
+    private Cryptor cryptor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        content = RandomUtils.nextBytes(size);
+        cryptor = Cryptors.version1(FastSecureRandomProvider.get().provide()).createNew();
+    }
+
+    @Benchmark
+    public OutputStream write() throws IOException {
+        final OutputStream out = new CryptoOutputStream<>(new StatusOutputStream<Void>(NullOutputStream.NULL_OUTPUT_STREAM) {
+            @Override
+            public Void getStatus() {
+                return null;
+            }
+        }, cryptor.fileContentCryptor(), cryptor.fileHeaderCryptor().create(), new RandomNonceGenerator(), 0L);
+        out.write(content);
+        out.close();
+        return out;
+    }
+}
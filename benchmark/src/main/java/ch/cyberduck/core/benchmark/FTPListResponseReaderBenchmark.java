@@ -0,0 +1,88 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.ftp.FTPParserSelector;
+import ch.cyberduck.core.ftp.list.FTPInvalidListException;
+import ch.cyberduck.core.ftp.list.FTPListResponseReader;
+import ch.cyberduck.core.ftp.list.FTPMlsdListResponseReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse directory listing replies in UNIX LIST and MLSD format
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class FTPListResponseReaderBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final Path directory = new Path("/data", EnumSet.of(Path.Type.directory));
+
+    private List<String> list;
+    private List<String> mlsd;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        list = new ArrayList<>(size);
+        mlsd = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            if(i % 10 == 0) {
+                list.add(String.format("drwxr-xr-x    2 ftp      ftp          4096 Mar 11  2019 folder-%d", i));
+                mlsd.add(String.format("type=dir;modify=20190311120000;perm=flcdmpe; folder-%d", i));
+            }
+            else {
+                list.add(String.format("-rw-r--r--    1 ftp      ftp      %9d Jun 24 13:25 file-%d.txt", i * 1024L, i));
+                mlsd.add(String.format("type=file;size=%d;modify=20200624132500;perm=adfrw; file-%d.txt", i * 1024L, i));
+            }
+        }
+    }
+
+    @Benchmark
+    public AttributedList<Path> list() throws FTPInvalidListException, ConnectionCanceledException {
+        return new FTPListResponseReader(new FTPParserSelector().getParser("UNIX")).read(directory, list, new DisabledListProgressListener());
+    }
+
+    @Benchmark
+    public AttributedList<Path> mlsd() throws FTPInvalidListException, ConnectionCanceledException {
+        return new FTPMlsdListResponseReader().read(directory, mlsd, new DisabledListProgressListener());
+    }
+}
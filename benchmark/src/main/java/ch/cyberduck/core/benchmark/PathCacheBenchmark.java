@@ -0,0 +1,103 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DefaultPathPredicate;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache directory listings and lookup files by reference
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class PathCacheBenchmark {
+
+    @Param({"100", "1000"})
+    public int directories;
+
+    @Param({"100", "1000"})
+    public int files;
+
+    private List<Path> folders;
+    private List<AttributedList<Path>> listings;
+    private PathCache cache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Path root = new Path("/container", EnumSet.of(Path.Type.directory, Path.Type.volume));
+        folders = new ArrayList<>(directories);
+        listings = new ArrayList<>(directories);
+        cache = new PathCache(directories);
+        for(int i = 0; i < directories; i++) {
+            final Path folder = new Path(root, String.format("folder-%d", i), EnumSet.of(Path.Type.directory));
+            final AttributedList<Path> list = new AttributedList<>();
+            for(int k = 0; k < files; k++) {
+                list.add(new Path(folder, String.format("key-%d", k), EnumSet.of(Path.Type.file)));
+            }
+            folders.add(folder);
+            listings.add(list);
+            cache.put(folder, list);
+        }
+    }
+
+    @Benchmark
+    public PathCache put() {
+        final PathCache cache = new PathCache(directories);
+        for(int i = 0; i < directories; i++) {
+            cache.put(folders.get(i), listings.get(i));
+        }
+        return cache;
+    }
+
+    @Benchmark
+    public void get(final Blackhole blackhole) {
+        final Path folder = folders.get(ThreadLocalRandom.current().nextInt(directories));
+        blackhole.consume(cache.isCached(folder));
+        blackhole.consume(cache.get(folder));
+    }
+
+    @Benchmark
+    public Path lookup() {
+        final int index = ThreadLocalRandom.current().nextInt(directories);
+        final AttributedList<Path> list = listings.get(index);
+        return cache.lookup(new DefaultPathPredicate(list.get(ThreadLocalRandom.current().nextInt(list.size()))));
+    }
+}
@@ -0,0 +1,102 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.ProtocolFactory;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.nio.LocalProtocol;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.serializer.impl.dd.HostPlistReader;
+import ch.cyberduck.core.serializer.impl.dd.PlistWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load bookmark files as done when reading the bookmark collection at startup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class PlistReaderBenchmark {
+
+    @Param({"100", "1000"})
+    public int bookmarks;
+
+    private Local folder;
+    private final List<Local> files = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws AccessDeniedException {
+        final LocalProtocol protocol = new LocalProtocol() {
+            @Override
+            public boolean isEnabled() {
+                return true;
+            }
+        };
+        ProtocolFactory.get().register(protocol);
+        folder = new Local(PreferencesFactory.get().getProperty("tmp.dir"), UUID.randomUUID().toString());
+        folder.mkdir();
+        final PlistWriter<Host> writer = new PlistWriter<>();
+        for(int i = 0; i < bookmarks; i++) {
+            final Host bookmark = new Host(protocol, protocol.getDefaultHostname());
+            bookmark.setNickname(String.format("bookmark-%d", i));
+            bookmark.setDefaultPath(String.format("/folder-%d", i));
+            bookmark.setComment(UUID.randomUUID().toString());
+            final Local file = new Local(folder, String.format("%s.duck", bookmark.getUuid()));
+            writer.write(bookmark, file);
+            files.add(file);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws AccessDeniedException, NotfoundException {
+        for(Local file : files) {
+            file.delete();
+        }
+        folder.delete();
+    }
+
+    @Benchmark
+    public void read(final Blackhole blackhole) throws AccessDeniedException {
+        final HostPlistReader reader = new HostPlistReader();
+        for(Local file : files) {
+            blackhole.consume(reader.read(file));
+        }
+    }
+}
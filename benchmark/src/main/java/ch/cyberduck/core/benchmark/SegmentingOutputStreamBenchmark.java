@@ -0,0 +1,90 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.io.MemorySegementingOutputStream;
+import ch.cyberduck.core.io.SlabSegmentingOutputStream;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Split stream written with varying buffer sizes into segments of fixed size. Compare copying segments out of a
+ * growing memory buffer with passing segments from the array written or a reused buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class SegmentingOutputStreamBenchmark {
+
+    /**
+     * Size of writes to stream
+     */
+    @Param({"8192", "32768", "1048576"})
+    public int chunksize;
+
+    /**
+     * Segment size
+     */
+    @Param({"32768", "5242880"})
+    public int threshold;
+
+    @Param({"16777216"})
+    public int size;
+
+    private byte[] content;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        content = RandomUtils.nextBytes(size);
+    }
+
+    @Benchmark
+    public OutputStream memory() throws IOException {
+        return this.write(new MemorySegementingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM, threshold));
+    }
+
+    @Benchmark
+    public OutputStream slab() throws IOException {
+        return this.write(new SlabSegmentingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM, threshold));
+    }
+
+    private OutputStream write(final OutputStream out) throws IOException {
+        for(int offset = 0; offset < size; offset += chunksize) {
+            out.write(content, offset, Math.min(chunksize, size - offset));
+        }
+        out.close();
+        return out;
+    }
+}
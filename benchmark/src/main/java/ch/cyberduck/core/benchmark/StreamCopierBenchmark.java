@@ -0,0 +1,108 @@
+package ch.cyberduck.core.benchmark;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+import ch.cyberduck.core.DisabledCancelCallback;
+import ch.cyberduck.core.DisabledConnectionCallback;
+import ch.cyberduck.core.DisabledHostKeyCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.nio.LocalDeleteFeature;
+import ch.cyberduck.core.nio.LocalHomeFinderFeature;
+import ch.cyberduck.core.nio.LocalProtocol;
+import ch.cyberduck.core.nio.LocalReadFeature;
+import ch.cyberduck.core.nio.LocalSession;
+import ch.cyberduck.core.nio.LocalWriteFeature;
+import ch.cyberduck.core.proxy.Proxy;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copy from memory and from a file read with the local filesystem session
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(1)
+public class StreamCopierBenchmark {
+
+    @Param({"1048576", "67108864"})
+    public int size;
+
+    private byte[] content;
+    private LocalSession session;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        content = RandomUtils.nextBytes(size);
+        session = new LocalSession(new Host(new LocalProtocol(), new LocalProtocol().getDefaultHostname()));
+        session.open(Proxy.DIRECT, new DisabledHostKeyCallback(), new DisabledLoginCallback());
+        session.login(Proxy.DIRECT, new DisabledLoginCallback(), new DisabledCancelCallback());
+        file = new Path(new LocalHomeFinderFeature(session).find(), String.format("benchmark-%s", UUID.randomUUID()), EnumSet.of(Path.Type.file));
+        final TransferStatus status = new TransferStatus().length(size);
+        final OutputStream out = new LocalWriteFeature(session).write(file, status, new DisabledConnectionCallback());
+        new StreamCopier(status, status).withLimit((long) size).transfer(new ByteArrayInputStream(content), out);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws BackgroundException {
+        new LocalDeleteFeature(session).delete(Collections.singletonList(file), new DisabledLoginCallback(), new Delete.DisabledCallback());
+        session.close();
+    }
+
+    @Benchmark
+    public long memory() throws BackgroundException {
+        final TransferStatus status = new TransferStatus().length(size);
+        new StreamCopier(status, status).withLimit((long) size).transfer(new ByteArrayInputStream(content), NullOutputStream.NULL_OUTPUT_STREAM);
+        return status.getOffset();
+    }
+
+    @Benchmark
+    public long local() throws BackgroundException {
+        final TransferStatus status = new TransferStatus().length(size);
+        new StreamCopier(status, status).withLimit((long) size).transfer(
+            new LocalReadFeature(session).read(file, status, new DisabledConnectionCallback()), NullOutputStream.NULL_OUTPUT_STREAM);
+        return status.getOffset();
+    }
+}
@@ -190,6 +190,45 @@ public class FinderLocal extends Local {
         return new LockReleaseProxyOutputStream(super.getOutputStream(resolved.path(), append), resolved, append);
     }
 
+    @Override
+    public OutputStream getOutputStream(final long position) throws AccessDeniedException {
+        final NSURL resolved;
+        try {
+            resolved = this.lock(this.exists());
+            if(null == resolved) {
+                return super.getOutputStream(position);
+            }
+        }
+        catch(LocalAccessDeniedException e) {
+            log.warn(String.format("Failure obtaining lock for %s. %s", this, e));
+            return super.getOutputStream(position);
+        }
+        return new LockReleaseProxyOutputStream(super.getOutputStream(resolved.path(), position), resolved, true);
+    }
+
+    @Override
+    public void setLength(final long length) throws AccessDeniedException {
+        final NSURL resolved;
+        try {
+            resolved = this.lock(this.exists());
+            if(null == resolved) {
+                super.setLength(length);
+                return;
+            }
+        }
+        catch(LocalAccessDeniedException e) {
+            log.warn(String.format("Failure obtaining lock for %s. %s", this, e));
+            super.setLength(length);
+            return;
+        }
+        try {
+            super.setLength(resolved.path(), length);
+        }
+        finally {
+            this.release(resolved);
+        }
+    }
+
     /**
      * @param interactive Prompt to resolve bookmark of file outside of sandbox with choose panel
      */
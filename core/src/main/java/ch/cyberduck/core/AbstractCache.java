@@ -22,26 +22,69 @@ import ch.cyberduck.core.cache.LRUCache;
 
 import org.apache.log4j.Logger;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 
 public abstract class AbstractCache<T extends Referenceable> implements Cache<T> {
     private static final Logger log = Logger.getLogger(AbstractCache.class);
 
     private final LRUCache<T, AttributedList<T>> impl;
 
+    /**
+     * Reverse index from reference of cached child to parent directory of listing
+     */
+    private final Map<CacheReference<?>, T> reverse = new ConcurrentHashMap<>();
+    /**
+     * Number of children indexed per cached directory listing keyed by reference of directory
+     */
+    private final Map<CacheReference<?>, Integer> indexed = new HashMap<>();
+
     public AbstractCache(int size) {
+        final RemovalListener<T, AttributedList<T>> listener = new RemovalListener<T, AttributedList<T>>() {
+            @Override
+            public void onRemoval(final RemovalNotification<T, AttributedList<T>> notification) {
+                if(notification.getCause() == RemovalCause.REPLACED) {
+                    // Index updated when putting new listing
+                    return;
+                }
+                unindex(notification.getKey(), notification.getValue());
+            }
+        };
         if(size == Integer.MAX_VALUE) {
             // Unlimited
-            impl = LRUCache.build();
+            impl = LRUCache.build(listener);
         }
         else {
             // Will inflate to the given size
-            impl = LRUCache.build(size);
+            impl = LRUCache.build(listener, size);
         }
     }
 
+    /**
+     * Lookup in reverse index of cached children. The index is complete for all listings added with
+     * {@link #put(Referenceable, AttributedList)} including chunks appended to a listing already cached. Falls back
+     * to search all cached listings for children modified after they were indexed.
+     *
+     * @param reference A child object of a cached directory listing in the cache
+     * @return Null if the reference is not found in any cached directory listing
+     */
     @Override
     public T lookup(final CacheReference<T> reference) {
+        final T parent = reverse.get(reference);
+        if(null != parent) {
+            final AttributedList<T> entry = impl.asMap().get(parent);
+            if(null != entry) {
+                final T f = entry.find(reference);
+                if(null != f) {
+                    return f;
+                }
+            }
+        }
         for(AttributedList<T> entry : impl.asMap().values()) {
             final T f = entry.find(reference);
             if(null == f) {
@@ -53,6 +96,48 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
         return null;
     }
 
+    /**
+     * Add children of directory listing to reverse index. Only children appended since the last put are indexed
+     * when caching the same listing again.
+     *
+     * @param parent   Directory
+     * @param children Directory listing
+     * @param replaced Previously cached directory listing
+     */
+    private synchronized void index(final T parent, final AttributedList<T> children, final AttributedList<T> replaced) {
+        int offset = 0;
+        if(replaced == children) {
+            offset = indexed.getOrDefault(this.reference(parent), 0);
+            if(offset > children.size()) {
+                // Modified listing
+                offset = 0;
+            }
+        }
+        else if(null != replaced) {
+            this.unindex(parent, replaced);
+        }
+        for(int i = offset; i < children.size(); i++) {
+            reverse.put(this.reference(children.get(i)), parent);
+        }
+        indexed.put(this.reference(parent), children.size());
+    }
+
+    /**
+     * Remove children of directory listing from reverse index
+     *
+     * @param parent   Directory
+     * @param children Directory listing no longer cached
+     */
+    private synchronized void unindex(final T parent, final AttributedList<T> children) {
+        if(null == parent || null == children) {
+            return;
+        }
+        for(T child : children) {
+            reverse.remove(this.reference(child), parent);
+        }
+        indexed.remove(this.reference(parent));
+    }
+
     @Override
     public long size() {
         return impl.size();
@@ -123,6 +208,9 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
         }
         final AttributedList<T> replaced = impl.get(reference);
         impl.put(reference, children);
+        if(null != reference && null != children) {
+            this.index(reference, children, replaced);
+        }
         if(null == replaced) {
             // Not previously in cache
             return AttributedList.emptyList();
@@ -169,6 +257,10 @@ public abstract class AbstractCache<T extends Referenceable> implements Cache<T>
             log.info(String.format("Clear cache %s", this));
         }
         impl.clear();
+        synchronized(this) {
+            reverse.clear();
+            indexed.clear();
+        }
     }
 
     @Override
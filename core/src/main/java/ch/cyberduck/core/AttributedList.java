@@ -18,18 +18,23 @@ package ch.cyberduck.core;
  *  dkocher@cyberduck.ch
  */
 
+import ch.cyberduck.core.collections.IndexedSnapshotList;
+import ch.cyberduck.core.unicode.NFCNormalizer;
+import ch.cyberduck.core.unicode.UnicodeNormalizer;
+
+import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 /**
- * A sortable list with a map to lookup values by key.
+ * A sortable list with a map to lookup values by key. Appends are amortized constant time and readers
+ * iterate over the snapshot published at the time they start.
  */
 public class AttributedList<E extends Referenceable> implements Iterable<E> {
     private static final Logger log = Logger.getLogger(AttributedList.class);
@@ -51,8 +56,16 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
         }
     };
 
-    private final List<E> impl
-        = new CopyOnWriteArrayList<>();
+    private static final UnicodeNormalizer normalizer = new NFCNormalizer();
+
+    /**
+     * Reference of files equal to any cache reference with the same string representation
+     */
+    private static final Function<Referenceable, Object> reference
+        = e -> e instanceof Path ? new DefaultPathPredicate((Path) e) : null;
+
+    private final IndexedSnapshotList<E> impl
+        = new IndexedSnapshotList<>(AttributedList::key);
 
     /**
      * Metadata of file listing
@@ -71,9 +84,7 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
      * @param collection Default content
      */
     public AttributedList(final Iterable<E> collection) {
-        for(E e : collection) {
-            this.add(e);
-        }
+        impl.addAll(collection);
     }
 
     @SuppressWarnings("unchecked")
@@ -99,10 +110,7 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     }
 
     public boolean addAll(final Iterable<? extends E> c) {
-        for(E file : c) {
-            this.add(file);
-        }
-        return true;
+        return impl.addAll(c);
     }
 
     public E get(final int index) {
@@ -127,15 +135,10 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
     }
 
     /**
-     * The CopyOnWriteArrayList iterator does not support remove but the sort implementation
-     * makes use of it. Provide our own implementation here to circumvent.
-     *
      * @param copy       The list copy to sort
      * @param comparator The comparator to use
-     * @see java.util.Collections#sort(java.util.List, java.util.Comparator)
-     * @see java.util.concurrent.CopyOnWriteArrayList#iterator()
      */
-    private void doSort(final List<E> copy, final Comparator<E> comparator) {
+    private void doSort(final IndexedSnapshotList<E> copy, final Comparator<E> comparator) {
         if(null == comparator) {
             return;
         }
@@ -195,18 +198,79 @@ public class AttributedList<E extends Referenceable> implements Iterable<E> {
         return impl.contains(e);
     }
 
+    /**
+     * Lookup is constant time for {@link DefaultPathPredicate}, {@link SimplePathPredicate} and
+     * {@link CaseInsensitivePathPredicate}. Other cache references are looked up in an index of file references
+     * and only fall back to a linear search when not found because attributes of the file changed after insertion.
+     *
+     * @param predicate Filter
+     * @return First element matching predicate or null
+     */
     public E find(final Predicate<E> predicate) {
-        final Optional<E> optional = impl.stream().filter(predicate).findFirst();
-        return optional.orElse(null);
+        final String path;
+        if(predicate instanceof DefaultPathPredicate) {
+            path = lower(((DefaultPathPredicate) predicate).getPath());
+        }
+        else if(predicate instanceof SimplePathPredicate) {
+            path = lower(((SimplePathPredicate) predicate).getPath());
+        }
+        else if(predicate instanceof CaseInsensitivePathPredicate) {
+            path = ((CaseInsensitivePathPredicate) predicate).getPath();
+        }
+        else if(predicate instanceof CacheReference) {
+            final E e = impl.lookup(reference, predicate);
+            if(e != null && predicate.test(e)) {
+                return e;
+            }
+            return impl.find(predicate);
+        }
+        else {
+            return impl.find(predicate);
+        }
+        return impl.probe(path, predicate);
+    }
+
+    /**
+     * Index files by absolute path that cannot change after creation. Equality of files also depends on type and
+     * attributes such as the version that may be changed after the file is added to the list.
+     *
+     * @return Normalized absolute path in lower case for files or the element itself otherwise
+     */
+    private static Object key(final Referenceable e) {
+        if(e instanceof Path) {
+            return lower(normalizer.normalize(((Path) e).getAbsolute()).toString());
+        }
+        return e;
+    }
+
+    private static String lower(final String normalized) {
+        return StringUtils.lowerCase(normalized);
+    }
+
+    /**
+     * Constant time lookup using an index built on first use for the key function
+     *
+     * @param key   Key of element or null to exclude element
+     * @param value Key to search for
+     * @return First element with matching key or null
+     */
+    public E find(final Function<? super E, ?> key, final Object value) {
+        return impl.lookup(key, value);
     }
 
     @SuppressWarnings("unchecked")
     public E[] toArray() {
-        return (E[]) impl.toArray(new Referenceable[impl.size()]);
+        final Object[] elements = impl.toArray();
+        final Referenceable[] array = new Referenceable[elements.length];
+        System.arraycopy(elements, 0, array, 0, elements.length);
+        return (E[]) array;
     }
 
+    /**
+     * @return Unmodifiable view of the current elements
+     */
     public List<E> toList() {
-        return impl;
+        return impl.toList();
     }
 
     public int indexOf(final E e) {
@@ -52,6 +52,13 @@ public final class CaseInsensitivePathPredicate implements CacheReference<Path>
         return Objects.hash(type, path);
     }
 
+    /**
+     * @return Normalized absolute path in lower case
+     */
+    String getPath() {
+        return path;
+    }
+
     @Override
     public boolean test(final Path test) {
         return this.equals(new CaseInsensitivePathPredicate(test));
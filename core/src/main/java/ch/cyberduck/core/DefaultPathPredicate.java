@@ -31,6 +31,7 @@ public class DefaultPathPredicate implements CacheReference<Path> {
     private static final UnicodeNormalizer normalizer = new NFCNormalizer();
 
     private final String reference;
+    private final String path;
 
     public DefaultPathPredicate(final Path file) {
         final Path.Type type = file.isSymbolicLink() ? Path.Type.symboliclink : file.isFile() ? Path.Type.file : Path.Type.directory;
@@ -45,7 +46,15 @@ public class DefaultPathPredicate implements CacheReference<Path> {
                 qualifier += file.attributes().getVersionId();
             }
         }
-        reference = "[" + type + "]" + "-" + qualifier + normalizer.normalize(file.getAbsolute());
+        path = normalizer.normalize(file.getAbsolute()).toString();
+        reference = "[" + type + "]" + "-" + qualifier + path;
+    }
+
+    /**
+     * @return Normalized absolute path
+     */
+    String getPath() {
+        return path;
     }
 
     /**
@@ -30,7 +30,19 @@ public abstract class IndexedListProgressListener implements ListProgressListene
 
     @Override
     public void chunk(final Path folder, final AttributedList<Path> list) throws ConnectionCanceledException {
-        int i = index;
+        this.visit(list, index);
+    }
+
+    /**
+     * Visit files added since previous chunk only
+     */
+    @Override
+    public void chunk(final Path folder, final AttributedList<Path> list, final int offset, final boolean complete) throws ConnectionCanceledException {
+        this.visit(list, offset);
+    }
+
+    private void visit(final AttributedList<Path> list, final int offset) throws ConnectionCanceledException {
+        int i = offset;
         while(i < list.size()) {
             final int before = list.size();
             this.visit(list, i, list.get(i));
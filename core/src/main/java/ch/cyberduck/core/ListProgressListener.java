@@ -20,7 +20,29 @@ package ch.cyberduck.core;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 
 public interface ListProgressListener extends ProgressListener {
+    /**
+     * Notification with cumulative directory listing
+     *
+     * @param folder Directory
+     * @param list   All files retrieved so far
+     * @throws ConnectionCanceledException Interrupt list
+     */
     void chunk(Path folder, AttributedList<Path> list) throws ConnectionCanceledException;
 
+    /**
+     * Incremental notification for list services retrieving the directory listing in pages. Only the files from
+     * index <code>offset</code> to <code>list.size()</code> have been added since the previous notification.
+     * Listeners may override to process new files only. Defaults to notification with the cumulative listing.
+     *
+     * @param folder   Directory
+     * @param list     All files retrieved so far
+     * @param offset   Index in list of first file added since previous notification
+     * @param complete True if this is the last chunk of the directory listing
+     * @throws ConnectionCanceledException Interrupt list
+     */
+    default void chunk(Path folder, AttributedList<Path> list, int offset, boolean complete) throws ConnectionCanceledException {
+        this.chunk(folder, list);
+    }
+
     ListProgressListener reset();
 }
@@ -22,6 +22,7 @@ import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.LocalAccessDeniedException;
 import ch.cyberduck.core.exception.LocalNotfoundException;
 import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.io.SharedFileChannel;
 import ch.cyberduck.core.local.DefaultLocalDirectoryFeature;
 import ch.cyberduck.core.local.TildeExpander;
 import ch.cyberduck.core.local.WorkdirPrefixer;
@@ -38,6 +39,7 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
@@ -69,6 +71,12 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
      */
     private String path;
 
+    /**
+     * Attributes read when listing parent directory. Discarded when modified through this instance or when
+     * invalidated explicitly.
+     */
+    private transient volatile LocalAttributes.Snapshot snapshot;
+
     public Local(final String parent, final String name) {
         this(parent, name, PreferencesFactory.get().getProperty("local.delimiter"));
     }
@@ -146,6 +154,10 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
      * @see Local#exists()
      */
     public boolean isDirectory() {
+        final LocalAttributes.Snapshot snapshot = this.snapshot;
+        if(snapshot != null) {
+            return snapshot.isDirectory();
+        }
         return Paths.get(path).toFile().isDirectory();
     }
 
@@ -155,6 +167,10 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
      * @see Local#exists()
      */
     public boolean isFile() {
+        final LocalAttributes.Snapshot snapshot = this.snapshot;
+        if(snapshot != null) {
+            return snapshot.isFile();
+        }
         return Paths.get(path).toFile().isFile();
     }
 
@@ -164,6 +180,10 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
      * @return true if the file is a symbolic link.
      */
     public boolean isSymbolicLink() {
+        final LocalAttributes.Snapshot snapshot = this.snapshot;
+        if(snapshot != null) {
+            return snapshot.isSymbolicLink();
+        }
         return Files.isSymbolicLink(Paths.get(path));
     }
 
@@ -197,7 +217,21 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
     }
 
     public LocalAttributes attributes() {
-        return new LocalAttributes(path);
+        return new LocalAttributes(this);
+    }
+
+    /**
+     * @return Attributes read when listing parent directory or null
+     */
+    LocalAttributes.Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Discard attributes read previously when file is modified from outside
+     */
+    public void invalidate() {
+        snapshot = null;
     }
 
     @Override
@@ -213,6 +247,7 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
      * Delete the file
      */
     public void delete() throws AccessDeniedException, NotfoundException {
+        this.invalidate();
         try {
             Files.delete(Paths.get(path));
         }
@@ -241,7 +276,14 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
             }
         })) {
             for(Path entry : stream) {
-                children.add(LocalFactory.get(entry.toString()));
+                final Local child = LocalFactory.get(entry.toString());
+                try {
+                    child.snapshot = LocalAttributes.Snapshot.read(entry);
+                }
+                catch(IOException e) {
+                    log.warn(String.format("Failure reading attributes of %s. %s", entry, e.getMessage()));
+                }
+                children.add(child);
             }
         }
         catch(IOException e) {
@@ -340,6 +382,8 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
     }
 
     public void rename(final Local renamed) throws AccessDeniedException {
+        this.invalidate();
+        renamed.invalidate();
         try {
             try {
                 Files.move(Paths.get(path), Paths.get(renamed.getAbsolute()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
@@ -446,6 +490,7 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
     }
 
     protected OutputStream getOutputStream(final String path, final boolean append) throws LocalAccessDeniedException {
+        this.invalidate();
         try {
             final Set<OpenOption> options = new HashSet<>();
             options.add(StandardOpenOption.WRITE);
@@ -466,6 +511,44 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
         }
     }
 
+    /**
+     * @param position Offset in file to write at. File is created if missing but never truncated
+     * @return Stream writing at the given position through a channel shared with other writers of this file
+     */
+    public OutputStream getOutputStream(final long position) throws AccessDeniedException {
+        return this.getOutputStream(path, position);
+    }
+
+    protected OutputStream getOutputStream(final String path, final long position) throws LocalAccessDeniedException {
+        this.invalidate();
+        try {
+            return SharedFileChannel.open(Paths.get(path), position);
+        }
+        catch(RuntimeException | IOException e) {
+            throw new LocalAccessDeniedException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Create file if missing and set its length without writing any data. Disk space is not reserved and the file is
+     * sparse on file systems supporting it.
+     *
+     * @param length Size of file
+     */
+    public void setLength(final long length) throws AccessDeniedException {
+        this.setLength(path, length);
+    }
+
+    protected void setLength(final String path, final long length) throws LocalAccessDeniedException {
+        this.invalidate();
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            file.setLength(length);
+        }
+        catch(RuntimeException | IOException e) {
+            throw new LocalAccessDeniedException(e.getMessage(), e);
+        }
+    }
+
     public Object lock(final boolean interactive) throws AccessDeniedException {
         return null;
     }
@@ -560,10 +643,18 @@ public class Local extends AbstractPath implements Referenceable, Serializable {
             }
         }
 
+        /**
+         * Move position of channel without reading
+         *
+         * @return Number of bytes skipped
+         */
         @Override
         public long skip(final long n) throws IOException {
+            if(n <= 0) {
+                return 0L;
+            }
             channel.position(channel.position() + n);
-            return channel.position();
+            return n;
         }
 
         @Override
@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
@@ -38,14 +39,41 @@ public class LocalAttributes extends Attributes {
     private static final Logger log = Logger.getLogger(LocalAttributes.class);
 
     private final String path;
+    /**
+     * File with attributes possibly read previously or null
+     */
+    private final Local local;
     private Checksum checksum = Checksum.NONE;
 
     public LocalAttributes(final String path) {
         this.path = path;
+        this.local = null;
+    }
+
+    /**
+     * @param local File with attributes read when listing its parent directory
+     */
+    public LocalAttributes(final Local local) {
+        this.path = local.getAbsolute();
+        this.local = local;
+    }
+
+    /**
+     * @return Attributes read previously or null to query file system
+     */
+    private Snapshot snapshot() {
+        if(null == local) {
+            return null;
+        }
+        return local.getSnapshot();
     }
 
     @Override
     public long getModificationDate() {
+        final Snapshot snapshot = this.snapshot();
+        if(snapshot != null) {
+            return null == snapshot.target ? -1L : snapshot.target.lastModifiedTime().toMillis();
+        }
         try {
             return Files.getLastModifiedTime(Paths.get(path)).toMillis();
         }
@@ -81,10 +109,17 @@ public class LocalAttributes extends Attributes {
         catch(IOException e) {
             throw new LocalAccessDeniedException(String.format("Cannot change timestamp of %s", path), e);
         }
+        finally {
+            this.invalidate();
+        }
     }
 
     @Override
     public long getSize() {
+        final Snapshot snapshot = this.snapshot();
+        if(snapshot != null) {
+            return null == snapshot.target ? -1L : snapshot.target.size();
+        }
         try {
             return Files.size(Paths.get(path));
         }
@@ -96,8 +131,14 @@ public class LocalAttributes extends Attributes {
 
     @Override
     public Permission getPermission() {
+        final Snapshot snapshot = this.snapshot();
+        if(snapshot != null) {
+            if(snapshot.link instanceof PosixFileAttributes) {
+                return new LocalPermission(PosixFilePermissions.toString(((PosixFileAttributes) snapshot.link).permissions()));
+            }
+            return Permission.EMPTY;
+        }
         if(FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
-            final BasicFileAttributes attributes;
             try {
                 return new LocalPermission(PosixFilePermissions.toString(Files.readAttributes(Paths.get(path), PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS).permissions()));
             }
@@ -116,6 +157,15 @@ public class LocalAttributes extends Attributes {
             catch(IllegalArgumentException | IOException e) {
                 throw new LocalAccessDeniedException(String.format("Cannot change permissions of %s", path), e);
             }
+            finally {
+                this.invalidate();
+            }
+        }
+    }
+
+    private void invalidate() {
+        if(local != null) {
+            local.invalidate();
         }
     }
 
@@ -174,6 +224,60 @@ public class LocalAttributes extends Attributes {
         }
     }
 
+    /**
+     * Attributes of file read with a single call to the file system. Attributes of the target are only read
+     * separately for symbolic links.
+     */
+    static final class Snapshot {
+        /**
+         * Attributes of file not following symbolic links
+         */
+        private final BasicFileAttributes link;
+        /**
+         * Attributes of target for symbolic link or null if target is missing
+         */
+        private final BasicFileAttributes target;
+
+        private Snapshot(final BasicFileAttributes link, final BasicFileAttributes target) {
+            this.link = link;
+            this.target = target;
+        }
+
+        /**
+         * @param file File to read attributes from
+         * @return Attributes of file
+         */
+        static Snapshot read(final Path file) throws IOException {
+            final Class<? extends BasicFileAttributes> provider = FileSystems.getDefault().supportedFileAttributeViews().contains("posix") ?
+                PosixFileAttributes.class : BasicFileAttributes.class;
+            final BasicFileAttributes link = Files.readAttributes(file, provider, LinkOption.NOFOLLOW_LINKS);
+            if(link.isSymbolicLink()) {
+                BasicFileAttributes target;
+                try {
+                    target = Files.readAttributes(file, BasicFileAttributes.class);
+                }
+                catch(IOException e) {
+                    log.warn(String.format("Failure reading attributes of target for %s. %s", file, e.getMessage()));
+                    target = null;
+                }
+                return new Snapshot(link, target);
+            }
+            return new Snapshot(link, link);
+        }
+
+        boolean isDirectory() {
+            return target != null && target.isDirectory();
+        }
+
+        boolean isFile() {
+            return target != null && target.isRegularFile();
+        }
+
+        boolean isSymbolicLink() {
+            return link.isSymbolicLink();
+        }
+    }
+
     @Override
     public boolean equals(final Object o) {
         if(this == o) {
@@ -39,6 +39,13 @@ public class ProxyListProgressListener implements ListProgressListener {
         }
     }
 
+    @Override
+    public void chunk(final Path folder, final AttributedList<Path> list, final int offset, final boolean complete) throws ConnectionCanceledException {
+        for(ListProgressListener listener : proxy) {
+            listener.chunk(folder, list, offset, complete);
+        }
+    }
+
     @Override
     public ListProgressListener reset() {
         return this;
@@ -54,6 +54,13 @@ public class SimplePathPredicate implements CacheReference<Path> {
         return Objects.hash(type, path);
     }
 
+    /**
+     * @return Normalized absolute path
+     */
+    String getPath() {
+        return path;
+    }
+
     @Override
     public boolean test(final Path test) {
         return this.equals(new SimplePathPredicate(test));
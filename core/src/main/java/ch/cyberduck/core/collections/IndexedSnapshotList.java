@@ -0,0 +1,582 @@
+package ch.cyberduck.core.collections;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Array backed list with amortized constant time appends and lazily built hash indexes from element to position.
+ * <p>
+ * Mutations are serialized and published as an immutable snapshot of the backing array and its size. Readers
+ * obtain the snapshot through a volatile read and never lock once the index they query is built. Appends only write
+ * past the size of any published snapshot and therefore never disturb concurrent readers. All other modifications
+ * copy the backing array before publishing a new snapshot.
+ * <p>
+ * Snapshots derived from each other by appends only share their indexes. Indexes are updated incrementally on
+ * append and readers ignore positions beyond the size of their snapshot. Any other modification starts with empty
+ * indexes.
+ * <p>
+ * The primary index is keyed by a key derived from fields of the element that cannot change after insertion.
+ * Elements sharing a key are compared using {@link Object#equals(Object)} or the predicate of the lookup with their
+ * current state.
+ *
+ * @param <E> Element type
+ */
+public class IndexedSnapshotList<E> implements Iterable<E> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private final Object lock = new Object();
+
+    /**
+     * Key derived from fields of element that cannot change after insertion
+     */
+    private final Function<? super E, ?> stable;
+
+    private volatile Snapshot snapshot = new Snapshot(new Generation(EMPTY, 0), EMPTY, 0);
+
+    /**
+     * Index elements by themselves. Elements must not change their hash code after insertion.
+     */
+    public IndexedSnapshotList() {
+        this(Function.identity());
+    }
+
+    public IndexedSnapshotList(final Iterable<? extends E> collection) {
+        this(Function.identity(), collection);
+    }
+
+    /**
+     * @param stable Key derived from fields of element that cannot change after insertion
+     */
+    public IndexedSnapshotList(final Function<? super E, ?> stable) {
+        this.stable = stable;
+    }
+
+    public IndexedSnapshotList(final Function<? super E, ?> stable, final Iterable<? extends E> collection) {
+        this.stable = stable;
+        this.addAll(collection);
+    }
+
+    public boolean add(final E e) {
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            final Object[] elements = this.ensureCapacity(current, current.size + 1);
+            elements[current.size] = e;
+            current.generation.append(e, current.size);
+            this.append(current.generation, elements, current.size + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Append all elements and publish them at once
+     *
+     * @param c Elements to append
+     */
+    public boolean addAll(final Iterable<? extends E> c) {
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            Object[] elements = current.elements;
+            int size = current.size;
+            if(c instanceof Collection) {
+                elements = this.ensureCapacity(current, size + ((Collection<?>) c).size());
+            }
+            for(E e : c) {
+                if(size == elements.length) {
+                    elements = Arrays.copyOf(elements, grow(elements.length, size + 1));
+                }
+                elements[size] = e;
+                current.generation.append(e, size);
+                size++;
+            }
+            this.append(current.generation, elements, size);
+        }
+        return true;
+    }
+
+    public void add(final int position, final E e) {
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            if(position < 0 || position > current.size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d for size %d", position, current.size));
+            }
+            final Object[] elements = new Object[grow(current.size, current.size + 1)];
+            System.arraycopy(current.elements, 0, elements, 0, position);
+            elements[position] = e;
+            System.arraycopy(current.elements, position, elements, position + 1, current.size - position);
+            this.publish(elements, current.size + 1);
+        }
+    }
+
+    public E set(final int position, final E e) {
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            final E previous = current.get(position);
+            final Object[] elements = Arrays.copyOf(current.elements, current.elements.length);
+            elements[position] = e;
+            this.publish(elements, current.size);
+            return previous;
+        }
+    }
+
+    public E remove(final int position) {
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            final E previous = current.get(position);
+            final Object[] elements = new Object[current.elements.length];
+            System.arraycopy(current.elements, 0, elements, 0, position);
+            System.arraycopy(current.elements, position + 1, elements, position, current.size - position - 1);
+            this.publish(elements, current.size - 1);
+            return previous;
+        }
+    }
+
+    public boolean remove(final Object o) {
+        synchronized(lock) {
+            final int position = this.indexOf(o);
+            if(-1 == position) {
+                return false;
+            }
+            this.remove(position);
+            return true;
+        }
+    }
+
+    /**
+     * @param filter Elements to remove
+     * @return True if any element was removed
+     */
+    public boolean removeIf(final Predicate<? super E> filter) {
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            final Object[] elements = new Object[current.elements.length];
+            int size = 0;
+            for(int i = 0; i < current.size; i++) {
+                @SuppressWarnings("unchecked") final E e = (E) current.elements[i];
+                if(!filter.test(e)) {
+                    elements[size++] = e;
+                }
+            }
+            if(size == current.size) {
+                return false;
+            }
+            this.publish(elements, size);
+            return true;
+        }
+    }
+
+    public boolean removeAll(final Collection<?> c) {
+        return this.removeIf(c::contains);
+    }
+
+    /**
+     * Sort a copy of the elements and publish the result
+     *
+     * @param comparator Sort order
+     */
+    @SuppressWarnings("unchecked")
+    public void sort(final Comparator<? super E> comparator) {
+        synchronized(lock) {
+            final Snapshot current = snapshot;
+            final Object[] elements = Arrays.copyOf(current.elements, current.size);
+            Arrays.sort(elements, 0, current.size, (Comparator<Object>) comparator);
+            this.publish(elements, current.size);
+        }
+    }
+
+    public void clear() {
+        synchronized(lock) {
+            this.publish(EMPTY, 0);
+        }
+    }
+
+    public E get(final int position) {
+        return snapshot.get(position);
+    }
+
+    /**
+     * @param o Element to search for
+     * @return Position of first occurrence or -1 if not found
+     */
+    @SuppressWarnings("unchecked")
+    public int indexOf(final Object o) {
+        final Snapshot current = snapshot;
+        if(null == o) {
+            for(int i = 0; i < current.size; i++) {
+                if(null == current.elements[i]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final Object key = stable.apply((E) o);
+        if(null == key) {
+            return -1;
+        }
+        final Object bucket = this.index(current).get(key);
+        if(bucket instanceof Integer) {
+            final int position = (Integer) bucket;
+            return position < current.size && o.equals(current.elements[position]) ? position : -1;
+        }
+        if(bucket instanceof int[]) {
+            for(int position : (int[]) bucket) {
+                if(position >= current.size) {
+                    break;
+                }
+                if(o.equals(current.elements[position])) {
+                    return position;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(final Object o) {
+        return this.indexOf(o) != -1;
+    }
+
+    /**
+     * Lookup element among the elements with the given stable key. The predicate must not accept any element with a
+     * different stable key.
+     *
+     * @param key       Stable key of elements accepted by predicate
+     * @param predicate Filter
+     * @return First element in list order with key matching predicate or null
+     */
+    public E probe(final Object key, final Predicate<? super E> predicate) {
+        if(null == key) {
+            return null;
+        }
+        final Snapshot current = snapshot;
+        final Object bucket = this.index(current).get(key);
+        if(bucket instanceof Integer) {
+            final int position = (Integer) bucket;
+            if(position < current.size) {
+                final E e = current.get(position);
+                return predicate.test(e) ? e : null;
+            }
+        }
+        if(bucket instanceof int[]) {
+            for(int position : (int[]) bucket) {
+                if(position >= current.size) {
+                    break;
+                }
+                final E e = current.get(position);
+                if(predicate.test(e)) {
+                    return e;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lookup element by a key derived from each element. An index is kept for each key function used. Pass the same
+     * function instance on every call to reuse its index.
+     *
+     * @param key   Key of element or null to exclude element from index
+     * @param value Key to search for
+     * @return First element in list order with matching key or null if not found
+     */
+    public E lookup(final Function<? super E, ?> key, final Object value) {
+        if(null == value) {
+            return null;
+        }
+        final Snapshot current = snapshot;
+        Map<Object, Integer> keys = current.generation.keys.get(key);
+        if(null == keys) {
+            synchronized(lock) {
+                keys = current.generation.keys.get(key);
+                if(null == keys) {
+                    keys = current.generation.keys(key);
+                }
+            }
+        }
+        final Integer position = keys.get(value);
+        if(null == position || position >= current.size) {
+            return null;
+        }
+        return current.get(position);
+    }
+
+    /**
+     * @param predicate Filter
+     * @return First element in list order matching predicate
+     */
+    public E find(final Predicate<E> predicate) {
+        final Snapshot current = snapshot;
+        for(int i = 0; i < current.size; i++) {
+            final E e = current.get(i);
+            if(predicate.test(e)) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return snapshot.size;
+    }
+
+    public boolean isEmpty() {
+        return snapshot.size == 0;
+    }
+
+    /**
+     * @return Iterator over the elements published at the time of the call
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final Snapshot current = snapshot;
+        return new Iterator<E>() {
+            private int cursor = 0;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < current.size;
+            }
+
+            @Override
+            public E next() {
+                if(cursor >= current.size) {
+                    throw new NoSuchElementException();
+                }
+                return current.get(cursor++);
+            }
+        };
+    }
+
+    /**
+     * @return Unmodifiable view of the elements published at the time of the call
+     */
+    public List<E> toList() {
+        return new SnapshotView(snapshot);
+    }
+
+    public Object[] toArray() {
+        final Snapshot current = snapshot;
+        return Arrays.copyOf(current.elements, current.size);
+    }
+
+    private Object[] ensureCapacity(final Snapshot current, final int minimum) {
+        if(minimum <= current.elements.length) {
+            return current.elements;
+        }
+        return Arrays.copyOf(current.elements, grow(current.elements.length, minimum));
+    }
+
+    private static int grow(final int capacity, final int minimum) {
+        return Math.max(Math.max(DEFAULT_CAPACITY, capacity + (capacity >> 1)), minimum);
+    }
+
+    private static int capacity(final int size) {
+        return Math.max(DEFAULT_CAPACITY, (int) (size / .75f) + 1);
+    }
+
+    /**
+     * Publish appended elements sharing the indexes of the previous snapshot
+     */
+    private void append(final Generation generation, final Object[] elements, final int size) {
+        generation.elements = elements;
+        generation.size = size;
+        snapshot = new Snapshot(generation, elements, size);
+    }
+
+    /**
+     * Publish elements with empty indexes
+     */
+    private void publish(final Object[] elements, final int size) {
+        snapshot = new Snapshot(new Generation(elements, size), elements, size);
+    }
+
+    /**
+     * @return Primary index of generation of snapshot built on first use
+     */
+    private Map<Object, Object> index(final Snapshot current) {
+        final Generation generation = current.generation;
+        Map<Object, Object> index = generation.index;
+        if(null == index) {
+            synchronized(lock) {
+                index = generation.index;
+                if(null == index) {
+                    index = generation.index();
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Indexes shared by snapshots derived from each other by appends only. Fields are only modified holding the lock
+     * of the list. The indexes may contain positions beyond the size of the snapshot of a reader.
+     */
+    private final class Generation {
+        /**
+         * Latest elements of this generation used to build indexes
+         */
+        private Object[] elements;
+        private int size;
+
+        /**
+         * Positions of elements in ascending order for each stable key. Value is either a single position or an
+         * array of positions. Built on first use.
+         */
+        private volatile Map<Object, Object> index;
+
+        /**
+         * Position of first element for each key derived from elements by key function
+         */
+        private final Map<Function<? super E, ?>, Map<Object, Integer>> keys = new ConcurrentHashMap<>();
+
+        private Generation(final Object[] elements, final int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map<Object, Object> index() {
+            final Map<Object, Object> index = new ConcurrentHashMap<>(capacity(size));
+            for(int i = 0; i < size; i++) {
+                this.index(index, (E) elements[i], i);
+            }
+            this.index = index;
+            return index;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map<Object, Integer> keys(final Function<? super E, ?> key) {
+            final Map<Object, Integer> keys = new ConcurrentHashMap<>(capacity(size));
+            for(int i = 0; i < size; i++) {
+                this.key(keys, key, (E) elements[i], i);
+            }
+            this.keys.put(key, keys);
+            return keys;
+        }
+
+        /**
+         * Add element at position to all indexes already built
+         */
+        private void append(final E e, final int position) {
+            if(index != null) {
+                this.index(index, e, position);
+            }
+            for(Map.Entry<Function<? super E, ?>, Map<Object, Integer>> entry : keys.entrySet()) {
+                this.key(entry.getValue(), entry.getKey(), e, position);
+            }
+        }
+
+        /**
+         * Add position to bucket of element. Positions are added in ascending order.
+         */
+        private void index(final Map<Object, Object> index, final E e, final int position) {
+            if(null == e) {
+                return;
+            }
+            final Object key = stable.apply(e);
+            if(null == key) {
+                return;
+            }
+            index.merge(key, position, (previous, value) -> {
+                if(previous instanceof Integer) {
+                    return new int[]{(Integer) previous, position};
+                }
+                final int[] positions = (int[]) previous;
+                final int[] merged = Arrays.copyOf(positions, positions.length + 1);
+                merged[positions.length] = position;
+                return merged;
+            });
+        }
+
+        private void key(final Map<Object, Integer> keys, final Function<? super E, ?> function, final E e, final int position) {
+            if(null == e) {
+                return;
+            }
+            final Object key = function.apply(e);
+            if(key != null) {
+                keys.putIfAbsent(key, position);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if(this == o) {
+            return true;
+        }
+        if(o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final IndexedSnapshotList<?> that = (IndexedSnapshotList<?>) o;
+        return this.toList().equals(that.toList());
+    }
+
+    @Override
+    public int hashCode() {
+        return this.toList().hashCode();
+    }
+
+    private final class Snapshot {
+        private final Generation generation;
+        private final Object[] elements;
+        private final int size;
+
+        private Snapshot(final Generation generation, final Object[] elements, final int size) {
+            this.generation = generation;
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        private E get(final int position) {
+            if(position < 0 || position >= size) {
+                throw new IndexOutOfBoundsException(String.format("Index %d for size %d", position, size));
+            }
+            return (E) elements[position];
+        }
+    }
+
+    private final class SnapshotView extends AbstractList<E> implements RandomAccess {
+        private final Snapshot snapshot;
+
+        private SnapshotView(final Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public E get(final int index) {
+            return snapshot.get(index);
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ch.cyberduck.core.features;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+
+/**
+ * List all keys with a common prefix in a single paged listing without delimiter
+ */
+public interface FlatListing {
+
+    /**
+     * @param directory Directory
+     * @param listener  Notification for each page. Files in the listing are not limited to direct children of the directory
+     * @return Files and directory placeholders at any depth below the directory. Intermediate directories without
+     * placeholder object are not included.
+     * @throws ch.cyberduck.core.exception.UnsupportedException When listing the directory tree this way would not
+     *                                                          return the same files as listing each directory
+     */
+    AttributedList<Path> list(Path directory, ListProgressListener listener) throws BackgroundException;
+}
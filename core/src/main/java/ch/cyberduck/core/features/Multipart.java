@@ -0,0 +1,76 @@
+package ch.cyberduck.core.features;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+/**
+ * Upload file in parts written concurrently on separate connections and combined when all parts are written
+ */
+public interface Multipart {
+
+    /**
+     * @param file   File
+     * @param status Transfer status with length of file
+     * @return Identifier of pending upload
+     */
+    String start(Path file, TransferStatus status) throws BackgroundException;
+
+    /**
+     * @param file     File
+     * @param upload   Identifier of pending upload
+     * @param status   Transfer status with part number and length of part
+     * @param callback Prompt
+     * @return Stream to write content of part
+     */
+    StatusOutputStream<?> write(Path file, String upload, TransferStatus status, ConnectionCallback callback) throws BackgroundException;
+
+    /**
+     * Combine all parts written in order of their part number
+     *
+     * @param file   File
+     * @param upload Identifier of pending upload
+     * @param status Transfer status with parts as segments
+     */
+    void complete(Path file, String upload, TransferStatus status) throws BackgroundException;
+
+    /**
+     * Discard pending upload and all parts written
+     *
+     * @param file   File
+     * @param upload Identifier of pending upload
+     */
+    void abort(Path file, String upload) throws BackgroundException;
+
+    /**
+     * @param length    Size of file
+     * @param preferred Preferred size of part
+     * @return Size of all but the last part within the limits for part size and number of parts
+     */
+    long partsize(long length, long preferred);
+
+    /**
+     * @param file File
+     * @return False if not supported for given file
+     */
+    default boolean isSupported(Path file) {
+        return true;
+    }
+}
@@ -2,17 +2,19 @@ package ch.cyberduck.core.io;
 
 import org.apache.log4j.Logger;
 
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.util.concurrent.Uninterruptibles;
 
 /**
- * Limits throughput of a stream to at most N bytes per T seconds.  Mutable and thread-safe.<p>
+ * Limits throughput of one or more streams to at most N bytes per second.  Mutable and thread-safe without locking.<p>
  * <p/>
  * In the following example, <tt>throttle</tt> is used to send the contents of
- * <tt>buf</tt> to <tt>out</tt> at no more than <tt>N/T</tt> bytes per second:
+ * <tt>buf</tt> to <tt>out</tt> at no more than <tt>N</tt> bytes per second:
  * <pre>
- *      BandwidthThrottle throttle=new BandwidthThrottle(N, T);
+ *      BandwidthThrottle throttle=new BandwidthThrottle(N);
  *      OutputStream out=...;
  *      byte[] buf=...;
  *      for (int i=0; i<buf.length; ) {
@@ -22,16 +24,14 @@ import com.google.common.util.concurrent.Uninterruptibles;
  *      }
  * </pre>
  * <p/>
- * This class works by allowing exactly N bytes to be sent every T seconds.  If the number of bytes for a given window
- * have been exceeded, subsequent calls to request(..) will block.  The default value of T is 100 milliseconds. Smaller
- * window values T allow fairer bandwidth sharing and less noticeable pauses but may decrease efficiency slightly.<p>
+ * Implemented as a token bucket using virtual scheduling. Every request reserves a time slot proportional to the
+ * number of bytes granted by advancing the theoretical arrival time with a compare and set. The caller is parked until
+ * its slot starts. Concurrent callers therefore obtain consecutive slots and wake one after another instead of all at
+ * the start of the next window. The number of bytes granted with a single request is limited to the amount allowed
+ * in 1/10 second to share the bandwidth fairly between streams.<p>
  * <p/>
- * Note that throttles are <i>not</i> cumulative.  In the future, this may allow enable fancier control.  Also,
- * BandwidthThrottle may be able delegate to other throttles.  This would allow, for example, a 15 KB/s Gnutella
- * messaging throttle, with no more than 10 KB/s devoted to uploads.<p>
- * <p/>
- * This implementation is based on the <a href="http://cvs.sourceforge.net/cgi-bin/viewcvs.cgi/freenet/freenet/src/freenet/support/io/Bandwidth.java">Bandwidth</a>
- * class from the Freenet project.  It has been simplified and better documented.<p>
+ * Throttles can be nested with a parent throttle that must also grant every request such as to limit the total
+ * bandwidth of all transfers to a host or of all transfers of the application.<p>
  */
 public final class BandwidthThrottle {
     private static final Logger log = Logger.getLogger(BandwidthThrottle.class);
@@ -40,72 +40,57 @@ public final class BandwidthThrottle {
      * The number of windows per second.
      */
     private static final int TICKS_PER_SECOND = 10;
+
     /**
-     * The value of T, in milliseconds.
+     * Burst allowed after idle period in nanoseconds
      */
-    private static final int MILLIS_PER_TICK = 1000 / TICKS_PER_SECOND;
+    private static final long BURST = TimeUnit.SECONDS.toNanos(1L) / TICKS_PER_SECOND;
 
     /**
-     * The bytes to send per tick.  Modified by setThrottle.
+     * No throttling
      */
-    private volatile int bytesPerTick;
+    public static final int UNLIMITED = -1;
 
     /**
-     * Whether or not we're only allowing bandwidth to be used every other second.
+     * Bytes per second allowed
      */
-    private volatile boolean switching = false;
+    private volatile float rate = UNLIMITED;
 
     /**
-     * The number of bytes remaining in this window.
+     * Theoretical arrival time in nanoseconds when the reserved bandwidth has been used
      */
-    private int availableBytes;
+    private final AtomicLong tat = new AtomicLong(System.nanoTime());
+
     /**
-     * The system time when the window is reset so more bytes can be sent.
+     * Must grant all requests additionally
      */
-    private long nextTickTime;
+    private volatile BandwidthThrottle parent;
 
     /**
-     * Creates a new bandwidth throttle at the given throttle rate. The default windows size T is used.  The bytes per
-     * windows N is calculated from bytesPerSecond.
+     * Creates a new bandwidth throttle at the given throttle rate.
      *
      * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
      */
-    public BandwidthThrottle(float bytesPerSecond) {
+    public BandwidthThrottle(final float bytesPerSecond) {
         this.setRate(bytesPerSecond);
     }
 
     /**
-     * Creates a new bandwidth throttle at the given throttle rate, only allowing bandwidth to be used every other
-     * second if switching is true. The default windows size T is used.  The bytes per windows N is calculated from
-     * bytesPerSecond.
-     *
+     * @param parent         Throttle shared with other streams limiting the total bandwidth
      * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
-     * @param switching      true if we should only allow bandwidth to be used every other second.
      */
-    public BandwidthThrottle(float bytesPerSecond, boolean switching) {
+    public BandwidthThrottle(final BandwidthThrottle parent, final float bytesPerSecond) {
         this.setRate(bytesPerSecond);
-        this.setSwitching(switching);
-
+        this.parent = parent;
     }
 
     /**
-     * No throttling
-     */
-    public static final int UNLIMITED = -1;
-
-    /**
-     * Bytes per second allowed
-     */
-    private float rate = UNLIMITED;
-
-    /**
-     * Sets the throttle to the given throttle rate.  The default windows size T is used.  The bytes per windows N is
-     * calculated from bytesPerSecond.
+     * Sets the throttle to the given throttle rate.
      *
      * @param bytesPerSecond the limits in bytes (not bits!) per second (not milliseconds!)
      */
-    public void setRate(float bytesPerSecond) {
-        if(bytesPerSecond < 0) {
+    public void setRate(final float bytesPerSecond) {
+        if(bytesPerSecond <= 0) {
             rate = UNLIMITED;
         }
         else {
@@ -113,10 +98,6 @@ public final class BandwidthThrottle {
                 log.debug(String.format("Set rate to %s bytes per second", bytesPerSecond));
             }
             rate = bytesPerSecond;
-            bytesPerTick = (int) (bytesPerSecond / TICKS_PER_SECOND);
-        }
-        if(switching) {
-            this.fixBytesPerTick(true);
         }
     }
 
@@ -127,87 +108,117 @@ public final class BandwidthThrottle {
         return rate;
     }
 
+    public BandwidthThrottle getParent() {
+        return parent;
+    }
+
     /**
-     * Sets whether or not this throttle is switching bandwidth on/off.
+     * @param parent Throttle that must grant all requests additionally
      */
-    public void setSwitching(boolean switching) {
-        log.debug("setSwitching:" + switching);
-        if(this.switching != switching) {
-            fixBytesPerTick(switching);
+    public BandwidthThrottle withParent(final BandwidthThrottle parent) {
+        for(BandwidthThrottle t = parent; t != null; t = t.parent) {
+            if(t == this) {
+                throw new IllegalArgumentException(String.format("Cycle in throttle hierarchy with %s", parent));
+            }
         }
-        this.switching = switching;
+        this.parent = parent;
+        return this;
     }
 
     /**
-     * Modifies bytesPerTick to either be double or half of what it was. This is necessary because of the 'switching',
-     * which can effectively reduce or raise the amount of data transferred.
+     * Blocks until the caller can send at least one byte without violating bandwidth constraints of this throttle
+     * and all parent throttles.  Records the number of byte sent.
+     *
+     * @param desired the number of bytes the caller would like to send
+     * @return the number of bytes the sender is expected to send, which is always greater than one and less than or
+     * equal to desired
      */
-    private void fixBytesPerTick(boolean raise) {
-        int newBytesPerTick = bytesPerTick;
-        if(raise) {
-            newBytesPerTick *= 2;
+    public int request(final int desired) {
+        int granted = desired;
+        for(BandwidthThrottle t = this; t != null; t = t.parent) {
+            granted = Math.min(granted, t.quantum());
         }
-        else {
-            newBytesPerTick /= 2;
+        long wakeup = Long.MIN_VALUE;
+        boolean limited = false;
+        for(BandwidthThrottle t = this; t != null; t = t.parent) {
+            final float current = t.rate;
+            if(UNLIMITED == current) {
+                continue;
+            }
+            wakeup = limited ? later(wakeup, t.reserve(current, granted)) : t.reserve(current, granted);
+            limited = true;
         }
-        if(newBytesPerTick < 0) // overflowed?
-        {
-            newBytesPerTick = Integer.MAX_VALUE;
+        if(limited) {
+            this.await(wakeup);
         }
-        bytesPerTick = newBytesPerTick;
+        return granted;
     }
 
     /**
-     * Blocks until the caller can send at least one byte without violating bandwidth constraints.  Records the number
-     * of byte sent.
+     * Return bandwidth reserved but not used after a call to {@link #request(int)}
      *
-     * @param desired the number of bytes the caller would like to send
-     * @return the number of bytes the sender is expected to send, which is always greater than one and less than or
-     * equal to desired
+     * @param unused Number of bytes granted but not transferred
      */
-    public synchronized int request(int desired) {
-        if(UNLIMITED == rate) {
-            return desired;
+    public void release(final int unused) {
+        if(unused <= 0) {
+            return;
         }
-        waitForBandwidth();
-        int result = Math.min(desired, availableBytes);
-        availableBytes -= result;
-        return result;
+        for(BandwidthThrottle t = this; t != null; t = t.parent) {
+            final float current = t.rate;
+            if(UNLIMITED == current) {
+                continue;
+            }
+            t.tat.addAndGet(-cost(current, unused));
+        }
+    }
+
+    /**
+     * @return Maximum number of bytes granted with a single request
+     */
+    private int quantum() {
+        final float current = rate;
+        if(UNLIMITED == current) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, (long) (current / TICKS_PER_SECOND)));
     }
 
     /**
-     * Waits until data is _availableBytes.
+     * @return Time in nanoseconds when the caller may start to transfer
      */
-    private void waitForBandwidth() {
+    private long reserve(final float current, final int bytes) {
+        final long cost = cost(current, bytes);
         while(true) {
-            long now = System.currentTimeMillis();
-            updateWindow(now);
-            if(availableBytes != 0) {
-                break;
-            }
-            if(log.isInfoEnabled()) {
-                log.info(String.format("Throttling bandwidth for %d milliseconds", nextTickTime - now));
+            final long now = System.nanoTime();
+            final long previous = tat.get();
+            // Do not accumulate more than the burst allowed when idle
+            final long start = later(previous, now - BURST);
+            if(tat.compareAndSet(previous, start + cost)) {
+                return start;
             }
-            Uninterruptibles.sleepUninterruptibly(nextTickTime - now, TimeUnit.MILLISECONDS);
         }
     }
 
+    private static long cost(final float current, final int bytes) {
+        return (long) (bytes * (TimeUnit.SECONDS.toNanos(1L) / (double) current));
+    }
+
     /**
-     * Updates _availableBytes and _nextTickTime if possible.
+     * Compare values of {@link System#nanoTime()} allowing numerical overflow
      */
-    private void updateWindow(long now) {
-        if(now >= nextTickTime) {
-            if(!switching || ((now / 1000) % 2) == 0) {
-                availableBytes = bytesPerTick;
-                nextTickTime = now + MILLIS_PER_TICK;
-            }
-            else {
-                availableBytes = 0;
-                // the next tick time is the time we'll hit
-                // the next second.
-                long diff = 1000 - (now % 1000);
-                nextTickTime = now + diff;
+    private static long later(final long a, final long b) {
+        return a - b > 0 ? a : b;
+    }
+
+    private void await(final long wakeup) {
+        long delay;
+        boolean logged = false;
+        while((delay = wakeup - System.nanoTime()) > 0) {
+            if(!logged && log.isDebugEnabled()) {
+                log.debug(String.format("Throttling bandwidth for %d milliseconds", TimeUnit.NANOSECONDS.toMillis(delay)));
+                logged = true;
             }
+            Uninterruptibles.sleepUninterruptibly(delay, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -223,11 +234,13 @@ public final class BandwidthThrottle {
         if(Float.compare(that.rate, rate) != 0) {
             return false;
         }
-        return true;
+        return Objects.equals(parent, that.parent);
     }
 
     @Override
     public int hashCode() {
-        return (rate != +0.0f ? Float.floatToIntBits(rate) : 0);
+        int result = (rate != +0.0f ? Float.floatToIntBits(rate) : 0);
+        result = 31 * result + Objects.hashCode(parent);
+        return result;
     }
 }
@@ -0,0 +1,320 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.CountingMetrics;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.Metrics;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent cache of checksums computed for local files. Entries are keyed by device and inode as reported by the
+ * file system, or the path if not available, and the checksum implementation. They are only valid for the size and
+ * modification date recorded when computed. Entries are appended to a journal on disk with a CRC of each record to
+ * discard records truncated or corrupted when interrupted. The journal is compacted when loaded dropping superseded
+ * records and records of files no longer found or modified since.
+ */
+public class LocalChecksumCache {
+    private static final Logger log = Logger.getLogger(LocalChecksumCache.class);
+
+    public enum Counter {
+        hit,
+        miss
+    }
+
+    private static final LocalChecksumCache instance = new LocalChecksumCache(
+        LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Checksums.journal"),
+        PreferencesFactory.get().getBoolean("local.checksum.cache"));
+
+    public static LocalChecksumCache get() {
+        return instance;
+    }
+
+    private final Path journal;
+    private final boolean enabled;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Metrics metrics = new CountingMetrics();
+
+    private Writer writer;
+    private boolean loaded;
+
+    public LocalChecksumCache(final Local journal) {
+        this(journal, true);
+    }
+
+    public LocalChecksumCache(final Local journal, final boolean enabled) {
+        this.journal = Paths.get(journal.getAbsolute());
+        this.enabled = enabled;
+    }
+
+    /**
+     * Compute checksum of complete file or return previous result if file is unchanged
+     *
+     * @param file    Local file
+     * @param compute Checksum implementation
+     * @param status  Transfer status. Cache is bypassed if not covering the whole file
+     * @return Checksum of file
+     */
+    public Checksum compute(final Local file, final ChecksumCompute compute, final TransferStatus status) throws BackgroundException {
+        if(!enabled || status.getOffset() > 0) {
+            return compute.compute(file.getInputStream(), status);
+        }
+        final Path path = Paths.get(file.getAbsolute());
+        final BasicFileAttributes before = this.attributes(path);
+        if(null == before || (status.getLength() > 0 && status.getLength() != before.size())) {
+            return compute.compute(file.getInputStream(), status);
+        }
+        final String key = this.key(path, before, compute);
+        if(null == key) {
+            return compute.compute(file.getInputStream(), status);
+        }
+        this.load();
+        final long modified = before.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        final Entry cached = entries.get(key);
+        if(cached != null && cached.size == before.size() && cached.modified == modified) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Use cached checksum %s for %s", cached.checksum, file));
+            }
+            metrics.increment(Counter.hit);
+            return cached.checksum;
+        }
+        metrics.increment(Counter.miss);
+        final Checksum checksum = compute.compute(file.getInputStream(), status);
+        if(Checksum.NONE == checksum) {
+            return checksum;
+        }
+        final BasicFileAttributes after = this.attributes(path);
+        if(null == after || after.size() != before.size()
+            || after.lastModifiedTime().to(TimeUnit.NANOSECONDS) != modified) {
+            log.warn(String.format("Skip caching checksum for %s modified while reading", file));
+            return checksum;
+        }
+        final Entry entry = new Entry(path.toAbsolutePath().toString(), before.size(), modified, checksum);
+        entries.put(key, entry);
+        this.append(key, entry);
+        return checksum;
+    }
+
+    /**
+     * @return Number of lookups by counter
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void clear() {
+        synchronized(entries) {
+            IOUtils.closeQuietly(writer);
+            writer = null;
+            entries.clear();
+            try {
+                Files.deleteIfExists(journal);
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure %s deleting checksum cache %s", e, journal));
+            }
+            loaded = true;
+        }
+    }
+
+    private BasicFileAttributes attributes(final Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure %s reading attributes of %s", e, path));
+            return null;
+        }
+    }
+
+    /**
+     * @return Null if file cannot be identified or checksum may depend on transfer status
+     */
+    private String key(final Path path, final BasicFileAttributes attributes, final ChecksumCompute compute) {
+        if(compute.getClass().getPackage() != ChecksumCompute.class.getPackage()) {
+            // Only cache plain digests of content. Checksum of encrypted content differs for every upload
+            return null;
+        }
+        final Object inode = attributes.fileKey();
+        final String key = String.format("%s %s", null == inode ? path.toAbsolutePath() : inode, compute.getClass().getName());
+        if(StringUtils.containsAny(String.format("%s%s", key, path.toAbsolutePath()), '\t', '\n', '\r')) {
+            return null;
+        }
+        return key;
+    }
+
+    private void load() {
+        synchronized(entries) {
+            if(loaded) {
+                return;
+            }
+            loaded = true;
+            int records = 0;
+            try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+                String line;
+                while((line = reader.readLine()) != null) {
+                    records++;
+                    final int separator = line.lastIndexOf('\t');
+                    if(-1 == separator || !StringUtils.equals(crc(line.substring(0, separator)), line.substring(separator + 1))) {
+                        log.warn(String.format("Skip invalid record in checksum cache %s", journal));
+                        continue;
+                    }
+                    final String[] fields = StringUtils.splitPreserveAllTokens(line.substring(0, separator), '\t');
+                    if(fields.length != 6) {
+                        continue;
+                    }
+                    try {
+                        entries.put(fields[0], new Entry(fields[1], Long.parseLong(fields[2]), Long.parseLong(fields[3]),
+                            new Checksum(HashAlgorithm.valueOf(fields[4]), fields[5])));
+                    }
+                    catch(IllegalArgumentException e) {
+                        log.warn(String.format("Skip invalid record in checksum cache %s. %s", journal, e.getMessage()));
+                    }
+                }
+            }
+            catch(NoSuchFileException e) {
+                return;
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure %s reading checksum cache %s", e, journal));
+            }
+            // Drop entries of files deleted or modified since
+            entries.entrySet().removeIf(entry -> !this.isValid(entry.getKey(), entry.getValue()));
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Loaded %d checksums from %d records in %s", entries.size(), records, journal));
+            }
+            if(records > entries.size()) {
+                this.compact();
+            }
+        }
+    }
+
+    /**
+     * @return False if file is not found or no longer matches size and modification date recorded
+     */
+    private boolean isValid(final String key, final Entry entry) {
+        final Path path = Paths.get(entry.path);
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            final Object inode = attributes.fileKey();
+            // Not replaced by another file at the same path
+            return key.startsWith(String.format("%s ", null == inode ? path.toAbsolutePath() : inode))
+                && attributes.size() == entry.size
+                && attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS) == entry.modified;
+        }
+        catch(IOException | InvalidPathException e) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Drop checksum of %s not found. %s", entry.path, e));
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Rewrite journal with current entries only and replace atomically
+     */
+    private void compact() {
+        final Path temporary = journal.resolveSibling(String.format("%s.tmp", journal.getFileName()));
+        try (BufferedWriter out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for(Map.Entry<String, Entry> entry : entries.entrySet()) {
+                out.write(record(entry.getKey(), entry.getValue()));
+            }
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure %s compacting checksum cache %s", e, journal));
+            return;
+        }
+        try {
+            Files.move(temporary, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure %s replacing checksum cache %s", e, journal));
+        }
+    }
+
+    private void append(final String key, final Entry entry) {
+        synchronized(entries) {
+            try {
+                if(null == writer) {
+                    Files.createDirectories(journal.getParent());
+                    writer = Files.newBufferedWriter(journal, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                writer.write(record(key, entry));
+                writer.flush();
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure %s writing checksum cache %s", e, journal));
+            }
+        }
+    }
+
+    private static String record(final String key, final Entry entry) {
+        final String record = String.join("\t", key, entry.path, String.valueOf(entry.size), String.valueOf(entry.modified),
+            entry.checksum.algorithm.name(), entry.checksum.hash);
+        return String.format("%s\t%s\n", record, crc(record));
+    }
+
+    private static String crc(final String record) {
+        final CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static final class Entry {
+        /**
+         * Absolute path of file when computed
+         */
+        private final String path;
+        private final long size;
+        private final long modified;
+        private final Checksum checksum;
+
+        public Entry(final String path, final long size, final long modified, final Checksum checksum) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.checksum = checksum;
+        }
+    }
+}
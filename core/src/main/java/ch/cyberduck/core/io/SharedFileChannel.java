@@ -0,0 +1,128 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reference counted file channel shared by all writers of the same file. Streams obtained write at their own
+ * position using positional writes without modifying the position of the channel and can be used concurrently.
+ */
+public final class SharedFileChannel {
+    private static final Logger log = Logger.getLogger(SharedFileChannel.class);
+
+    private static final Map<Path, SharedFileChannel> channels = new HashMap<>();
+
+    private final Path file;
+    private final FileChannel channel;
+
+    /**
+     * Number of open streams
+     */
+    private int references;
+
+    private SharedFileChannel(final Path file, final FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * @param file     File to write to. Created if missing but never truncated
+     * @param position Offset in file to start writing at
+     * @return Stream writing at position. Closing the stream will close the channel when no other stream is open
+     */
+    public static OutputStream open(final Path file, final long position) throws IOException {
+        final SharedFileChannel shared;
+        synchronized(channels) {
+            final Path key = file.toAbsolutePath().normalize();
+            SharedFileChannel existing = channels.get(key);
+            if(null == existing) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Open shared channel for %s", key));
+                }
+                existing = new SharedFileChannel(key, FileChannel.open(key, StandardOpenOption.WRITE, StandardOpenOption.CREATE));
+                channels.put(key, existing);
+            }
+            existing.references++;
+            shared = existing;
+        }
+        return shared.new PositionalOutputStream(position);
+    }
+
+    private void release() throws IOException {
+        synchronized(channels) {
+            if(--references > 0) {
+                return;
+            }
+            channels.remove(file);
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Close shared channel for %s", file));
+        }
+        channel.close();
+    }
+
+    private final class PositionalOutputStream extends OutputStream {
+        private long position;
+        private boolean closed;
+
+        public PositionalOutputStream(final long position) {
+            this.position = position;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if(closed) {
+                throw new IOException("Stream closed");
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while(buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        /**
+         * Flush written data to the storage device before releasing the channel
+         */
+        @Override
+        public void close() throws IOException {
+            if(closed) {
+                return;
+            }
+            closed = true;
+            try {
+                channel.force(false);
+            }
+            finally {
+                release();
+            }
+        }
+    }
+}
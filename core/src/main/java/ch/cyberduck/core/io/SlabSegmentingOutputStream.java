@@ -0,0 +1,162 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Split stream into segments of fixed size without intermediate copies. Segments written at once are passed to the
+ * proxy from the array of the caller. Only smaller writes are collected in a single buffer of segment size which is
+ * reused for all segments and returned to a pool when the stream is closed. The proxy must not retain the array
+ * passed after returning from write.
+ */
+public class SlabSegmentingOutputStream extends SegmentingOutputStream {
+    private static final Logger log = Logger.getLogger(SlabSegmentingOutputStream.class);
+
+    private static final Pool pool = new Pool();
+
+    private final OutputStream proxy;
+    private final int threshold;
+
+    private final AtomicBoolean close = new AtomicBoolean();
+
+    /**
+     * Buffer for incomplete segment. Acquired from pool on first use
+     */
+    private byte[] slab;
+    /**
+     * Number of bytes in buffer
+     */
+    private int position;
+
+    public SlabSegmentingOutputStream(final OutputStream proxy, final Integer threshold) {
+        super(proxy, (long) threshold, NullOutputStream.NULL_OUTPUT_STREAM);
+        this.proxy = proxy;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        this.write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b) throws IOException {
+        this.write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        if(position > 0) {
+            // Complete segment in buffer
+            final int count = Math.min(remaining, threshold - position);
+            System.arraycopy(b, offset, slab, position, count);
+            position += count;
+            offset += count;
+            remaining -= count;
+            if(position == threshold) {
+                proxy.write(slab, 0, threshold);
+                position = 0;
+            }
+        }
+        while(remaining >= threshold) {
+            // Write segment from caller array
+            proxy.write(b, offset, threshold);
+            offset += threshold;
+            remaining -= threshold;
+        }
+        if(remaining > 0) {
+            if(null == slab) {
+                slab = pool.acquire(threshold);
+            }
+            System.arraycopy(b, offset, slab, 0, remaining);
+            position = remaining;
+        }
+    }
+
+    /**
+     * Complete segments are always written to the proxy immediately. Incomplete segment is kept until closed.
+     */
+    @Override
+    public void flush() {
+        //
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(close.get()) {
+            log.warn(String.format("Skip double close of stream %s", this));
+            return;
+        }
+        try {
+            if(position > 0) {
+                proxy.write(slab, 0, position);
+                position = 0;
+            }
+            proxy.close();
+        }
+        finally {
+            if(slab != null) {
+                pool.release(slab);
+                slab = null;
+            }
+            close.set(true);
+        }
+    }
+
+    /**
+     * Buffers of segment size released by closed streams. Kept with soft references only to allow reclaiming memory
+     * of large segments.
+     */
+    private static final class Pool {
+        private static final int LIMIT = 4;
+
+        private final Map<Integer, Queue<SoftReference<byte[]>>> free = new ConcurrentHashMap<>();
+
+        public byte[] acquire(final int size) {
+            final Queue<SoftReference<byte[]>> queue = free.get(size);
+            if(queue != null) {
+                SoftReference<byte[]> reference;
+                while((reference = queue.poll()) != null) {
+                    final byte[] buffer = reference.get();
+                    if(buffer != null) {
+                        return buffer;
+                    }
+                }
+            }
+            return new byte[size];
+        }
+
+        public void release(final byte[] buffer) {
+            final Queue<SoftReference<byte[]>> queue = free.computeIfAbsent(buffer.length, size -> new ConcurrentLinkedQueue<>());
+            if(queue.size() < LIMIT) {
+                queue.offer(new SoftReference<>(buffer));
+            }
+        }
+    }
+}
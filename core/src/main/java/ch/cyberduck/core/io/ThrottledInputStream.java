@@ -51,6 +51,10 @@ public class ThrottledInputStream extends ProxyInputStream {
      */
     @Override
     public int read(byte[] data, int offset, int len) throws IOException {
-        return delegate.read(data, offset, throttle.request(len));
+        final int allowed = throttle.request(len);
+        final int read = delegate.read(data, offset, allowed);
+        // Return bandwidth not used for short read
+        throttle.release(allowed - Math.max(read, 0));
+        return read;
     }
 }
\ No newline at end of file
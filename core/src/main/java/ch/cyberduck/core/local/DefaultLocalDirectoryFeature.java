@@ -33,6 +33,7 @@ public class DefaultLocalDirectoryFeature implements Directory {
 
     @Override
     public void mkdir(final Local file) throws AccessDeniedException {
+        file.invalidate();
         try {
             Files.createDirectories(Paths.get(file.getAbsolute()));
         }
@@ -37,6 +37,7 @@ public class DefaultLocalTouchFeature implements Touch {
 
     @Override
     public void touch(final Local file) throws AccessDeniedException {
+        file.invalidate();
         try {
             try {
                 Files.createFile(Paths.get(file.getAbsolute()));
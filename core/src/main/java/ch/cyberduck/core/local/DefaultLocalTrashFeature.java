@@ -29,6 +29,7 @@ public class DefaultLocalTrashFeature implements Trash {
 
     @Override
     public void trash(Local file) throws LocalAccessDeniedException {
+        file.invalidate();
         try {
             Files.delete(Paths.get(file.getAbsolute()));
         }
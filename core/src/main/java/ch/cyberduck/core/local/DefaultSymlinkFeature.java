@@ -28,6 +28,7 @@ public class DefaultSymlinkFeature implements Symlink {
 
     @Override
     public void symlink(final Local file, final String target) throws AccessDeniedException {
+        file.invalidate();
         try {
             Files.createSymbolicLink(Paths.get(file.getAbsolute()), Paths.get(target));
         }
@@ -286,6 +286,10 @@ public abstract class Preferences implements Locales {
         this.setDefault("local.normalize.tilde", String.valueOf(true));
         this.setDefault("local.delimiter", File.separator);
         this.setDefault("local.temporaryfiles.shortening.threshold", String.valueOf(240));
+        /*
+         * Persist checksums of local files to skip computing again for unchanged files
+         */
+        this.setDefault("local.checksum.cache", String.valueOf(true));
 
         this.setDefault("application.identifier", "io.cyberduck");
         this.setDefault("application.name", "Cyberduck");
@@ -324,6 +328,18 @@ public abstract class Preferences implements Locales {
          */
         this.setDefault("browser.list.limit.directory", String.valueOf(5000));
         this.setDefault("browser.list.limit.container", String.valueOf(100));
+        /*
+          Number of directories listed concurrently when walking a directory tree recursively
+         */
+        this.setDefault("browser.list.recursive.concurrency", String.valueOf(4));
+        /*
+          Maximum number of directories queued for listing before continuing depth first in the current thread
+         */
+        this.setDefault("browser.list.recursive.queue.limit", String.valueOf(10000));
+        /*
+          Use a single listing of all keys with the directory as prefix when supported
+         */
+        this.setDefault("browser.list.recursive.flat", String.valueOf(true));
 
         this.setDefault("info.toolbar.selected", String.valueOf(0));
         this.setDefault("preferences.toolbar.selected", String.valueOf(0));
@@ -431,6 +447,18 @@ public abstract class Preferences implements Locales {
             Host.TransferType.concurrent.name()
         ));
         this.setDefault("queue.transfer.type", Host.TransferType.concurrent.name());
+        /*
+         * Transfer files in batches while preparing instead of preparing all files first. The number of files
+         * prepared but not yet transferred is limited by transferring in the thread preparing files. Only used when
+         * no bulk feature must be called with all files at once.
+         */
+        this.setDefault("queue.transfer.pipeline", String.valueOf(false));
+        this.setDefault("queue.transfer.pipeline.batch", String.valueOf(100));
+        this.setDefault("queue.transfer.pipeline.limit", String.valueOf(1000));
+        /*
+         * Record transferred files in log on disk to release their status from memory and skip them when resuming
+         */
+        this.setDefault("queue.transfer.plan", String.valueOf(false));
         /*
           Warning when number of transfers in queue exceeds limit
          */
@@ -490,6 +518,10 @@ public abstract class Preferences implements Locales {
         this.setDefault("queue.upload.file.rename.format", "{0} ({1}){2}");
         this.setDefault("queue.download.file.rename.format", "{0} ({1}){2}");
 
+        /*
+         * Read attributes of files to download from the listing of their parent directory instead of querying per file
+         */
+        this.setDefault("queue.download.attributes.listing", String.valueOf(true));
         this.setDefault("queue.download.permissions.change", String.valueOf(true));
         this.setDefault("queue.download.permissions.default", String.valueOf(false));
         this.setDefault("queue.download.permissions.file.default", String.valueOf(644));
@@ -517,6 +549,13 @@ public abstract class Preferences implements Locales {
         this.setDefault("queue.download.segments", String.valueOf(true));
         this.setDefault("queue.download.segments.threshold", String.valueOf(10L * 1024L * 1024L));
         this.setDefault("queue.download.segments.size", String.valueOf(5L * 1024L * 1024L));
+        // Write segments at their offset in a temporary file renamed to the target when complete instead of concatenating segment files
+        this.setDefault("queue.download.segments.positional", String.valueOf(false));
+
+        // Segmented concurrent copy between hosts with ranges written as parts of multipart upload to target
+        this.setDefault("queue.copy.segments", String.valueOf(false));
+        this.setDefault("queue.copy.segments.threshold", String.valueOf(100L * 1024L * 1024L));
+        this.setDefault("queue.copy.segments.size", String.valueOf(16L * 1024L * 1024L));
 
         /*
           Open completed downloads
@@ -558,11 +597,29 @@ public abstract class Preferences implements Locales {
           Bandwidth throttle download stream
          */
         this.setDefault("queue.download.bandwidth.bytes", String.valueOf(-1));
+        /*
+          Bandwidth throttle shared by all transfers to the same host and by all transfers
+         */
+        this.setDefault("queue.upload.bandwidth.host.bytes", String.valueOf(-1));
+        this.setDefault("queue.download.bandwidth.host.bytes", String.valueOf(-1));
+        this.setDefault("queue.upload.bandwidth.global.bytes", String.valueOf(-1));
+        this.setDefault("queue.download.bandwidth.global.bytes", String.valueOf(-1));
 
         /*
          * Concurrent connections for single transfer and maximum number of concurrent transfers in transfer list
          */
         this.setDefault("queue.connections.limit", String.valueOf(2));
+        /*
+         * Maximum number of concurrent transfers to the same host in transfer list
+         */
+        this.setDefault("queue.connections.host.limit", String.valueOf(-1));
+        /*
+         * Adjust number of concurrent connections for single transfer within bounds from observed throughput
+         * starting with configured limit. Never exceeds queue.connections.limit the session pool is sized for
+         */
+        this.setDefault("queue.connections.adaptive", String.valueOf(false));
+        this.setDefault("queue.connections.adaptive.min", String.valueOf(1));
+        this.setDefault("queue.connections.adaptive.max", String.valueOf(10));
         {
             final StringBuilder options = new StringBuilder();
             options.append(1).append(",");
@@ -591,6 +648,11 @@ public abstract class Preferences implements Locales {
         this.setDefault("queue.prompt.copy.action.default", TransferAction.overwrite.name());
         this.setDefault("queue.prompt.move.action.default", TransferAction.overwrite.name());
 
+        /*
+          Compute checksum of remote file on server when comparing files of same size in sync if not included in listing
+         */
+        this.setDefault("queue.sync.checksum.calculate", String.valueOf(false));
+
         this.setDefault("queue.transcript.open", String.valueOf(false));
         this.setDefault("queue.transcript.size.height", String.valueOf(200));
 
@@ -631,11 +693,23 @@ public abstract class Preferences implements Locales {
         this.setDefault("ftp.command.lista", String.valueOf(true));
         this.setDefault("ftp.command.stat", String.valueOf(true));
         this.setDefault("ftp.command.mlsd", String.valueOf(true));
+        /*
+          Number of files parsed from directory listing before notifying listener
+         */
+        this.setDefault("ftp.listing.chunksize", String.valueOf(1000));
 
         /*
           Fallback to active or passive mode respectively
          */
         this.setDefault("ftp.connectmode.fallback", String.valueOf(false));
+        /*
+          Copy between FTP servers with data connection from server to server (FXP)
+         */
+        this.setDefault("ftp.fxp.enable", String.valueOf(false));
+        /*
+          Minimum rate in bytes per second assumed for copy between FTP servers to limit wait for completion
+         */
+        this.setDefault("ftp.fxp.rate.minimum", String.valueOf(64 * 1024));
         /*
           Protect the data channel by default. For TLS, the data connection
           can have one of two security levels.
@@ -698,6 +772,8 @@ public abstract class Preferences implements Locales {
         // Maximum number of parts is 10'000. With 10MB segements this gives a maximum object size of 100GB
         // Must be a multiple of org.cryptomator.cryptolib.v1.Constants.PAYLOAD_SIZE when using Cryptomator Vaults
         this.setDefault("s3.upload.multipart.size", String.valueOf(10L * 1024L * 1024L)); // 10MB
+        // Sign parts with UNSIGNED-PAYLOAD over TLS and verify MD5 computed while uploading instead of reading each part twice
+        this.setDefault("s3.upload.multipart.payload.unsigned", String.valueOf(true));
         this.setDefault("s3.copy.multipart.size", String.valueOf(100L * 1024L * 1024L)); // 100MB
 
         this.setDefault("s3.upload.expect-continue", String.valueOf(true));
@@ -863,6 +939,11 @@ public abstract class Preferences implements Locales {
         this.setDefault("webdav.microsoftiis.header.translate", String.valueOf(true));
 
         this.setDefault("webdav.list.handler.sax", String.valueOf(true));
+        this.setDefault("webdav.listing.chunksize", String.valueOf(1000));
+        /*
+          List all descendants with depth infinity and save listings of subdirectories in cache
+         */
+        this.setDefault("webdav.list.depth.infinity", String.valueOf(false));
 
         /*
          * Session pool
@@ -1039,6 +1120,21 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("sftp.read.maxunconfirmed", String.valueOf(64));
         this.setDefault("sftp.write.maxunconfirmed", String.valueOf(64));
+        /*
+          Maximum number of metadata requests awaiting response when resolving symbolic links and listing directory trees
+         */
+        this.setDefault("sftp.pipeline.requests", String.valueOf(64));
+        /*
+          Command to copy files on server if copy-data extension is not supported. Empty to disable
+         */
+        this.setDefault("sftp.copy.command", "cp -p {0} {1}");
+        /*
+          Commands to compute checksum on server if check-file-name extension is not supported. Empty to disable
+         */
+        this.setDefault("sftp.checksum.command.md5", "md5sum {0}");
+        this.setDefault("sftp.checksum.command.sha1", "sha1sum {0}");
+        this.setDefault("sftp.checksum.command.sha256", "sha256sum {0}");
+        this.setDefault("sftp.checksum.command.sha512", "sha512sum {0}");
 
         this.setDefault("archive.default", "tar.gz");
 
@@ -1079,10 +1175,27 @@ public abstract class Preferences implements Locales {
 
         this.setDefault("threading.pool.size.max", String.valueOf(20));
         this.setDefault("threading.pool.keepalive.seconds", String.valueOf(60L));
+        /*
+          Maximum number of segments transferred concurrently for all files
+         */
+        this.setDefault("threading.pool.transfer.size", String.valueOf(40));
+        /*
+          Maximum number of segments transferred concurrently for all files on the same host
+         */
+        this.setDefault("threading.pool.transfer.host.size", String.valueOf(20));
 
         this.setDefault("cryptomator.enable", String.valueOf(true));
         this.setDefault("cryptomator.vault.version", String.valueOf(7));
         this.setDefault("cryptomator.vault.autodetect", String.valueOf(true));
+        /*
+          Number of threads shared to encrypt and decrypt file content chunks
+         */
+        this.setDefault("cryptomator.pipeline.threads", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        /*
+          Maximum number of chunks encrypted or decrypted ahead for a single stream. Set to 1 to process chunks on
+          the thread reading or writing the stream
+         */
+        this.setDefault("cryptomator.pipeline.depth", String.valueOf(2 * Runtime.getRuntime().availableProcessors()));
     }
 
     protected void setLogging() {
@@ -0,0 +1,69 @@
+package ch.cyberduck.core.shared;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Cache;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.AttributesFinder;
+
+/**
+ * Read attributes from the cached listing of the parent directory if available and only query the server for
+ * files missing in the cache
+ */
+public class CachingAttributesFinderFeature implements AttributesFinder {
+
+    private final Session<?> session;
+    private final AttributesFinder delegate;
+
+    private Cache<Path> cache = PathCache.empty();
+
+    public CachingAttributesFinderFeature(final Session<?> session, final AttributesFinder delegate) {
+        this.session = session;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public PathAttributes find(final Path file) throws BackgroundException {
+        if(!file.isRoot()) {
+            if(cache.isCached(file.getParent())) {
+                final Path found = ListFilteringFeature.lookup(session, cache.get(file.getParent()), file);
+                if(null != found) {
+                    return found.attributes();
+                }
+            }
+        }
+        return delegate.find(file);
+    }
+
+    @Override
+    public CachingAttributesFinderFeature withCache(final Cache<Path> cache) {
+        this.cache = cache;
+        delegate.withCache(cache);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CachingAttributesFinderFeature{");
+        sb.append("delegate=").append(delegate);
+        sb.append('}');
+        return sb.toString();
+    }
+}
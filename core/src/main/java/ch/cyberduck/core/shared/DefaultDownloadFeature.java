@@ -28,6 +28,7 @@ import ch.cyberduck.core.io.StreamCopier;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.io.ThrottledInputStream;
 import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.transfer.download.SegmentBitmap;
 
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -44,7 +45,14 @@ public class DefaultDownloadFeature implements Download {
     public void download(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                          final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
         final InputStream in = reader.read(file, status, callback);
-        final OutputStream out = local.getOutputStream(!status.isSegment() && status.isAppend());
+        final OutputStream out;
+        if(status.isSegment() && null == status.getRename().local) {
+            // Write segment in place at its offset in temporary file
+            out = new SegmentBitmap(local).getTemporary().getOutputStream(status.getOffset());
+        }
+        else {
+            out = local.getOutputStream(!status.isSegment() && status.isAppend());
+        }
         new StreamCopier(status, status)
                 .withOffset(0L)
                 .withLimit(status.getLength())
@@ -65,6 +65,10 @@ public class DefaultSearchFeature implements Search {
     private static final class SearchListProgressListener implements ListProgressListener {
         private final Filter<Path> filter;
         private final ListProgressListener delegate;
+        /**
+         * Matching files from incremental chunks
+         */
+        private final AttributedList<Path> filtered = new AttributedList<>();
 
         public SearchListProgressListener(final Filter<Path> filter, final ListProgressListener delegate) {
             this.filter = filter;
@@ -76,8 +80,24 @@ public class DefaultSearchFeature implements Search {
             delegate.chunk(parent, list.filter(filter));
         }
 
+        /**
+         * Only filter files added since previous chunk
+         */
+        @Override
+        public void chunk(final Path parent, final AttributedList<Path> list, final int offset, final boolean complete) throws ConnectionCanceledException {
+            final int index = filtered.size();
+            for(int i = offset; i < list.size(); i++) {
+                final Path file = list.get(i);
+                if(filter.accept(file)) {
+                    filtered.add(file);
+                }
+            }
+            delegate.chunk(parent, filtered, index, complete);
+        }
+
         @Override
         public ListProgressListener reset() {
+            filtered.clear();
             return this;
         }
 
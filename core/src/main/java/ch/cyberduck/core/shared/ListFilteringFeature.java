@@ -31,8 +31,16 @@ import ch.cyberduck.core.exception.ListCanceledException;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.function.Function;
+
 public abstract class ListFilteringFeature {
 
+    /**
+     * Index current version of files by path
+     */
+    private static final Function<Path, Object> SENSITIVE = f -> isCurrent(f) ? new SimplePathPredicate(f) : null;
+    private static final Function<Path, Object> INSENSITIVE = f -> isCurrent(f) ? new CaseInsensitivePathPredicate(f) : null;
+
     private final Session<?> session;
 
     private Cache<Path> cache = PathCache.empty();
@@ -75,7 +83,38 @@ public abstract class ListFilteringFeature {
             list = cache.get(file.getParent());
         }
         // Try to match path only as the version might have changed in the meantime
-        return list.find(new ListFilteringPredicate(session, file));
+        return lookup(session, list, file);
+    }
+
+    /**
+     * Find file in directory listing. Constant time unless searching for a specific version.
+     *
+     * @param list Directory listing of parent
+     * @param file Query
+     * @return Null if not found
+     */
+    static Path lookup(final Session<?> session, final AttributedList<Path> list, final Path file) {
+        if(StringUtils.isNotBlank(file.attributes().getVersionId())) {
+            return list.find(new ListFilteringPredicate(session, file));
+        }
+        switch(session.getCaseSensitivity()) {
+            case sensitive:
+                return list.find(SENSITIVE, new SimplePathPredicate(file));
+            case insensitive:
+                return list.find(INSENSITIVE, new CaseInsensitivePathPredicate(file));
+        }
+        return null;
+    }
+
+    /**
+     * @return False for previous versions and delete markers of files
+     */
+    private static boolean isCurrent(final Path f) {
+        if(f.attributes().isDuplicate()) {
+            // Version is not part of reference for directories
+            return f.isDirectory() && StringUtils.isNotBlank(f.attributes().getVersionId());
+        }
+        return true;
     }
 
     public ListFilteringFeature withCache(final Cache<Path> cache) {
@@ -20,6 +20,7 @@ package ch.cyberduck.core.synchronization;
 
 import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
@@ -29,8 +30,12 @@ import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.RemoteChecksum;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.LocalChecksumCache;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
 import ch.cyberduck.core.transfer.TransferStatus;
@@ -42,6 +47,10 @@ public class ComparisonServiceFilter implements ComparePathFilter {
 
     private Find finder;
     private AttributesFinder attribute;
+    /**
+     * Checksum computed on server if not included in attributes. Null if not supported or disabled
+     */
+    private final RemoteChecksum hash;
 
     private final ComparisonService checksum;
     private final ComparisonService size;
@@ -51,8 +60,10 @@ public class ComparisonServiceFilter implements ComparePathFilter {
     private Cache<Path> cache = PathCache.empty();
 
     public ComparisonServiceFilter(final Session<?> session, final TimeZone tz, final ProgressListener listener) {
+        // Answer from directory listing in cache and only list parent directory once if missing
         this.finder = session.getFeature(Find.class, new DefaultFindFeature(session));
         this.attribute = session.getFeature(AttributesFinder.class, new DefaultAttributesFinderFeature(session));
+        this.hash = PreferencesFactory.get().getBoolean("queue.sync.checksum.calculate") ? session.getFeature(RemoteChecksum.class) : null;
         this.timestamp = new TimestampComparisonService(tz);
         this.size = new SizeComparisonService();
         this.checksum = new ChecksumComparisonService();
@@ -82,20 +93,27 @@ public class ComparisonServiceFilter implements ComparePathFilter {
                     // Do not compare directories
                     return Comparison.equal;
                 }
-                final PathAttributes attributes = attribute.withCache(cache).find(file);
+                PathAttributes attributes = attribute.withCache(cache).find(file);
                 // We must always compare the size because the download filter will have already created a temporary 0 byte file
-                switch(size.compare(attributes, local.attributes())) {
+                final Comparison length = size.compare(attributes, local.attributes());
+                switch(length) {
                     case remote:
                         return Comparison.remote;
                     case local:
                         return Comparison.local;
                 }
+                if(Checksum.NONE == attributes.getChecksum() && null != hash && Comparison.equal == length) {
+                    // Compute checksum on server if not included in file listing. Leave attributes from cache unchanged
+                    attributes = new PathAttributes(attributes);
+                    attributes.setChecksum(hash.compute(file, HashAlgorithm.sha256));
+                }
                 if(Checksum.NONE != attributes.getChecksum()) {
                     // MD5/ETag Checksum is supported
                     progress.message(MessageFormat.format(LocaleFactory.localizedString("Compute MD5 hash of {0}", "Status"), file.getName()));
-                    local.attributes().setChecksum(ChecksumComputeFactory.get(attributes.getChecksum().algorithm)
-                        .compute(local.getInputStream(), new TransferStatus()));
-                    switch(checksum.compare(attributes, local.attributes())) {
+                    final LocalAttributes attr = local.attributes();
+                    attr.setChecksum(LocalChecksumCache.get().compute(local,
+                        ChecksumComputeFactory.get(attributes.getChecksum().algorithm), new TransferStatus()));
+                    switch(checksum.compare(attributes, attr)) {
                         case equal:
                             // Decision is available
                             return Comparison.equal;
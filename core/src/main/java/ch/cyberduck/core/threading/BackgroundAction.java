@@ -20,6 +20,8 @@ package ch.cyberduck.core.threading;
 
 import ch.cyberduck.core.exception.BackgroundException;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface BackgroundAction<T> extends BackgroundActionState {
 
     /**
@@ -27,6 +29,15 @@ public interface BackgroundAction<T> extends BackgroundActionState {
      */
     void init();
 
+    /**
+     * Called after #init. The action is not bound to a worker thread until scheduled for execution when complete.
+     *
+     * @return Completed when the action can be run
+     */
+    default CompletableFuture<?> admit() {
+        return CompletableFuture.completedFuture(null);
+    }
+
     /**
      * Called just before #run.
      *
@@ -21,6 +21,7 @@ import org.apache.commons.lang3.concurrent.ConcurrentUtils;
 import org.apache.log4j.Logger;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 
@@ -65,6 +66,30 @@ public class DefaultBackgroundExecutor implements BackgroundExecutor {
         action.init();
         // Start background task
         final Callable<T> command = new BackgroundCallable<T>(action, controller);
+        final CompletableFuture<?> admission = action.admit();
+        if(admission.isDone()) {
+            return this.schedule(action, command);
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Defer execution of background runnable %s until admitted", action));
+        }
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        // Canceled action yields no result when run
+        admission.whenComplete((admitted, failure) -> this.schedule(action, () -> {
+            try {
+                final T value = command.call();
+                result.complete(value);
+                return value;
+            }
+            catch(Exception e) {
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }));
+        return result;
+    }
+
+    private <T> Future<T> schedule(final BackgroundAction<T> action, final Callable<T> command) {
         try {
             final Future<T> task = concurrentExecutor.execute(command);
             if(log.isInfoEnabled()) {
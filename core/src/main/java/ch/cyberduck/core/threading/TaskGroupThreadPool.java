@@ -0,0 +1,275 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group of tasks run in threads of a process wide pool. Groups are nested with a limit of tasks running concurrently
+ * in each group. A task only runs when a slot is available in its group and all parent groups. Shutdown of a group
+ * only cancels its own tasks and leaves the shared threads running. Tasks must not wait for other tasks of the same
+ * pool to complete.
+ */
+public class TaskGroupThreadPool implements ThreadPool {
+    private static final Logger log = Logger.getLogger(TaskGroupThreadPool.class);
+
+    /**
+     * Groups for hosts sharing connection limit
+     */
+    private static final Map<String, TaskGroupThreadPool> hosts = new ConcurrentHashMap<>();
+
+    /**
+     * Group of subtasks of a file nested in the group for its host
+     *
+     * @param host Connection limit shared with other files of host
+     * @param name Name of group
+     * @param size Maximum number of concurrent tasks in group
+     */
+    public static TaskGroupThreadPool get(final Host host, final String name, final int size) {
+        final TaskGroupThreadPool parent = hosts.computeIfAbsent(String.format("%s://%s:%d",
+                host.getProtocol().getScheme(), host.getHostname(), host.getPort()),
+            key -> new TaskGroupThreadPool(key, Root.group, PreferencesFactory.get().getInteger("threading.pool.transfer.host.size")));
+        return new TaskGroupThreadPool(name, parent, size);
+    }
+
+    private final String name;
+    private final TaskGroupThreadPool parent;
+    private final ThreadPool pool;
+    private final int limit;
+
+    /**
+     * Tasks waiting for slot
+     */
+    private final Queue<Runnable> queue = new ArrayDeque<>();
+    /**
+     * Tasks submitted to this group not yet completed
+     */
+    private final Set<Future<?>> tasks = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final AbstractExecutorService executor = new GroupExecutorService();
+
+    private int running;
+    private volatile boolean shutdown;
+
+    /**
+     * @param name   Name of group
+     * @param parent Group limiting concurrency in addition
+     * @param size   Maximum number of concurrent tasks in group
+     */
+    public TaskGroupThreadPool(final String name, final TaskGroupThreadPool parent, final int size) {
+        this(name, parent, parent.pool, size);
+    }
+
+    /**
+     * @param name Name of group
+     * @param pool Threads running tasks
+     * @param size Maximum number of concurrent tasks in group
+     */
+    public TaskGroupThreadPool(final String name, final ThreadPool pool, final int size) {
+        this(name, null, pool, size);
+    }
+
+    private TaskGroupThreadPool(final String name, final TaskGroupThreadPool parent, final ThreadPool pool, final int size) {
+        this.name = name;
+        this.parent = parent;
+        this.pool = pool;
+        this.limit = Math.max(1, size);
+    }
+
+    @Override
+    public <T> Future<T> execute(final Callable<T> command) {
+        if(shutdown) {
+            throw new RejectedExecutionException(String.format("Group %s is shut down", name));
+        }
+        final FutureTask<T> task = new FutureTask<T>(command) {
+            @Override
+            protected void done() {
+                tasks.remove(this);
+            }
+        };
+        tasks.add(task);
+        this.offer(task);
+        return task;
+    }
+
+    /**
+     * Add task to queue and run when slot is available
+     */
+    private void offer(final Runnable task) {
+        synchronized(queue) {
+            queue.add(task);
+        }
+        this.drain();
+    }
+
+    private void drain() {
+        while(true) {
+            final Runnable next;
+            synchronized(queue) {
+                if(running >= limit || queue.isEmpty()) {
+                    return;
+                }
+                next = queue.poll();
+                running++;
+            }
+            final Runnable slot = () -> {
+                try {
+                    next.run();
+                }
+                finally {
+                    synchronized(queue) {
+                        running--;
+                    }
+                    this.drain();
+                }
+            };
+            if(null == parent) {
+                try {
+                    pool.execute(Executors.callable(slot));
+                }
+                catch(RejectedExecutionException e) {
+                    log.error(String.format("Failure %s scheduling task in group %s", e, name));
+                    synchronized(queue) {
+                        running--;
+                    }
+                    throw e;
+                }
+            }
+            else {
+                parent.offer(slot);
+            }
+        }
+    }
+
+    /**
+     * Reject further tasks. Does not shut down threads shared with other groups.
+     *
+     * @param gracefully Wait for tasks to complete or cancel tasks of this group
+     */
+    @Override
+    public void shutdown(final boolean gracefully) {
+        shutdown = true;
+        if(gracefully) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Await completion of %d tasks in group %s", tasks.size(), name));
+            }
+            for(Future<?> task : tasks) {
+                try {
+                    task.get();
+                }
+                catch(InterruptedException e) {
+                    log.error(String.format("Failure awaiting completion of group %s. %s", name, e.getMessage()));
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                catch(ExecutionException | CancellationException e) {
+                    // Reported to caller of task
+                }
+            }
+        }
+        else {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Cancel %d tasks in group %s", tasks.size(), name));
+            }
+            for(Future<?> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public AbstractExecutorService executor() {
+        return executor;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TaskGroupThreadPool{");
+        sb.append("name='").append(name).append('\'');
+        sb.append(", limit=").append(limit);
+        sb.append(", parent=").append(parent);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private final class GroupExecutorService extends AbstractExecutorService {
+        @Override
+        public void execute(final Runnable command) {
+            TaskGroupThreadPool.this.execute(Executors.callable(command));
+        }
+
+        @Override
+        public void shutdown() {
+            TaskGroupThreadPool.this.shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            TaskGroupThreadPool.this.shutdown(false);
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && tasks.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while(!this.isTerminated()) {
+                if(System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(10L);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Process wide pool created on first use
+     */
+    private static final class Root {
+        private static final TaskGroupThreadPool group = new TaskGroupThreadPool("transfer",
+            ThreadPoolFactory.get("transfer", PreferencesFactory.get().getInteger("threading.pool.transfer.size")),
+            PreferencesFactory.get().getInteger("threading.pool.transfer.size"));
+    }
+}
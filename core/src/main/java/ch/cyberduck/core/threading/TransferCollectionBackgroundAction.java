@@ -30,6 +30,8 @@ import ch.cyberduck.core.transfer.TransferQueueFactory;
 
 import org.apache.log4j.Logger;
 
+import java.util.concurrent.CompletableFuture;
+
 public class TransferCollectionBackgroundAction extends TransferBackgroundAction {
     private static final Logger log = Logger.getLogger(TransferCollectionBackgroundAction.class);
 
@@ -38,6 +40,7 @@ public class TransferCollectionBackgroundAction extends TransferBackgroundAction
     private final SessionPool source;
     private final SessionPool destination;
     private final Transfer transfer;
+    private final TransferOptions options;
     private final ProgressListener listener;
 
     public TransferCollectionBackgroundAction(final Controller controller,
@@ -51,15 +54,16 @@ public class TransferCollectionBackgroundAction extends TransferBackgroundAction
         this.source = source;
         this.destination = destination;
         this.transfer = transfer;
+        this.options = options;
         this.listener = listener;
     }
 
+    /**
+     * @return Completed when the transfer holds a slot in the queue or is canceled while waiting
+     */
     @Override
-    public void prepare() {
-        // Update status to running
-        super.prepare();
-        // Wait for slot in queue
-        queue.add(transfer, listener);
+    public CompletableFuture<?> admit() {
+        return queue.offer(transfer, options.priority, listener);
     }
 
     @Override
@@ -0,0 +1,181 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.log4j.Logger;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run each task in a new virtual thread when supported by the runtime (Java 21 or later). Pool size limits the number
+ * of tasks running concurrently instead of the number of threads. Thread priority is not supported for virtual threads.
+ * Falls back to a pool of platform threads on older runtimes. Not used by default and must be selected by setting
+ * factory.threadpool.class.
+ */
+public class VirtualThreadPool extends ExecutorServiceThreadPool {
+    private static final Logger log = Logger.getLogger(VirtualThreadPool.class);
+
+    public VirtualThreadPool() {
+        this(PreferencesFactory.get().getInteger("threading.pool.size.max"));
+    }
+
+    public VirtualThreadPool(final int size) {
+        this(DEFAULT_THREAD_NAME_PREFIX, size);
+    }
+
+    public VirtualThreadPool(final String prefix, final int size) {
+        this(prefix, size, new LoggingUncaughtExceptionHandler());
+    }
+
+    public VirtualThreadPool(final String prefix, final int size, final Thread.UncaughtExceptionHandler handler) {
+        this(prefix, size, Priority.norm, handler);
+    }
+
+    public VirtualThreadPool(final String prefix, final int size, final Priority priority, final Thread.UncaughtExceptionHandler handler) {
+        super(createExecutor(prefix, size, priority, handler));
+    }
+
+    public static AbstractExecutorService createExecutor(final String prefix, final int size, final Priority priority, final Thread.UncaughtExceptionHandler handler) {
+        final ThreadFactory factory = factory(prefix, handler);
+        if(null == factory) {
+            return DefaultThreadPool.createExecutor(prefix, size, priority, handler);
+        }
+        return new ThreadPerTaskExecutorService(factory, size);
+    }
+
+    /**
+     * @return Null if virtual threads are not supported
+     */
+    private static ThreadFactory factory(final String prefix, final Thread.UncaughtExceptionHandler handler) {
+        try {
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Object virtual = Thread.class.getMethod("ofVirtual").invoke(null);
+            virtual = builder.getMethod("name", String.class, long.class).invoke(virtual, String.format("%s-", prefix), 1L);
+            virtual = builder.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class).invoke(virtual, handler);
+            return (ThreadFactory) builder.getMethod("factory").invoke(virtual);
+        }
+        catch(ReflectiveOperationException | RuntimeException e) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Virtual threads not supported. %s", e));
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Start new thread for every task. Threads wait for a permit to limit the number of concurrent tasks.
+     */
+    static final class ThreadPerTaskExecutorService extends AbstractExecutorService {
+        private final ThreadFactory factory;
+        private final Semaphore permits;
+
+        private final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+        private volatile boolean shutdown;
+
+        ThreadPerTaskExecutorService(final ThreadFactory factory, final int size) {
+            this.factory = factory;
+            this.permits = new Semaphore(Math.max(1, size), true);
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            if(shutdown) {
+                throw new RejectedExecutionException(String.format("Executor %s is shut down", this));
+            }
+            final Thread thread = factory.newThread(() -> {
+                try {
+                    permits.acquire();
+                    try {
+                        command.run();
+                    }
+                    finally {
+                        permits.release();
+                    }
+                }
+                catch(InterruptedException e) {
+                    log.warn(String.format("Interrupted waiting to run %s", command));
+                }
+                finally {
+                    threads.remove(Thread.currentThread());
+                    synchronized(threads) {
+                        threads.notifyAll();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            for(Thread thread : threads) {
+                thread.interrupt();
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && threads.isEmpty();
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            synchronized(threads) {
+                while(!this.isTerminated()) {
+                    final long remaining = deadline - System.nanoTime();
+                    if(remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(threads, remaining);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("ThreadPerTaskExecutorService{");
+            sb.append("threads=").append(threads.size());
+            sb.append(", permits=").append(permits.availablePermits());
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+}
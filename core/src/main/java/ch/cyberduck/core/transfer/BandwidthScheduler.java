@@ -0,0 +1,73 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process wide hierarchy of bandwidth throttles shared by all transfers. The throttle of every transfer has a parent
+ * throttle for the host which itself has a parent throttle limiting the bandwidth of all transfers in the same
+ * direction. Segments of a transfer share the throttle of the transfer. Limits are read from preferences whenever a
+ * throttle is requested.
+ */
+public final class BandwidthScheduler {
+
+    private static final BandwidthThrottle upload = new BandwidthThrottle(BandwidthThrottle.UNLIMITED);
+    private static final BandwidthThrottle download = new BandwidthThrottle(BandwidthThrottle.UNLIMITED);
+
+    private static final Map<String, BandwidthThrottle> uploads = new ConcurrentHashMap<>();
+    private static final Map<String, BandwidthThrottle> downloads = new ConcurrentHashMap<>();
+
+    private BandwidthScheduler() {
+        //
+    }
+
+    /**
+     * @param type Transfer type. Synchronisation has no single direction and is throttled by the upload and download
+     *             transfers it delegates to
+     * @return Throttle limiting bandwidth of all transfers in the same direction
+     */
+    public static BandwidthThrottle global(final Transfer.Type type) {
+        switch(type) {
+            case upload:
+                upload.setRate(PreferencesFactory.get().getFloat("queue.upload.bandwidth.global.bytes"));
+                return upload;
+            case sync:
+                throw new IllegalArgumentException(String.format("No direction for transfer type %s", type));
+            default:
+                download.setRate(PreferencesFactory.get().getFloat("queue.download.bandwidth.global.bytes"));
+                return download;
+        }
+    }
+
+    /**
+     * @param host Remote host. Bookmarks for the same hostname and port share a throttle
+     * @param type Transfer type
+     * @return Throttle limiting bandwidth of all transfers to host in the same direction
+     */
+    public static BandwidthThrottle host(final Host host, final Transfer.Type type) {
+        final BandwidthThrottle parent = global(type);
+        final BandwidthThrottle throttle = (parent == upload ? uploads : downloads).computeIfAbsent(
+            String.format("%s:%d", host.getHostname(), host.getPort()), key -> new BandwidthThrottle(parent, BandwidthThrottle.UNLIMITED));
+        throttle.setRate(PreferencesFactory.get().getFloat(parent == upload ? "queue.upload.bandwidth.host.bytes" : "queue.download.bandwidth.host.bytes"));
+        return throttle;
+    }
+}
@@ -31,4 +31,12 @@ public class CachingListProgressListener extends DisabledListProgressListener {
     public void chunk(final Path folder, final AttributedList<Path> list) {
         cache.put(folder, list);
     }
+
+    /**
+     * Cache is updated incrementally with files appended to the same listing
+     */
+    @Override
+    public void chunk(final Path folder, final AttributedList<Path> list, final int offset, final boolean complete) {
+        cache.put(folder, list);
+    }
 }
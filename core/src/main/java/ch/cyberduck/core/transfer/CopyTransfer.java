@@ -22,18 +22,25 @@ import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.features.Bulk;
 import ch.cyberduck.core.features.Copy;
 import ch.cyberduck.core.features.Directory;
+import ch.cyberduck.core.features.Multipart;
+import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.DelegateStreamListener;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.io.StreamCopier;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.serializer.Serializer;
 import ch.cyberduck.core.shared.DefaultCopyFeature;
+import ch.cyberduck.core.transfer.copy.AbstractCopyFilter;
 import ch.cyberduck.core.transfer.copy.ChecksumFilter;
 import ch.cyberduck.core.transfer.copy.OverwriteFilter;
 
 import org.apache.log4j.Logger;
 
+import java.io.InputStream;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -69,7 +76,7 @@ public class CopyTransfer extends Transfer {
 
     public CopyTransfer(final Host source, final Host destination,
                         final Map<Path, Path> selected, final BandwidthThrottle bandwidth) {
-        super(source, new ArrayList<TransferItem>(), bandwidth);
+        super(source, Type.copy, new ArrayList<TransferItem>(), bandwidth);
         this.destination = destination;
         this.selected = selected;
         this.mapping = new HashMap<Path, Path>(selected);
@@ -247,14 +254,57 @@ public class CopyTransfer extends Transfer {
                 status.setComplete();
             }
         }
+        else if(status.isSegment()) {
+            // Range of file written as part of multipart upload
+            this.copy(session, destination, source, status, connectionCallback, new DelegateStreamListener(streamListener) {
+                @Override
+                public void sent(final long bytes) {
+                    addTransferred(bytes);
+                    super.sent(bytes);
+                }
+            });
+        }
         else {
             // Transfer
-            final Copy feature = new DefaultCopyFeature(session).withTarget(destination);
+            final Copy feature = this.getFeature(session, destination);
             feature.copy(source, mapping.get(source), status, connectionCallback);
             this.addTransferred(status.getLength());
         }
     }
 
+    /**
+     * Read range of segment from source and write to part of pending multipart upload in target
+     */
+    protected void copy(final Session<?> session, final Session<?> destination, final Path source,
+                        final TransferStatus segment, final ConnectionCallback callback, final StreamListener listener) throws BackgroundException {
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Copy part %d of %s with offset %d and length %d", segment.getPart(), source, segment.getOffset(), segment.getLength()));
+        }
+        final InputStream in = session.getFeature(Read.class).read(source, new TransferStatus()
+            .append(true)
+            .skip(segment.getOffset())
+            .length(segment.getLength()), callback);
+        final StatusOutputStream<?> out = destination.getFeature(Multipart.class).write(mapping.get(source),
+            segment.getParameters().get(AbstractCopyFilter.UPLOAD_ID), segment, callback);
+        new StreamCopier(segment, segment)
+            .withOffset(0L)
+            .withLimit(segment.getLength())
+            .withListener(listener)
+            .transfer(in, out);
+    }
+
+    /**
+     * @return Server to server copy between FTP hosts or copy with content passing through client
+     */
+    protected Copy getFeature(final Session<?> session, final Session<?> destination) {
+        if(session.getHost().getProtocol().getType() == Protocol.Type.ftp
+            && destination.getHost().getProtocol().getType() == Protocol.Type.ftp) {
+            // Falls back to default copy if transfer between servers is not possible
+            return session.getFeature(Copy.class).withTarget(destination);
+        }
+        return new DefaultCopyFeature(session).withTarget(destination);
+    }
+
     @Override
     public void normalize() {
         //
@@ -99,7 +99,7 @@ public class DownloadTransfer extends Transfer {
     }
 
     public DownloadTransfer(final Host host, final List<TransferItem> roots, final Filter<Path> f, final Comparator<Path> comparator) {
-        super(host, roots, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
+        super(host, Type.download, roots, new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.download.bandwidth.bytes")));
         this.filter = f;
         this.comparator = comparator;
         this.symlinkResolver = new DownloadSymlinkResolver(roots);
@@ -140,7 +140,8 @@ public class DownloadTransfer extends Transfer {
                 list = cache.get(directory);
             }
             else {
-                list = session.getFeature(ListService.class).list(directory, listener);
+                // Listing may save listings of subdirectories in cache
+                list = session.getFeature(ListService.class).withCache(cache).list(directory, listener);
                 cache.put(directory, list);
             }
             final List<TransferItem> children = new ArrayList<TransferItem>();
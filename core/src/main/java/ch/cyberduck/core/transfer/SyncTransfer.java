@@ -81,7 +81,7 @@ public class SyncTransfer extends Transfer {
     }
 
     public SyncTransfer(final Host host, final TransferItem item, final TransferAction action) {
-        super(host, Collections.singletonList(item),
+        super(host, Type.sync, Collections.singletonList(item),
             new BandwidthThrottle(PreferencesFactory.get().getFloat("queue.upload.bandwidth.bytes")));
         this.init();
         this.item = item;
@@ -151,7 +151,7 @@ public abstract class Transfer implements Serializable {
 
     /**
      * Create a transfer with a single root which can
-     * be a plain file or a directory
+     * be a plain file or a directory. The throttle is attached to limits shared with other transfers when started.
      *
      * @param host Connection details
      * @param root File or directory
@@ -161,6 +161,8 @@ public abstract class Transfer implements Serializable {
     }
 
     /**
+     * The throttle is attached to limits shared with other transfers when started.
+     *
      * @param host  Connection details
      * @param roots List of files to add to transfer
      */
@@ -170,6 +172,29 @@ public abstract class Transfer implements Serializable {
         this.bandwidth = bandwidth;
     }
 
+    /**
+     * Create a transfer with a single root which can
+     * be a plain file or a directory
+     *
+     * @param host Connection details
+     * @param type Transfer type
+     * @param root File or directory
+     */
+    public Transfer(final Host host, final Type type, final Path root, final Local folder, final BandwidthThrottle bandwidth) {
+        this(host, type, Collections.singletonList(new TransferItem(root, folder)), bandwidth);
+    }
+
+    /**
+     * @param host  Connection details
+     * @param type  Transfer type
+     * @param roots List of files to add to transfer
+     */
+    public Transfer(final Host host, final Type type, final List<TransferItem> roots, final BandwidthThrottle bandwidth) {
+        this.host = host;
+        this.roots.addAll(roots);
+        this.bandwidth = this.attach(bandwidth, type);
+    }
+
     public abstract Transfer withCache(final Cache<Path> cache);
 
     public <T> T serialize(final Serializer dict) {
@@ -202,8 +227,24 @@ public abstract class Transfer implements Serializable {
         bandwidth.setRate(bytesPerSecond);
     }
 
+    /**
+     * @param bandwidth Throttle for this transfer. Limited additionally by throttles shared with other transfers
+     */
     public void setBandwidth(final BandwidthThrottle bandwidth) {
-        this.bandwidth = bandwidth;
+        this.bandwidth = this.attach(bandwidth, this.getType());
+    }
+
+    /**
+     * Synchronisation is throttled by the upload and download transfers it delegates to only
+     */
+    private BandwidthThrottle attach(final BandwidthThrottle bandwidth, final Type type) {
+        if(Type.sync == type) {
+            return bandwidth;
+        }
+        if(bandwidth != null && host != null && null == bandwidth.getParent()) {
+            bandwidth.withParent(BandwidthScheduler.host(host, type));
+        }
+        return bandwidth;
     }
 
     /**
@@ -316,20 +357,27 @@ public abstract class Transfer implements Serializable {
      * @param callback    Prompt
      */
     public void pre(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) throws BackgroundException {
-        for(TransferItem item : roots) {
-            try {
-                switch(this.getType()) {
-                    case download:
-                        final Local directory = item.local.getParent();
-                        locks.put(directory, directory.lock(true));
-                        break;
-                    case upload:
-                        locks.put(item.local, item.local.lock(true));
-                        break;
+        synchronized(locks) {
+            for(TransferItem item : roots) {
+                try {
+                    switch(this.getType()) {
+                        case download:
+                            final Local directory = item.local.getParent();
+                            // Called for every batch of files when transferring while preparing
+                            if(!locks.containsKey(directory)) {
+                                locks.put(directory, directory.lock(true));
+                            }
+                            break;
+                        case upload:
+                            if(!locks.containsKey(item.local)) {
+                                locks.put(item.local, item.local.lock(true));
+                            }
+                            break;
+                    }
+                }
+                catch(LocalAccessDeniedException e) {
+                    log.warn(String.format("Failure obtaining lock for %s. %s", item.local, e));
                 }
-            }
-            catch(LocalAccessDeniedException e) {
-                log.warn(String.format("Failure obtaining lock for %s. %s", item.local, e));
             }
         }
     }
@@ -376,6 +424,11 @@ public abstract class Transfer implements Serializable {
                                   StreamListener streamListener) throws BackgroundException;
 
     public void start() {
+        if(bandwidth != null && host != null && Type.sync != this.getType()) {
+            // Attach if created without type and apply changes to shared limits
+            this.attach(bandwidth, this.getType());
+            BandwidthScheduler.host(host, this.getType());
+        }
         state = State.running;
         // Will be set to true in #reset when transfer action is determined
         reset = false;
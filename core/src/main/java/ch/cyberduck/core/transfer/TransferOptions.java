@@ -41,6 +41,11 @@ public final class TransferOptions {
     public boolean open =
             PreferencesFactory.get().getBoolean("queue.download.complete.open");
 
+    /**
+     * Admission to transfer queue before transfers with lower priority
+     */
+    public TransferQueue.Priority priority = TransferQueue.Priority.norm;
+
     public TransferOptions open(boolean e) {
         open = e;
         return this;
@@ -61,6 +66,11 @@ public final class TransferOptions {
         return this;
     }
 
+    public TransferOptions priority(final TransferQueue.Priority e) {
+        priority = e;
+        return this;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
@@ -68,6 +78,7 @@ public final class TransferOptions {
         sb.append("{resumeRequested=").append(resumeRequested);
         sb.append(", reloadRequested=").append(reloadRequested);
         sb.append(", quarantine=").append(quarantine);
+        sb.append(", priority=").append(priority);
         sb.append('}');
         return sb.toString();
     }
@@ -0,0 +1,593 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.VersionId;
+import ch.cyberduck.core.exception.AccessDeniedException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.preferences.SupportDirectoryFinderFactory;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Append only log on disk of files transferred with a compact copy of their transfer status. Allows to drop the
+ * transfer status of files from memory once transferred while still passing all files to post processing. The log
+ * is kept for incomplete transfers to skip files already transferred when resuming.
+ * <p>
+ * Records keep the attributes of the remote file used for equality, the renamed targets, checksum and metadata of
+ * the transfer status and the size and modification date of the local file when transferred. Only the position of
+ * the latest record for every file is kept in memory.
+ */
+public class TransferPlan {
+    private static final Logger log = Logger.getLogger(TransferPlan.class);
+
+    private static final int EXISTS = 1;
+    private static final int APPEND = 1 << 1;
+    private static final int COMPLETE = 1 << 2;
+
+    private final Local file;
+
+    private CountingOutputStream counter;
+    private DataOutputStream out;
+    /**
+     * Position in log where output stream was opened
+     */
+    private long offset;
+    /**
+     * Fingerprint of file to position of latest record in log
+     */
+    private final Map<Long, Long> index = new HashMap<>();
+
+    public TransferPlan(final Transfer transfer) {
+        this(LocalFactory.get(LocalFactory.get(SupportDirectoryFinderFactory.get().find(), "Transfers"),
+            String.format("%s.plan", transfer.getUuid())));
+    }
+
+    public TransferPlan(final Local file) {
+        this.file = file;
+    }
+
+    public Local getFile() {
+        return file;
+    }
+
+    /**
+     * @param resume Keep records from previous run of transfer
+     */
+    public synchronized void open(final boolean resume) throws AccessDeniedException {
+        if(null != out) {
+            return;
+        }
+        index.clear();
+        final Local folder = file.getParent();
+        if(!folder.exists()) {
+            folder.mkdir();
+        }
+        if(resume && file.exists()) {
+            // Find latest record for every file
+            final Map<Long, Long> latest = new HashMap<>();
+            try (Reader reader = new Reader(this.input(0L), 0L)) {
+                while(reader.hasNext()) {
+                    final Record next = reader.next();
+                    latest.put(fingerprint(next.item), next.position);
+                }
+            }
+            // Rewrite log omitting superseded records and any truncated record written when interrupted
+            final Local temporary = LocalFactory.get(folder, String.format("%s.tmp", file.getName()));
+            this.output(temporary, false);
+            try (Reader reader = new Reader(this.input(0L), 0L)) {
+                while(reader.hasNext()) {
+                    final Record next = reader.next();
+                    if(latest.get(fingerprint(next.item)) == next.position) {
+                        this.write(next.item, next.status, next.size, next.modified);
+                    }
+                }
+            }
+            catch(IOException e) {
+                IOUtils.closeQuietly(out);
+                out = null;
+                throw new AccessDeniedException(e.getMessage(), e);
+            }
+            IOUtils.closeQuietly(out);
+            temporary.rename(file);
+            this.output(file, true);
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Read %d records from %s", index.size(), file));
+            }
+        }
+        else {
+            this.output(file, false);
+        }
+    }
+
+    private void output(final Local target, final boolean append) throws AccessDeniedException {
+        offset = append ? target.attributes().getSize() : 0L;
+        counter = new CountingOutputStream(new BufferedOutputStream(target.getOutputStream(append)));
+        out = new DataOutputStream(counter);
+    }
+
+    /**
+     * @return True if file has been transferred completely in a previous run and the local file is unchanged since
+     */
+    public boolean isComplete(final TransferItem item) {
+        final Record record = this.find(item);
+        if(null == record) {
+            return false;
+        }
+        if(!record.status.isComplete()) {
+            return false;
+        }
+        final Local local = null != record.status.getRename().local ? record.status.getRename().local : record.item.local;
+        if(null == local) {
+            return true;
+        }
+        local.invalidate();
+        if(!local.exists()) {
+            log.warn(String.format("Missing file %s transferred in previous run", local));
+            return false;
+        }
+        if(local.attributes().getSize() != record.size || local.attributes().getModificationDate() != record.modified) {
+            log.warn(String.format("File %s modified since transferred in previous run", local));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record file as transferred
+     *
+     * @param item   File transferred
+     * @param status Transfer status with segments complete or failed
+     */
+    public synchronized void add(final TransferItem item, final TransferStatus status) throws AccessDeniedException {
+        if(null == out) {
+            throw new AccessDeniedException(String.format("Transfer plan %s not open", file));
+        }
+        final Local local = null != status.getRename().local ? status.getRename().local : item.local;
+        long size = -1L;
+        long modified = -1L;
+        if(null != local) {
+            local.invalidate();
+            if(local.exists()) {
+                size = local.attributes().getSize();
+                modified = local.attributes().getModificationDate();
+            }
+        }
+        try {
+            this.write(item, status, size, modified);
+        }
+        catch(IOException e) {
+            throw new AccessDeniedException(e.getMessage(), e);
+        }
+    }
+
+    private void write(final TransferItem item, final TransferStatus status, final long size, final long modified) throws IOException {
+        final long position = offset + counter.getByteCount();
+        this.write(item.remote);
+        out.writeUTF(null == item.local ? StringUtils.EMPTY : item.local.getAbsolute());
+        out.writeUTF(StringUtils.defaultString(item.lockId));
+        out.writeLong(status.getLength());
+        out.writeLong(status.getOffset());
+        out.writeByte((status.isExists() ? EXISTS : 0) | (status.isAppend() ? APPEND : 0)
+            | (status.isComplete() ? COMPLETE : 0));
+        out.writeUTF(null == status.getVersion() ? StringUtils.EMPTY : status.getVersion().id);
+        final Checksum checksum = null == status.getChecksum() ? Checksum.NONE : status.getChecksum();
+        out.writeUTF(null == checksum.algorithm ? StringUtils.EMPTY : checksum.algorithm.name());
+        out.writeUTF(StringUtils.defaultString(checksum.hash));
+        out.writeBoolean(null != status.getRename().remote);
+        if(null != status.getRename().remote) {
+            this.write(status.getRename().remote);
+        }
+        out.writeUTF(null == status.getRename().local ? StringUtils.EMPTY : status.getRename().local.getAbsolute());
+        final Map<String, String> metadata = null == status.getMetadata() ? Collections.emptyMap() : status.getMetadata();
+        out.writeInt(metadata.size());
+        for(Map.Entry<String, String> entry : metadata.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(StringUtils.defaultString(entry.getValue()));
+        }
+        out.writeLong(size);
+        out.writeLong(modified);
+        index.put(fingerprint(item), position);
+    }
+
+    private void write(final Path path) throws IOException {
+        out.writeUTF(path.getAbsolute());
+        out.writeInt(types(path.getType()));
+        out.writeUTF(StringUtils.defaultString(path.attributes().getVersionId()));
+        out.writeUTF(StringUtils.defaultString(path.attributes().getRegion()));
+    }
+
+    /**
+     * @return Number of files recorded
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @param item File
+     * @return True if a record for the file is found in the index
+     */
+    public synchronized boolean contains(final TransferItem item) {
+        return index.containsKey(fingerprint(item));
+    }
+
+    /**
+     * @param item File
+     * @return Latest record for file or null if not recorded
+     */
+    private synchronized Record find(final TransferItem item) {
+        final Long position = index.get(fingerprint(item));
+        if(null == position) {
+            return null;
+        }
+        this.flush();
+        try (Reader reader = new Reader(this.input(position), position)) {
+            if(reader.hasNext()) {
+                final Record record = reader.next();
+                if(record.item.equals(item)) {
+                    return record;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param table Transfer status of files not yet recorded
+     * @return Transfer status of files in table followed by files read lazily from log
+     */
+    public Map<TransferItem, TransferStatus> view(final Map<TransferItem, TransferStatus> table) {
+        return new AbstractMap<TransferItem, TransferStatus>() {
+            @Override
+            public Set<Entry<TransferItem, TransferStatus>> entrySet() {
+                return new AbstractSet<Entry<TransferItem, TransferStatus>>() {
+                    @Override
+                    public Iterator<Entry<TransferItem, TransferStatus>> iterator() {
+                        final Iterator<Entry<TransferItem, TransferStatus>> pending = table.entrySet().iterator();
+                        final Reader reader = TransferPlan.this.reader();
+                        return new Iterator<Entry<TransferItem, TransferStatus>>() {
+                            private Record next;
+
+                            @Override
+                            public boolean hasNext() {
+                                if(pending.hasNext()) {
+                                    return true;
+                                }
+                                while(null == next && reader.hasNext()) {
+                                    final Record record = reader.next();
+                                    // Skip superseded records and files with status still in table
+                                    if(TransferPlan.this.isLatest(record) && !table.containsKey(record.item)) {
+                                        next = record;
+                                    }
+                                }
+                                return null != next;
+                            }
+
+                            @Override
+                            public Entry<TransferItem, TransferStatus> next() {
+                                if(!this.hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                if(pending.hasNext()) {
+                                    return pending.next();
+                                }
+                                final Record record = next;
+                                next = null;
+                                return new AbstractMap.SimpleImmutableEntry<>(record.item, record.status);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        int size = TransferPlan.this.size();
+                        for(TransferItem item : table.keySet()) {
+                            if(TransferPlan.this.contains(item)) {
+                                size--;
+                            }
+                        }
+                        return table.size() + size;
+                    }
+                };
+            }
+
+            @Override
+            public TransferStatus get(final Object key) {
+                final TransferStatus status = table.get(key);
+                if(null != status) {
+                    return status;
+                }
+                if(key instanceof TransferItem) {
+                    final Record record = TransferPlan.this.find((TransferItem) key);
+                    if(null != record) {
+                        return record.status;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean containsKey(final Object key) {
+                if(table.containsKey(key)) {
+                    return true;
+                }
+                if(key instanceof TransferItem) {
+                    return null != TransferPlan.this.find((TransferItem) key);
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param delete Remove log from disk
+     */
+    public synchronized void close(final boolean delete) {
+        IOUtils.closeQuietly(out);
+        out = null;
+        counter = null;
+        index.clear();
+        if(delete) {
+            try {
+                file.delete();
+            }
+            catch(NotfoundException | AccessDeniedException e) {
+                log.warn(String.format("Failure %s deleting transfer plan %s", e, file));
+            }
+        }
+    }
+
+    private synchronized boolean isLatest(final Record record) {
+        final Long position = index.get(fingerprint(record.item));
+        return null != position && position == record.position;
+    }
+
+    private synchronized Reader reader() {
+        this.flush();
+        return new Reader(this.input(0L), 0L);
+    }
+
+    private void flush() {
+        if(null != out) {
+            try {
+                out.flush();
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure %s flushing transfer plan %s", e, file));
+            }
+        }
+    }
+
+    /**
+     * @param position Position of record in log
+     */
+    private InputStream input(final long position) {
+        if(!file.exists()) {
+            return null;
+        }
+        InputStream in = null;
+        try {
+            in = file.getInputStream();
+            IOUtils.skipFully(in, position);
+            return new BufferedInputStream(in);
+        }
+        catch(AccessDeniedException | IOException e) {
+            IOUtils.closeQuietly(in);
+            log.warn(String.format("Failure %s reading transfer plan %s", e, file));
+            return null;
+        }
+    }
+
+    private static int types(final EnumSet<Path.Type> types) {
+        int value = 0;
+        for(Path.Type type : types) {
+            value |= 1 << type.ordinal();
+        }
+        return value;
+    }
+
+    private static EnumSet<Path.Type> types(final int value) {
+        final EnumSet<Path.Type> types = EnumSet.noneOf(Path.Type.class);
+        for(Path.Type type : Path.Type.values()) {
+            if((value & 1 << type.ordinal()) != 0) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of remote and local path
+     */
+    private static long fingerprint(final TransferItem item) {
+        long hash = 0xcbf29ce484222325L;
+        final String key = String.format("%s%c%s", item.remote.getAbsolute(),
+            '\0', null == item.local ? StringUtils.EMPTY : item.local.getAbsolute());
+        for(int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class Record {
+        private final long position;
+        private final TransferItem item;
+        private final TransferStatus status;
+        /**
+         * Size of local file when transferred
+         */
+        private final long size;
+        /**
+         * Modification date of local file when transferred
+         */
+        private final long modified;
+
+        public Record(final long position, final TransferItem item, final TransferStatus status, final long size, final long modified) {
+            this.position = position;
+            this.item = item;
+            this.status = status;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+
+    /**
+     * Read records sequentially. Stops at a truncated record written when interrupted.
+     */
+    private final class Reader implements Iterator<Record>, AutoCloseable {
+        /**
+         * Position in log where input stream was opened
+         */
+        private final long offset;
+
+        private CountingInputStream counter;
+        private DataInputStream in;
+        private Record next;
+
+        public Reader(final InputStream in, final long offset) {
+            this.offset = offset;
+            this.counter = null == in ? null : new CountingInputStream(in);
+            this.in = null == in ? null : new DataInputStream(counter);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if(null != next) {
+                return true;
+            }
+            if(null == in) {
+                return false;
+            }
+            try {
+                final long position = offset + counter.getByteCount();
+                final Path remote = this.path();
+                final String local = in.readUTF();
+                final String lockId = in.readUTF();
+                final long length = in.readLong();
+                final long offset = in.readLong();
+                final int flags = in.readByte();
+                // Set offset after append flag which clears offset
+                final TransferStatus status = new TransferStatus()
+                    .exists((flags & EXISTS) != 0)
+                    .append((flags & APPEND) != 0)
+                    .length(length)
+                    .skip(offset);
+                if((flags & COMPLETE) != 0) {
+                    status.setComplete();
+                }
+                else {
+                    status.setFailure();
+                }
+                final String version = in.readUTF();
+                if(StringUtils.isNotBlank(version)) {
+                    status.setVersion(new VersionId(version));
+                }
+                final String algorithm = in.readUTF();
+                final String hash = in.readUTF();
+                if(StringUtils.isNotBlank(hash)) {
+                    status.setChecksum(new Checksum(StringUtils.isBlank(algorithm) ? null : HashAlgorithm.valueOf(algorithm), hash));
+                }
+                if(in.readBoolean()) {
+                    status.rename(this.path());
+                }
+                final String renamed = in.readUTF();
+                if(StringUtils.isNotEmpty(renamed)) {
+                    status.rename(LocalFactory.get(renamed));
+                }
+                final int count = in.readInt();
+                if(count > 0) {
+                    final Map<String, String> metadata = new HashMap<>(count);
+                    for(int i = 0; i < count; i++) {
+                        metadata.put(in.readUTF(), in.readUTF());
+                    }
+                    status.setMetadata(metadata);
+                }
+                final long size = in.readLong();
+                final long modified = in.readLong();
+                next = new Record(position, new TransferItem(remote, StringUtils.isEmpty(local) ? null : LocalFactory.get(local),
+                    StringUtils.isEmpty(lockId) ? null : lockId), status, size, modified);
+                return true;
+            }
+            catch(EOFException e) {
+                this.close();
+                return false;
+            }
+            catch(IOException | IllegalArgumentException e) {
+                log.warn(String.format("Failure %s reading transfer plan %s", e, file));
+                this.close();
+                return false;
+            }
+        }
+
+        private Path path() throws IOException {
+            final Path path = new Path(in.readUTF(), types(in.readInt()));
+            final String version = in.readUTF();
+            if(StringUtils.isNotEmpty(version)) {
+                path.attributes().setVersionId(version);
+            }
+            final String region = in.readUTF();
+            if(StringUtils.isNotEmpty(region)) {
+                path.attributes().setRegion(region);
+            }
+            return path;
+        }
+
+        @Override
+        public Record next() {
+            if(!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Record record = next;
+            next = null;
+            return record;
+        }
+
+        @Override
+        public void close() {
+            IOUtils.closeQuietly(in);
+            in = null;
+            counter = null;
+        }
+    }
+}
@@ -19,6 +19,7 @@ package ch.cyberduck.core.transfer;
  * dkocher@cyberduck.ch
  */
 
+import ch.cyberduck.core.Host;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.local.ApplicationBadgeLabeler;
@@ -31,69 +32,158 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
+/**
+ * Admit transfers to a limited number of slots. Transfers waiting for a slot are not bound to a thread but are
+ * handed their slot by completing the future returned when offered. Waiting transfers are admitted ordered by
+ * priority, then with smaller transfers first and in order of arrival otherwise. The number of slots used by
+ * transfers to the same host can be limited in addition.
+ */
 public final class TransferQueue {
     private static final Logger log = Logger.getLogger(TransferQueue.class);
 
     private final ApplicationBadgeLabeler label
             = ApplicationBadgeLabelerFactory.get();
 
-    private BlockingQueue<Transfer> running;
-
     private final NotificationService notification
             = NotificationServiceFactory.get();
 
-    private final List<Transfer> temporary
-            = new ArrayList<Transfer>();
+    /**
+     * Size classes of transfers. Transfers with unknown size are not preferred.
+     */
+    private static final long[] classes = {1024L * 1024L, 100L * 1024L * 1024L};
+
+    private final Object lock = new Object();
+
+    /**
+     * Transfers holding a slot
+     */
+    private final Map<Transfer, String> running = new IdentityHashMap<>();
+    /**
+     * Number of running transfers by host
+     */
+    private final Map<String, Integer> hosts = new HashMap<>();
+    /**
+     * Transfers waiting for slot ordered for admission
+     */
+    private final NavigableSet<Slot> waiting = new TreeSet<>(Comparator
+            .comparing((Slot slot) -> slot.priority)
+            .thenComparingInt(slot -> slot.size)
+            .thenComparingLong(slot -> slot.sequence));
+    private final Map<Transfer, Slot> slots = new IdentityHashMap<>();
 
-    private final Map<Transfer, Thread> threads
-            = new HashMap<Transfer, Thread>();
+    private long sequence;
+    private int size;
+    private final int host;
 
     public TransferQueue() {
-        this(PreferencesFactory.get().getInteger("queue.connections.limit"));
+        this(PreferencesFactory.get().getInteger("queue.connections.limit"),
+                PreferencesFactory.get().getInteger("queue.connections.host.limit"));
     }
 
     public TransferQueue(final int size) {
-        this.running = new ArrayBlockingQueue<Transfer>(size, true);
+        this(size, -1);
+    }
+
+    /**
+     * @param size Maximum number of running transfers
+     * @param host Maximum number of running transfers to the same host or -1 for no limit
+     */
+    public TransferQueue(final int size, final int host) {
+        this.size = size;
+        this.host = host;
     }
 
     /**
      * Idle this transfer until a free slot is available depending on
-     * the maximum number of concurrent transfers allowed in the Preferences.
+     * the maximum number of concurrent transfers allowed in the Preferences. Blocks the calling thread.
      *
      * @param t This transfer should respect the settings for maximum number of transfers
      */
     public void add(final Transfer t, final ProgressListener listener) {
+        final CompletableFuture<Transfer> future = this.offer(t, Priority.norm, listener);
+        try {
+            future.get();
+        }
+        catch(InterruptedException e) {
+            log.warn(String.format("Interrupted waiting for slot in queue for transfer %s", t));
+            this.withdraw(t, future);
+            Thread.currentThread().interrupt();
+        }
+        catch(ExecutionException | CancellationException e) {
+            log.warn(String.format("Error waiting for slot in queue. %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * Drop slot offered for transfer whether still waiting or admitted meanwhile
+     *
+     * @param t      Transfer
+     * @param future Returned when offered
+     */
+    private void withdraw(final Transfer t, final CompletableFuture<Transfer> future) {
+        if(future.isCancelled()) {
+            // Already removed
+            return;
+        }
+        final boolean queued;
+        synchronized(lock) {
+            final Slot slot = slots.get(t);
+            queued = slot != null && slot.future == future;
+            if(queued) {
+                slots.remove(t);
+                waiting.remove(slot);
+            }
+        }
+        if(queued) {
+            future.cancel(false);
+        }
+        else {
+            // Release slot admitted meanwhile
+            this.remove(t);
+        }
+    }
+
+    /**
+     * Request slot without blocking
+     *
+     * @param t        Transfer
+     * @param priority Admit before transfers with lower priority
+     * @param listener Notified when transfer has to wait for a slot
+     * @return Future completed when the transfer holds a slot or canceled when removed from the queue before
+     */
+    public CompletableFuture<Transfer> offer(final Transfer t, final Priority priority, final ProgressListener listener) {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Add transfer %s to queue", t));
         }
-        if(0 == running.remainingCapacity()) {
+        final Slot slot = new Slot(t, priority);
+        final List<Slot> admitted;
+        synchronized(lock) {
+            slot.sequence = sequence++;
+            slots.put(t, slot);
+            waiting.add(slot);
+            admitted = this.admit();
+        }
+        if(!admitted.contains(slot)) {
             if(log.isInfoEnabled()) {
                 log.info(String.format("Queuing transfer %s", t));
             }
             listener.message(LocaleFactory.localizedString("Maximum allowed connections exceeded. Waiting", "Status"));
             notification.notify(t.getName(), t.getUuid(), "Transfer queued", t.getName());
         }
-        // The maximum number of transfers is already reached. Wait for transfer slot.
-        try {
-            threads.put(t, Thread.currentThread());
-            running.put(t);
-        }
-        catch(InterruptedException e) {
-            log.error(String.format("Error waiting for slot in queue. %s", e.getMessage()));
-        }
-        finally {
-            threads.remove(t);
-        }
-        if(log.isInfoEnabled()) {
-            log.info(String.format("Released from queue %s", t));
-        }
-        label.badge(String.valueOf(running.size()));
+        this.release(admitted);
+        return slot.future;
     }
 
     /**
@@ -103,24 +193,28 @@ public final class TransferQueue {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Remove %s from queue", t));
         }
-        if(running.remove(t)) {
-            if(0 == running.size()) {
-                label.badge(StringUtils.EMPTY);
+        final List<Slot> admitted;
+        final Slot canceled;
+        synchronized(lock) {
+            final String key = running.remove(t);
+            if(key != null) {
+                hosts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+                canceled = null;
             }
             else {
-                label.badge(String.valueOf(running.size()));
+                canceled = slots.remove(t);
+                if(canceled != null) {
+                    waiting.remove(canceled);
+                }
             }
+            // Transfer has finished.
+            admitted = this.admit();
         }
-        else {
-            final Thread removed = threads.remove(t);
-            if(removed != null) {
-                log.warn(String.format("Interrupt thread %s for transfer %s", removed, t));
-                removed.interrupt();
-            }
-            temporary.remove(t);
+        if(canceled != null) {
+            log.warn(String.format("Cancel waiting for slot for transfer %s", t));
+            canceled.future.cancel(false);
         }
-        // Transfer has finished.
-        this.poll();
+        this.release(admitted);
     }
 
     /**
@@ -130,22 +224,89 @@ public final class TransferQueue {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Resize queue to %d", newsize));
         }
-        final int drained = running.drainTo(temporary);
-        if(log.isDebugEnabled()) {
-            log.debug(String.format("Drained %d elements", drained));
+        final List<Slot> admitted;
+        synchronized(lock) {
+            size = newsize;
+            admitted = this.admit();
         }
-        running.clear();
-        running = new ArrayBlockingQueue<Transfer>(newsize);
-        this.poll();
+        this.release(admitted);
     }
 
     /**
-     * Poll temporary queue
+     * Move waiting transfers to running while slots are available. Must hold lock.
+     *
+     * @return Admitted transfers
      */
-    private void poll() {
-        if(log.isDebugEnabled()) {
-            log.debug("Polling overflow queue");
+    private List<Slot> admit() {
+        final List<Slot> admitted = new ArrayList<>();
+        for(Iterator<Slot> iter = waiting.iterator(); iter.hasNext() && running.size() < size; ) {
+            final Slot next = iter.next();
+            final String key = key(next.transfer.getSource());
+            if(host > 0 && hosts.getOrDefault(key, 0) >= host) {
+                continue;
+            }
+            iter.remove();
+            slots.remove(next.transfer);
+            running.put(next.transfer, key);
+            hosts.merge(key, 1, Integer::sum);
+            admitted.add(next);
+        }
+        return admitted;
+    }
+
+    /**
+     * Complete futures of admitted transfers outside of lock
+     */
+    private void release(final List<Slot> admitted) {
+        for(Slot slot : admitted) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Released from queue %s", slot.transfer));
+            }
+            slot.future.complete(slot.transfer);
+        }
+        final int count;
+        synchronized(lock) {
+            count = running.size();
+        }
+        label.badge(0 == count ? StringUtils.EMPTY : String.valueOf(count));
+    }
+
+    private static String key(final Host host) {
+        return String.format("%s:%d", host.getHostname(), host.getPort());
+    }
+
+    private static int classify(final Long size) {
+        if(null == size || size <= 0L) {
+            return classes.length;
+        }
+        for(int i = 0; i < classes.length; i++) {
+            if(size < classes[i]) {
+                return i;
+            }
+        }
+        return classes.length;
+    }
+
+    public enum Priority {
+        high,
+        norm,
+        low
+    }
+
+    private static final class Slot {
+        private final Transfer transfer;
+        private final Priority priority;
+        /**
+         * Size class
+         */
+        private final int size;
+        private final CompletableFuture<Transfer> future = new CompletableFuture<>();
+        private long sequence;
+
+        public Slot(final Transfer transfer, final Priority priority) {
+            this.transfer = transfer;
+            this.priority = priority;
+            this.size = classify(transfer.getSize());
         }
-        temporary.removeIf(transfer -> running.offer(transfer));
     }
 }
@@ -34,8 +34,12 @@ import ch.cyberduck.core.exception.InteroperabilityException;
 import ch.cyberduck.core.features.AclPermission;
 import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.Multipart;
+import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.features.Timestamp;
 import ch.cyberduck.core.features.UnixPermission;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
@@ -47,20 +51,31 @@ import ch.cyberduck.core.transfer.upload.UploadFilterOptions;
 import org.apache.log4j.Logger;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 public abstract class AbstractCopyFilter implements TransferPathFilter {
     private static final Logger log = Logger.getLogger(AbstractCopyFilter.class);
 
+    /**
+     * Parameter key for identifier of pending multipart upload in segments
+     */
+    public static final String UPLOAD_ID = "uploadId";
+
+    private final Preferences preferences
+            = PreferencesFactory.get();
+
     protected final Session<?> sourceSession;
 
     protected final Session<?> destinationSession;
 
     protected Cache<Path> sourceCache
-            = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
+            = new PathCache(preferences.getInteger("transfer.cache.size"));
 
     protected final Cache<Path> destinationCache
-            = new PathCache(PreferencesFactory.get().getInteger("transfer.cache.size"));
+            = new PathCache(preferences.getInteger("transfer.cache.size"));
 
     protected final Map<Path, Path> files;
 
@@ -122,21 +137,104 @@ public abstract class AbstractCopyFilter implements TransferPathFilter {
                 status.setExists(true);
             }
         }
+        if(source.isFile()) {
+            if(preferences.getBoolean("queue.copy.segments")) {
+                this.segment(source, status);
+            }
+        }
         return status;
     }
 
+    /**
+     * Split file into segments read with offset from source and written concurrently as parts of a multipart upload
+     * to the target
+     */
+    private void segment(final Path source, final TransferStatus status) throws BackgroundException {
+        if(status.getLength() < preferences.getLong("queue.copy.segments.threshold")) {
+            return;
+        }
+        final Path target = files.get(source);
+        final Multipart multipart = destinationSession.getFeature(Multipart.class);
+        if(null == multipart || !multipart.isSupported(target)) {
+            return;
+        }
+        if(!sourceSession.getFeature(Read.class).offset(source)) {
+            return;
+        }
+        // Part size from default setting of size divided by maximum number of connections
+        final long partsize = multipart.partsize(status.getLength(), Math.max(
+                preferences.getLong("queue.copy.segments.size"),
+                status.getLength() / preferences.getInteger("queue.connections.limit")));
+        if(status.getLength() <= partsize) {
+            return;
+        }
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Split copy of %s into segments of %d bytes", source, partsize));
+        }
+        // Checksum of file does not apply to parts
+        status.setChecksum(Checksum.NONE);
+        final Map<String, String> parameters = Collections.singletonMap(UPLOAD_ID, multipart.start(target, status));
+        // Sorted list
+        final List<TransferStatus> segments = new ArrayList<TransferStatus>();
+        long remaining = status.getLength();
+        long offset = 0;
+        for(int partNumber = 1; remaining > 0; partNumber++) {
+            final long length = Math.min(partsize, remaining);
+            final TransferStatus segmentStatus = new TransferStatus()
+                    .segment(true) // Skip completion filter for single segment
+                    .append(true) // Read with offset
+                    .skip(offset)
+                    .length(length)
+                    .withParameters(parameters);
+            segmentStatus.setPart(partNumber);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Adding status %s for part %d at offset %d", segmentStatus, partNumber, offset));
+            }
+            segments.add(segmentStatus);
+            remaining -= length;
+            offset += length;
+        }
+        status.withParameters(parameters).withSegments(segments);
+    }
+
     @Override
     public void apply(final Path source, final Local n, final TransferStatus status, final ProgressListener listener) {
         //
     }
 
     @Override
-    public void complete(final Path source, final Local n, final TransferOptions options, final TransferStatus status, final ProgressListener listener) {
+    public void complete(final Path source, final Local n, final TransferOptions options, final TransferStatus status, final ProgressListener listener) throws BackgroundException {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Complete %s with status %s", source.getAbsolute(), status));
         }
+        if(status.isSegment()) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Skip completion for single segment %s", status));
+            }
+            return;
+        }
+        if(status.isSegmented() && !status.isComplete()) {
+            final Path target = files.get(source);
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Abort multipart upload to %s for failed transfer", target));
+            }
+            try {
+                destinationSession.getFeature(Multipart.class).abort(target, status.getParameters().get(UPLOAD_ID));
+            }
+            catch(BackgroundException e) {
+                // Ignore
+                log.warn(e.getMessage());
+            }
+            return;
+        }
         if(status.isComplete()) {
             final Path target = files.get(source);
+            if(status.isSegmented()) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Complete multipart upload of %d segments to %s", status.getSegments().size(), target));
+                }
+                destinationSession.getFeature(Multipart.class).complete(target, status.getParameters().get(UPLOAD_ID), status);
+            }
             if(!Permission.EMPTY.equals(status.getPermission())) {
                 final UnixPermission feature = destinationSession.getFeature(UnixPermission.class);
                 if(feature != null) {
@@ -48,6 +48,7 @@ import ch.cyberduck.core.local.QuarantineService;
 import ch.cyberduck.core.local.QuarantineServiceFactory;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.shared.CachingAttributesFinderFeature;
 import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferPathFilter;
 import ch.cyberduck.core.transfer.TransferStatus;
@@ -84,7 +85,13 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
         this.symlinkResolver = symlinkResolver;
         this.session = session;
         this.options = options;
-        this.attribute = session.getFeature(AttributesFinder.class);
+        if(preferences.getBoolean("queue.download.attributes.listing")) {
+            // Answer from directory listing obtained when listing children of folder to download
+            this.attribute = new CachingAttributesFinderFeature(session, session.getFeature(AttributesFinder.class));
+        }
+        else {
+            this.attribute = session.getFeature(AttributesFinder.class);
+        }
     }
 
     @Override
@@ -198,7 +205,9 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                 catch(IOException e) {
                     log.warn(String.format("Failure to determine disk space for %s", file.getParent()));
                 }
-                if(status.getLength() * 2 > space) {
+                // Segment files require additional space until concatenated
+                final boolean positional = preferences.getBoolean("queue.download.segments.positional");
+                if(status.getLength() * (positional ? 1 : 2) > space) {
                     log.warn(String.format("Insufficient free disk space %d for segmented download of %s", space, file));
                 }
                 else {
@@ -218,6 +227,22 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                                 status.getLength() / preferences.getInteger("queue.connections.limit"));
                             // Sorted list
                             final List<TransferStatus> segments = new ArrayList<TransferStatus>();
+                            if(positional) {
+                                for(; remaining > 0; remaining -= partsize, offset += partsize) {
+                                    // Segments write directly to target file at offset
+                                    final TransferStatus segmentStatus = new TransferStatus()
+                                        .segment(true) // Skip completion filter for single segment
+                                        .append(true) // Read with offset
+                                        .skip(offset)
+                                        .length(Math.min(partsize, remaining));
+                                    if(log.isDebugEnabled()) {
+                                        log.debug(String.format("Adding status %s for segment at offset %d", segmentStatus, offset));
+                                    }
+                                    segments.add(segmentStatus);
+                                }
+                                status.withSegments(segments);
+                                return this.checksum(status, attributes);
+                            }
                             final Local segmentsFolder = LocalFactory.get(local.getParent(), String.format("%s.cyberducksegment", local.getName()));
                             for(int segmentNumber = 1; remaining > 0; segmentNumber++) {
                                 final Local segmentFile = LocalFactory.get(
@@ -255,16 +280,64 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
                 }
             }
         }
+        return this.checksum(status, attributes);
+    }
+
+    private TransferStatus checksum(final TransferStatus status, final PathAttributes attributes) {
         if(options.checksum) {
             status.setChecksum(attributes.getChecksum());
         }
         return status;
     }
 
+    /**
+     * @return True if segments are written in place to the target file
+     */
+    protected static boolean isPositional(final TransferStatus status) {
+        return status.isSegmented() && null == status.getSegments().get(0).getRename().local;
+    }
+
+    /**
+     * @return Size of all but the last segment
+     */
+    protected static long getPartsize(final TransferStatus status) {
+        return status.getSegments().get(0).getLength();
+    }
+
+    /**
+     * @return Total length of all segments
+     */
+    protected static long getSegmentsLength(final TransferStatus status) {
+        long length = 0L;
+        for(TransferStatus segment : status.getSegments()) {
+            length += segment.getLength();
+        }
+        return length;
+    }
+
+    /**
+     * Set length of temporary file for segments written in place and record progress in sidecar unless resuming
+     */
     @Override
     public void apply(final Path file, final Local local, final TransferStatus status,
                       final ProgressListener listener) throws BackgroundException {
-        //
+        if(isPositional(status)) {
+            final SegmentBitmap bitmap = new SegmentBitmap(local);
+            for(TransferStatus segment : status.getSegments()) {
+                if(segment.isComplete()) {
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Resume segmented download to %s with sidecar %s", local, bitmap.getFile()));
+                    }
+                    return;
+                }
+            }
+            final long length = getSegmentsLength(status);
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Set length %d of temporary file %s for segmented download", length, bitmap.getTemporary()));
+            }
+            bitmap.create(length, getPartsize(status));
+            bitmap.getTemporary().setLength(length);
+        }
     }
 
     /**
@@ -278,13 +351,30 @@ public abstract class AbstractDownloadFilter implements TransferPathFilter {
             log.debug(String.format("Complete %s with status %s", file.getAbsolute(), status));
         }
         if(status.isSegment()) {
+            if(null == status.getRename().local) {
+                if(status.isComplete()) {
+                    // Offset has been advanced to the end of the segment
+                    new SegmentBitmap(local).mark(status.getOffset() - 1);
+                }
+            }
             if(log.isDebugEnabled()) {
                 log.debug(String.format("Skip completion for single segment %s", status));
             }
             return;
         }
         if(status.isComplete()) {
-            if(status.isSegmented()) {
+            if(isPositional(status)) {
+                final SegmentBitmap bitmap = new SegmentBitmap(local);
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Rename %s to %s for completed download", bitmap.getTemporary(), local));
+                }
+                bitmap.getTemporary().rename(local);
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("Delete sidecar %s for completed download %s", bitmap.getFile(), local));
+                }
+                bitmap.delete();
+            }
+            else if(status.isSegmented()) {
                 // Obtain ordered list of segments to reassemble
                 final List<TransferStatus> segments = status.getSegments();
                 if(log.isInfoEnabled()) {
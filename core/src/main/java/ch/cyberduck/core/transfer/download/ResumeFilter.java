@@ -32,6 +32,9 @@ import ch.cyberduck.core.transfer.symlink.SymlinkResolver;
 
 import org.apache.log4j.Logger;
 
+import java.util.BitSet;
+import java.util.List;
+
 public class ResumeFilter extends AbstractDownloadFilter {
     private static final Logger log = Logger.getLogger(ResumeFilter.class);
 
@@ -87,7 +90,32 @@ public class ResumeFilter extends AbstractDownloadFilter {
     @Override
     public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) throws BackgroundException {
         final TransferStatus status = super.prepare(file, local, parent, progress);
-        if(status.isSegmented()) {
+        if(isPositional(status)) {
+            final SegmentBitmap bitmap = new SegmentBitmap(local);
+            final Local temporary = bitmap.getTemporary();
+            final BitSet completed = temporary.exists() && temporary.attributes().getSize() == getSegmentsLength(status) ?
+                bitmap.read(getSegmentsLength(status), getPartsize(status)) : null;
+            if(null == completed) {
+                if(log.isInfoEnabled()) {
+                    log.info(String.format("No completed segments recorded for %s", temporary));
+                }
+            }
+            else {
+                final List<TransferStatus> segments = status.getSegments();
+                for(int i = completed.nextSetBit(0); i >= 0 && i < segments.size(); i = completed.nextSetBit(i + 1)) {
+                    final TransferStatus segmentStatus = segments.get(i);
+                    if(log.isInfoEnabled()) {
+                        log.info(String.format("Skip completed segment %s", segmentStatus));
+                    }
+                    segmentStatus.setComplete();
+                    // Recalculate transfer length
+                    status.setAppend(true);
+                    status.setLength(status.getLength() - segmentStatus.getLength());
+                    status.setOffset(status.getOffset() + segmentStatus.getLength());
+                }
+            }
+        }
+        else if(status.isSegmented()) {
             for(TransferStatus segmentStatus : status.getSegments()) {
                 final Local segmentFile = segmentStatus.getRename().local;
                 if(segmentFile.exists()) {
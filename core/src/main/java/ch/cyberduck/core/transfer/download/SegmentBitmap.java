@@ -0,0 +1,184 @@
+package ch.cyberduck.core.transfer.download;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LocalFactory;
+import ch.cyberduck.core.exception.LocalAccessDeniedException;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Sidecar file next to a download written in place by segments recording which segments have been completed. Contains
+ * the length of the download and the segment size followed by one bit per segment. Segments are written to a
+ * temporary file renamed to the download target when all segments are complete.
+ */
+public class SegmentBitmap {
+    private static final Logger log = Logger.getLogger(SegmentBitmap.class);
+
+    private static final int HEADER = 2 * Long.BYTES;
+
+    /**
+     * Serialize updates to sidecar files
+     */
+    private static final Object lock = new Object();
+
+    private final Local file;
+    private final Local temporary;
+
+    /**
+     * @param local Download target
+     */
+    public SegmentBitmap(final Local local) {
+        this.file = LocalFactory.get(local.getParent(), String.format("%s.cyberducksegments", local.getName()));
+        this.temporary = LocalFactory.get(local.getParent(), String.format("%s.cyberduckdownload", local.getName()));
+    }
+
+    public Local getFile() {
+        return file;
+    }
+
+    /**
+     * @return Temporary file with length of download segments are written to at their offset
+     */
+    public Local getTemporary() {
+        return temporary;
+    }
+
+    public boolean exists() {
+        return file.exists();
+    }
+
+    /**
+     * Write sidecar with no segment completed
+     *
+     * @param length   Length of download
+     * @param partsize Size of segments except for the last one
+     */
+    public void create(final long length, final long partsize) throws LocalAccessDeniedException {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER + (int) ((count(length, partsize) + 7) / 8));
+        buffer.putLong(length).putLong(partsize);
+        buffer.rewind();
+        synchronized(lock) {
+            try (FileChannel channel = FileChannel.open(this.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while(buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            catch(IOException e) {
+                throw new LocalAccessDeniedException(e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * @param length   Length of download
+     * @param partsize Size of segments except for the last one
+     * @return Completed segments by index or null if missing or recorded for a different download
+     */
+    public BitSet read(final long length, final long partsize) {
+        synchronized(lock) {
+            try {
+                final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(this.toPath()));
+                if(buffer.remaining() != HEADER + (count(length, partsize) + 7) / 8) {
+                    log.warn(String.format("Ignore sidecar %s with size %d", file, buffer.remaining()));
+                    return null;
+                }
+                if(buffer.getLong() != length || buffer.getLong() != partsize) {
+                    log.warn(String.format("Ignore sidecar %s for different segments", file));
+                    return null;
+                }
+                return BitSet.valueOf(buffer);
+            }
+            catch(NoSuchFileException e) {
+                return null;
+            }
+            catch(IOException e) {
+                log.warn(String.format("Failure %s reading sidecar %s", e, file));
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Record segment as completed. No operation if the sidecar has already been removed.
+     *
+     * @param position Any offset within the segment
+     */
+    public void mark(final long position) throws LocalAccessDeniedException {
+        synchronized(lock) {
+            try (FileChannel channel = FileChannel.open(this.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER);
+                while(header.hasRemaining()) {
+                    if(-1 == channel.read(header, header.position())) {
+                        log.warn(String.format("Missing header in sidecar %s", file));
+                        return;
+                    }
+                }
+                header.flip();
+                header.getLong();
+                final long index = position / header.getLong();
+                final long offset = HEADER + index / 8;
+                final ByteBuffer value = ByteBuffer.allocate(1);
+                if(-1 == channel.read(value, offset)) {
+                    log.warn(String.format("Segment %d out of range in sidecar %s", index, file));
+                    return;
+                }
+                value.put(0, (byte) (value.get(0) | (1 << (index % 8))));
+                value.rewind();
+                channel.write(value, offset);
+                channel.force(false);
+            }
+            catch(NoSuchFileException e) {
+                log.warn(String.format("Missing sidecar %s", file));
+            }
+            catch(IOException e) {
+                throw new LocalAccessDeniedException(e.getMessage(), e);
+            }
+        }
+    }
+
+    public void delete() throws LocalAccessDeniedException {
+        synchronized(lock) {
+            try {
+                Files.deleteIfExists(this.toPath());
+            }
+            catch(IOException e) {
+                throw new LocalAccessDeniedException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private Path toPath() {
+        return Paths.get(file.getAbsolute());
+    }
+
+    private static long count(final long length, final long partsize) {
+        return (length + partsize - 1) / partsize;
+    }
+}
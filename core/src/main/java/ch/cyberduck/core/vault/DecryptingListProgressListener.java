@@ -68,6 +68,12 @@ public class DecryptingListProgressListener extends IndexedListProgressListener
         delegate.chunk(folder, list);
     }
 
+    @Override
+    public void chunk(final Path folder, final AttributedList<Path> list, final int offset, final boolean complete) throws ConnectionCanceledException {
+        super.chunk(folder, list, offset, complete);
+        delegate.chunk(folder, list, offset, complete);
+    }
+
     @Override
     public void message(final String message) {
         delegate.message(message);
@@ -125,6 +125,9 @@ public class DefaultVaultRegistry extends CopyOnWriteArraySet<Vault> implements
                 .withAutodetect(preferences.getBoolean("cryptomator.vault.autodetect")
                 );
         }
+        if(type == FlatListing.class) {
+            return (T) new VaultRegistryFlatListingFeature(session, (FlatListing) proxy, this);
+        }
         if(type == Find.class) {
             return (T) new VaultRegistryFindFeature(session, (Find) proxy, this,
                 new LoadingVaultLookupListener(this, keychain, prompt))
@@ -155,6 +158,9 @@ public class DefaultVaultRegistry extends CopyOnWriteArraySet<Vault> implements
         if(type == MultipartWrite.class) {
             return (T) new VaultRegistryMultipartWriteFeature(session, (MultipartWrite) proxy, this);
         }
+        if(type == Multipart.class) {
+            return (T) new VaultRegistryMultipartFeature(session, (Multipart) proxy, this);
+        }
         if(type == Move.class) {
             return (T) new VaultRegistryMoveFeature(session, (Move) proxy, this);
         }
@@ -206,6 +212,9 @@ public class DefaultVaultRegistry extends CopyOnWriteArraySet<Vault> implements
         if(type == Logging.class) {
             return (T) new VaultRegistryLoggingFeature(session, (Logging) proxy, this);
         }
+        if(type == RemoteChecksum.class) {
+            return (T) new VaultRegistryRemoteChecksumFeature(session, (RemoteChecksum) proxy, this);
+        }
         if(type == Redundancy.class) {
             return (T) new VaultRegistryRedundancyFeature(session, (Redundancy) proxy, this);
         }
@@ -0,0 +1,66 @@
+package ch.cyberduck.core.vault.registry;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.FlatListing;
+import ch.cyberduck.core.features.Vault;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+import ch.cyberduck.core.vault.VaultRegistry;
+
+/**
+ * Flat listing returns encrypted keys and is not supported for directories in or containing a vault
+ */
+public class VaultRegistryFlatListingFeature implements FlatListing {
+
+    private final Session<?> session;
+    private final FlatListing proxy;
+    private final VaultRegistry registry;
+
+    public VaultRegistryFlatListingFeature(final Session<?> session, final FlatListing proxy, final VaultRegistry registry) {
+        this.session = session;
+        this.proxy = proxy;
+        this.registry = registry;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(registry.find(session, directory) != Vault.DISABLED) {
+            throw new UnsupportedException(directory.getAbsolute());
+        }
+        final AttributedList<Path> list = proxy.list(directory, listener);
+        for(Path file : list) {
+            if(DefaultVaultRegistry.DEFAULT_MASTERKEY_FILE_NAME.equals(file.getName())) {
+                // Vault in subdirectory
+                throw new UnsupportedException(file.getParent().getAbsolute());
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("VaultRegistryFlatListingFeature{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,89 @@
+package ch.cyberduck.core.vault.registry;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.Multipart;
+import ch.cyberduck.core.features.Vault;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.core.vault.VaultRegistry;
+import ch.cyberduck.core.vault.VaultUnlockCancelException;
+
+/**
+ * Parts are written unencrypted and not supported for files in a vault
+ */
+public class VaultRegistryMultipartFeature implements Multipart {
+
+    private final Session<?> session;
+    private final Multipart proxy;
+    private final VaultRegistry registry;
+
+    public VaultRegistryMultipartFeature(final Session<?> session, final Multipart proxy, final VaultRegistry registry) {
+        this.session = session;
+        this.proxy = proxy;
+        this.registry = registry;
+    }
+
+    @Override
+    public String start(final Path file, final TransferStatus status) throws BackgroundException {
+        return proxy.start(file, status);
+    }
+
+    @Override
+    public StatusOutputStream<?> write(final Path file, final String upload, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        return proxy.write(file, upload, status, callback);
+    }
+
+    @Override
+    public void complete(final Path file, final String upload, final TransferStatus status) throws BackgroundException {
+        proxy.complete(file, upload, status);
+    }
+
+    @Override
+    public void abort(final Path file, final String upload) throws BackgroundException {
+        proxy.abort(file, upload);
+    }
+
+    @Override
+    public long partsize(final long length, final long preferred) {
+        return proxy.partsize(length, preferred);
+    }
+
+    @Override
+    public boolean isSupported(final Path file) {
+        try {
+            if(registry.find(session, file) != Vault.DISABLED) {
+                return false;
+            }
+        }
+        catch(VaultUnlockCancelException e) {
+            return false;
+        }
+        return proxy.isSupported(file);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("VaultRegistryMultipartFeature{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
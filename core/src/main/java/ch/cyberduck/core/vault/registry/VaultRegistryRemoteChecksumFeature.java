@@ -0,0 +1,55 @@
+package ch.cyberduck.core.vault.registry;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.RemoteChecksum;
+import ch.cyberduck.core.features.Vault;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.vault.VaultRegistry;
+
+public class VaultRegistryRemoteChecksumFeature implements RemoteChecksum {
+
+    private final Session<?> session;
+    private final RemoteChecksum proxy;
+    private final VaultRegistry registry;
+
+    public VaultRegistryRemoteChecksumFeature(final Session<?> session, final RemoteChecksum proxy, final VaultRegistry registry) {
+        this.session = session;
+        this.proxy = proxy;
+        this.registry = registry;
+    }
+
+    @Override
+    public Checksum compute(final Path file, final HashAlgorithm algorithm) throws BackgroundException {
+        if(registry.find(session, file).equals(Vault.DISABLED)) {
+            return proxy.compute(file, algorithm);
+        }
+        // Checksum of encrypted content on server not comparable with cleartext
+        return Checksum.NONE;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("VaultRegistryRemoteChecksumFeature{");
+        sb.append("proxy=").append(proxy);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -34,10 +34,12 @@ import ch.cyberduck.core.TransferItemCache;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.exception.TransferCanceledException;
+import ch.cyberduck.core.features.Bulk;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.NotificationService;
 import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.shared.DisabledBulkFeature;
 import ch.cyberduck.core.threading.TransferBackgroundActionState;
 import ch.cyberduck.core.transfer.SynchronizingTransferErrorCallback;
 import ch.cyberduck.core.transfer.Transfer;
@@ -45,6 +47,7 @@ import ch.cyberduck.core.transfer.TransferAction;
 import ch.cyberduck.core.transfer.TransferErrorCallback;
 import ch.cyberduck.core.transfer.TransferItem;
 import ch.cyberduck.core.transfer.TransferOptions;
+import ch.cyberduck.core.transfer.TransferPlan;
 import ch.cyberduck.core.transfer.TransferPathFilter;
 import ch.cyberduck.core.transfer.TransferPrompt;
 import ch.cyberduck.core.transfer.TransferSpeedometer;
@@ -55,10 +58,13 @@ import org.apache.commons.lang3.concurrent.ConcurrentUtils;
 import org.apache.log4j.Logger;
 
 import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private static final Logger log = Logger.getLogger(AbstractTransferWorker.class);
@@ -89,6 +95,23 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
     private final StreamListener stream;
     private final Preferences preferences = PreferencesFactory.get();
 
+    /**
+     * Transfer files as soon as their status is determined instead of preparing all files first
+     */
+    private boolean pipelined;
+    /**
+     * Files prepared but not yet submitted for transfer when pipelined
+     */
+    private final Map<TransferItem, TransferStatus> batch = new LinkedHashMap<>();
+    /**
+     * Number of files prepared and not yet transferred when pipelined
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+    /**
+     * Log of transferred files on disk allowing to drop their status from table
+     */
+    private TransferPlan plan;
+
     public AbstractTransferWorker(final Transfer transfer, final TransferOptions options,
                                   final TransferPrompt prompt, final TransferSpeedometer meter,
                                   final TransferErrorCallback error,
@@ -207,24 +230,44 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
             }
             // Reset the cached size of the transfer and progress value
             transfer.reset();
+            if(preferences.getBoolean("queue.transfer.plan")) {
+                plan = new TransferPlan(transfer);
+                // Skip files recorded as complete in previous run when resuming
+                plan.open(TransferAction.resume == action);
+            }
 
             // Normalize Paths before preparing
             progress.message(MessageFormat.format(LocaleFactory.localizedString("Prepare {0} ({1})", "Status"), transfer.getName(), action.getTitle()));
             transfer.normalize();
 
-            // Calculate information about the files in advance to give progress information
-            for(TransferItem next : transfer.getRoots()) {
-                this.prepare(next.remote, next.local, new TransferStatus().exists(true).withLockId(next.lockId).withChecksum(next.checksum), action);
+            pipelined = preferences.getBoolean("queue.transfer.pipeline") && isBatched(source) && isBatched(destination);
+            if(pipelined) {
+                // Transfer files in batches while preparing with total size refined incrementally
+                meter.reset();
+                for(TransferItem next : transfer.getRoots()) {
+                    this.prepare(next.remote, next.local, new TransferStatus().exists(true).withLockId(next.lockId).withChecksum(next.checksum), action);
+                }
+                do {
+                    this.await();
+                }
+                // Submit remaining batch after all files are prepared
+                while(this.flush(source, destination, action, false));
             }
-            this.await();
-            meter.reset();
-            transfer.pre(source, destination, table, connect);
-            // Transfer all files sequentially
-            for(TransferItem next : transfer.getRoots()) {
-                this.transfer(next, action);
+            else {
+                // Calculate information about the files in advance to give progress information
+                for(TransferItem next : transfer.getRoots()) {
+                    this.prepare(next.remote, next.local, new TransferStatus().exists(true).withLockId(next.lockId).withChecksum(next.checksum), action);
+                }
+                this.await();
+                meter.reset();
+                transfer.pre(source, destination, table, connect);
+                // Transfer all files sequentially
+                for(TransferItem next : transfer.getRoots()) {
+                    this.transfer(next, action);
+                }
+                this.await();
             }
-            this.await();
-            transfer.post(source, destination, table, connect);
+            transfer.post(source, destination, this.getStatus(), connect);
         }
         finally {
             this.release(source, Connection.source, null);
@@ -235,8 +278,17 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     "Transfer incomplete", transfer.getName());
             }
             sleep.release(lock);
+            if(null != plan) {
+                // Keep log for incomplete transfer to resume
+                plan.close(transfer.isComplete());
+                plan = null;
+            }
             table.clear();
             cache.clear();
+            synchronized(batch) {
+                batch.clear();
+            }
+            pending.set(0);
         }
         return true;
     }
@@ -264,6 +316,12 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     final Session<?> source = borrow(Connection.source);
                     final Session<?> destination = borrow(Connection.destination);
                     try {
+                        if(null != plan && file.isFile() && plan.isComplete(new TransferItem(file, local))) {
+                            if(log.isInfoEnabled()) {
+                                log.info(String.format("Skip file %s transferred in previous run of transfer %s", file, this));
+                            }
+                            return null;
+                        }
                         // Determine transfer filter implementation from selected overwrite action
                         final TransferPathFilter filter = transfer.filter(source, destination, action, progress);
                         // Only prepare the path it will be actually transferred
@@ -293,13 +351,26 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             transfer.addSize(status.getLength() + status.getOffset());
                             // Add skipped bytes
                             transfer.addTransferred(status.getOffset());
+                            if(pipelined) {
+                                final TransferItem key = new TransferItem(file, local);
+                                if(file.isDirectory()) {
+                                    // Create directory before any children are transferred
+                                    transfer.pre(source, destination, Collections.singletonMap(key, status), connect);
+                                    transfer(key, action, true);
+                                }
+                                else {
+                                    offer(source, destination, key, status, action);
+                                }
+                            }
                             // Recursive
                             if(file.isDirectory()) {
                                 final List<TransferItem> children;
                                 // Call recursively for all children
                                 children = transfer.list(source, file, local, new WorkerListProgressListener(AbstractTransferWorker.this, progress));
-                                // Put into cache for later reference when transferring
-                                cache.put(item, new AttributedList<TransferItem>(children));
+                                if(!pipelined) {
+                                    // Put into cache for later reference when transferring
+                                    cache.put(item, new AttributedList<TransferItem>(children));
+                                }
                                 // Call recursively
                                 for(TransferItem f : children) {
                                     // Change download path relative to parent local folder
@@ -318,7 +389,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             return call();
                         }
                         // Prompt to continue or abort for application errors
-                        else if(error.prompt(new TransferItem(file, local), parent, e, table.size())) {
+                        else if(error.prompt(new TransferItem(file, local), parent, e, AbstractTransferWorker.this.getStatus().size())) {
                             // Continue
                             log.warn(String.format("Ignore transfer failure %s", e));
                             return null;
@@ -349,11 +420,85 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         return null;
     }
 
+    /**
+     * Bulk features such as creating a job, prompting or presetting file keys and headers must be called once with
+     * the full set of files
+     *
+     * @return True if the bulk feature of the session does nothing and can be called for every batch of files
+     */
+    private static boolean isBatched(final Session<?> session) {
+        if(null == session) {
+            return true;
+        }
+        final Bulk<?> proxy = session._getFeature(Bulk.class);
+        if(!(proxy instanceof DisabledBulkFeature)) {
+            return false;
+        }
+        // Not wrapped for files in vaults
+        return session.getFeature(Bulk.class, proxy) == proxy;
+    }
+
+    /**
+     * Add prepared file to batch and submit batch for transfer when full. Transfer in the calling thread instead
+     * when the number of files pending transfer exceeds the limit.
+     */
+    private void offer(final Session<?> source, final Session<?> destination, final TransferItem item,
+                       final TransferStatus status, final TransferAction action) throws BackgroundException {
+        pending.incrementAndGet();
+        final int size;
+        synchronized(batch) {
+            batch.put(item, status);
+            size = batch.size();
+        }
+        if(size >= preferences.getInteger("queue.transfer.pipeline.batch")) {
+            this.flush(source, destination, action, pending.get() > preferences.getInteger("queue.transfer.pipeline.limit"));
+        }
+    }
+
+    /**
+     * Notify transfer of files in batch and submit for transfer
+     *
+     * @param inline Transfer in calling thread
+     * @return False if there was no file pending
+     */
+    private boolean flush(final Session<?> source, final Session<?> destination, final TransferAction action, final boolean inline) throws BackgroundException {
+        final Map<TransferItem, TransferStatus> files;
+        synchronized(batch) {
+            if(batch.isEmpty()) {
+                return false;
+            }
+            files = new LinkedHashMap<>(batch);
+            batch.clear();
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Submit batch of %d files for transfer", files.size()));
+        }
+        transfer.pre(source, destination, files, connect);
+        for(TransferItem item : files.keySet()) {
+            this.transfer(item, action, inline);
+        }
+        return true;
+    }
+
+    private Future<TransferStatus> submit(final TransferCallable callable, final boolean inline) throws BackgroundException {
+        if(inline) {
+            return ConcurrentUtils.constantFuture(callable.call());
+        }
+        return this.submit(callable);
+    }
+
     /**
      * @param item   File to transfer
      * @param action Transfer action for existing files
      */
     public Future<TransferStatus> transfer(final TransferItem item, final TransferAction action) throws BackgroundException {
+        return this.transfer(item, action, false);
+    }
+
+    /**
+     * @param inline Transfer in calling thread
+     */
+    private Future<TransferStatus> transfer(final TransferItem item, final TransferAction action, final boolean inline) throws BackgroundException {
         if(this.isCanceled()) {
             throw new TransferCanceledException();
         }
@@ -375,8 +520,8 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         // Transfer
                         // Do transfer with retry
                         this.retry(segment);
-                        // Recursive
-                        if(item.remote.isDirectory()) {
+                        // Recursive unless children are transferred when prepared
+                        if(item.remote.isDirectory() && !pipelined) {
                             if(!cache.isCached(item)) {
                                 log.warn(String.format("Missing entry for %s in cache", item));
                             }
@@ -401,6 +546,9 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             release(source, Connection.source, null);
                             release(destination, Connection.destination, null);
                         }
+                        if(!status.isSegmented()) {
+                            record(item, status);
+                        }
                         return segment;
                     }
 
@@ -421,6 +569,12 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             release(d, Connection.destination, e);
                             log.warn(String.format("Failure transferring %s. %s", item, e));
                             if(this.retry(e, progress, new TransferBackgroundActionState(status))) {
+                                if(segment.isSegment() && null == segment.getRename().local) {
+                                    // Bytes written in place are discarded from progress on failure. Retry segment with its range unchanged
+                                    log.info(String.format("Retry segment %s of %s", segment, item));
+                                    this.retry(segment);
+                                    return;
+                                }
                                 final Session<?> source = borrow(Connection.source);
                                 final Session<?> destination = borrow(Connection.destination);
                                 try {
@@ -449,7 +603,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                             }
                             segment.setFailure();
                             // Prompt to continue or abort for application errors
-                            if(error.prompt(item, segment, e, table.size())) {
+                            if(error.prompt(item, segment, e, AbstractTransferWorker.this.getStatus().size())) {
                                 // Continue
                                 log.warn(String.format("Ignore transfer failure %s", e));
                             }
@@ -471,11 +625,22 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                         sb.append('}');
                         return sb.toString();
                     }
-                });
+                }, inline);
             }
             return this.submit(new TransferCallable() {
                 @Override
                 public TransferStatus call() throws BackgroundException {
+                    try {
+                        return this.complete();
+                    }
+                    finally {
+                        if(pipelined && !item.remote.isDirectory()) {
+                            pending.decrementAndGet();
+                        }
+                    }
+                }
+
+                private TransferStatus complete() throws BackgroundException {
                     status.validate();
                     if(status.isSegmented()) {
                         // Await completion of all segments
@@ -486,27 +651,26 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                                 complete = false;
                             }
                         }
-                        if(complete) {
-                            final Session<?> source = borrow(Connection.source);
-                            final Session<?> destination = borrow(Connection.destination);
-                            try {
-                                // Determine transfer filter implementation from selected overwrite action
-                                final TransferPathFilter filter = transfer.filter(source, destination, action, progress);
-                                // Concatenate segments with completed status set
-                                filter.complete(
-                                    status.getRename().remote != null ? status.getRename().remote : item.remote,
-                                    status.getRename().local != null ? status.getRename().local : item.local,
-                                    options, status.complete(), progress);
-                            }
-                            finally {
-                                release(source, Connection.source, null);
-                                release(destination, Connection.destination, null);
-                            }
-                        }
-                        else {
+                        if(!complete) {
                             log.warn(String.format("Skip concatenating segments for failed transfer %s", status));
                             status.setFailure();
                         }
+                        final Session<?> source = borrow(Connection.source);
+                        final Session<?> destination = borrow(Connection.destination);
+                        try {
+                            // Determine transfer filter implementation from selected overwrite action
+                            final TransferPathFilter filter = transfer.filter(source, destination, action, progress);
+                            // Concatenate segments with completed status set or discard segments of failed transfer
+                            filter.complete(
+                                status.getRename().remote != null ? status.getRename().remote : item.remote,
+                                status.getRename().local != null ? status.getRename().local : item.local,
+                                options, complete ? status.complete() : status, progress);
+                        }
+                        finally {
+                            release(source, Connection.source, null);
+                            release(destination, Connection.destination, null);
+                        }
+                        record(item, status);
                     }
                     return status;
                 }
@@ -519,7 +683,7 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
                     sb.append('}');
                     return sb.toString();
                 }
-            });
+            }, inline);
         }
         else {
             log.warn(String.format("Skip file %s with unknown transfer status", item));
@@ -527,13 +691,30 @@ public abstract class AbstractTransferWorker extends TransferWorker<Boolean> {
         return ConcurrentUtils.constantFuture(null);
     }
 
+    /**
+     * Drop status of transferred file from table after recording in transfer plan
+     */
+    private void record(final TransferItem item, final TransferStatus status) throws BackgroundException {
+        if(null == plan) {
+            return;
+        }
+        plan.add(item, status);
+        table.remove(item);
+    }
+
     @Override
     public String getActivity() {
         return BookmarkNameProvider.toString(transfer.getSource());
     }
 
+    /**
+     * @return Status of files pending and transferred
+     */
     public Map<TransferItem, TransferStatus> getStatus() {
-        return table;
+        if(null == plan) {
+            return table;
+        }
+        return plan.view(table);
     }
 
     public Cache<TransferItem> getCache() {
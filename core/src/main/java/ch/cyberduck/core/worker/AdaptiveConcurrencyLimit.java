@@ -0,0 +1,272 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.threading.BackgroundActionState;
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limit the number of tasks running concurrently adjusting the limit within bounds from observed throughput.
+ * <p>
+ * Completed tasks are grouped in windows of at least as many completions as the current limit. When a window
+ * closes, the limit is increased by one if the throughput improved over the previous window and decreased by one if
+ * throughput dropped while the average task latency increased. When the server asks to back off by rate limiting
+ * or fails to respond in time, the limit is cut in half at most once per window.
+ */
+public class AdaptiveConcurrencyLimit {
+    private static final Logger log = Logger.getLogger(AdaptiveConcurrencyLimit.class);
+
+    /**
+     * Minimum relative improvement of throughput to probe with an additional task
+     */
+    private static final double GAIN = 1.05d;
+    /**
+     * Relative loss of throughput to release a task
+     */
+    private static final double LOSS = 0.8d;
+    /**
+     * Relative increase of latency to release a task
+     */
+    private static final double CONGESTION = 1.5d;
+    /**
+     * Factor to apply to limit when throttled
+     */
+    private static final double BACKOFF = 0.5d;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private final int min;
+    private final int max;
+    /**
+     * Total number of bytes transferred
+     */
+    private final LongSupplier transferred;
+    private final LongSupplier clock;
+    /**
+     * Minimum duration of a window in nanoseconds
+     */
+    private final long duration;
+
+    private int limit;
+    private int inflight;
+
+    private long start;
+    private long bytes;
+    private int completions;
+    private long latency;
+    private boolean throttled;
+
+    /**
+     * Throughput and latency of previous window
+     */
+    private Sample previous;
+
+    /**
+     * @param min         Minimum number of concurrent tasks
+     * @param max         Maximum number of concurrent tasks
+     * @param initial     Number of concurrent tasks to start with
+     * @param transferred Total number of bytes transferred
+     */
+    public AdaptiveConcurrencyLimit(final int min, final int max, final int initial, final LongSupplier transferred) {
+        this(min, max, initial, transferred, System::nanoTime, TimeUnit.SECONDS.toNanos(1L));
+    }
+
+    /**
+     * @param clock    Time in nanoseconds
+     * @param duration Minimum duration of a window in nanoseconds
+     */
+    AdaptiveConcurrencyLimit(final int min, final int max, final int initial, final LongSupplier transferred,
+                             final LongSupplier clock, final long duration) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.limit = Math.min(this.max, Math.max(this.min, initial));
+        this.transferred = transferred;
+        this.clock = clock;
+        this.duration = duration;
+        this.reset();
+    }
+
+    /**
+     * Block until the number of running tasks is below the current limit
+     *
+     * @param state Cancel callback
+     * @return Start time to pass when releasing
+     */
+    public long acquire(final BackgroundActionState state) throws ConnectionCanceledException {
+        lock.lock();
+        try {
+            while(inflight >= limit) {
+                if(state.isCanceled()) {
+                    throw new ConnectionCanceledException();
+                }
+                available.await(100L, TimeUnit.MILLISECONDS);
+            }
+            inflight++;
+            return clock.getAsLong();
+        }
+        catch(InterruptedException e) {
+            throw new ConnectionCanceledException(e);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Record completion of task
+     *
+     * @param timestamp Start time returned when acquiring
+     */
+    public void release(final long timestamp) {
+        lock.lock();
+        try {
+            inflight--;
+            final long now = clock.getAsLong();
+            completions++;
+            latency += now - timestamp;
+            if(completions >= limit && now - start >= duration) {
+                this.update(now);
+            }
+            available.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Server asked to back off. Decrease limit unless already decreased in the current window.
+     */
+    public void throttle() {
+        lock.lock();
+        try {
+            if(throttled) {
+                return;
+            }
+            final int value = Math.max(min, (int) (limit * BACKOFF));
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Decrease concurrency limit from %d to %d after throttling", limit, value));
+            }
+            limit = value;
+            previous = null;
+            this.reset();
+            throttled = true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AdaptiveConcurrencyLimit{");
+        sb.append("min=").append(min);
+        sb.append(", max=").append(max);
+        sb.append(", limit=").append(limit);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private void update(final long now) {
+        final Sample current = new Sample(transferred.getAsLong() - bytes, completions, now - start, latency / completions);
+        if(null != previous) {
+            final double gain = current.compare(previous);
+            if(gain >= GAIN) {
+                if(limit < max) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Increase concurrency limit from %d with sample %s", limit, current));
+                    }
+                    limit++;
+                }
+            }
+            else if(gain <= LOSS && current.latency >= previous.latency * CONGESTION) {
+                if(limit > min) {
+                    if(log.isDebugEnabled()) {
+                        log.debug(String.format("Decrease concurrency limit from %d with sample %s", limit, current));
+                    }
+                    limit--;
+                }
+            }
+        }
+        else if(!throttled && limit < max) {
+            // Probe with additional task after first window
+            limit++;
+        }
+        previous = current;
+        this.reset();
+    }
+
+    private void reset() {
+        start = clock.getAsLong();
+        bytes = transferred.getAsLong();
+        completions = 0;
+        latency = 0L;
+        throttled = false;
+    }
+
+    private static final class Sample {
+        private final long bytes;
+        private final int completions;
+        private final long duration;
+        private final long latency;
+
+        public Sample(final long bytes, final int completions, final long duration, final long latency) {
+            this.bytes = bytes;
+            this.completions = completions;
+            this.duration = Math.max(1L, duration);
+            this.latency = latency;
+        }
+
+        /**
+         * @return Ratio of throughput in bytes or of completed tasks when no content has been transferred
+         */
+        public double compare(final Sample other) {
+            if(bytes > 0 && other.bytes > 0) {
+                return ((double) bytes / duration) / ((double) other.bytes / other.duration);
+            }
+            return ((double) completions / duration) / ((double) other.completions / other.duration);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("Sample{");
+            sb.append("bytes=").append(bytes);
+            sb.append(", completions=").append(completions);
+            sb.append(", duration=").append(duration);
+            sb.append(", latency=").append(latency);
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+}
@@ -19,16 +19,23 @@ package ch.cyberduck.core.worker;
  * dkocher@cyberduck.ch
  */
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
+import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import java.text.MessageFormat;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public abstract class CalculateSizeWorker extends Worker<Long> {
@@ -40,8 +47,18 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
 
     private final ProgressListener listener;
 
+    /**
+     * Additional connections to list directories concurrently
+     */
+    private final SessionPool pool;
+
     public CalculateSizeWorker(final List<Path> files, final ProgressListener listener) {
+        this(files, SessionPool.DISCONNECTED, listener);
+    }
+
+    public CalculateSizeWorker(final List<Path> files, final SessionPool pool, final ProgressListener listener) {
         this.files = files;
+        this.pool = pool;
         this.listener = listener;
     }
 
@@ -63,15 +80,38 @@ public abstract class CalculateSizeWorker extends Worker<Long> {
      * @return The size of the file or the sum of all containing files if a directory
      */
     private long calculateSize(final Session<?> session, final Path p) throws BackgroundException {
-        long size = 0;
         if(this.isCanceled()) {
             throw new ConnectionCanceledException();
         }
         listener.message(MessageFormat.format(LocaleFactory.localizedString("Getting size of {0}", "Status"),
                 p.getName()));
         if(p.isDirectory()) {
-            for(Path next : session.getFeature(ListService.class).list(p, new WorkerListProgressListener(this, listener))) {
-                size += this.calculateSize(session, next);
+            final Map<SimplePathPredicate, AttributedList<Path>> tree = new RecursiveListWalker(this, pool)
+                    .withFlat(PreferencesFactory.get().getBoolean("browser.list.recursive.flat"))
+                    .walk(session, p, (connection, directory) -> {
+                        listener.message(MessageFormat.format(LocaleFactory.localizedString("Getting size of {0}", "Status"),
+                                directory.getName()));
+                        return connection.getFeature(ListService.class).list(directory, new WorkerListProgressListener(this, listener));
+                    }, new NullFilter<>(), listener);
+            return this.calculateSize(tree, p);
+        }
+        return this.calculateSize(Collections.emptyMap(), p);
+    }
+
+    /**
+     * @param tree Directory listings
+     * @param p    Directory or file
+     * @return The size of the file or the sum of all containing files if a directory
+     */
+    private long calculateSize(final Map<SimplePathPredicate, AttributedList<Path>> tree, final Path p) {
+        long size = 0;
+        if(p.isDirectory()) {
+            final AttributedList<Path> list = tree.get(new SimplePathPredicate(p));
+            if(null == list) {
+                return size;
+            }
+            for(Path next : list) {
+                size += this.calculateSize(tree, next);
             }
         }
         else if(p.isFile()) {
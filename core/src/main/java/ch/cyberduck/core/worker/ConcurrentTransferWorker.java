@@ -25,9 +25,12 @@ import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.ConnectionTimeoutException;
+import ch.cyberduck.core.exception.RetriableAccessDeniedException;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.NotificationService;
 import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.BackgroundActionState;
 import ch.cyberduck.core.threading.ThreadPool;
@@ -41,10 +44,12 @@ import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.log4j.Logger;
 
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class ConcurrentTransferWorker extends AbstractTransferWorker {
@@ -57,6 +62,10 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
     // Keep number of submited tasks
     private final AtomicInteger size = new AtomicInteger();
     private final ThreadPool pool;
+    /**
+     * Limit of concurrently running tasks or null if fixed by pool size
+     */
+    private final AdaptiveConcurrencyLimit limit;
 
     public ConcurrentTransferWorker(final SessionPool source,
                                     final SessionPool destination,
@@ -88,8 +97,19 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
         super(transfer, options, prompt, meter, error, progressListener, streamListener, connect, notification);
         this.source = source;
         this.destination = destination;
+        final Preferences preferences = PreferencesFactory.get();
+        final int connections = transfer.getTransferType() == Host.TransferType.newconnection ? 1 : preferences.getInteger("queue.connections.limit");
+        if(connections > 1 && preferences.getBoolean("queue.connections.adaptive")) {
+            // Session pool is sized for the configured number of connections
+            final int max = Math.min(connections, preferences.getInteger("queue.connections.adaptive.max"));
+            this.limit = new AdaptiveConcurrencyLimit(Math.min(max, preferences.getInteger("queue.connections.adaptive.min")),
+                max, max, transfer::getTransferred);
+        }
+        else {
+            this.limit = null;
+        }
         this.pool = ThreadPoolFactory.get(String.format("%s-transfer", new AlphanumericRandomStringService().random()),
-            transfer.getTransferType() == Host.TransferType.newconnection ? 1 : PreferencesFactory.get().getInteger("queue.connections.limit"), priority);
+            connections, priority);
         this.completion = new ExecutorCompletionService<TransferStatus>(pool.executor());
     }
 
@@ -126,6 +146,12 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
 
     @Override
     protected void release(final Session session, final Connection type, final BackgroundException failure) {
+        if(limit != null) {
+            if(failure instanceof RetriableAccessDeniedException || failure instanceof ConnectionTimeoutException) {
+                // Rate limited or service unavailable
+                limit.throttle();
+            }
+        }
         switch(type) {
             case source:
                 source.release(session, failure);
@@ -141,9 +167,36 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
         if(log.isInfoEnabled()) {
             log.info(String.format("Submit %s to pool", callable));
         }
-        final Future<TransferStatus> f = completion.submit(callable);
+        // Count before submitting as the task may complete and be awaited before returning from submit
         size.incrementAndGet();
-        return f;
+        // Only limit tasks transferring or preparing files. Completion of segmented file awaits its segments and must
+        // not hold a slot segments wait for
+        final Callable<TransferStatus> task = null == limit || !(callable instanceof RetryTransferCallable) ? callable : () -> {
+            final long timestamp = limit.acquire(new BackgroundActionState() {
+                @Override
+                public boolean isCanceled() {
+                    return ConcurrentTransferWorker.this.isCanceled();
+                }
+
+                @Override
+                public boolean isRunning() {
+                    return true;
+                }
+            });
+            try {
+                return callable.call();
+            }
+            finally {
+                limit.release(timestamp);
+            }
+        };
+        try {
+            return completion.submit(task);
+        }
+        catch(RejectedExecutionException e) {
+            size.decrementAndGet();
+            throw e;
+        }
     }
 
     @Override
@@ -188,6 +241,7 @@ public class ConcurrentTransferWorker extends AbstractTransferWorker {
         sb.append("source=").append(source);
         sb.append(", destination=").append(destination);
         sb.append(", pool=").append(completion);
+        sb.append(", limit=").append(limit);
         sb.append('}');
         return sb.toString();
     }
@@ -18,10 +18,10 @@ package ch.cyberduck.core.worker;
  * dkocher@cyberduck.ch
  */
 
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.Filter;
 import ch.cyberduck.core.Host;
-import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.LoginCallback;
@@ -29,9 +29,11 @@ import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.Session;
+import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.pool.SessionPool;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.ui.browser.PathReloadFinder;
 
@@ -40,10 +42,12 @@ import org.apache.log4j.Logger;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.regex.Pattern;
 
 public class DeleteWorker extends Worker<List<Path>> {
 
@@ -57,14 +61,23 @@ public class DeleteWorker extends Worker<List<Path>> {
     private final Cache<Path> cache;
     private final ProgressListener listener;
     private final Filter<Path> filter;
+    /**
+     * Additional connections to list directories concurrently
+     */
+    private final SessionPool pool;
 
     public DeleteWorker(final LoginCallback prompt, final List<Path> files, final Cache<Path> cache, final ProgressListener listener) {
         this(prompt, files, cache, new NullFilter<Path>(), listener);
     }
 
     public DeleteWorker(final LoginCallback prompt, final List<Path> files, final Cache<Path> cache, final Filter<Path> filter, final ProgressListener listener) {
+        this(prompt, files, SessionPool.DISCONNECTED, cache, filter, listener);
+    }
+
+    public DeleteWorker(final LoginCallback prompt, final List<Path> files, final SessionPool pool, final Cache<Path> cache, final Filter<Path> filter, final ProgressListener listener) {
         this.files = files;
         this.prompt = prompt;
+        this.pool = pool;
         this.cache = cache;
         this.listener = listener;
         this.filter = filter;
@@ -73,13 +86,19 @@ public class DeleteWorker extends Worker<List<Path>> {
     @Override
     public List<Path> run(final Session<?> session) throws BackgroundException {
         final Delete delete = session.getFeature(Delete.class);
-        final ListService list = session.getFeature(ListService.class);
         final Map<Path, TransferStatus> recursive = new LinkedHashMap<>();
         for(Path file : files) {
             if(this.isCanceled()) {
                 throw new ConnectionCanceledException();
             }
-            recursive.putAll(this.compile(session.getHost(), delete, list, new WorkerListProgressListener(this, listener), file));
+            final Map<SimplePathPredicate, AttributedList<Path>> tree = new HashMap<>();
+            if(file.isDirectory() && !file.isSymbolicLink() && !delete.isRecursive()) {
+                // List directory tree with sibling directories listed concurrently
+                tree.putAll(new RecursiveListWalker(this, pool).walk(session, file, (connection, directory) ->
+                        connection.getFeature(ListService.class).list(directory, new WorkerListProgressListener(this, listener)),
+                    new SymlinkExcludingFilter(filter), listener));
+            }
+            recursive.putAll(this.compile(session.getHost(), delete, tree, file));
         }
         delete.delete(recursive, prompt, new Delete.Callback() {
             @Override
@@ -91,7 +110,12 @@ public class DeleteWorker extends Worker<List<Path>> {
         return new ArrayList<>(recursive.keySet());
     }
 
-    protected Map<Path, TransferStatus> compile(final Host host, final Delete delete, final ListService list, final ListProgressListener listener, final Path file) throws BackgroundException {
+    /**
+     * @param tree Directory listings
+     * @param file File or directory to delete
+     * @return Files to delete with children before parent directory
+     */
+    protected Map<Path, TransferStatus> compile(final Host host, final Delete delete, final Map<SimplePathPredicate, AttributedList<Path>> tree, final Path file) throws BackgroundException {
         // Compile recursive list
         final Map<Path, TransferStatus> recursive = new LinkedHashMap<>();
         if(file.isFile() || file.isSymbolicLink()) {
@@ -110,11 +134,11 @@ public class DeleteWorker extends Worker<List<Path>> {
         }
         else if(file.isDirectory()) {
             if(!delete.isRecursive()) {
-                for(Path child : list.list(file, listener).filter(filter)) {
+                for(Path child : tree.getOrDefault(new SimplePathPredicate(file), AttributedList.emptyList()).filter(filter)) {
                     if(this.isCanceled()) {
                         throw new ConnectionCanceledException();
                     }
-                    recursive.putAll(this.compile(host, delete, list, listener, child));
+                    recursive.putAll(this.compile(host, delete, tree, child));
                 }
             }
             // Add parent after children
@@ -169,4 +193,28 @@ public class DeleteWorker extends Worker<List<Path>> {
         sb.append('}');
         return sb.toString();
     }
+
+    /**
+     * Do not follow symbolic links when listing directory tree
+     */
+    private static final class SymlinkExcludingFilter implements Filter<Path> {
+        private final Filter<Path> proxy;
+
+        public SymlinkExcludingFilter(final Filter<Path> proxy) {
+            this.proxy = proxy;
+        }
+
+        @Override
+        public boolean accept(final Path file) {
+            if(file.isSymbolicLink()) {
+                return false;
+            }
+            return proxy.accept(file);
+        }
+
+        @Override
+        public Pattern toPattern() {
+            return proxy.toPattern();
+        }
+    }
 }
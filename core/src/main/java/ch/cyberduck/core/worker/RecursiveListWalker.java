@@ -0,0 +1,396 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.Filter;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.ProgressListener;
+import ch.cyberduck.core.Protocol;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.SimplePathPredicate;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.FlatListing;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.BackgroundActionState;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recursively list a directory tree with sibling directories listed concurrently using additional connections
+ * borrowed from the session pool.
+ * <p>
+ * Directories to list are taken from the tail of a queue shared by all threads which block while the queue is
+ * empty. When the number of queued directories exceeds the limit, subdirectories are kept on a stack of the current
+ * thread and listed depth first. Helper threads are submitted to the thread pool shared by all walks unless a pool
+ * is given. With a disconnected pool or for stateful protocols the tree is listed in the calling thread only.
+ */
+public class RecursiveListWalker {
+    private static final Logger log = Logger.getLogger(RecursiveListWalker.class);
+
+    /**
+     * Marker to stop threads taking directories from the queue
+     */
+    private static final Path DONE = new Path(String.valueOf(Path.DELIMITER), EnumSet.of(Path.Type.directory));
+
+    private final Worker<?> worker;
+    private final SessionPool pool;
+    private final int concurrency;
+    private final int limit;
+
+    /**
+     * Thread pool for helpers or null to use the pool shared by all walks
+     */
+    private ThreadPool executor;
+
+    /**
+     * Use a single listing for the whole tree when supported
+     */
+    private boolean flat;
+
+    public RecursiveListWalker(final Worker<?> worker, final SessionPool pool) {
+        this(worker, pool, PreferencesFactory.get().getInteger("browser.list.recursive.concurrency"),
+            PreferencesFactory.get().getInteger("browser.list.recursive.queue.limit"));
+    }
+
+    /**
+     * @param worker      Cancel callback
+     * @param pool        Pool to borrow additional connections from
+     * @param concurrency Maximum number of directories listed concurrently
+     * @param limit       Maximum number of directories queued
+     */
+    public RecursiveListWalker(final Worker<?> worker, final SessionPool pool, final int concurrency, final int limit) {
+        this.worker = worker;
+        this.pool = pool;
+        this.concurrency = concurrency;
+        this.limit = limit;
+    }
+
+    /**
+     * @param enabled Try to obtain all files below a directory with a single paged listing without delimiter
+     *                using {@link FlatListing} before listing each directory
+     */
+    public RecursiveListWalker withFlat(final boolean enabled) {
+        this.flat = enabled;
+        return this;
+    }
+
+    /**
+     * @param executor Thread pool to run helpers listing directories concurrently with the calling thread
+     */
+    public RecursiveListWalker withExecutor(final ThreadPool executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * @param session   Connection used in calling thread
+     * @param directory Directory to list recursively
+     * @param lister    List a single directory
+     * @param descend   Filter for directories in listings to list recursively
+     * @param listener  Progress notification for flat listing
+     * @return Listing for every directory visited including the given directory
+     */
+    public Map<SimplePathPredicate, AttributedList<Path>> walk(final Session<?> session, final Path directory,
+                                                               final Lister lister, final Filter<Path> descend,
+                                                               final ProgressListener listener) throws BackgroundException {
+        if(flat) {
+            final FlatListing feature = session.getFeature(FlatListing.class);
+            if(feature != null) {
+                try {
+                    return this.tree(directory, feature.list(directory, new WorkerListProgressListener(worker, listener)));
+                }
+                catch(UnsupportedException e) {
+                    log.warn(String.format("Failure %s listing %s with %s. Fallback to list directories individually", e, directory, feature));
+                }
+            }
+        }
+        return new Walk(lister, descend).run(session, directory);
+    }
+
+    /**
+     * Group flat listing by parent directory adding missing intermediate directories. Unlike when listing
+     * directories individually, the tree also contains directories not accepted by the filter to descend.
+     */
+    protected Map<SimplePathPredicate, AttributedList<Path>> tree(final Path directory, final AttributedList<Path> files) {
+        final Map<SimplePathPredicate, AttributedList<Path>> tree = new ConcurrentHashMap<>();
+        tree.put(new SimplePathPredicate(directory), new AttributedList<>());
+        for(Path file : files) {
+            if(!file.isChild(directory)) {
+                log.warn(String.format("Skip file %s not in directory %s", file, directory));
+                continue;
+            }
+            if(file.isDirectory()) {
+                if(tree.putIfAbsent(new SimplePathPredicate(file), new AttributedList<>()) != null) {
+                    // Already added as intermediate directory
+                    continue;
+                }
+            }
+            Path child = file;
+            while(true) {
+                final SimplePathPredicate parent = new SimplePathPredicate(child.getParent());
+                final AttributedList<Path> list = tree.get(parent);
+                if(list != null) {
+                    list.add(child);
+                    break;
+                }
+                // Intermediate directory without placeholder
+                tree.put(parent, new AttributedList<>(Collections.singletonList(child)));
+                child = child.getParent();
+            }
+        }
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Grouped %d files in %d directories", files.size(), tree.size()));
+        }
+        return tree;
+    }
+
+    private boolean isConcurrent() {
+        if(concurrency < 2) {
+            return false;
+        }
+        if(SessionPool.DISCONNECTED == pool) {
+            return false;
+        }
+        // Borrowing from pool with single stateful connection would block until the connection is released
+        return pool.getHost().getProtocol().getStatefulness() == Protocol.Statefulness.stateless;
+    }
+
+    public interface Lister {
+        /**
+         * @param session   Connection
+         * @param directory Directory to list
+         * @return Directory listing
+         */
+        AttributedList<Path> list(Session<?> session, Path directory) throws BackgroundException;
+    }
+
+    private ThreadPool executor() {
+        if(null == executor) {
+            return Helpers.executor;
+        }
+        return executor;
+    }
+
+    /**
+     * Thread pool shared by all walks created on first concurrent walk
+     */
+    private static final class Helpers {
+        private static final ThreadPool executor = ThreadPoolFactory.get("list",
+            PreferencesFactory.get().getInteger("browser.list.recursive.concurrency"));
+    }
+
+    private final class Walk {
+        private final Lister lister;
+        private final Filter<Path> descend;
+
+        private final Map<SimplePathPredicate, AttributedList<Path>> tree = new ConcurrentHashMap<>();
+        /**
+         * Directories to list shared by all threads
+         */
+        private final BlockingDeque<Path> queue = new LinkedBlockingDeque<>();
+        /**
+         * Number of directories queued or being listed
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicReference<BackgroundException> failure = new AtomicReference<>();
+
+        private int threads;
+
+        public Walk(final Lister lister, final Filter<Path> descend) {
+            this.lister = lister;
+            this.descend = descend;
+        }
+
+        public Map<SimplePathPredicate, AttributedList<Path>> run(final Session<?> session, final Path directory) throws BackgroundException {
+            threads = isConcurrent() ? concurrency : 1;
+            pending.incrementAndGet();
+            queue.addLast(directory);
+            if(threads == 1) {
+                this.work(session);
+            }
+            else {
+                final ThreadPool executor = executor();
+                final List<Future<Void>> helpers = new ArrayList<>();
+                for(int i = 1; i < threads; i++) {
+                    helpers.add(executor.execute(() -> {
+                        this.help();
+                        return null;
+                    }));
+                }
+                try {
+                    this.work(session);
+                }
+                catch(BackgroundException e) {
+                    // Wait for helpers to release their connections
+                    log.warn(String.format("Failure %s listing directory tree %s", e, directory));
+                }
+                for(Future<Void> helper : helpers) {
+                    // Skip helpers still waiting for a thread
+                    helper.cancel(false);
+                    try {
+                        helper.get();
+                    }
+                    catch(CancellationException e) {
+                        // Not started
+                    }
+                    catch(InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ConnectionCanceledException(e);
+                    }
+                    catch(ExecutionException e) {
+                        log.error(String.format("Failure %s in helper thread", e.getCause()));
+                    }
+                }
+            }
+            if(failure.get() != null) {
+                throw failure.get();
+            }
+            return tree;
+        }
+
+        /**
+         * Borrow connection from pool and work on queue until done
+         */
+        private void help() {
+            if(pending.get() == 0 || failure.get() != null) {
+                return;
+            }
+            final Session<?> session;
+            try {
+                session = pool.borrow(new BackgroundActionState() {
+                    @Override
+                    public boolean isCanceled() {
+                        return worker.isCanceled() || failure.get() != null || pending.get() == 0;
+                    }
+
+                    @Override
+                    public boolean isRunning() {
+                        return true;
+                    }
+                });
+            }
+            catch(BackgroundException e) {
+                log.warn(String.format("Failure %s obtaining connection for helper", e));
+                return;
+            }
+            BackgroundException result = null;
+            try {
+                this.work(session);
+            }
+            catch(BackgroundException e) {
+                result = e;
+            }
+            finally {
+                pool.release(session, result);
+            }
+        }
+
+        private void work(final Session<?> session) throws BackgroundException {
+            while(failure.get() == null) {
+                final Path next;
+                try {
+                    // Block until directory is queued or walk is done
+                    next = queue.takeLast();
+                }
+                catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    final ConnectionCanceledException canceled = new ConnectionCanceledException(e);
+                    this.fail(canceled);
+                    throw canceled;
+                }
+                if(DONE == next) {
+                    return;
+                }
+                try {
+                    this.list(session, next);
+                }
+                catch(BackgroundException e) {
+                    this.fail(e);
+                    throw e;
+                }
+                finally {
+                    if(pending.decrementAndGet() == 0) {
+                        this.done();
+                    }
+                }
+            }
+        }
+
+        /**
+         * List directory and subdirectories not queued depth first
+         */
+        private void list(final Session<?> session, final Path directory) throws BackgroundException {
+            final Deque<Path> stack = new ArrayDeque<>();
+            stack.push(directory);
+            while(!stack.isEmpty()) {
+                if(worker.isCanceled()) {
+                    throw new ConnectionCanceledException();
+                }
+                final Path next = stack.pop();
+                final AttributedList<Path> list = lister.list(session, next);
+                tree.put(new SimplePathPredicate(next), list);
+                for(Path child : list) {
+                    if(child.isDirectory() && descend.accept(child)) {
+                        if(queue.size() < limit) {
+                            pending.incrementAndGet();
+                            queue.addLast(child);
+                        }
+                        else {
+                            // Continue depth first in this thread
+                            stack.push(child);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void fail(final BackgroundException e) {
+            failure.compareAndSet(null, e);
+            this.done();
+        }
+
+        /**
+         * Release all threads waiting for directories to list
+         */
+        private void done() {
+            for(int i = 0; i < threads; i++) {
+                queue.addLast(DONE);
+            }
+        }
+    }
+}
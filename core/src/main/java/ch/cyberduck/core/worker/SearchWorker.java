@@ -20,16 +20,20 @@ import ch.cyberduck.core.Cache;
 import ch.cyberduck.core.Filter;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Session;
+import ch.cyberduck.core.SimplePathPredicate;
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.features.Search;
+import ch.cyberduck.core.pool.SessionPool;
 
 import org.apache.log4j.Logger;
 
 import java.text.MessageFormat;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -41,10 +45,19 @@ public class SearchWorker extends Worker<AttributedList<Path>> {
     private final Filter<Path> filter;
     private final Cache<Path> cache;
     private final ListProgressListener listener;
+    /**
+     * Additional connections to search in directories concurrently
+     */
+    private final SessionPool pool;
 
     public SearchWorker(final Path directory, final Filter<Path> filter, final Cache<Path> cache, final ListProgressListener listener) {
+        this(directory, filter, SessionPool.DISCONNECTED, cache, listener);
+    }
+
+    public SearchWorker(final Path directory, final Filter<Path> filter, final SessionPool pool, final Cache<Path> cache, final ListProgressListener listener) {
         this.directory = directory;
         this.filter = filter;
+        this.pool = pool;
         this.cache = cache;
         this.listener = listener;
     }
@@ -56,31 +69,42 @@ public class SearchWorker extends Worker<AttributedList<Path>> {
         if(log.isDebugEnabled()) {
             log.debug(String.format("Run with feature %s", feature));
         }
-        return this.search(feature, directory);
+        if(feature.isRecursive()) {
+            if(this.isCanceled()) {
+                throw new ConnectionCanceledException();
+            }
+            return feature.search(directory, new RecursiveSearchFilter(filter), new WorkerListProgressListener(this, listener));
+        }
+        // Search in sibling directories concurrently
+        final Map<SimplePathPredicate, AttributedList<Path>> tree = new RecursiveListWalker(this, pool).walk(session, directory,
+            (connection, workdir) -> {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Recursively search in %s", workdir));
+                }
+                return connection.getFeature(Search.class).withCache(cache).search(workdir, new RecursiveSearchFilter(filter),
+                    new WorkerListProgressListener(this, listener));
+            }, new NullFilter<>(), listener);
+        return this.search(tree, directory);
     }
 
-    private AttributedList<Path> search(final Search search, final Path workdir) throws BackgroundException {
-        if(this.isCanceled()) {
-            throw new ConnectionCanceledException();
-        }
-        // Get filtered list from search
-        final AttributedList<Path> list = search.search(workdir, new RecursiveSearchFilter(filter), new WorkerListProgressListener(this, listener));
-        if(!search.isRecursive()) {
-            final Set<Path> removal = new HashSet<>();
-            for(final Path file : list) {
-                if(file.isDirectory()) {
-                    if(log.isDebugEnabled()) {
-                        log.debug(String.format("Recursively search in %s", file));
-                    }
-                    final AttributedList<Path> children = this.search(search, file);
-                    list.addAll(children);
-                    if(children.isEmpty()) {
-                        removal.add(file);
-                    }
+    /**
+     * @param tree    Search results for each directory
+     * @param workdir Directory
+     * @return Search results in directory and subdirectories omitting directories without result
+     */
+    private AttributedList<Path> search(final Map<SimplePathPredicate, AttributedList<Path>> tree, final Path workdir) {
+        final AttributedList<Path> list = tree.getOrDefault(new SimplePathPredicate(workdir), new AttributedList<>());
+        final Set<Path> removal = new HashSet<>();
+        for(final Path file : list) {
+            if(file.isDirectory()) {
+                final AttributedList<Path> children = this.search(tree, file);
+                list.addAll(children);
+                if(children.isEmpty()) {
+                    removal.add(file);
                 }
             }
-            list.removeAll(removal);
         }
+        list.removeAll(removal);
         return list;
     }
 
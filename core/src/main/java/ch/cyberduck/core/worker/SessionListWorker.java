@@ -139,6 +139,17 @@ public class SessionListWorker extends Worker<AttributedList<Path>> {
             proxy.chunk(directory, list);
         }
 
+        @Override
+        public void chunk(final Path parent, final AttributedList<Path> list, final int offset, final boolean complete) throws ConnectionCanceledException {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Retrieved chunk of %d items in %s", list.size() - offset, directory));
+            }
+            if(worker.isCanceled()) {
+                throw new ConnectionCanceledException();
+            }
+            proxy.chunk(directory, list, offset, complete);
+        }
+
         @Override
         public ListProgressListener reset() {
             return proxy.reset();
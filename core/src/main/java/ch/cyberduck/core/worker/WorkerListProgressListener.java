@@ -41,6 +41,11 @@ public class WorkerListProgressListener implements ListProgressListener {
         }
     }
 
+    @Override
+    public void chunk(final Path parent, final AttributedList<Path> list, final int offset, final boolean complete) throws ConnectionCanceledException {
+        this.chunk(parent, list);
+    }
+
     @Override
     public ListProgressListener reset() {
         return this;
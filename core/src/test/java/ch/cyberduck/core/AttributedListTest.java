@@ -80,4 +80,51 @@ public class AttributedListTest {
         assertNotSame(list, list.filter(new NullFilter<>()));
         assertEquals(list, list.filter(new NullFilter<>()));
     }
+
+    @Test
+    public void testFindVersionChanged() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/d/a", EnumSet.of(Path.Type.file));
+        list.add(a);
+        list.add(new Path("/d/b", EnumSet.of(Path.Type.file)));
+        assertSame(a, list.find(new DefaultPathPredicate(new Path("/d/a", EnumSet.of(Path.Type.file)))));
+        a.attributes().setVersionId("1");
+        assertNull(list.find(new DefaultPathPredicate(new Path("/d/a", EnumSet.of(Path.Type.file)))));
+        assertSame(a, list.find(new DefaultPathPredicate(new Path("/d/a", EnumSet.of(Path.Type.file), new PathAttributes().withVersionId("1")))));
+        assertSame(a, list.find(new SimplePathPredicate(new Path("/d/a", EnumSet.of(Path.Type.file)))));
+        assertSame(a, list.find(new CaseInsensitivePathPredicate(new Path("/d/A", EnumSet.of(Path.Type.file)))));
+        assertEquals(0, list.indexOf(new Path("/d/a", EnumSet.of(Path.Type.file), new PathAttributes().withVersionId("1"))));
+        assertNull(list.find(new SimplePathPredicate(new Path("/d/c", EnumSet.of(Path.Type.file)))));
+    }
+
+    @Test
+    public void testFindCacheReference() {
+        final AttributedList<Path> list = new AttributedList<Path>();
+        final Path a = new Path("/d/a", EnumSet.of(Path.Type.file));
+        list.add(a);
+        final Path b = new Path("/d/b", EnumSet.of(Path.Type.file));
+        final CacheReference<Path> reference = new CacheReference<Path>() {
+            private final String representation = new DefaultPathPredicate(b).toString();
+
+            @Override
+            public boolean test(final Path file) {
+                return representation.equals(new DefaultPathPredicate(file).toString());
+            }
+
+            @Override
+            public boolean equals(final Object o) {
+                return o instanceof CacheReference && representation.equals(o.toString());
+            }
+
+            @Override
+            public int hashCode() {
+                return representation.hashCode();
+            }
+        };
+        assertNull(list.find(reference));
+        list.add(b);
+        assertSame(b, list.find(reference));
+        b.attributes().setVersionId("1");
+        assertNull(list.find(reference));
+    }
 }
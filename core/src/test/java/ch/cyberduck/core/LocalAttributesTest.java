@@ -19,9 +19,12 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.UUID;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class LocalAttributesTest {
 
@@ -49,4 +52,36 @@ public class LocalAttributesTest {
         Assert.assertTrue(a.getModificationDate() > 0);
         f.delete();
     }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        final Local directory = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        directory.mkdir();
+        final Local f = new Local(directory, UUID.randomUUID().toString());
+        Files.write(Paths.get(f.getAbsolute()), "content".getBytes(StandardCharsets.UTF_8));
+        final AttributedList<Local> list = directory.list();
+        assertEquals(1, list.size());
+        final Local child = list.get(0);
+        assertNotNull(child.getSnapshot());
+        assertTrue(child.isFile());
+        assertFalse(child.isDirectory());
+        assertFalse(child.isSymbolicLink());
+        assertEquals(7L, child.attributes().getSize());
+        // Modified outside
+        Files.write(Paths.get(f.getAbsolute()), "modified content".getBytes(StandardCharsets.UTF_8));
+        assertEquals(7L, child.attributes().getSize());
+        assertEquals(16L, f.attributes().getSize());
+        child.invalidate();
+        assertNull(child.getSnapshot());
+        assertEquals(16L, child.attributes().getSize());
+        // Discarded when written
+        final Local written = directory.list().get(0);
+        assertNotNull(written.getSnapshot());
+        written.getOutputStream(false).close();
+        assertEquals(0L, written.attributes().getSize());
+        written.attributes().setModificationDate(1000L);
+        assertEquals(1000L, written.attributes().getModificationDate());
+        f.delete();
+        directory.delete();
+    }
 }
@@ -1,7 +1,10 @@
 package ch.cyberduck.core;
 
+import ch.cyberduck.core.transfer.CachingListProgressListener;
+
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.EnumSet;
 
 import static org.junit.Assert.*;
@@ -71,4 +74,67 @@ public class PathCacheTest {
         assertFalse(cache.containsKey(file));
         assertEquals(0, cache.size());
     }
+
+    @Test
+    public void testLookupReverseIndex() {
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        final AttributedList<Path> list = new AttributedList<>();
+        cache.put(directory, list);
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+        list.add(file);
+        cache.put(directory, list);
+        assertSame(file, cache.lookup(new DefaultPathPredicate(file)));
+        final Path replacement = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<>(Collections.singletonList(replacement)));
+        assertSame(replacement, cache.lookup(new DefaultPathPredicate(file)));
+        cache.remove(directory);
+        assertNull(cache.lookup(new DefaultPathPredicate(file)));
+    }
+
+    @Test
+    public void testLookupChunkAppended() throws Exception {
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final ListProgressListener listener = new CachingListProgressListener(cache);
+        final AttributedList<Path> list = new AttributedList<>();
+        final Path f1 = new Path(directory, "f1", EnumSet.of(Path.Type.file));
+        list.add(f1);
+        listener.chunk(directory, list, 0, false);
+        assertSame(f1, cache.lookup(new DefaultPathPredicate(f1)));
+        final Path f2 = new Path(directory, "f2", EnumSet.of(Path.Type.file));
+        assertNull(cache.lookup(new DefaultPathPredicate(f2)));
+        list.add(f2);
+        listener.chunk(directory, list, 1, true);
+        assertSame(f1, cache.lookup(new DefaultPathPredicate(f1)));
+        assertSame(f2, cache.lookup(new DefaultPathPredicate(f2)));
+        assertNull(cache.lookup(new DefaultPathPredicate(new Path(directory, "f3", EnumSet.of(Path.Type.file)))));
+    }
+
+    @Test
+    public void testLookupEvicted() {
+        final PathCache cache = new PathCache(1);
+        final Path d1 = new Path("/d1", EnumSet.of(Path.Type.directory));
+        final Path f1 = new Path(d1, "f", EnumSet.of(Path.Type.file));
+        cache.put(d1, new AttributedList<>(Collections.singletonList(f1)));
+        assertSame(f1, cache.lookup(new DefaultPathPredicate(f1)));
+        final Path d2 = new Path("/d2", EnumSet.of(Path.Type.directory));
+        final Path f2 = new Path(d2, "f", EnumSet.of(Path.Type.file));
+        cache.put(d2, new AttributedList<>(Collections.singletonList(f2)));
+        assertNull(cache.lookup(new DefaultPathPredicate(f1)));
+        assertSame(f2, cache.lookup(new DefaultPathPredicate(f2)));
+        cache.clear();
+        assertNull(cache.lookup(new DefaultPathPredicate(f2)));
+    }
+
+    @Test
+    public void testLookupModifiedAfterIndexed() {
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path f = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        cache.put(directory, new AttributedList<>(Collections.singletonList(f)));
+        f.attributes().setVersionId("1");
+        assertSame(f, cache.lookup(new DefaultPathPredicate(f)));
+    }
 }
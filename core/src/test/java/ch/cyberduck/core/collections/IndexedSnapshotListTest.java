@@ -0,0 +1,131 @@
+package ch.cyberduck.core.collections;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DefaultPathPredicate;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.SimplePathPredicate;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class IndexedSnapshotListTest {
+
+    @Test
+    public void testAppend() {
+        final IndexedSnapshotList<String> list = new IndexedSnapshotList<>();
+        for(int i = 0; i < 1000; i++) {
+            list.add(String.valueOf(i));
+        }
+        assertEquals(1000, list.size());
+        assertEquals(500, list.indexOf("500"));
+        list.add("1000");
+        assertEquals(1000, list.indexOf("1000"));
+        assertTrue(list.contains("999"));
+        assertFalse(list.contains("1001"));
+    }
+
+    @Test
+    public void testIteratorSnapshot() {
+        final IndexedSnapshotList<String> list = new IndexedSnapshotList<>(Arrays.asList("a", "b"));
+        final Iterator<String> iterator = list.iterator();
+        list.add("c");
+        list.remove(0);
+        assertEquals("a", iterator.next());
+        assertEquals("b", iterator.next());
+        assertFalse(iterator.hasNext());
+        assertEquals(Arrays.asList("b", "c"), list.toList());
+    }
+
+    @Test
+    public void testIndexAfterModification() {
+        final IndexedSnapshotList<String> list = new IndexedSnapshotList<>(Arrays.asList("c", "a", "b"));
+        assertEquals(0, list.indexOf("c"));
+        list.sort(Comparator.naturalOrder());
+        assertEquals(2, list.indexOf("c"));
+        list.add(0, "d");
+        assertEquals(0, list.indexOf("d"));
+        assertEquals(3, list.indexOf("c"));
+        list.set(0, "e");
+        assertEquals(-1, list.indexOf("d"));
+        assertTrue(list.remove("a"));
+        assertFalse(list.remove("a"));
+        assertTrue(list.removeIf("b"::equals));
+        assertEquals(Arrays.asList("e", "c"), list.toList());
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertEquals(-1, list.indexOf("e"));
+    }
+
+    @Test
+    public void testProbe() {
+        final IndexedSnapshotList<Path> list = new IndexedSnapshotList<>(Path::getAbsolute);
+        final Path a = new Path("/a", EnumSet.of(Path.Type.file));
+        list.add(a);
+        final Path directory = new Path("/a", EnumSet.of(Path.Type.directory));
+        list.add(directory);
+        assertSame(a, list.probe("/a", new DefaultPathPredicate(new Path("/a", EnumSet.of(Path.Type.file)))));
+        assertSame(directory, list.probe("/a", new DefaultPathPredicate(new Path("/a", EnumSet.of(Path.Type.directory)))));
+        assertNull(list.probe("/b", new SimplePathPredicate(a)));
+        a.attributes().setVersionId("1");
+        assertEquals(0, list.indexOf(a));
+        assertNull(list.probe("/a", new DefaultPathPredicate(new Path("/a", EnumSet.of(Path.Type.file)))));
+        assertSame(a, list.find(new SimplePathPredicate(a)));
+    }
+
+    @Test
+    public void testLookup() {
+        final IndexedSnapshotList<String> list = new IndexedSnapshotList<>(Arrays.asList("Ab", "ab", "c"));
+        final Function<String, Object> lower = e -> "c".equals(e) ? null : e.toLowerCase();
+        assertEquals("Ab", list.lookup(lower, "ab"));
+        assertNull(list.lookup(lower, "c"));
+        list.add("D");
+        assertEquals("D", list.lookup(lower, "d"));
+        list.remove(0);
+        assertEquals("ab", list.lookup(lower, "ab"));
+        assertEquals("c", list.lookup(Function.identity(), "c"));
+        assertNull(list.lookup(Function.identity(), "Ab"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewUnmodifiable() {
+        new IndexedSnapshotList<>(Arrays.asList("a")).toList().add("b");
+    }
+
+    @Test
+    public void testLookupMultipleKeys() {
+        final IndexedSnapshotList<String> list = new IndexedSnapshotList<>(Arrays.asList("Ab", "c"));
+        final Function<String, Object> lower = String::toLowerCase;
+        final Function<String, Object> upper = String::toUpperCase;
+        assertEquals("Ab", list.lookup(lower, "ab"));
+        assertEquals("Ab", list.lookup(upper, "AB"));
+        final Iterator<String> iterator = list.iterator();
+        list.add("D");
+        assertEquals("D", list.lookup(lower, "d"));
+        assertEquals("D", list.lookup(upper, "D"));
+        assertEquals(2, list.indexOf("D"));
+        assertEquals("Ab", iterator.next());
+        assertEquals("c", iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+}
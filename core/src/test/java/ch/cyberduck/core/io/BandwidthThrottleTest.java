@@ -0,0 +1,100 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BandwidthThrottleTest {
+
+    @Test
+    public void testUnlimited() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(new BandwidthThrottle(BandwidthThrottle.UNLIMITED), BandwidthThrottle.UNLIMITED);
+        assertEquals(Integer.MAX_VALUE, throttle.request(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testQuantum() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(new BandwidthThrottle(1000f), BandwidthThrottle.UNLIMITED);
+        assertEquals(100, throttle.request(1000));
+        assertEquals(10, throttle.request(10));
+        assertEquals(1, new BandwidthThrottle(1f).request(1000));
+    }
+
+    @Test
+    public void testSharedParent() throws Exception {
+        final BandwidthThrottle parent = new BandwidthThrottle(1024f * 1024f);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final long start = System.nanoTime();
+            final List<Future<Long>> futures = new ArrayList<>();
+            for(int i = 0; i < 4; i++) {
+                // Separate unlimited throttle for every transfer
+                final BandwidthThrottle throttle = new BandwidthThrottle(parent, BandwidthThrottle.UNLIMITED);
+                futures.add(executor.submit(() -> {
+                    long total = 0L;
+                    while(total < 256L * 1024L) {
+                        total += throttle.request(32 * 1024);
+                    }
+                    return total;
+                }));
+            }
+            for(Future<Long> future : futures) {
+                assertTrue(future.get() >= 256L * 1024L);
+            }
+            // One second for 1MB less burst allowed initially
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 800L);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testRelease() {
+        final BandwidthThrottle throttle = new BandwidthThrottle(100f);
+        final long start = System.nanoTime();
+        for(int i = 0; i < 10; i++) {
+            assertEquals(10, throttle.request(100));
+            throttle.release(10);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCycle() {
+        final BandwidthThrottle parent = new BandwidthThrottle(1f);
+        final BandwidthThrottle child = new BandwidthThrottle(parent, 1f);
+        parent.withParent(child);
+    }
+
+    @Test
+    public void testEqualsParent() {
+        final BandwidthThrottle parent = new BandwidthThrottle(2f);
+        assertEquals(new BandwidthThrottle(parent, 1f), new BandwidthThrottle(parent, 1f));
+        assertEquals(new BandwidthThrottle(parent, 1f).hashCode(), new BandwidthThrottle(parent, 1f).hashCode());
+        assertNotEquals(new BandwidthThrottle(parent, 1f), new BandwidthThrottle(1f));
+        assertNotEquals(new BandwidthThrottle(parent, 1f), new BandwidthThrottle(new BandwidthThrottle(3f), 1f));
+    }
+}
@@ -0,0 +1,135 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.exception.ChecksumException;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LocalChecksumCacheTest {
+
+    private static final class CountingChecksumCompute extends SHA256ChecksumCompute {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Checksum compute(final InputStream in, final TransferStatus status) throws ChecksumException {
+            count.incrementAndGet();
+            return super.compute(in, status);
+        }
+    }
+
+    @Test
+    public void testCompute() throws Exception {
+        final Local journal = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        Files.write(Paths.get(file.getAbsolute()), "content".getBytes(StandardCharsets.UTF_8));
+        final CountingChecksumCompute compute = new CountingChecksumCompute();
+        final LocalChecksumCache cache = new LocalChecksumCache(journal);
+        final Checksum checksum = cache.compute(file, compute, new TransferStatus());
+        assertEquals(new SHA256ChecksumCompute().compute(file.getInputStream(), new TransferStatus()), checksum);
+        assertEquals(checksum, cache.compute(file, compute, new TransferStatus().length(7L)));
+        assertEquals(1, compute.count.get());
+        assertEquals(1L, cache.getMetrics().get(LocalChecksumCache.Counter.hit));
+        assertEquals(1L, cache.getMetrics().get(LocalChecksumCache.Counter.miss));
+        // Partial checksum not cached
+        cache.compute(file, compute, new TransferStatus().skip(1L));
+        assertEquals(2, compute.count.get());
+        // Read from journal
+        final LocalChecksumCache reloaded = new LocalChecksumCache(journal);
+        assertEquals(checksum, reloaded.compute(file, compute, new TransferStatus()));
+        assertEquals(2, compute.count.get());
+        // Modified
+        Files.write(Paths.get(file.getAbsolute()), "modified".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(Paths.get(file.getAbsolute()), FileTime.fromMillis(System.currentTimeMillis() + 10000L));
+        assertNotEquals(checksum, reloaded.compute(file, compute, new TransferStatus()));
+        assertEquals(3, compute.count.get());
+        assertEquals(1L, reloaded.getMetrics().get(LocalChecksumCache.Counter.miss));
+        reloaded.clear();
+        assertFalse(journal.exists());
+        file.delete();
+    }
+
+    @Test
+    public void testInvalidRecord() throws Exception {
+        final Local journal = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        Files.write(Paths.get(file.getAbsolute()), "content".getBytes(StandardCharsets.UTF_8));
+        final CountingChecksumCompute compute = new CountingChecksumCompute();
+        new LocalChecksumCache(journal).compute(file, compute, new TransferStatus());
+        final String record = new String(Files.readAllBytes(Paths.get(journal.getAbsolute())), StandardCharsets.UTF_8);
+        // Corrupt hash and append truncated record
+        Files.write(Paths.get(journal.getAbsolute()), String.format("%s%s", record.replaceFirst("\t[0-9a-f]{64}\t", "\tffff\t"),
+            record.substring(0, record.length() / 2)).getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+        final LocalChecksumCache cache = new LocalChecksumCache(journal);
+        assertEquals(new SHA256ChecksumCompute().compute(file.getInputStream(), new TransferStatus()),
+            cache.compute(file, compute, new TransferStatus()));
+        assertEquals(2, compute.count.get());
+        cache.clear();
+        file.delete();
+    }
+
+    @Test
+    public void testCompactStale() throws Exception {
+        final Local journal = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Local deleted = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Local modified = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final Local unchanged = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        for(Local file : new Local[]{deleted, modified, unchanged}) {
+            Files.write(Paths.get(file.getAbsolute()), "content".getBytes(StandardCharsets.UTF_8));
+        }
+        final CountingChecksumCompute compute = new CountingChecksumCompute();
+        final LocalChecksumCache cache = new LocalChecksumCache(journal);
+        cache.compute(deleted, compute, new TransferStatus());
+        cache.compute(modified, compute, new TransferStatus());
+        cache.compute(unchanged, compute, new TransferStatus());
+        assertEquals(3, Files.readAllLines(Paths.get(journal.getAbsolute()), StandardCharsets.UTF_8).size());
+        deleted.delete();
+        Files.write(Paths.get(modified.getAbsolute()), "modified".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(Paths.get(modified.getAbsolute()), FileTime.fromMillis(System.currentTimeMillis() + 10000L));
+        final LocalChecksumCache reloaded = new LocalChecksumCache(journal);
+        reloaded.compute(unchanged, compute, new TransferStatus());
+        assertEquals(3, compute.count.get());
+        assertEquals(1, Files.readAllLines(Paths.get(journal.getAbsolute()), StandardCharsets.UTF_8).size());
+        reloaded.clear();
+        modified.delete();
+        unchanged.delete();
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        final Local file = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        Files.write(Paths.get(file.getAbsolute()), "content".getBytes(StandardCharsets.UTF_8));
+        final CountingChecksumCompute compute = new CountingChecksumCompute();
+        final LocalChecksumCache cache = new LocalChecksumCache(new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()), false);
+        cache.compute(file, compute, new TransferStatus());
+        cache.compute(file, compute, new TransferStatus());
+        assertEquals(2, compute.count.get());
+        file.delete();
+    }
+}
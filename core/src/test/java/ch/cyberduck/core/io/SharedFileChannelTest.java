@@ -0,0 +1,76 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class SharedFileChannelTest {
+
+    @Test
+    public void testConcurrentPositionalWrites() throws Exception {
+        final Path file = Files.createTempFile("shared", null);
+        final byte[] content = RandomUtils.nextBytes(10 * 1024 + 17);
+        final int partsize = 1024;
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            // Write segments in reverse order
+            for(int offset = content.length / partsize * partsize; offset >= 0; offset -= partsize) {
+                final int position = offset;
+                futures.add(executor.submit(() -> {
+                    try (OutputStream out = SharedFileChannel.open(file, position)) {
+                        final int length = Math.min(partsize, content.length - position);
+                        // Two writes to advance position of stream
+                        out.write(content, position, length / 2);
+                        out.write(content, position + length / 2, length - length / 2);
+                    }
+                    return null;
+                }));
+            }
+            for(Future<Void> future : futures) {
+                future.get();
+            }
+            assertArrayEquals(content, Files.readAllBytes(file));
+        }
+        finally {
+            executor.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testNoTruncate() throws Exception {
+        final Path file = Files.createTempFile("shared", null);
+        Files.write(file, new byte[]{1, 2, 3, 4});
+        try (OutputStream out = SharedFileChannel.open(file, 1L)) {
+            out.write(5);
+        }
+        assertArrayEquals(new byte[]{1, 5, 3, 4}, Files.readAllBytes(file));
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,87 @@
+package ch.cyberduck.core.io;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.apache.commons.io.output.ByteArrayOutputStream;
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SlabSegmentingOutputStreamTest {
+
+    @Test
+    public void testCopy1() throws Exception {
+        final ByteArrayOutputStream proxy = new ByteArrayOutputStream(20);
+        final SlabSegmentingOutputStream out = new SlabSegmentingOutputStream(proxy, 32768);
+        final byte[] content = RandomUtils.nextBytes(40500);
+        out.write(content, 0, 32800);
+        assertEquals(32768, proxy.toByteArray().length);
+        out.write(content, 32800, 7700);
+        out.close();
+        assertArrayEquals(content, proxy.toByteArray());
+    }
+
+    @Test
+    public void testCopy2() throws Exception {
+        final ByteArrayOutputStream proxy = new ByteArrayOutputStream(40500);
+        final SlabSegmentingOutputStream out = new SlabSegmentingOutputStream(proxy, 32768);
+        final byte[] content = RandomUtils.nextBytes(40500);
+        out.write(content, 0, 32767);
+        assertEquals(0, proxy.toByteArray().length);
+        out.write(content, 32767, 2);
+        assertEquals(32768, proxy.toByteArray().length);
+        out.write(content, 32769, 7731);
+        out.close();
+        assertArrayEquals(content, proxy.toByteArray());
+    }
+
+    @Test
+    public void testSegments() throws Exception {
+        final List<Integer> segments = new ArrayList<>();
+        final ByteArrayOutputStream proxy = new ByteArrayOutputStream() {
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                segments.add(len);
+                super.write(b, off, len);
+            }
+        };
+        final SlabSegmentingOutputStream out = new SlabSegmentingOutputStream(proxy, 1000);
+        final byte[] content = RandomUtils.nextBytes(10500);
+        for(int offset = 0; offset < content.length; offset += 333) {
+            out.write(content, offset, Math.min(333, content.length - offset));
+        }
+        out.write(content, 0, 3000);
+        out.close();
+        assertArrayEquals(new Integer[]{1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 500},
+            segments.toArray(new Integer[0]));
+        final byte[] expected = new byte[13500];
+        System.arraycopy(content, 0, expected, 0, 10500);
+        System.arraycopy(content, 0, expected, 10500, 3000);
+        assertArrayEquals(expected, proxy.toByteArray());
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        final ByteArrayOutputStream proxy = new ByteArrayOutputStream();
+        final SlabSegmentingOutputStream out = new SlabSegmentingOutputStream(proxy, 1000);
+        out.close();
+        assertEquals(0, proxy.size());
+    }
+}
@@ -10,6 +10,8 @@ import ch.cyberduck.core.preferences.PreferencesFactory;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.UUID;
 
 import static org.junit.Assert.*;
@@ -34,6 +36,24 @@ public class LocalTest {
         l.getInputStream();
     }
 
+    @Test
+    public void testSkipInputStream() throws Exception {
+        final Local l = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        try (OutputStream out = l.getOutputStream(false)) {
+            out.write(new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+        }
+        try (InputStream in = l.getInputStream()) {
+            assertEquals(0, in.read());
+            assertEquals(3L, in.skip(3L));
+            assertEquals(4, in.read());
+            assertEquals(2L, in.skip(2L));
+            assertEquals(7, in.read());
+        }
+        finally {
+            l.delete();
+        }
+    }
+
     @Test
     public void testGetParent() {
         assertNotNull(new TestLocal(System.getProperty("java.io.tmpdir")).getParent());
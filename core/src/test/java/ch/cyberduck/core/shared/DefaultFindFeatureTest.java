@@ -5,6 +5,8 @@ import ch.cyberduck.core.Host;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.Protocol;
 import ch.cyberduck.core.TestProtocol;
 
@@ -92,4 +94,48 @@ public class DefaultFindFeatureTest {
         assertFalse(feature.find(new Path("/a", EnumSet.of(Path.Type.directory))));
         assertTrue(feature.find(new Path("/a", EnumSet.of(Path.Type.file))));
     }
+
+    @Test
+    public void testFindCached() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        final AttributedList<Path> list = new AttributedList<>();
+        for(int i = 0; i < 1000; i++) {
+            list.add(new Path(String.format("/a/f%d", i), EnumSet.of(Path.Type.file)));
+        }
+        final Path previous = new Path("/a/v", EnumSet.of(Path.Type.file));
+        previous.attributes().setDuplicate(true);
+        list.add(previous);
+        final PathCache cache = new PathCache(1);
+        final DefaultFindFeature feature = new DefaultFindFeature(new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(Path file, ListProgressListener listener) {
+                count.incrementAndGet();
+                return list;
+            }
+        }).withCache(cache);
+        for(int i = 0; i < 1000; i++) {
+            assertTrue(feature.find(new Path(String.format("/a/f%d", i), EnumSet.of(Path.Type.file))));
+            assertFalse(feature.find(new Path(String.format("/a/n%d", i), EnumSet.of(Path.Type.file))));
+        }
+        assertFalse(feature.find(new Path("/a/v", EnumSet.of(Path.Type.file))));
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void testCachingAttributesFinder() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        final Path file = new Path("/a/f", EnumSet.of(Path.Type.file));
+        file.attributes().setSize(3L);
+        final PathCache cache = new PathCache(1);
+        cache.put(file.getParent(), new AttributedList<>(Collections.singletonList(file)));
+        final CachingAttributesFinderFeature feature = new CachingAttributesFinderFeature(new NullSession(new Host(new TestProtocol())), f -> {
+            count.incrementAndGet();
+            return PathAttributes.EMPTY;
+        }).withCache(cache);
+        assertEquals(3L, feature.find(new Path("/a/f", EnumSet.of(Path.Type.file))).getSize());
+        assertEquals(0, count.get());
+        assertEquals(PathAttributes.EMPTY, feature.find(new Path("/a/g", EnumSet.of(Path.Type.file))));
+        assertEquals(PathAttributes.EMPTY, feature.find(new Path("/b/f", EnumSet.of(Path.Type.file))));
+        assertEquals(2, count.get());
+    }
 }
@@ -28,8 +28,10 @@ import ch.cyberduck.core.exception.BackgroundException;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -65,4 +67,42 @@ public class DefaultSearchFeatureTest {
         assertFalse(search.contains(f2));
         assertEquals(1, search.size());
     }
+
+    @Test
+    public void testSearchIncrementalChunk() throws Exception {
+        final Path workdir = new Path("/", EnumSet.of(Path.Type.directory));
+        final Path f1 = new Path(workdir, "f1", EnumSet.of(Path.Type.file));
+        final Path f2 = new Path(workdir, "f2", EnumSet.of(Path.Type.file));
+        final Path f3 = new Path(workdir, "f1.1", EnumSet.of(Path.Type.file));
+        final DefaultSearchFeature feature = new DefaultSearchFeature(new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(final Path folder, final ListProgressListener listener) throws BackgroundException {
+                final AttributedList<Path> list = new AttributedList<>(Arrays.asList(f1, f2));
+                listener.chunk(folder, list, 0, false);
+                list.add(f3);
+                listener.chunk(folder, list, 2, true);
+                return list;
+            }
+        });
+        final Filter<Path> filter = new NullFilter<Path>() {
+            @Override
+            public boolean accept(final Path file) {
+                return file.getName().startsWith("f1");
+            }
+        };
+        final List<Integer> offsets = new ArrayList<>();
+        final AttributedList<Path> search = feature.search(workdir, filter, new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path folder, final AttributedList<Path> list, final int offset, final boolean complete) {
+                if(offsets.isEmpty()) {
+                    assertFalse(complete);
+                    assertEquals(1, list.size());
+                }
+                offsets.add(offset);
+            }
+        });
+        assertEquals(Arrays.asList(0, 1), offsets);
+        assertEquals(2, search.size());
+        assertTrue(search.contains(f3));
+    }
 }
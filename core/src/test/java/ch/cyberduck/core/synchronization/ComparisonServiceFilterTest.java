@@ -1,27 +1,41 @@
 package ch.cyberduck.core.synchronization;
 
 import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.NullLocal;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.features.AttributesFinder;
 import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.RemoteChecksum;
 import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.SHA256ChecksumCompute;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.TimeZone;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class ComparisonServiceFilterTest {
@@ -204,4 +218,104 @@ public class ComparisonServiceFilterTest {
         assertTrue(found.get());
         assertTrue(attr.get());
     }
+
+    @Test
+    public void testCompareRemoteChecksum() throws Exception {
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        Files.write(Paths.get(local.getAbsolute()), "content".getBytes(StandardCharsets.UTF_8));
+        final Checksum expected = new SHA256ChecksumCompute().compute(local.getInputStream(), new TransferStatus());
+        final AtomicBoolean computed = new AtomicBoolean();
+        final RemoteChecksum hash = new RemoteChecksum() {
+            @Override
+            public Checksum compute(final Path file, final HashAlgorithm algorithm) {
+                assertEquals(HashAlgorithm.sha256, algorithm);
+                computed.set(true);
+                return expected;
+            }
+        };
+        final PathAttributes remote = new PathAttributes();
+        remote.setSize(7L);
+        // Timestamp differing from local file
+        remote.setModificationDate(1000L);
+        final AttributesFinder attributes = new AttributesFinder() {
+            @Override
+            public PathAttributes find(final Path file) {
+                return remote;
+            }
+        };
+        final Find find = new Find() {
+            @Override
+            public boolean find(final Path file) {
+                return true;
+            }
+        };
+        PreferencesFactory.get().setProperty("queue.sync.checksum.calculate", true);
+        final ComparisonServiceFilter s;
+        try {
+            s = new ComparisonServiceFilter(new NullSession(new Host(new TestProtocol())) {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <T> T _getFeature(final Class<T> type) {
+                    if(type == RemoteChecksum.class) {
+                        return (T) hash;
+                    }
+                    return super._getFeature(type);
+                }
+            }, TimeZone.getDefault(), new DisabledProgressListener()).withFinder(find).withAttributes(attributes);
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("queue.sync.checksum.calculate");
+        }
+        assertEquals(Comparison.equal, s.compare(new Path(local.getName(), EnumSet.of(Path.Type.file)), local));
+        assertTrue(computed.get());
+        // Attributes from listing not modified
+        assertEquals(Checksum.NONE, remote.getChecksum());
+        computed.set(false);
+        // Skip computing checksum for files with different size
+        remote.setSize(8L);
+        assertEquals(Comparison.local, s.compare(new Path(local.getName(), EnumSet.of(Path.Type.file)), local));
+        assertFalse(computed.get());
+        local.delete();
+    }
+
+    @Test
+    public void testCompareAttributesFromCachedListing() throws Exception {
+        final AtomicBoolean listed = new AtomicBoolean();
+        final PathCache cache = new PathCache(1);
+        final Path directory = new Path("/d", EnumSet.of(Path.Type.directory));
+        final Path file = new Path(directory, "f", EnumSet.of(Path.Type.file));
+        file.attributes().setSize(1L);
+        file.attributes().setChecksum(new Checksum(HashAlgorithm.md5, "a"));
+        cache.put(directory, new AttributedList<>(Collections.singletonList(file)));
+        final ComparisonServiceFilter s = new ComparisonServiceFilter(new NullSession(new Host(new TestProtocol())) {
+            @Override
+            public AttributedList<Path> list(final Path file, final ListProgressListener listener) {
+                listed.set(true);
+                return AttributedList.emptyList();
+            }
+        }, TimeZone.getDefault(), new DisabledProgressListener()).withCache(cache);
+        assertEquals(Comparison.equal, s.compare(new Path(directory, "f", EnumSet.of(Path.Type.file)), new NullLocal("f") {
+            @Override
+            public LocalAttributes attributes() {
+                return new LocalAttributes("f") {
+                    @Override
+                    public Checksum getChecksum() {
+                        return new Checksum(HashAlgorithm.md5, "a");
+                    }
+
+                    @Override
+                    public long getSize() {
+                        return 1L;
+                    }
+                };
+            }
+
+            @Override
+            public boolean exists() {
+                return true;
+            }
+        }));
+        // Existence and attributes read from directory listing in cache
+        assertFalse(listed.get());
+    }
 }
@@ -0,0 +1,97 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AbstractController;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class DefaultBackgroundExecutorTest {
+
+    @Test
+    public void testExecuteWhenAdmitted() throws Exception {
+        final CompletableFuture<Object> admission = new CompletableFuture<>();
+        final AtomicBoolean run = new AtomicBoolean();
+        final Object expected = new Object();
+        final AbstractBackgroundAction<Object> action = new AbstractBackgroundAction<Object>() {
+            @Override
+            public CompletableFuture<?> admit() {
+                return admission;
+            }
+
+            @Override
+            public Object run() {
+                run.set(true);
+                return expected;
+            }
+        };
+        final Future<Object> f = new DefaultBackgroundExecutor().execute(new AbstractController() {
+            @Override
+            public void invoke(final MainAction runnable, final boolean wait) {
+                runnable.run();
+            }
+        }, new BackgroundActionRegistry(), action);
+        Thread.sleep(100L);
+        assertFalse(f.isDone());
+        assertFalse(run.get());
+        admission.complete(null);
+        assertSame(expected, f.get(10L, TimeUnit.SECONDS));
+        assertTrue(run.get());
+    }
+
+    @Test
+    public void testCancelBeforeAdmitted() throws Exception {
+        final CompletableFuture<Object> admission = new CompletableFuture<>();
+        final AtomicBoolean run = new AtomicBoolean();
+        final AbstractBackgroundAction<Object> action = new AbstractBackgroundAction<Object>() {
+            @Override
+            public CompletableFuture<?> admit() {
+                return admission;
+            }
+
+            @Override
+            public Object run() {
+                run.set(true);
+                return new Object();
+            }
+
+            @Override
+            public void cancel() {
+                super.cancel();
+                admission.cancel(false);
+            }
+        };
+        final BackgroundActionRegistry registry = new BackgroundActionRegistry();
+        final Future<Object> f = new DefaultBackgroundExecutor().execute(new AbstractController() {
+            @Override
+            public void invoke(final MainAction runnable, final boolean wait) {
+                runnable.run();
+            }
+        }, registry, action);
+        assertTrue(registry.contains(action));
+        action.cancel();
+        assertNull(f.get(10L, TimeUnit.SECONDS));
+        assertFalse(run.get());
+        assertFalse(registry.contains(action));
+    }
+}
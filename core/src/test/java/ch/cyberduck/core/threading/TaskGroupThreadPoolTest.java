@@ -0,0 +1,95 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.TestProtocol;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TaskGroupThreadPoolTest {
+
+    @Test
+    public void testLimitNested() throws Exception {
+        final DefaultThreadPool threads = new DefaultThreadPool(10);
+        final TaskGroupThreadPool root = new TaskGroupThreadPool("root", threads, 10);
+        final TaskGroupThreadPool host = new TaskGroupThreadPool("host", root, 3);
+        final TaskGroupThreadPool file1 = new TaskGroupThreadPool("file1", host, 2);
+        final TaskGroupThreadPool file2 = new TaskGroupThreadPool("file2", host, 2);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final List<Future<Integer>> futures = new ArrayList<>();
+        for(int i = 0; i < 20; i++) {
+            final int n = i;
+            futures.add((i % 2 == 0 ? file1 : file2).execute(() -> {
+                max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5L);
+                running.decrementAndGet();
+                return n;
+            }));
+        }
+        for(int i = 0; i < futures.size(); i++) {
+            assertEquals(i, futures.get(i).get().intValue());
+        }
+        assertTrue(max.get() <= 3);
+        threads.shutdown(true);
+    }
+
+    @Test
+    public void testShutdownGroup() throws Exception {
+        final DefaultThreadPool threads = new DefaultThreadPool(2);
+        final TaskGroupThreadPool root = new TaskGroupThreadPool("root", threads, 2);
+        final TaskGroupThreadPool cancel = new TaskGroupThreadPool("cancel", root, 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final Future<Void> running = cancel.execute(() -> {
+            started.countDown();
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1L));
+            return null;
+        });
+        final Future<Void> queued = cancel.execute(() -> null);
+        started.await();
+        cancel.shutdown(false);
+        assertTrue(running.isCancelled());
+        assertTrue(queued.isCancelled());
+        try {
+            cancel.execute(() -> null);
+            fail();
+        }
+        catch(RejectedExecutionException e) {
+            //
+        }
+        // Shared threads still available for other groups
+        assertEquals("r", new TaskGroupThreadPool("other", root, 1).execute(() -> "r").get());
+        threads.shutdown(true);
+    }
+
+    @Test
+    public void testHost() throws Exception {
+        final TaskGroupThreadPool pool = TaskGroupThreadPool.get(new Host(new TestProtocol(), "h"), "multipart", 2);
+        assertEquals("r", pool.execute(() -> "r").get());
+        pool.shutdown(true);
+    }
+}
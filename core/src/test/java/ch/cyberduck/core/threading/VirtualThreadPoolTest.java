@@ -0,0 +1,85 @@
+package ch.cyberduck.core.threading;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class VirtualThreadPoolTest {
+
+    @Test
+    public void testExecute() throws Exception {
+        final VirtualThreadPool pool = new VirtualThreadPool("test", 2);
+        final Object r = new Object();
+        assertSame(r, pool.execute(() -> r).get());
+        pool.shutdown(true);
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testShutdown() {
+        final VirtualThreadPool pool = new VirtualThreadPool(1);
+        pool.shutdown(true);
+        pool.execute(() -> null);
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        final ExecutorService executor = new VirtualThreadPool.ThreadPerTaskExecutorService(new NamedThreadFactory("test"), 2);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+        final List<Future<?>> futures = new ArrayList<>();
+        for(int i = 0; i < 20; i++) {
+            futures.add(executor.submit(() -> {
+                max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5L);
+                running.decrementAndGet();
+                return null;
+            }));
+        }
+        for(Future<?> future : futures) {
+            future.get();
+        }
+        assertTrue(max.get() <= 2);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+        assertTrue(executor.isTerminated());
+    }
+
+    @Test
+    public void testShutdownNow() throws Exception {
+        final ExecutorService executor = new VirtualThreadPool.ThreadPerTaskExecutorService(new NamedThreadFactory("test"), 1);
+        final CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1L));
+            return null;
+        });
+        executor.submit(() -> null);
+        started.await();
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+    }
+}
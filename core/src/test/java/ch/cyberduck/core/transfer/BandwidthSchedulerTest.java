@@ -0,0 +1,70 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+public class BandwidthSchedulerTest {
+
+    @Test
+    public void testLimitChanged() {
+        final Host host = new Host(new TestProtocol(), "h");
+        final BandwidthThrottle throttle = BandwidthScheduler.host(host, Transfer.Type.download);
+        assertSame(throttle, BandwidthScheduler.host(host, Transfer.Type.download));
+        assertSame(BandwidthScheduler.global(Transfer.Type.download), throttle.getParent());
+        assertEquals(BandwidthThrottle.UNLIMITED, throttle.getRate(), 0f);
+        try {
+            PreferencesFactory.get().setProperty("queue.download.bandwidth.host.bytes", 1024);
+            PreferencesFactory.get().setProperty("queue.download.bandwidth.global.bytes", 2048);
+            final DownloadTransfer transfer = new DownloadTransfer(host, new Path("/f", EnumSet.of(Path.Type.file)), new Local("/t"));
+            assertSame(throttle, transfer.getBandwidth().getParent());
+            transfer.start();
+            assertEquals(1024f, throttle.getRate(), 0f);
+            assertEquals(2048f, throttle.getParent().getRate(), 0f);
+        }
+        finally {
+            PreferencesFactory.get().setProperty("queue.download.bandwidth.host.bytes", BandwidthThrottle.UNLIMITED);
+            PreferencesFactory.get().setProperty("queue.download.bandwidth.global.bytes", BandwidthThrottle.UNLIMITED);
+        }
+        assertEquals(BandwidthThrottle.UNLIMITED, BandwidthScheduler.host(host, Transfer.Type.download).getRate(), 0f);
+        assertEquals(BandwidthThrottle.UNLIMITED, throttle.getParent().getRate(), 0f);
+    }
+
+    @Test
+    public void testSync() {
+        final Host host = new Host(new TestProtocol(), "h");
+        final SyncTransfer transfer = new SyncTransfer(host, new TransferItem(new Path("/d", EnumSet.of(Path.Type.directory)), new Local("/t")));
+        assertNull(transfer.getBandwidth().getParent());
+        transfer.start();
+        assertNull(transfer.getBandwidth().getParent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGlobalSync() {
+        BandwidthScheduler.global(Transfer.Type.sync);
+    }
+}
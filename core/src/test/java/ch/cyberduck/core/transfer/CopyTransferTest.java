@@ -19,7 +19,10 @@ package ch.cyberduck.core.transfer;
  */
 
 import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DisabledConnectionCallback;
 import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.NullSession;
@@ -28,17 +31,31 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProtocolFactory;
 import ch.cyberduck.core.SerializerFactory;
 import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.features.Multipart;
+import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.DisabledStreamListener;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.io.VoidStatusOutputStream;
 import ch.cyberduck.core.serializer.TransferDictionary;
+import ch.cyberduck.core.transfer.copy.AbstractCopyFilter;
+
+import org.apache.commons.lang3.RandomUtils;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 
 public class CopyTransferTest {
 
@@ -102,4 +119,86 @@ public class CopyTransferTest {
             t.list(session, new Path("/s", EnumSet.of(Path.Type.directory)), null, new DisabledListProgressListener())
         );
     }
+
+    @Test
+    public void testTransferSegment() throws Exception {
+        final Path source = new Path("/s", EnumSet.of(Path.Type.file));
+        final Path target = new Path("/t", EnumSet.of(Path.Type.file));
+        final CopyTransfer t = new CopyTransfer(new Host(new TestProtocol()),
+                new Host(new TestProtocol()), new HashMap<>(Collections.singletonMap(source, target)));
+        final byte[] content = RandomUtils.nextBytes(1000);
+        final NullSession session = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type.equals(Read.class)) {
+                    return (T) new Read() {
+                        @Override
+                        public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                            assertEquals(source, file);
+                            assertTrue(status.isAppend());
+                            return new ByteArrayInputStream(content, (int) status.getOffset(), (int) status.getLength());
+                        }
+
+                        @Override
+                        public boolean offset(final Path file) {
+                            return true;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final ByteArrayOutputStream part = new ByteArrayOutputStream();
+        final NullSession destination = new NullSession(new Host(new TestProtocol())) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T _getFeature(final Class<T> type) {
+                if(type.equals(Multipart.class)) {
+                    return (T) new Multipart() {
+                        @Override
+                        public String start(final Path file, final TransferStatus status) {
+                            throw new UnsupportedOperationException();
+                        }
+
+                        @Override
+                        public StatusOutputStream<?> write(final Path file, final String upload, final TransferStatus status, final ConnectionCallback callback) {
+                            assertEquals(target, file);
+                            assertEquals("u", upload);
+                            assertEquals(Integer.valueOf(2), status.getPart());
+                            return new VoidStatusOutputStream(part);
+                        }
+
+                        @Override
+                        public void complete(final Path file, final String upload, final TransferStatus status) {
+                            throw new UnsupportedOperationException();
+                        }
+
+                        @Override
+                        public void abort(final Path file, final String upload) {
+                            throw new UnsupportedOperationException();
+                        }
+
+                        @Override
+                        public long partsize(final long length, final long preferred) {
+                            return preferred;
+                        }
+                    };
+                }
+                return super._getFeature(type);
+            }
+        };
+        final TransferStatus segment = new TransferStatus()
+                .segment(true)
+                .append(true)
+                .skip(400L)
+                .length(300L)
+                .withParameters(Collections.singletonMap(AbstractCopyFilter.UPLOAD_ID, "u"));
+        segment.setPart(2);
+        t.transfer(session, destination, source, null, new TransferOptions(), segment,
+                new DisabledConnectionCallback(), new DisabledProgressListener(), new DisabledStreamListener());
+        assertArrayEquals(Arrays.copyOfRange(content, 400, 700), part.toByteArray());
+        assertTrue(segment.isComplete());
+        assertEquals(300L, t.getTransferred().longValue());
+    }
 }
@@ -0,0 +1,128 @@
+package ch.cyberduck.core.transfer;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.VersionId;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.local.DefaultLocalTouchFeature;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class TransferPlanTest {
+
+    @Test
+    public void testRecord() throws Exception {
+        final TransferPlan plan = new TransferPlan(new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        plan.open(false);
+        final Path file = new Path("/d/f", EnumSet.of(Path.Type.file));
+        file.attributes().setVersionId("a");
+        final TransferItem item = new TransferItem(file, new Local("/t/f"));
+        plan.add(item, new TransferStatus().exists(true).length(5L).skip(2L).withVersion(new VersionId("v"))
+            .withChecksum(Checksum.parse("d41d8cd98f00b204e9800998ecf8427e"))
+            .withMetadata(Collections.singletonMap("k", "v"))
+            .rename(new Path("/d/r", EnumSet.of(Path.Type.file))).complete());
+        plan.add(new TransferItem(new Path("/d", EnumSet.of(Path.Type.directory))), new TransferStatus());
+        assertEquals(2, plan.size());
+        final TransferItem pending = new TransferItem(new Path("/d/p", EnumSet.of(Path.Type.file)), new Local("/t/p"));
+        final Map<TransferItem, TransferStatus> view = plan.view(Collections.singletonMap(pending, new TransferStatus()));
+        assertEquals(3, view.size());
+        assertEquals(3, new HashMap<>(view).size());
+        assertTrue(view.containsKey(pending));
+        final TransferStatus status = view.get(item);
+        assertNotNull(status);
+        assertEquals(5L, status.getLength());
+        assertEquals(2L, status.getOffset());
+        assertTrue(status.isExists());
+        assertTrue(status.isComplete());
+        assertEquals(new VersionId("v"), status.getVersion());
+        assertEquals(Checksum.parse("d41d8cd98f00b204e9800998ecf8427e"), status.getChecksum());
+        assertEquals(Collections.singletonMap("k", "v"), status.getMetadata());
+        assertEquals(new Path("/d/r", EnumSet.of(Path.Type.file)), status.getRename().remote);
+        assertNull(status.getRename().local);
+        // Remote file with attributes used for equality
+        boolean found = false;
+        for(Map.Entry<TransferItem, TransferStatus> entry : view.entrySet()) {
+            if(entry.getKey().equals(item)) {
+                assertEquals(file, entry.getKey().remote);
+                assertEquals("a", entry.getKey().remote.attributes().getVersionId());
+                found = true;
+            }
+        }
+        assertTrue(found);
+        assertFalse(view.containsKey(new TransferItem(new Path("/d/g", EnumSet.of(Path.Type.file)), new Local("/t/f"))));
+        assertNull(view.get(new TransferItem(new Path("/d/g", EnumSet.of(Path.Type.file)), new Local("/t/f"))));
+        assertNull(view.get(new TransferItem(new Path("/d", EnumSet.of(Path.Type.directory)))).getVersion());
+        assertTrue(view.containsKey(new TransferItem(new Path("/d", EnumSet.of(Path.Type.directory)))));
+        plan.close(true);
+        assertFalse(plan.getFile().exists());
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        final TransferPlan plan = new TransferPlan(new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString()));
+        plan.open(false);
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        new DefaultLocalTouchFeature().touch(local);
+        final TransferItem complete = new TransferItem(new Path("/d/f", EnumSet.of(Path.Type.file)), local);
+        final TransferItem failed = new TransferItem(new Path("/d/g", EnumSet.of(Path.Type.file)), new Local("/t/g"));
+        plan.add(complete, new TransferStatus().length(1L).complete());
+        final TransferStatus failure = new TransferStatus().length(1L);
+        failure.setFailure();
+        plan.add(failed, failure);
+        // Superseded by record of retry
+        plan.add(failed, failure);
+        assertEquals(2, plan.size());
+        assertEquals(2, plan.view(Collections.emptyMap()).size());
+        assertEquals(2, plan.view(Collections.singletonMap(failed, new TransferStatus())).size());
+        assertEquals(2, new HashMap<>(plan.view(Collections.singletonMap(failed, new TransferStatus()))).size());
+        plan.close(false);
+        assertTrue(plan.getFile().exists());
+        plan.open(true);
+        assertEquals(2, plan.size());
+        assertTrue(plan.isComplete(complete));
+        assertFalse(plan.isComplete(failed));
+        assertFalse(plan.isComplete(new TransferItem(new Path("/d/f", EnumSet.of(Path.Type.file)), new Local("/o/f"))));
+        plan.add(new TransferItem(new Path("/d/h", EnumSet.of(Path.Type.file)), new Local("/t/h")), new TransferStatus().complete());
+        assertEquals(3, plan.size());
+        assertEquals(3, new HashMap<>(plan.view(Collections.emptyMap())).size());
+        assertTrue(plan.view(Collections.emptyMap()).containsKey(failed));
+        plan.close(false);
+        plan.open(true);
+        assertEquals(3, plan.size());
+        assertTrue(plan.isComplete(complete));
+        // Local file modified since transferred
+        local.attributes().setModificationDate(local.attributes().getModificationDate() - 60000L);
+        assertFalse(plan.isComplete(complete));
+        local.delete();
+        assertFalse(plan.isComplete(complete));
+        plan.close(false);
+        plan.open(false);
+        assertEquals(0, plan.size());
+        assertFalse(plan.isComplete(complete));
+        assertTrue(plan.view(Collections.emptyMap()).isEmpty());
+        plan.close(true);
+    }
+}
@@ -26,6 +26,7 @@ import org.junit.Test;
 
 import java.util.EnumSet;
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
@@ -55,6 +56,32 @@ public class TransferQueueTest {
         assertEquals(0, c.getCount());
     }
 
+    @Test
+    public void testAddInterrupted() throws Exception {
+        final TransferQueue queue = new TransferQueue(1);
+        final DownloadTransfer d1 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t1", EnumSet.of(Path.Type.directory)), null);
+        final DownloadTransfer d2 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t2", EnumSet.of(Path.Type.directory)), null);
+        queue.add(d1, new DisabledProgressListener());
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        final Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                queue.add(d2, new DisabledProgressListener());
+                interrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+        t.start();
+        t.interrupt();
+        t.join(1000L);
+        assertFalse(t.isAlive());
+        assertTrue(interrupted.get());
+        queue.remove(d1);
+        // Slot of interrupted transfer no longer waiting
+        final CompletableFuture<Transfer> d3 = queue.offer(new DownloadTransfer(new Host(new TestProtocol()), new Path("/t3", EnumSet.of(Path.Type.directory)), null),
+            TransferQueue.Priority.low, new DisabledProgressListener());
+        assertTrue(d3.isDone());
+    }
+
     @Test
     public void testConcurrent() throws Exception {
         final TransferQueue queue = new TransferQueue(1);
@@ -181,4 +208,60 @@ public class TransferQueueTest {
         assertTrue(c.await(1, TimeUnit.SECONDS));
         assertEquals(0, c.getCount());
     }
+
+    @Test
+    public void testOfferPriority() throws Exception {
+        final TransferQueue queue = new TransferQueue(1);
+        final DownloadTransfer d1 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t1", EnumSet.of(Path.Type.directory)), null);
+        final DownloadTransfer d2 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t2", EnumSet.of(Path.Type.directory)), null);
+        final DownloadTransfer d3 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t3", EnumSet.of(Path.Type.directory)), null);
+        final DownloadTransfer d4 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t4", EnumSet.of(Path.Type.directory)), null);
+        d4.setSize(1024L);
+        assertTrue(queue.offer(d1, TransferQueue.Priority.norm, new DisabledProgressListener()).isDone());
+        final CompletableFuture<Transfer> f2 = queue.offer(d2, TransferQueue.Priority.low, new DisabledProgressListener());
+        final CompletableFuture<Transfer> f3 = queue.offer(d3, TransferQueue.Priority.norm, new DisabledProgressListener());
+        final CompletableFuture<Transfer> f4 = queue.offer(d4, TransferQueue.Priority.norm, new DisabledProgressListener());
+        assertFalse(f2.isDone());
+        assertFalse(f3.isDone());
+        assertFalse(f4.isDone());
+        queue.remove(d1);
+        // Smaller transfer first
+        assertTrue(f4.isDone());
+        assertFalse(f3.isDone());
+        queue.remove(d4);
+        assertTrue(f3.isDone());
+        assertFalse(f2.isDone());
+        queue.remove(d3);
+        assertSame(d2, f2.get());
+    }
+
+    @Test
+    public void testOfferHostLimit() {
+        final TransferQueue queue = new TransferQueue(2, 1);
+        final DownloadTransfer d1 = new DownloadTransfer(new Host(new TestProtocol(), "a"), new Path("/t1", EnumSet.of(Path.Type.directory)), null);
+        final DownloadTransfer d2 = new DownloadTransfer(new Host(new TestProtocol(), "a"), new Path("/t2", EnumSet.of(Path.Type.directory)), null);
+        final DownloadTransfer d3 = new DownloadTransfer(new Host(new TestProtocol(), "b"), new Path("/t3", EnumSet.of(Path.Type.directory)), null);
+        assertTrue(queue.offer(d1, TransferQueue.Priority.norm, new DisabledProgressListener()).isDone());
+        final CompletableFuture<Transfer> f2 = queue.offer(d2, TransferQueue.Priority.norm, new DisabledProgressListener());
+        assertFalse(f2.isDone());
+        // Admit transfer to other host
+        assertTrue(queue.offer(d3, TransferQueue.Priority.norm, new DisabledProgressListener()).isDone());
+        queue.remove(d3);
+        assertFalse(f2.isDone());
+        queue.remove(d1);
+        assertTrue(f2.isDone());
+    }
+
+    @Test
+    public void testOfferRemoveWhileWaiting() {
+        final TransferQueue queue = new TransferQueue(1);
+        final DownloadTransfer d1 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t1", EnumSet.of(Path.Type.directory)), null);
+        final DownloadTransfer d2 = new DownloadTransfer(new Host(new TestProtocol()), new Path("/t2", EnumSet.of(Path.Type.directory)), null);
+        queue.offer(d1, TransferQueue.Priority.norm, new DisabledProgressListener());
+        final CompletableFuture<Transfer> f2 = queue.offer(d2, TransferQueue.Priority.norm, new DisabledProgressListener());
+        queue.remove(d2);
+        assertTrue(f2.isCancelled());
+        queue.remove(d1);
+        assertTrue(queue.offer(d2, TransferQueue.Priority.norm, new DisabledProgressListener()).isDone());
+    }
 }
@@ -1,5 +1,6 @@
 package ch.cyberduck.core.transfer.copy;
 
+import ch.cyberduck.core.ConnectionCallback;
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
 import ch.cyberduck.core.NullSession;
@@ -8,8 +9,13 @@ import ch.cyberduck.core.Path;
 import ch.cyberduck.core.Permission;
 import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.features.Find;
+import ch.cyberduck.core.features.Multipart;
+import ch.cyberduck.core.features.Read;
 import ch.cyberduck.core.features.Timestamp;
 import ch.cyberduck.core.features.UnixPermission;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultTimestampFeature;
 import ch.cyberduck.core.shared.DefaultUnixPermissionFeature;
 import ch.cyberduck.core.transfer.TransferOptions;
@@ -18,8 +24,11 @@ import ch.cyberduck.core.transfer.upload.UploadFilterOptions;
 
 import org.junit.Test;
 
+import java.io.InputStream;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 
@@ -146,4 +155,120 @@ public class OverwriteFilterTest {
         assertTrue(permissionWrite[0]);
         assertTrue(timestampWrite[0]);
     }
+
+    @Test
+    public void testPrepareSegmented() throws Exception {
+        PreferencesFactory.get().setProperty("queue.copy.segments", true);
+        try {
+            final HashMap<Path, Path> files = new HashMap<Path, Path>();
+            final Path source = new Path("a", EnumSet.of(Path.Type.file));
+            final long length = 200L * 1024L * 1024L + 1L;
+            source.attributes().setSize(length);
+            source.attributes().setChecksum(Checksum.parse("d41d8cd98f00b204e9800998ecf8427e"));
+            final Path target = new Path("t", EnumSet.of(Path.Type.file));
+            files.put(source, target);
+            final AtomicReference<String> completed = new AtomicReference<>();
+            final AtomicReference<String> aborted = new AtomicReference<>();
+            final Multipart multipart = new Multipart() {
+                @Override
+                public String start(final Path file, final TransferStatus status) {
+                    assertEquals(target, file);
+                    assertEquals(Checksum.NONE, status.getChecksum());
+                    return "u";
+                }
+
+                @Override
+                public StatusOutputStream<?> write(final Path file, final String upload, final TransferStatus status, final ConnectionCallback callback) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void complete(final Path file, final String upload, final TransferStatus status) {
+                    assertEquals(target, file);
+                    completed.set(upload);
+                }
+
+                @Override
+                public void abort(final Path file, final String upload) {
+                    assertEquals(target, file);
+                    aborted.set(upload);
+                }
+
+                @Override
+                public long partsize(final long length, final long preferred) {
+                    return 100L * 1024L * 1024L;
+                }
+            };
+            final OverwriteFilter f = new OverwriteFilter(new NullTransferSession(new Host(new TestProtocol())) {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <T> T _getFeature(final Class<T> type) {
+                    if(type.equals(Read.class)) {
+                        return (T) new Read() {
+                            @Override
+                            public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) {
+                                throw new UnsupportedOperationException();
+                            }
+
+                            @Override
+                            public boolean offset(final Path file) {
+                                return true;
+                            }
+                        };
+                    }
+                    return super._getFeature(type);
+                }
+            }, new NullSession(new Host(new TestProtocol())) {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <T> T _getFeature(final Class<T> type) {
+                    if(type.equals(Multipart.class)) {
+                        return (T) multipart;
+                    }
+                    return super._getFeature(type);
+                }
+            }, files);
+            final TransferStatus status = f.prepare(source, null, new TransferStatus(), new DisabledProgressListener());
+            assertEquals(length, status.getLength());
+            assertEquals(Checksum.NONE, status.getChecksum());
+            assertTrue(status.isSegmented());
+            final List<TransferStatus> segments = status.getSegments();
+            assertEquals(3, segments.size());
+            long offset = 0L;
+            for(int i = 0; i < segments.size(); i++) {
+                final TransferStatus segment = segments.get(i);
+                assertTrue(segment.isSegment());
+                assertTrue(segment.isAppend());
+                assertEquals(Integer.valueOf(i + 1), segment.getPart());
+                assertEquals(offset, segment.getOffset());
+                assertEquals("u", segment.getParameters().get(AbstractCopyFilter.UPLOAD_ID));
+                offset += segment.getLength();
+            }
+            assertEquals(1L, segments.get(2).getLength());
+            assertEquals(length, offset);
+            // Single segment
+            f.complete(source, null, new TransferOptions(), segments.get(0).complete(), new DisabledProgressListener());
+            assertNull(completed.get());
+            // Failed transfer
+            f.complete(source, null, new TransferOptions(), status, new DisabledProgressListener());
+            assertEquals("u", aborted.get());
+            assertNull(completed.get());
+            f.complete(source, null, new TransferOptions(), status.complete(), new DisabledProgressListener());
+            assertEquals("u", completed.get());
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("queue.copy.segments");
+        }
+    }
+
+    @Test
+    public void testPrepareNoMultipart() throws Exception {
+        final HashMap<Path, Path> files = new HashMap<Path, Path>();
+        final Path source = new Path("a", EnumSet.of(Path.Type.file));
+        source.attributes().setSize(250L * 1024L * 1024L);
+        files.put(source, new Path("t", EnumSet.of(Path.Type.file)));
+        final OverwriteFilter f = new OverwriteFilter(new NullTransferSession(new Host(new TestProtocol())), new NullSession(new Host(new TestProtocol())), files);
+        final TransferStatus status = f.prepare(source, null, new TransferStatus(), new DisabledProgressListener());
+        assertFalse(status.isSegmented());
+    }
 }
@@ -2,20 +2,26 @@ package ch.cyberduck.core.transfer.download;
 
 import ch.cyberduck.core.DisabledProgressListener;
 import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
 import ch.cyberduck.core.LocalAttributes;
 import ch.cyberduck.core.NullLocal;
+import ch.cyberduck.core.NullReadFeature;
 import ch.cyberduck.core.NullSession;
 import ch.cyberduck.core.NullTransferSession;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.TestProtocol;
 import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultDownloadFeature;
+import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.core.transfer.symlink.DisabledDownloadSymlinkResolver;
 
 import org.junit.Test;
 
 import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
 
 import static org.junit.Assert.*;
 
@@ -141,4 +147,72 @@ public class ResumeFilterTest {
         final TransferStatus status = f.prepare(p, local, new TransferStatus(), new DisabledProgressListener());
         assertFalse(status.isAppend());
     }
+
+    @Test
+    public void testPrepareSegmentsPositional() throws Exception {
+        PreferencesFactory.get().setProperty("queue.download.segments.positional", true);
+        try {
+            final NullSession session = new NullTransferSession(new Host(new TestProtocol())) {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <T> T _getFeature(final Class<T> type) {
+                    if(type == Read.class) {
+                        return (T) new NullReadFeature() {
+                            @Override
+                            public boolean offset(final Path file) {
+                                return true;
+                            }
+                        };
+                    }
+                    return super._getFeature(type);
+                }
+            };
+            final DownloadFilterOptions options = new DownloadFilterOptions();
+            options.segments = true;
+            final Path p = new Path("a", EnumSet.of(Path.Type.file));
+            p.attributes().setSize(32L * 1024L * 1024L + 1L);
+            final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+            final TransferStatus status = new OverwriteFilter(new DisabledDownloadSymlinkResolver(), session, options)
+                .prepare(p, local, new TransferStatus(), new DisabledProgressListener());
+            assertTrue(status.isSegmented());
+            final List<TransferStatus> segments = status.getSegments();
+            assertTrue(segments.size() > 1);
+            for(TransferStatus segment : segments) {
+                assertNull(segment.getRename().local);
+                assertFalse(segment.isComplete());
+            }
+            final ResumeFilter f = new ResumeFilter(new DisabledDownloadSymlinkResolver(), session, options);
+            f.apply(p, local, status, new DisabledProgressListener());
+            final SegmentBitmap bitmap = new SegmentBitmap(local);
+            assertTrue(bitmap.exists());
+            // Target not written until complete
+            assertFalse(local.exists());
+            assertEquals(p.attributes().getSize(), bitmap.getTemporary().attributes().getSize());
+            assertTrue(f.accept(p, local, new TransferStatus().exists(true)));
+            final TransferStatus last = segments.get(segments.size() - 1);
+            last.progress(last.getLength());
+            f.complete(p, local, new TransferOptions(), last.complete(), new DisabledProgressListener());
+            final TransferStatus resume = f.prepare(p, local, new TransferStatus().exists(true), new DisabledProgressListener());
+            assertEquals(segments.size(), resume.getSegments().size());
+            assertTrue(resume.getSegments().get(segments.size() - 1).isComplete());
+            assertFalse(resume.getSegments().get(0).isComplete());
+            assertEquals(last.getLength(), resume.getOffset());
+            assertEquals(p.attributes().getSize() - last.getLength(), resume.getLength());
+            // Sidecar kept when resuming
+            f.apply(p, local, resume, new DisabledProgressListener());
+            assertTrue(new SegmentBitmap(local).read(p.attributes().getSize(), segments.get(0).getLength()).get(segments.size() - 1));
+            for(TransferStatus segment : resume.getSegments()) {
+                segment.setComplete();
+            }
+            f.complete(p, local, new TransferOptions(), resume.complete(), new DisabledProgressListener());
+            assertFalse(bitmap.exists());
+            assertFalse(bitmap.getTemporary().exists());
+            assertTrue(local.exists());
+            assertEquals(p.attributes().getSize(), local.attributes().getSize());
+            local.delete();
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("queue.download.segments.positional");
+        }
+    }
 }
@@ -0,0 +1,56 @@
+package ch.cyberduck.core.transfer.download;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Local;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class SegmentBitmapTest {
+
+    @Test
+    public void testMark() throws Exception {
+        final Local local = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        final SegmentBitmap bitmap = new SegmentBitmap(local);
+        assertFalse(bitmap.exists());
+        assertNull(bitmap.read(100L, 10L));
+        bitmap.create(95L, 10L);
+        assertTrue(bitmap.exists());
+        assertTrue(bitmap.read(95L, 10L).isEmpty());
+        bitmap.mark(0L);
+        bitmap.mark(89L);
+        // Last segment with 5 bytes
+        bitmap.mark(94L);
+        final BitSet completed = bitmap.read(95L, 10L);
+        assertEquals(3, completed.cardinality());
+        assertTrue(completed.get(0));
+        assertTrue(completed.get(8));
+        assertTrue(completed.get(9));
+        // Different download
+        assertNull(bitmap.read(95L, 5L));
+        assertNull(bitmap.read(100L, 10L));
+        bitmap.delete();
+        assertFalse(bitmap.exists());
+        // Ignore after removal
+        bitmap.mark(0L);
+        assertFalse(bitmap.exists());
+    }
+}
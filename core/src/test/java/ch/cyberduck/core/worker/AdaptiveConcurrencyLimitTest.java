@@ -0,0 +1,135 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.threading.BackgroundActionState;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private final BackgroundActionState running = new BackgroundActionState() {
+        @Override
+        public boolean isCanceled() {
+            return false;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+    };
+
+    /**
+     * Complete one window of tasks taking given time each and transferring given number of bytes in total
+     */
+    private void window(final AdaptiveConcurrencyLimit limit, final AtomicLong clock, final AtomicLong transferred,
+                        final long latency, final long bytes) throws Exception {
+        final int count = limit.getLimit();
+        final long[] timestamps = new long[count];
+        for(int i = 0; i < count; i++) {
+            timestamps[i] = limit.acquire(running);
+        }
+        clock.addAndGet(latency);
+        transferred.addAndGet(bytes);
+        for(int i = 0; i < count; i++) {
+            limit.release(timestamps[i]);
+        }
+    }
+
+    @Test
+    public void testIncreaseWithThroughput() throws Exception {
+        final AtomicLong clock = new AtomicLong();
+        final AtomicLong transferred = new AtomicLong();
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 4, 2, transferred::get, clock::get, 10L);
+        this.window(limit, clock, transferred, 10L, 100L);
+        // Probe after first window
+        assertEquals(3, limit.getLimit());
+        this.window(limit, clock, transferred, 10L, 150L);
+        assertEquals(4, limit.getLimit());
+        this.window(limit, clock, transferred, 10L, 200L);
+        // Bounded by maximum
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void testHoldWithoutImprovement() throws Exception {
+        final AtomicLong clock = new AtomicLong();
+        final AtomicLong transferred = new AtomicLong();
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 10, 2, transferred::get, clock::get, 10L);
+        this.window(limit, clock, transferred, 10L, 100L);
+        assertEquals(3, limit.getLimit());
+        this.window(limit, clock, transferred, 10L, 100L);
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    public void testDecreaseWithCongestion() throws Exception {
+        final AtomicLong clock = new AtomicLong();
+        final AtomicLong transferred = new AtomicLong();
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 10, 2, transferred::get, clock::get, 10L);
+        this.window(limit, clock, transferred, 10L, 100L);
+        assertEquals(3, limit.getLimit());
+        this.window(limit, clock, transferred, 20L, 100L);
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void testThrottle() throws Exception {
+        final AtomicLong clock = new AtomicLong();
+        final AtomicLong transferred = new AtomicLong();
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 10, 8, transferred::get, clock::get, 10L);
+        limit.throttle();
+        assertEquals(4, limit.getLimit());
+        // Ignore in same window
+        limit.throttle();
+        assertEquals(4, limit.getLimit());
+        // No probe after throttling
+        this.window(limit, clock, transferred, 10L, 100L);
+        assertEquals(4, limit.getLimit());
+        limit.throttle();
+        limit.throttle();
+        assertEquals(2, limit.getLimit());
+        this.window(limit, clock, transferred, 10L, 100L);
+        limit.throttle();
+        this.window(limit, clock, transferred, 10L, 100L);
+        limit.throttle();
+        // Bounded by minimum
+        assertEquals(1, limit.getLimit());
+    }
+
+    @Test(expected = ConnectionCanceledException.class)
+    public void testAcquireCanceled() throws Exception {
+        final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 1, () -> 0L);
+        limit.acquire(running);
+        limit.acquire(new BackgroundActionState() {
+            @Override
+            public boolean isCanceled() {
+                return true;
+            }
+
+            @Override
+            public boolean isRunning() {
+                return false;
+            }
+        });
+    }
+}
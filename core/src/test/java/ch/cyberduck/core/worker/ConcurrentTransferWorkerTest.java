@@ -17,11 +17,13 @@ package ch.cyberduck.core.worker;
 
 import ch.cyberduck.core.*;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.RetriableAccessDeniedException;
 import ch.cyberduck.core.io.DisabledStreamListener;
 import ch.cyberduck.core.io.StreamListener;
 import ch.cyberduck.core.notification.DisabledNotificationService;
 import ch.cyberduck.core.pool.DefaultSessionPool;
 import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.ssl.DefaultX509KeyManager;
 import ch.cyberduck.core.ssl.DisabledX509TrustManager;
 import ch.cyberduck.core.transfer.DisabledTransferErrorCallback;
@@ -37,6 +39,7 @@ import ch.cyberduck.core.transfer.UploadTransfer;
 import ch.cyberduck.core.transfer.download.AbstractDownloadFilter;
 import ch.cyberduck.core.transfer.symlink.DisabledDownloadSymlinkResolver;
 import ch.cyberduck.core.vault.DefaultVaultRegistry;
+import ch.cyberduck.core.vault.VaultRegistry;
 
 import org.junit.Test;
 
@@ -44,12 +47,16 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -210,6 +217,270 @@ public class ConcurrentTransferWorkerTest {
         worker.cleanup(true);
     }
 
+    @Test
+    public void testTransferWhilePreparing() throws Exception {
+        final int files = 250;
+        final Path directory = new Path("/t", EnumSet.of(Path.Type.directory));
+        final Set<Path> transferred = ConcurrentHashMap.newKeySet();
+        final AtomicInteger prepared = new AtomicInteger();
+        final CountDownLatch first = new CountDownLatch(1);
+        final AtomicBoolean pipelined = new AtomicBoolean();
+        final Host host = new Host(new TestProtocol(), "test.cyberduck.ch");
+        final Transfer t = new DownloadTransfer(host, directory, new NullLocal("l")) {
+            @Override
+            public List<TransferItem> list(final Session<?> session, final Path folder, final Local local, final ListProgressListener listener) {
+                final List<TransferItem> children = new ArrayList<>();
+                for(int i = 1; i <= files; i++) {
+                    children.add(new TransferItem(new Path(folder, "f" + i, EnumSet.of(Path.Type.file)), new NullLocal(local.getAbsolute(), "f" + i)));
+                }
+                return children;
+            }
+
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, final Local local,
+                                 final TransferOptions options, final TransferStatus status,
+                                 final ConnectionCallback connectionCallback,
+                                 final ProgressListener listener, final StreamListener streamListener) {
+                if(file.isFile()) {
+                    first.countDown();
+                }
+                else {
+                    // Directory created before any children are transferred
+                    assertTrue(transferred.isEmpty());
+                }
+                transferred.add(file);
+            }
+
+            @Override
+            public AbstractDownloadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
+                return new AbstractDownloadFilter(new DisabledDownloadSymlinkResolver(), source, null) {
+                    @Override
+                    public boolean accept(final Path file, final Local local, final TransferStatus parent) {
+                        return true;
+                    }
+
+                    @Override
+                    public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) {
+                        if(prepared.incrementAndGet() == files + 1) {
+                            try {
+                                // Last file is prepared after first batch is transferred
+                                pipelined.set(first.await(10L, TimeUnit.SECONDS));
+                            }
+                            catch(InterruptedException e) {
+                                fail();
+                            }
+                        }
+                        return new TransferStatus();
+                    }
+
+                    @Override
+                    public void apply(final Path file, final Local local, final TransferStatus status, final ProgressListener listener) {
+                        //
+                    }
+
+                    @Override
+                    public void complete(final Path file, final Local local, final TransferOptions options, final TransferStatus status, final ProgressListener listener) {
+                        assertTrue(transferred.contains(file));
+                    }
+                };
+            }
+        };
+        final LoginConnectionService connection = new TestLoginConnectionService();
+        final DefaultSessionPool pool = new DefaultSessionPool(connection, new DisabledX509TrustManager(), new DefaultX509KeyManager(),
+            VaultRegistry.DISABLED,
+            PathCache.empty(), new DisabledTranscriptListener(), host);
+        final ConcurrentTransferWorker worker = new ConcurrentTransferWorker(
+            pool, SessionPool.DISCONNECTED, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return TransferAction.overwrite;
+            }
+        }, new DisabledTransferErrorCallback(),
+            new DisabledLoginCallback(), new DisabledProgressListener(), new DisabledStreamListener(), new DisabledNotificationService()
+        );
+        PreferencesFactory.get().setProperty("queue.transfer.pipeline", true);
+        try {
+            final Session<?> session = worker.borrow(ConcurrentTransferWorker.Connection.source);
+            assertTrue(worker.run(session));
+            worker.release(session, ConcurrentTransferWorker.Connection.source, null);
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("queue.transfer.pipeline");
+        }
+        assertEquals(files + 1, transferred.size());
+        assertEquals(files + 1, prepared.get());
+        // First batch transferred before all files are prepared
+        assertTrue(pipelined.get());
+        worker.cleanup(true);
+    }
+
+    @Test
+    public void testPipelineBulkFeatureWithAllFiles() throws Exception {
+        final int files = 250;
+        final Path directory = new Path("/t", EnumSet.of(Path.Type.directory));
+        final AtomicInteger pre = new AtomicInteger();
+        final AtomicInteger size = new AtomicInteger();
+        final Host host = new Host(new TestProtocol(), "test.cyberduck.ch");
+        final Transfer t = new DownloadTransfer(host, directory, new NullLocal("l")) {
+            @Override
+            public List<TransferItem> list(final Session<?> session, final Path folder, final Local local, final ListProgressListener listener) {
+                final List<TransferItem> children = new ArrayList<>();
+                for(int i = 1; i <= files; i++) {
+                    children.add(new TransferItem(new Path(folder, "f" + i, EnumSet.of(Path.Type.file)), new NullLocal(local.getAbsolute(), "f" + i)));
+                }
+                return children;
+            }
+
+            @Override
+            public void pre(final Session<?> source, final Session<?> destination, final Map<TransferItem, TransferStatus> files, final ConnectionCallback callback) {
+                pre.incrementAndGet();
+                size.set(files.size());
+            }
+
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, final Local local,
+                                 final TransferOptions options, final TransferStatus status,
+                                 final ConnectionCallback connectionCallback,
+                                 final ProgressListener listener, final StreamListener streamListener) {
+                // Bulk feature called before any file is transferred
+                assertEquals(1, pre.get());
+            }
+
+            @Override
+            public AbstractDownloadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
+                return new AbstractDownloadFilter(new DisabledDownloadSymlinkResolver(), source, null) {
+                    @Override
+                    public boolean accept(final Path file, final Local local, final TransferStatus parent) {
+                        return true;
+                    }
+
+                    @Override
+                    public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) {
+                        return new TransferStatus();
+                    }
+
+                    @Override
+                    public void apply(final Path file, final Local local, final TransferStatus status, final ProgressListener listener) {
+                        //
+                    }
+
+                    @Override
+                    public void complete(final Path file, final Local local, final TransferOptions options, final TransferStatus status, final ProgressListener listener) {
+                        //
+                    }
+                };
+            }
+        };
+        final LoginConnectionService connection = new TestLoginConnectionService();
+        // Bulk feature wrapped for files in vaults
+        final DefaultSessionPool pool = new DefaultSessionPool(connection, new DisabledX509TrustManager(), new DefaultX509KeyManager(),
+            new DefaultVaultRegistry(new DisabledPasswordCallback()),
+            PathCache.empty(), new DisabledTranscriptListener(), host);
+        final ConcurrentTransferWorker worker = new ConcurrentTransferWorker(
+            pool, SessionPool.DISCONNECTED, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return TransferAction.overwrite;
+            }
+        }, new DisabledTransferErrorCallback(),
+            new DisabledLoginCallback(), new DisabledProgressListener(), new DisabledStreamListener(), new DisabledNotificationService()
+        );
+        PreferencesFactory.get().setProperty("queue.transfer.pipeline", true);
+        try {
+            final Session<?> session = worker.borrow(ConcurrentTransferWorker.Connection.source);
+            assertTrue(worker.run(session));
+            worker.release(session, ConcurrentTransferWorker.Connection.source, null);
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("queue.transfer.pipeline");
+        }
+        assertEquals(1, pre.get());
+        assertEquals(files + 1, size.get());
+        worker.cleanup(true);
+    }
+
+    @Test(timeout = 30000L)
+    public void testSegmentedFilesAdaptiveLimitOne() throws Exception {
+        final int files = 10;
+        final int segments = 4;
+        final Set<Path> transferred = ConcurrentHashMap.newKeySet();
+        final List<TransferItem> list = new ArrayList<TransferItem>();
+        for(int i = 1; i <= files; i++) {
+            list.add(new TransferItem(new Path("/t" + i, EnumSet.of(Path.Type.file)), new NullLocal("/t" + i)));
+        }
+        final Host host = new Host(new TestProtocol(), "test.cyberduck.ch");
+        final Transfer t = new DownloadTransfer(host, list) {
+            @Override
+            public void transfer(final Session<?> source, final Session<?> destination, final Path file, final Local local,
+                                 final TransferOptions options, final TransferStatus status,
+                                 final ConnectionCallback connectionCallback,
+                                 final ProgressListener listener, final StreamListener streamListener) {
+                assertTrue(status.isSegment());
+                try {
+                    // Completion of files waits for slot meanwhile
+                    Thread.sleep(10L);
+                }
+                catch(InterruptedException e) {
+                    fail();
+                }
+                status.setComplete();
+            }
+
+            @Override
+            public AbstractDownloadFilter filter(final Session<?> source, final Session<?> destination, final TransferAction action, final ProgressListener listener) {
+                return new AbstractDownloadFilter(new DisabledDownloadSymlinkResolver(), source, null) {
+                    @Override
+                    public boolean accept(final Path file, final Local local, final TransferStatus parent) {
+                        return true;
+                    }
+
+                    @Override
+                    public TransferStatus prepare(final Path file, final Local local, final TransferStatus parent, final ProgressListener progress) {
+                        final List<TransferStatus> parts = new ArrayList<TransferStatus>();
+                        for(int i = 0; i < segments; i++) {
+                            parts.add(new TransferStatus().segment(true).append(true).skip(i).length(1L));
+                        }
+                        return new TransferStatus().length(segments).withSegments(parts);
+                    }
+
+                    @Override
+                    public void apply(final Path file, final Local local, final TransferStatus status, final ProgressListener listener) {
+                        //
+                    }
+
+                    @Override
+                    public void complete(final Path file, final Local local, final TransferOptions options, final TransferStatus status, final ProgressListener listener) {
+                        if(!status.isSegment()) {
+                            assertTrue(status.isComplete());
+                            transferred.add(file);
+                        }
+                    }
+                };
+            }
+        };
+        final LoginConnectionService connection = new TestLoginConnectionService();
+        final DefaultSessionPool pool = new DefaultSessionPool(connection, new DisabledX509TrustManager(), new DefaultX509KeyManager(),
+            new DefaultVaultRegistry(new DisabledPasswordCallback()),
+            PathCache.empty(), new DisabledTranscriptListener(), host);
+        final ConcurrentTransferWorker worker = new ConcurrentTransferWorker(
+            pool, SessionPool.DISCONNECTED, t, new TransferOptions(), new TransferSpeedometer(t), new DisabledTransferPrompt() {
+            @Override
+            public TransferAction prompt(final TransferItem file) {
+                return TransferAction.overwrite;
+            }
+        }, new DisabledTransferErrorCallback(),
+            new DisabledLoginCallback(), new DisabledProgressListener(), new DisabledStreamListener(), new DisabledNotificationService()
+        );
+        // Decrease limit to single task
+        worker.release(worker.borrow(ConcurrentTransferWorker.Connection.source), ConcurrentTransferWorker.Connection.source,
+            new RetriableAccessDeniedException("Slow down"));
+        final Session<?> session = worker.borrow(ConcurrentTransferWorker.Connection.source);
+        assertTrue(worker.run(session));
+        worker.release(session, ConcurrentTransferWorker.Connection.source, null);
+        assertEquals(files, transferred.size());
+        worker.cleanup(true);
+    }
+
     @Test
     public void testBorrowTimeoutNoSessionAvailable() throws Exception {
         final Host host = new Host(new TestProtocol(), "localhost", new Credentials("u", "p"));
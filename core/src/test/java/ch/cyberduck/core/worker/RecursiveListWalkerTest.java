@@ -0,0 +1,208 @@
+package ch.cyberduck.core.worker;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.DisabledPasswordCallback;
+import ch.cyberduck.core.DisabledProgressListener;
+import ch.cyberduck.core.DisabledTranscriptListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.ListService;
+import ch.cyberduck.core.NullFilter;
+import ch.cyberduck.core.NullSession;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.SimplePathPredicate;
+import ch.cyberduck.core.TestLoginConnectionService;
+import ch.cyberduck.core.TestProtocol;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.pool.SessionPool;
+import ch.cyberduck.core.pool.StatelessSessionPool;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+import ch.cyberduck.core.vault.DefaultVaultRegistry;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+public class RecursiveListWalkerTest {
+
+    /**
+     * Directory tree with four files and four subdirectories in each directory up to the given depth
+     */
+    private static final class TreeSession extends NullSession {
+        private final int depth;
+        private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        public TreeSession(final int depth) {
+            super(new Host(new TestProtocol()));
+            this.depth = depth;
+        }
+
+        @Override
+        public AttributedList<Path> list(final Path directory, final ListProgressListener listener) {
+            threads.add(Thread.currentThread().getName());
+            final AttributedList<Path> list = new AttributedList<>();
+            for(int i = 0; i < 4; i++) {
+                list.add(new Path(directory, String.format("f%d", i), EnumSet.of(Path.Type.file)));
+                if(directory.getAbsolute().split(String.valueOf(Path.DELIMITER)).length <= depth) {
+                    list.add(new Path(directory, String.format("d%d", i), EnumSet.of(Path.Type.directory)));
+                }
+            }
+            return list;
+        }
+    }
+
+    @Test
+    public void testWalkSequential() throws Exception {
+        final TreeSession session = new TreeSession(3);
+        final Path root = new Path("/root", EnumSet.of(Path.Type.directory));
+        final Map<SimplePathPredicate, AttributedList<Path>> tree = new RecursiveListWalker(new Worker<Void>() {
+        }, SessionPool.DISCONNECTED, 4, Integer.MAX_VALUE).walk(session, root,
+            (connection, directory) -> connection.getFeature(ListService.class).list(directory, new DisabledListProgressListener()), new NullFilter<>(), new DisabledProgressListener());
+        assertEquals(1 + 4 + 16, tree.size());
+        assertEquals(8, tree.get(new SimplePathPredicate(root)).size());
+        assertEquals(4, tree.get(new SimplePathPredicate(new Path("/root/d1/d2", EnumSet.of(Path.Type.directory)))).size());
+        assertEquals(1, session.threads.size());
+    }
+
+    @Test
+    public void testWalkConcurrent() throws Exception {
+        final TreeSession session = new TreeSession(4);
+        final SessionPool pool = new StatelessSessionPool(new TestLoginConnectionService(), session, PathCache.empty(),
+            new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        final Path root = new Path("/root", EnumSet.of(Path.Type.directory));
+        final Map<SimplePathPredicate, AttributedList<Path>> tree = new RecursiveListWalker(new Worker<Void>() {
+        }, pool, 4, Integer.MAX_VALUE).walk(session, root,
+            (connection, directory) -> connection.getFeature(ListService.class).list(directory, new DisabledListProgressListener()), new NullFilter<>(), new DisabledProgressListener());
+        assertEquals(1 + 4 + 16 + 64, tree.size());
+        for(AttributedList<Path> list : tree.values()) {
+            assertFalse(list.isEmpty());
+        }
+    }
+
+    @Test
+    public void testWalkQueueLimit() throws Exception {
+        final TreeSession session = new TreeSession(4);
+        final SessionPool pool = new StatelessSessionPool(new TestLoginConnectionService(), session, PathCache.empty(),
+            new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        final Path root = new Path("/root", EnumSet.of(Path.Type.directory));
+        final Map<SimplePathPredicate, AttributedList<Path>> tree = new RecursiveListWalker(new Worker<Void>() {
+        }, pool, 4, 2).walk(session, root,
+            (connection, directory) -> connection.getFeature(ListService.class).list(directory, new DisabledListProgressListener()), new NullFilter<>(), new DisabledProgressListener());
+        assertEquals(1 + 4 + 16 + 64, tree.size());
+    }
+
+    @Test
+    public void testWalkExecutor() throws Exception {
+        final TreeSession session = new TreeSession(4);
+        final SessionPool pool = new StatelessSessionPool(new TestLoginConnectionService(), session, PathCache.empty(),
+            new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        final Path root = new Path("/root", EnumSet.of(Path.Type.directory));
+        final ThreadPool executor = ThreadPoolFactory.get("walk", 3);
+        try {
+            final Map<SimplePathPredicate, AttributedList<Path>> tree = new RecursiveListWalker(new Worker<Void>() {
+            }, pool, 4, 0).withExecutor(executor).walk(session, root,
+                (connection, directory) -> connection.getFeature(ListService.class).list(directory, new DisabledListProgressListener()), new NullFilter<>(), new DisabledProgressListener());
+            assertEquals(1 + 4 + 16 + 64, tree.size());
+            assertTrue(session.threads.contains(Thread.currentThread().getName()));
+            for(String thread : session.threads) {
+                assertTrue(thread.equals(Thread.currentThread().getName()) || thread.startsWith("walk-"));
+            }
+        }
+        finally {
+            executor.shutdown(false);
+        }
+    }
+
+    @Test
+    public void testWalkFilter() throws Exception {
+        final TreeSession session = new TreeSession(3);
+        final Path root = new Path("/root", EnumSet.of(Path.Type.directory));
+        final Map<SimplePathPredicate, AttributedList<Path>> tree = new RecursiveListWalker(new Worker<Void>() {
+        }, SessionPool.DISCONNECTED).walk(session, root,
+            (connection, directory) -> connection.getFeature(ListService.class).list(directory, new DisabledListProgressListener()), new NullFilter<Path>() {
+                @Override
+                public boolean accept(final Path file) {
+                    return file.getName().equals("d0");
+                }
+            }, new DisabledProgressListener());
+        assertEquals(3, tree.size());
+        assertFalse(tree.containsKey(new SimplePathPredicate(new Path("/root/d1", EnumSet.of(Path.Type.directory)))));
+    }
+
+    @Test(expected = ConnectionCanceledException.class)
+    public void testWalkCanceled() throws Exception {
+        final Worker<Void> worker = new Worker<Void>() {
+        };
+        final TreeSession session = new TreeSession(3);
+        final SessionPool pool = new StatelessSessionPool(new TestLoginConnectionService(), session, PathCache.empty(),
+            new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        new RecursiveListWalker(worker, pool, 4, Integer.MAX_VALUE).walk(session, new Path("/root", EnumSet.of(Path.Type.directory)),
+            (connection, directory) -> {
+                if(directory.getName().equals("d2")) {
+                    worker.cancel();
+                }
+                return connection.getFeature(ListService.class).list(directory, new DisabledListProgressListener());
+            }, new NullFilter<>(), new DisabledProgressListener());
+    }
+
+    @Test(expected = NotfoundException.class)
+    public void testWalkFailure() throws Exception {
+        final TreeSession session = new TreeSession(3);
+        final SessionPool pool = new StatelessSessionPool(new TestLoginConnectionService(), session, PathCache.empty(),
+            new DisabledTranscriptListener(), new DefaultVaultRegistry(new DisabledPasswordCallback()));
+        new RecursiveListWalker(new Worker<Void>() {
+        }, pool, 4, Integer.MAX_VALUE).walk(session, new Path("/root", EnumSet.of(Path.Type.directory)),
+            (connection, directory) -> {
+                if(directory.getAbsolute().equals("/root/d3/d1")) {
+                    throw new NotfoundException(directory.getAbsolute());
+                }
+                return connection.getFeature(ListService.class).list(directory, new DisabledListProgressListener());
+            }, new NullFilter<>(), new DisabledProgressListener());
+    }
+
+    @Test
+    public void testTree() {
+        final Path root = new Path("/b/root", EnumSet.of(Path.Type.directory));
+        final Map<SimplePathPredicate, AttributedList<Path>> tree = new RecursiveListWalker(new Worker<Void>() {
+        }, SessionPool.DISCONNECTED).tree(root, new AttributedList<>(Arrays.asList(
+            new Path("/b/root/a", EnumSet.of(Path.Type.file)),
+            new Path("/b/root/p", EnumSet.of(Path.Type.directory)),
+            new Path("/b/root/p/a", EnumSet.of(Path.Type.file)),
+            new Path("/b/root/x/y/z", EnumSet.of(Path.Type.file)),
+            new Path("/b/root/x/y/z2", EnumSet.of(Path.Type.file)),
+            new Path("/b/root/x", EnumSet.of(Path.Type.directory)),
+            new Path("/b/other", EnumSet.of(Path.Type.file))
+        )));
+        assertEquals(4, tree.size());
+        assertEquals(3, tree.get(new SimplePathPredicate(root)).size());
+        assertTrue(tree.get(new SimplePathPredicate(root)).contains(new Path("/b/root/x", EnumSet.of(Path.Type.directory))));
+        assertEquals(1, tree.get(new SimplePathPredicate(new Path("/b/root/p", EnumSet.of(Path.Type.directory)))).size());
+        assertEquals(1, tree.get(new SimplePathPredicate(new Path("/b/root/x", EnumSet.of(Path.Type.directory)))).size());
+        assertEquals(2, tree.get(new SimplePathPredicate(new Path("/b/root/x/y", EnumSet.of(Path.Type.directory)))).size());
+    }
+}
@@ -0,0 +1,159 @@
+package ch.cyberduck.core.cryptomator;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.threading.ThreadPool;
+import ch.cyberduck.core.threading.ThreadPoolFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Process independent chunks of a stream concurrently and return results in the order submitted. At most
+ * depth chunks are in flight. Buffers for input of chunks are reused once processed. With a depth of 1 chunks are
+ * processed on the calling thread.
+ *
+ * @param <T> Result of processing chunk
+ */
+public class ChunkPipeline<T> {
+
+    private final int capacity;
+    private final int depth;
+
+    private final Deque<Future<T>> inflight = new ArrayDeque<>();
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param capacity Size of buffers for chunk input
+     */
+    public ChunkPipeline(final int capacity) {
+        this(capacity, PreferencesFactory.get().getInteger("cryptomator.pipeline.depth"));
+    }
+
+    /**
+     * @param capacity Size of buffers for chunk input
+     * @param depth    Maximum number of chunks in flight
+     */
+    public ChunkPipeline(final int capacity, final int depth) {
+        this.capacity = capacity;
+        this.depth = Math.max(1, depth);
+    }
+
+    /**
+     * @return Cleared buffer to fill with input of next chunk
+     */
+    public ByteBuffer acquire() {
+        final ByteBuffer buffer = buffers.poll();
+        if(null == buffer) {
+            return ByteBuffer.allocate(capacity);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * @param buffer Buffer no longer used by chunk
+     */
+    public void release(final ByteBuffer buffer) {
+        buffers.offer(buffer);
+    }
+
+    /**
+     * @return True if no more chunks can be submitted without waiting for the oldest chunk
+     */
+    public boolean isFull() {
+        return inflight.size() >= depth;
+    }
+
+    public boolean isEmpty() {
+        return inflight.isEmpty();
+    }
+
+    /**
+     * Schedule processing of chunk
+     *
+     * @param chunk Processing of chunk
+     */
+    public void submit(final Callable<T> chunk) {
+        if(depth == 1) {
+            final FutureTask<T> task = new FutureTask<>(chunk);
+            task.run();
+            inflight.add(task);
+        }
+        else {
+            inflight.add(Executor.pool.execute(chunk));
+        }
+    }
+
+    /**
+     * Wait for oldest chunk to complete
+     *
+     * @return Result of oldest chunk or null if no chunk was submitted
+     */
+    public T take() throws IOException {
+        final Future<T> next = inflight.poll();
+        if(null == next) {
+            return null;
+        }
+        try {
+            return next.get();
+        }
+        catch(InterruptedException e) {
+            this.cancel();
+            throw new InterruptedIOException(e.getMessage());
+        }
+        catch(ExecutionException e) {
+            this.cancel();
+            if(e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+        catch(CancellationException e) {
+            this.cancel();
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Discard chunks in flight
+     */
+    public void cancel() {
+        for(Future<T> future : inflight) {
+            future.cancel(false);
+        }
+        inflight.clear();
+    }
+
+    /**
+     * Pool shared by all pipelines created on first use
+     */
+    private static final class Executor {
+        private static final ThreadPool pool = ThreadPoolFactory.get("crypto",
+            Math.max(1, PreferencesFactory.get().getInteger("cryptomator.pipeline.threads")));
+    }
+}
@@ -38,6 +38,14 @@ public class CryptoInputStream extends ProxyInputStream {
      */
     private long chunkIndexOffset;
     private final int chunkSize;
+    /**
+     * Chunks read ahead and decrypted concurrently
+     */
+    private final ChunkPipeline<ByteBuffer> pipeline;
+    /**
+     * End of ciphertext reached
+     */
+    private boolean eof;
 
     public CryptoInputStream(final InputStream proxy, final FileContentCryptor cryptor, final FileHeader header, final long chunkIndexOffset) {
         super(proxy);
@@ -46,14 +54,17 @@ public class CryptoInputStream extends ProxyInputStream {
         this.header = header;
         this.chunkSize = cryptor.ciphertextChunkSize();
         this.chunkIndexOffset = chunkIndexOffset;
+        this.pipeline = new ChunkPipeline<>(chunkSize);
     }
 
     @Override
     public int read() throws IOException {
         if(!buffer.hasRemaining()) {
-            this.readNextChunk();
+            if(this.readNextChunk() == IOUtils.EOF) {
+                return IOUtils.EOF;
+            }
         }
-        return buffer.get();
+        return buffer.get() & 0xff;
     }
 
     @Override
@@ -79,20 +90,44 @@ public class CryptoInputStream extends ProxyInputStream {
         return IOUtils.skip(this, len);
     }
 
+    @Override
+    public void close() throws IOException {
+        pipeline.cancel();
+        super.close();
+    }
+
     private int readNextChunk() throws IOException {
-        final ByteBuffer ciphertextBuf = ByteBuffer.allocate(chunkSize);
-        final int read = IOUtils.read(proxy, ciphertextBuf.array());
-        if(read == 0) {
-            return IOUtils.EOF;
-        }
-        ciphertextBuf.position(read);
-        ciphertextBuf.flip();
-        try {
-            buffer = cryptor.decryptChunk(ciphertextBuf, chunkIndexOffset++, header, true);
+        // Read ahead and schedule decryption of chunks
+        while(!eof && !pipeline.isFull()) {
+            final ByteBuffer ciphertextBuf = pipeline.acquire();
+            final int read = IOUtils.read(proxy, ciphertextBuf.array(), 0, chunkSize);
+            if(read < chunkSize) {
+                eof = true;
+            }
+            if(read == 0) {
+                pipeline.release(ciphertextBuf);
+                break;
+            }
+            ciphertextBuf.position(read);
+            ciphertextBuf.flip();
+            final long index = chunkIndexOffset++;
+            pipeline.submit(() -> {
+                try {
+                    return cryptor.decryptChunk(ciphertextBuf, index, header, true);
+                }
+                catch(CryptoException e) {
+                    throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
+                }
+                finally {
+                    pipeline.release(ciphertextBuf);
+                }
+            });
         }
-        catch(CryptoException e) {
-            throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
+        final ByteBuffer cleartext = pipeline.take();
+        if(null == cleartext) {
+            return IOUtils.EOF;
         }
-        return read;
+        buffer = cleartext;
+        return buffer.remaining();
     }
 }
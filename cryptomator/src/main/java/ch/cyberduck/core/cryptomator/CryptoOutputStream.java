@@ -16,7 +16,7 @@ package ch.cyberduck.core.cryptomator;
  */
 
 import ch.cyberduck.core.exception.BackgroundException;
-import ch.cyberduck.core.io.MemorySegementingOutputStream;
+import ch.cyberduck.core.io.SlabSegmentingOutputStream;
 import ch.cyberduck.core.io.StatusOutputStream;
 import ch.cyberduck.core.random.NonceGenerator;
 
@@ -28,7 +28,6 @@ import org.cryptomator.cryptolib.api.FileHeader;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
 
 public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
@@ -36,7 +35,7 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
     public CryptoOutputStream(final StatusOutputStream<Reply> proxy, final FileContentCryptor cryptor, final FileHeader header,
                               final NonceGenerator nonces, final long chunkIndexOffset) {
-        super(new MemorySegementingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset),
+        super(new SlabSegmentingOutputStream(new EncryptingOutputStream(proxy, cryptor, header, nonces, chunkIndexOffset),
             cryptor.cleartextChunkSize()));
         this.proxy = proxy;
     }
@@ -56,11 +55,15 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
         write(b, 0, b.length);
     }
 
+    /**
+     * Encrypts chunks concurrently and writes them in order
+     */
     private static final class EncryptingOutputStream extends ProxyOutputStream {
         private final FileContentCryptor cryptor;
         private final FileHeader header;
         private final int chunksize;
         private final NonceGenerator nonces;
+        private final ChunkPipeline<ByteBuffer> pipeline;
         private long chunkIndexOffset;
 
         public EncryptingOutputStream(final OutputStream proxy, final FileContentCryptor cryptor, final FileHeader header,
@@ -71,6 +74,7 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
             this.chunksize = cryptor.cleartextChunkSize();
             this.nonces = nonces;
             this.chunkIndexOffset = chunkIndexOffset;
+            this.pipeline = new ChunkPipeline<>(chunksize);
         }
 
         @Override
@@ -80,18 +84,56 @@ public class CryptoOutputStream<Reply> extends StatusOutputStream<Reply> {
 
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
-            try {
-                for(int chunkOffset = off; chunkOffset < len; chunkOffset += chunksize) {
-                    int chunkLen = Math.min(chunksize, len - chunkOffset);
-                    final ByteBuffer encryptedChunk = cryptor.encryptChunk(
-                        ByteBuffer.wrap(Arrays.copyOfRange(b, chunkOffset, chunkOffset + chunkLen)),
-                        chunkIndexOffset++, header, nonces.next());
-                    super.write(encryptedChunk.array());
+            for(int chunkOffset = off; chunkOffset < off + len; chunkOffset += chunksize) {
+                final int chunkLen = Math.min(chunksize, off + len - chunkOffset);
+                if(pipeline.isFull()) {
+                    super.write(pipeline.take().array());
                 }
+                // Copy to pooled buffer as caller may reuse array
+                final ByteBuffer cleartext = pipeline.acquire();
+                cleartext.put(b, chunkOffset, chunkLen);
+                cleartext.flip();
+                final long index = chunkIndexOffset++;
+                final byte[] nonce = nonces.next();
+                pipeline.submit(() -> {
+                    try {
+                        return cryptor.encryptChunk(cleartext, index, header, nonce);
+                    }
+                    catch(CryptoException e) {
+                        throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
+                    }
+                    finally {
+                        pipeline.release(cleartext);
+                    }
+                });
+            }
+        }
+
+        /**
+         * Write all chunks in flight
+         */
+        private void drain() throws IOException {
+            while(!pipeline.isEmpty()) {
+                super.write(pipeline.take().array());
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.drain();
+            super.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.drain();
             }
-            catch(CryptoException e) {
-                throw new IOException(e.getMessage(), new CryptoAuthenticationException(e.getMessage(), e));
+            catch(IOException e) {
+                pipeline.cancel();
+                throw e;
             }
+            super.close();
         }
     }
 }
@@ -144,4 +144,29 @@ public class CryptoOutputStreamTest {
 
         assertArrayEquals(cleartext, read);
     }
+
+    @Test
+    public void testWriteMultipleChunks() throws Exception {
+        final CryptoVault vault = this.getVault();
+        final ByteArrayOutputStream cipherText = new ByteArrayOutputStream();
+        final FileHeader header = vault.getFileHeaderCryptor().create();
+        final CryptoOutputStream<?> stream = new CryptoOutputStream<>(new StatusOutputStream<Void>(cipherText) {
+            @Override
+            public Void getStatus() {
+                return null;
+            }
+        }, vault.getFileContentCryptor(), header, new RandomNonceGenerator(), 0);
+
+        final byte[] cleartext = RandomUtils.nextBytes(vault.getFileContentCryptor().cleartextChunkSize() * 50 + 17);
+        IOUtils.copy(new ByteArrayInputStream(cleartext), stream, 1000);
+        stream.close();
+
+        final byte[] read = new byte[cleartext.length];
+        final CryptoInputStream cryptoInputStream = new CryptoInputStream(new ByteArrayInputStream(cipherText.toByteArray()), vault.getFileContentCryptor(), header, 0);
+        IOUtils.readFully(cryptoInputStream, read);
+        assertEquals(-1, cryptoInputStream.read());
+        cryptoInputStream.close();
+
+        assertArrayEquals(cleartext, read);
+    }
 }
@@ -77,7 +77,7 @@ public class MultipartUploadTokenOutputStream extends OutputStream {
             if(null != canceled.get()) {
                 throw canceled.get();
             }
-            final byte[] content = Arrays.copyOfRange(b, off, len);
+            final byte[] content = Arrays.copyOfRange(b, off, off + len);
             final HttpEntity entity = EntityBuilder.create().setBinary(content).build();
             new DefaultRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<Void>() {
                 @Override
@@ -66,6 +66,8 @@ public class SDSListService implements ListService {
         final AttributedList<Path> children = new AttributedList<Path>();
         try {
             int offset = 0;
+            // Index of first file not yet notified to listener
+            int index = 0;
             final SDSAttributesFinderFeature feature = new SDSAttributesFinderFeature(session, nodeid);
             NodeList nodes;
             do {
@@ -87,8 +89,9 @@ public class SDSListService implements ListService {
                         }
                     }
                     children.add(file);
-                    listener.chunk(directory, children);
                 }
+                listener.chunk(directory, children, index, nodes.getItems().size() != chunksize);
+                index = children.size();
                 offset += chunksize;
             }
             while(nodes.getItems().size() == chunksize);
@@ -17,7 +17,7 @@ package ch.cyberduck.core.sds.triplecrypt;
 
 import ch.cyberduck.core.exception.BackgroundException;
 import ch.cyberduck.core.http.HttpResponseOutputStream;
-import ch.cyberduck.core.io.MemorySegementingOutputStream;
+import ch.cyberduck.core.io.SlabSegmentingOutputStream;
 import ch.cyberduck.core.io.StatusOutputStream;
 import ch.cyberduck.core.sds.SDSSession;
 import ch.cyberduck.core.sds.io.swagger.client.model.FileKey;
@@ -45,7 +45,7 @@ public class TripleCryptOutputStream<VersionId> extends HttpResponseOutputStream
     private final StatusOutputStream<VersionId> proxy;
 
     public TripleCryptOutputStream(final SDSSession session, final StatusOutputStream<VersionId> proxy, final FileEncryptionCipher cipher, final TransferStatus key) {
-        super(new MemorySegementingOutputStream(new EncryptingOutputStream(session, proxy, cipher, key),
+        super(new SlabSegmentingOutputStream(new EncryptingOutputStream(session, proxy, cipher, key),
                 SDSSession.DEFAULT_CHUNKSIZE));
         this.proxy = proxy;
     }
@@ -86,8 +86,8 @@ public class TripleCryptOutputStream<VersionId> extends HttpResponseOutputStream
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
             try {
-                for(int chunkOffset = off; chunkOffset < len; chunkOffset += SDSSession.DEFAULT_CHUNKSIZE) {
-                    int chunkLen = Math.min(SDSSession.DEFAULT_CHUNKSIZE, len - chunkOffset);
+                for(int chunkOffset = off; chunkOffset < off + len; chunkOffset += SDSSession.DEFAULT_CHUNKSIZE) {
+                    int chunkLen = Math.min(SDSSession.DEFAULT_CHUNKSIZE, off + len - chunkOffset);
                     final byte[] bytes = Arrays.copyOfRange(b, chunkOffset, chunkOffset + chunkLen);
                     final PlainDataContainer data = createPlainDataContainer(bytes, bytes.length);
                     final EncryptedDataContainer encrypted = cipher.processBytes(data);
@@ -74,6 +74,12 @@ public class DropboxRootListService implements ListService {
             listener.chunk(folder, list);
         }
 
+        @Override
+        public void chunk(final Path folder, final AttributedList<Path> list, final int offset, final boolean complete) throws ConnectionCanceledException {
+            super.chunk(folder, list, offset, complete);
+            listener.chunk(folder, list, offset, complete);
+        }
+
         @Override
         public void visit(final AttributedList<Path> list, final int index, final Path file) {
             if(StringUtils.isBlank(file.attributes().getVersionId())) {
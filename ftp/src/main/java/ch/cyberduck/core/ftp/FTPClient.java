@@ -174,17 +174,42 @@ public class FTPClient extends FTPSClient {
     }
 
     public List<String> list(final FTPCmd command, final String pathname) throws IOException {
+        final List<String> results = new ArrayList<String>();
+        this.list(command, pathname, results::add);
+        return results;
+    }
+
+    /**
+     * Pass lines to callback as read from the data connection without buffering the complete listing
+     *
+     * @param callback Handler for every line of listing
+     * @throws E Failure in callback. Data connection is closed and reply for aborted transfer read
+     */
+    public <E extends Exception> void list(final FTPCmd command, final String pathname, final LineCallback<E> callback) throws IOException, E {
         this.pret(command, pathname);
 
-        Socket socket = _openDataConnection_(command, pathname);
+        final Socket socket = _openDataConnection_(command, pathname);
 
-        BufferedReader reader = new BufferedReader(
+        final BufferedReader reader = new BufferedReader(
                 new InputStreamReader(socket.getInputStream(), getControlEncoding()));
-        ArrayList<String> results = new ArrayList<String>();
         String line;
         while((line = reader.readLine()) != null) {
             _commandSupport_.fireReplyReceived(-1, line);
-            results.add(line);
+            try {
+                callback.line(line);
+            }
+            catch(Exception e) {
+                reader.close();
+                socket.close();
+                try {
+                    // Read reply to keep control connection in sync
+                    this.completePendingCommand();
+                }
+                catch(IOException f) {
+                    log.warn(String.format("Failure %s reading reply for aborted listing", f));
+                }
+                throw e;
+            }
         }
 
         reader.close();
@@ -193,7 +218,10 @@ public class FTPClient extends FTPSClient {
         if(!this.completePendingCommand()) {
             throw new FTPException(this.getReplyCode(), this.getReplyString());
         }
-        return results;
+    }
+
+    public interface LineCallback<E extends Exception> {
+        void line(String line) throws E;
     }
 
     /**
@@ -0,0 +1,245 @@
+package ch.cyberduck.core.ftp;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.features.Copy;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.shared.DefaultCopyFeature;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.net.ftp.FTP;
+import org.apache.commons.net.ftp.FTPCmd;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server to server transfer (FXP) between two FTP hosts. The target server is put in passive mode and the source
+ * server connects to the announced address to send the file content directly. Falls back to download and upload of
+ * content when disabled, for secure connections or if refused by either server before data is sent.
+ */
+public class FTPCopyFeature implements Copy {
+    private static final Logger log = Logger.getLogger(FTPCopyFeature.class);
+
+    private final Preferences preferences = PreferencesFactory.get();
+
+    private final FTPSession session;
+    private Session<?> target;
+
+    public FTPCopyFeature(final FTPSession session) {
+        this.session = session;
+        this.target = session;
+    }
+
+    @Override
+    public Path copy(final Path source, final Path copy, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        if(this.isServerToServer() && !status.isAppend()) {
+            final FTPClient to = ((FTPSession) target).getClient();
+            try {
+                this.start(source, copy, to);
+            }
+            catch(ConnectionCanceledException e) {
+                this.reset();
+                throw e;
+            }
+            catch(BackgroundException e) {
+                log.warn(String.format("Server to server transfer of %s refused with %s", source, e.getMessage()));
+                this.reset();
+                return new DefaultCopyFeature(session).withTarget(target).copy(source, copy, status, callback);
+            }
+            try {
+                this.await(source, to, this.timeout(source, status));
+            }
+            finally {
+                this.reset();
+            }
+            status.setComplete();
+            return copy;
+        }
+        return new DefaultCopyFeature(session).withTarget(target).copy(source, copy, status, callback);
+    }
+
+    /**
+     * @return True if data connection can be opened between servers
+     */
+    protected boolean isServerToServer() {
+        if(!(target instanceof FTPSession)) {
+            return false;
+        }
+        if(session == target) {
+            // Requires control connection to both servers
+            return false;
+        }
+        if(!preferences.getBoolean("ftp.fxp.enable")) {
+            return false;
+        }
+        // Protected data channel requires both servers to support SSCN or CPSV
+        return !session.getHost().getProtocol().isSecure() && !target.getHost().getProtocol().isSecure();
+    }
+
+    /**
+     * Open data connection between servers and start transfer. No data is sent when failing.
+     */
+    private void start(final Path source, final Path copy, final FTPClient to) throws BackgroundException {
+        final FTPClient from = session.getClient();
+        try {
+            if(!from.setFileType(FTP.BINARY_FILE_TYPE)) {
+                throw new FTPException(from.getReplyCode(), from.getReplyString());
+            }
+            if(!to.setFileType(FTP.BINARY_FILE_TYPE)) {
+                throw new FTPException(to.getReplyCode(), to.getReplyString());
+            }
+            to.pret(FTPCmd.STOR, copy.getAbsolute());
+            // Target server listens for data connection
+            if(!to.enterRemotePassiveMode()) {
+                throw new FTPException(to.getReplyCode(), to.getReplyString());
+            }
+            // Source server connects to target server
+            if(!from.enterRemoteActiveMode(InetAddress.getByName(to.getPassiveHost()), to.getPassivePort())) {
+                throw new FTPException(from.getReplyCode(), from.getReplyString());
+            }
+            if(!to.remoteStore(copy.getAbsolute())) {
+                throw new FTPException(to.getReplyCode(), to.getReplyString());
+            }
+            if(!from.remoteRetrieve(source.getAbsolute())) {
+                final FTPException failure = new FTPException(from.getReplyCode(), from.getReplyString());
+                this.abort(to);
+                throw failure;
+            }
+        }
+        catch(IOException e) {
+            throw new FTPExceptionMappingService().map("Cannot copy {0}", e, source);
+        }
+    }
+
+    /**
+     * Await completion of both sides
+     *
+     * @param timeout Timeout in milliseconds for reply of each server
+     */
+    private void await(final Path source, final FTPClient to, final int timeout) throws BackgroundException {
+        final FTPClient from = session.getClient();
+        // Reply to store command not yet read from target
+        boolean pending = true;
+        try {
+            final boolean sent = this.complete(from, timeout);
+            final boolean received = this.complete(to, timeout);
+            pending = false;
+            if(!sent) {
+                throw new FTPException(from.getReplyCode(), from.getReplyString());
+            }
+            if(!received) {
+                throw new FTPException(to.getReplyCode(), to.getReplyString());
+            }
+        }
+        catch(IOException e) {
+            throw new FTPExceptionMappingService().map("Cannot copy {0}", e, source);
+        }
+        finally {
+            if(pending) {
+                // Failure awaiting reply from either server. Keep control connection of target in sync for next command
+                this.abort(to);
+            }
+        }
+    }
+
+    /**
+     * @return Milliseconds allowing to transfer file at minimum rate in addition to connection timeout
+     */
+    private int timeout(final Path source, final TransferStatus status) {
+        final long length = status.getLength() > 0 ? status.getLength() : Math.max(0L, source.attributes().getSize());
+        final long timeout = TimeUnit.SECONDS.toMillis(preferences.getInteger("connection.timeout.seconds"))
+            + TimeUnit.SECONDS.toMillis(length / Math.max(1L, preferences.getLong("ftp.fxp.rate.minimum")));
+        return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, timeout));
+    }
+
+    /**
+     * Restore data connection mode configured for both sessions
+     */
+    private void reset() {
+        this.reset(session);
+        this.reset((FTPSession) target);
+    }
+
+    /**
+     * Restore data connection mode configured for session
+     */
+    private void reset(final FTPSession session) {
+        switch(session.getConnectMode()) {
+            case active:
+                session.getClient().enterLocalActiveMode();
+                break;
+            default:
+                session.getClient().enterLocalPassiveMode();
+                break;
+        }
+    }
+
+    /**
+     * Wait for transfer complete reply with timeout of control connection extended for duration of transfer
+     *
+     * @param timeout Timeout in milliseconds
+     * @return True for positive completion reply
+     */
+    private boolean complete(final FTPClient client, final int timeout) throws IOException {
+        final int previous = client.getSoTimeout();
+        client.setSoTimeout(timeout);
+        try {
+            return client.completePendingCommand();
+        }
+        finally {
+            client.setSoTimeout(previous);
+        }
+    }
+
+    /**
+     * Cancel pending store command whether still waiting for data or already completed
+     */
+    private void abort(final FTPClient client) {
+        try {
+            client.sendCommand(FTPCmd.ABOR);
+            // Reply 226 or 426 to pending transfer is followed by reply to abort command
+            client.getReply();
+        }
+        catch(IOException e) {
+            log.warn(String.format("Failure %s aborting transfer", e.getMessage()));
+        }
+    }
+
+    @Override
+    public boolean isRecursive(final Path source, final Path target) {
+        return false;
+    }
+
+    @Override
+    public boolean isSupported(final Path source, final Path target) {
+        return new DefaultCopyFeature(session).withTarget(this.target).isSupported(source, target);
+    }
+
+    @Override
+    public FTPCopyFeature withTarget(final Session<?> session) {
+        this.target = session;
+        return this;
+    }
+}
@@ -23,6 +23,7 @@ import ch.cyberduck.core.ftp.parser.LaxUnixFTPEntryParser;
 import ch.cyberduck.core.ftp.parser.RumpusFTPEntryParser;
 import ch.cyberduck.core.ftp.parser.TrellixFTPEntryParser;
 import ch.cyberduck.core.ftp.parser.UnitreeFTPEntryParser;
+import ch.cyberduck.core.ftp.parser.UnixFTPEntryTokenizer;
 
 import org.apache.commons.net.ftp.FTPClientConfig;
 import org.apache.commons.net.ftp.parser.FTPFileEntryParserFactory;
@@ -112,7 +113,7 @@ public class FTPParserFactory implements FTPFileEntryParserFactory {
                         return config;
                     }
                 }
-        ));
+        ), new UnixFTPEntryTokenizer(timezone));
     }
 
     private CompositeFileEntryParser createNetwareFTPEntryParser(final TimeZone timezone) {
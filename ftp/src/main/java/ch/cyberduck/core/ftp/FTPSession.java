@@ -48,7 +48,6 @@ import ch.cyberduck.core.preferences.Preferences;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.proxy.Proxy;
 import ch.cyberduck.core.proxy.ProxySocketFactory;
-import ch.cyberduck.core.shared.DefaultCopyFeature;
 import ch.cyberduck.core.ssl.CustomTrustSSLProtocolSocketFactory;
 import ch.cyberduck.core.ssl.DefaultX509KeyManager;
 import ch.cyberduck.core.ssl.DisabledX509TrustManager;
@@ -342,7 +341,7 @@ public class FTPSession extends SSLSession<FTPClient> {
             return (T) new FTPTouchFeature(this);
         }
         if(type == Copy.class) {
-            return (T) new DefaultCopyFeature(this);
+            return (T) new FTPCopyFeature(this);
         }
         return super._getFeature(type);
     }
@@ -18,10 +18,40 @@ package ch.cyberduck.core.ftp.list;
 import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 
 import java.util.List;
 
 public interface FTPDataResponseReader {
 
-    AttributedList<Path> read(Path parent, List<String> replies, ListProgressListener listener) throws FTPInvalidListException;
+    default AttributedList<Path> read(Path parent, List<String> replies, ListProgressListener listener) throws FTPInvalidListException, ConnectionCanceledException {
+        final Handler handler = this.handler(parent, listener);
+        for(String line : replies) {
+            handler.line(line);
+        }
+        return handler.complete();
+    }
+
+    /**
+     * Parse reply line by line as read from the data connection without buffering the complete listing
+     *
+     * @param parent   Directory
+     * @param listener Notified with chunks of parsed files
+     * @return Handler for lines of a single listing
+     */
+    Handler handler(Path parent, ListProgressListener listener);
+
+    interface Handler {
+        /**
+         * @param line Line of reply
+         * @throws ConnectionCanceledException Interrupt list
+         */
+        void line(String line) throws ConnectionCanceledException;
+
+        /**
+         * @return Files parsed from all lines
+         * @throws FTPInvalidListException No line parsed successfully
+         */
+        AttributedList<Path> complete() throws FTPInvalidListException;
+    }
 }
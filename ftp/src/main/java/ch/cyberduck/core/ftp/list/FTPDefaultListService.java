@@ -30,7 +30,6 @@ import ch.cyberduck.core.ftp.FTPSession;
 import ch.cyberduck.core.ftp.parser.CompositeFileEntryParser;
 
 import java.io.IOException;
-import java.util.List;
 
 public class FTPDefaultListService implements ListService {
 
@@ -56,18 +55,20 @@ public class FTPDefaultListService implements ListService {
                 // data connection in type ASCII or type EBCDIC.
                 throw new FTPException(session.getClient().getReplyCode(), session.getClient().getReplyString());
             }
-            final List<String> list = new DataConnectionActionExecutor(session).data(new DataConnectionAction<List<String>>() {
+            return new DataConnectionActionExecutor(session).data(new DataConnectionAction<AttributedList<Path>>() {
                 @Override
-                public List<String> execute() throws BackgroundException {
+                public AttributedList<Path> execute() throws BackgroundException {
+                    // Parse lines as read from data connection
+                    final FTPDataResponseReader.Handler handler = reader.handler(directory, listener);
                     try {
-                        return session.getClient().list(command.getCommand(), command.getArg());
+                        session.getClient().list(command.getCommand(), command.getArg(), handler::line);
                     }
                     catch(IOException e) {
                         throw new FTPExceptionMappingService().map(e);
                     }
+                    return handler.complete();
                 }
             }, listener);
-            return reader.read(directory, list, listener);
         }
         catch(IOException e) {
             throw new FTPExceptionMappingService().map("Listing directory {0} failed", e, directory);
@@ -21,21 +21,31 @@ import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathNormalizer;
 import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.ftp.parser.CompositeFileEntryParser;
 import ch.cyberduck.core.ftp.parser.FTPExtendedFile;
+import ch.cyberduck.core.ftp.parser.UnixFTPEntryTokenizer;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.net.ftp.FTPFile;
 import org.apache.commons.net.ftp.FTPFileEntryParser;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.EnumSet;
-import java.util.List;
 
+/**
+ * Parse lines in UNIX format with {@link UnixFTPEntryTokenizer} when available and fallback to the regular expression
+ * based parsers for all other lines.
+ */
 public class FTPListResponseReader implements FTPDataResponseReader {
     private static final Logger log = Logger.getLogger(FTPListResponseReader.class);
 
     private final FTPFileEntryParser parser;
+    private final UnixFTPEntryTokenizer tokenizer;
     private final boolean lenient;
 
     public FTPListResponseReader(final FTPFileEntryParser parser) {
@@ -44,36 +54,92 @@ public class FTPListResponseReader implements FTPDataResponseReader {
 
     public FTPListResponseReader(final FTPFileEntryParser parser, final boolean lenient) {
         this.parser = parser;
+        this.tokenizer = parser instanceof CompositeFileEntryParser ? ((CompositeFileEntryParser) parser).getTokenizer() : null;
         this.lenient = lenient;
     }
 
     @Override
-    public AttributedList<Path> read(final Path directory, final List<String> replies, final ListProgressListener listener) throws FTPInvalidListException {
-        final AttributedList<Path> children = new AttributedList<Path>();
+    public Handler handler(final Path directory, final ListProgressListener listener) {
+        return new ListHandler(directory, listener);
+    }
+
+    private final class ListHandler implements Handler {
+        private final Path directory;
+        private final ListProgressListener listener;
+        private final int chunksize = PreferencesFactory.get().getInteger("ftp.listing.chunksize");
+
+        private final AttributedList<Path> children = new AttributedList<Path>();
         // At least one entry successfully parsed
-        boolean success = false;
-        // Call hook for those implementors which need to perform some action upon the list after it has been created
-        // from the server stream, but before any clients see the list
-        parser.preParse(replies);
-        for(String line : replies) {
-            final FTPFile f = parser.parseFTPEntry(line);
-            if(null == f) {
-                continue;
-            }
-            final String name = f.getName();
+        private boolean success = false;
+        // Index of first file not yet notified in chunk
+        private int offset = 0;
+        // No line read yet
+        private boolean first = true;
+
+        public ListHandler(final Path directory, final ListProgressListener listener) {
+            this.directory = directory;
+            this.listener = listener;
+        }
+
+        @Override
+        public void line(final String line) throws ConnectionCanceledException {
+            if(first) {
+                first = false;
+                // Call hook for those implementors which need to perform some action upon the list after it has been created
+                // from the server stream, but before any clients see the list. Only the first line is passed to detect
+                // the listing format and remove a header line as parsers may keep state set from the first line.
+                for(String entry : parser.preParse(new ArrayList<String>(Collections.singletonList(line)))) {
+                    this.parse(entry);
+                }
+            }
+            else {
+                this.parse(line);
+            }
+            if(children.size() - offset >= chunksize) {
+                listener.chunk(directory, children, offset, false);
+                offset = children.size();
+            }
+        }
+
+        private void parse(final String line) {
+            if(null != tokenizer && tokenizer.parse(line)) {
+                this.add(tokenizer.getName(), tokenizer.getType(), tokenizer.getLink(), tokenizer.getSize(),
+                    tokenizer.getUser(), tokenizer.getGroup(), tokenizer.getPermission(), tokenizer.getTimestamp());
+            }
+            else {
+                final FTPFile f = parser.parseFTPEntry(line);
+                if(null == f) {
+                    return;
+                }
+                final Calendar timestamp = f.getTimestamp();
+                this.add(f.getName(), f.getType(), f.getLink(), f.getSize(), f.getUser(), f.getGroup(), this.toPermission(f),
+                    timestamp != null ? timestamp.getTimeInMillis() : -1L);
+            }
+        }
+
+        @Override
+        public AttributedList<Path> complete() throws FTPInvalidListException {
+            if(!success) {
+                throw new FTPInvalidListException(children);
+            }
+            return children;
+        }
+
+        private void add(final String name, final int type, final String link, final long size, final String user, final String group,
+                         final Permission permission, final long timestamp) {
             if(!success) {
                 if(lenient) {
                     // Workaround for #2410. STAT only returns ls of directory itself
                     // Workaround for #2434. STAT of symbolic link directory only lists the directory itself.
                     if(directory.getName().equals(name)) {
-                        log.warn(String.format("Skip %s matching parent directory name", f.getName()));
-                        continue;
+                        log.warn(String.format("Skip %s matching parent directory name", name));
+                        return;
                     }
                     if(name.contains(String.valueOf(Path.DELIMITER))) {
                         if(!name.startsWith(directory.getAbsolute() + Path.DELIMITER)) {
                             // Workaround for #2434.
                             log.warn(String.format("Skip %s with delimiter in name", name));
-                            continue;
+                            return;
                         }
                     }
                 }
@@ -81,40 +147,49 @@ public class FTPListResponseReader implements FTPDataResponseReader {
             success = true;
             if(name.equals(".") || name.equals("..")) {
                 if(log.isDebugEnabled()) {
-                    log.debug(String.format("Skip %s", f.getName()));
+                    log.debug(String.format("Skip %s", name));
                 }
-                continue;
+                return;
             }
-            final Path parsed = new Path(directory, PathNormalizer.name(name), f.getType() == FTPFile.DIRECTORY_TYPE ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file));
-            switch(f.getType()) {
+            final Path parsed = new Path(directory, PathNormalizer.name(name), type == FTPFile.DIRECTORY_TYPE ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file));
+            switch(type) {
                 case FTPFile.SYMBOLIC_LINK_TYPE:
                     parsed.setType(EnumSet.of(Path.Type.file, Path.Type.symboliclink));
                     // Symbolic link target may be an absolute or relative path
-                    final String target = f.getLink();
-                    if(StringUtils.isBlank(target)) {
+                    if(StringUtils.isBlank(link)) {
                         log.warn(String.format("Missing symbolic link target for %s", parsed));
-                        final EnumSet<Path.Type> type = parsed.getType();
-                        type.remove(AbstractPath.Type.symboliclink);
+                        final EnumSet<Path.Type> t = parsed.getType();
+                        t.remove(AbstractPath.Type.symboliclink);
                     }
-                    else if(StringUtils.startsWith(target, String.valueOf(Path.DELIMITER))) {
-                        parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(target), EnumSet.of(Path.Type.file)));
+                    else if(StringUtils.startsWith(link, String.valueOf(Path.DELIMITER))) {
+                        parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(link), EnumSet.of(Path.Type.file)));
                     }
-                    else if(StringUtils.equals("..", target)) {
+                    else if(StringUtils.equals("..", link)) {
                         parsed.setSymlinkTarget(directory);
                     }
-                    else if(StringUtils.equals(".", target)) {
+                    else if(StringUtils.equals(".", link)) {
                         parsed.setSymlinkTarget(parsed);
                     }
                     else {
-                        parsed.setSymlinkTarget(new Path(directory, target, EnumSet.of(Path.Type.file)));
+                        parsed.setSymlinkTarget(new Path(directory, link, EnumSet.of(Path.Type.file)));
                     }
                     break;
             }
             if(parsed.isFile()) {
-                parsed.attributes().setSize(f.getSize());
+                parsed.attributes().setSize(size);
             }
-            parsed.attributes().setOwner(f.getUser());
-            parsed.attributes().setGroup(f.getGroup());
+            parsed.attributes().setOwner(user);
+            parsed.attributes().setGroup(group);
+            if(!Permission.EMPTY.equals(permission)) {
+                parsed.attributes().setPermission(permission);
+            }
+            if(timestamp != -1L) {
+                parsed.attributes().setModificationDate(timestamp);
+            }
+            children.add(parsed);
+        }
+
+        private Permission toPermission(final FTPFile f) {
             Permission.Action u = Permission.Action.none;
             if(f.hasPermission(FTPFile.USER_ACCESS, FTPFile.READ_PERMISSION)) {
                 u = u.or(Permission.Action.read);
@@ -151,18 +226,7 @@ public class FTPListResponseReader implements FTPDataResponseReader {
                 permission.setSetgid(((FTPExtendedFile) f).isSetgid());
                 permission.setSticky(((FTPExtendedFile) f).isSticky());
             }
-            if(!Permission.EMPTY.equals(permission)) {
-                parsed.attributes().setPermission(permission);
-            }
-            final Calendar timestamp = f.getTimestamp();
-            if(timestamp != null) {
-                parsed.attributes().setModificationDate(timestamp.getTimeInMillis());
-            }
-            children.add(parsed);
-        }
-        if(!success) {
-            throw new FTPInvalidListException(children);
+            return permission;
         }
-        return children;
     }
 }
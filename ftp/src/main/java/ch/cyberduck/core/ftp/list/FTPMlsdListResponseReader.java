@@ -23,19 +23,18 @@ import ch.cyberduck.core.Permission;
 import ch.cyberduck.core.date.InvalidDateException;
 import ch.cyberduck.core.date.MDTMMillisecondsDateFormatter;
 import ch.cyberduck.core.date.MDTMSecondsDateFormatter;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class FTPMlsdListResponseReader implements FTPDataResponseReader {
     private static final Logger log = Logger.getLogger(FTPMlsdListResponseReader.class);
@@ -45,131 +44,165 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
     }
 
     @Override
-    public AttributedList<Path> read(final Path directory, final List<String> replies, final ListProgressListener listener) throws FTPInvalidListException {
-        final AttributedList<Path> children = new AttributedList<Path>();
+    public Handler handler(final Path directory, final ListProgressListener listener) {
+        return new MlsdHandler(directory, listener);
+    }
+
+    private final class MlsdHandler implements Handler {
+        private final Path directory;
+        private final ListProgressListener listener;
+        private final int chunksize = PreferencesFactory.get().getInteger("ftp.listing.chunksize");
+        private final boolean perm = PreferencesFactory.get().getBoolean("ftp.parser.mlsd.perm.enable");
+
+        private final AttributedList<Path> children = new AttributedList<Path>();
         // At least one entry successfully parsed
-        boolean success = false;
-        for(String line : replies) {
-            final Map<String, Map<String, String>> file = this.parseFacts(line);
+        private boolean success = false;
+        // Index of first file not yet notified in chunk
+        private int offset = 0;
+
+        public MlsdHandler(final Path directory, final ListProgressListener listener) {
+            this.directory = directory;
+            this.listener = listener;
+        }
+
+        @Override
+        public void line(final String line) throws ConnectionCanceledException {
+            final Map<String, Map<String, String>> file = parseFacts(line);
             if(null == file) {
                 log.error(String.format("Error parsing line %s", line));
-                continue;
+                return;
             }
             for(Map.Entry<String, Map<String, String>> f : file.entrySet()) {
-                final String name = f.getKey();
-                // size       -- Size in octets
-                // modify     -- Last modification time
-                // create     -- Creation time
-                // type       -- Entry type
-                // unique     -- Unique id of file/directory
-                // perm       -- File permissions, whether read, write, execute is allowed for the login id.
-                // lang       -- Language of the file name per IANA [11] registry.
-                // media-type -- MIME media-type of file contents per IANA registry.
-                // charset    -- Character set per IANA registry (if not UTF-8)
-                final Map<String, String> facts = f.getValue();
-                if(!facts.containsKey("type")) {
-                    log.error(String.format("No type fact in line %s", line));
-                    continue;
-                }
-                final Path parsed;
-                if("dir".equals(facts.get("type").toLowerCase(Locale.ROOT))) {
-                    parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.directory));
+                final Path parsed = this.parse(line, f.getKey(), f.getValue());
+                if(null != parsed) {
+                    children.add(parsed);
                 }
-                else if("file".equals(facts.get("type").toLowerCase(Locale.ROOT))) {
-                    parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.file));
-                }
-                else if(facts.get("type").toLowerCase(Locale.ROOT).matches("os\\.unix=slink:.*")) {
-                    parsed = new Path(directory, PathNormalizer.name(f.getKey()), EnumSet.of(Path.Type.file, Path.Type.symboliclink));
-                    // Parse symbolic link target in Type=OS.unix=slink:/foobar;Perm=;Unique=keVO1+4G4; foobar
-                    final String[] type = facts.get("type").split(":");
-                    if(type.length == 2) {
-                        final String target = type[1];
-                        if(target.startsWith(String.valueOf(Path.DELIMITER))) {
-                            parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(target), EnumSet.of(Path.Type.file)));
-                        }
-                        else {
-                            parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(String.format("%s/%s", directory.getAbsolute(), target)), EnumSet.of(Path.Type.file)));
-                        }
+            }
+            if(children.size() - offset >= chunksize) {
+                listener.chunk(directory, children, offset, false);
+                offset = children.size();
+            }
+        }
+
+        @Override
+        public AttributedList<Path> complete() throws FTPInvalidListException {
+            if(!success) {
+                throw new FTPInvalidListException(children);
+            }
+            return children;
+        }
+
+        /**
+         * @return Null if entry is skipped
+         */
+        private Path parse(final String line, final String name, final Map<String, String> facts) {
+            // size       -- Size in octets
+            // modify     -- Last modification time
+            // create     -- Creation time
+            // type       -- Entry type
+            // unique     -- Unique id of file/directory
+            // perm       -- File permissions, whether read, write, execute is allowed for the login id.
+            // lang       -- Language of the file name per IANA [11] registry.
+            // media-type -- MIME media-type of file contents per IANA registry.
+            // charset    -- Character set per IANA registry (if not UTF-8)
+            if(!facts.containsKey("type")) {
+                log.error(String.format("No type fact in line %s", line));
+                return null;
+            }
+            final String type = facts.get("type").toLowerCase(Locale.ROOT);
+            final Path parsed;
+            if("dir".equals(type)) {
+                parsed = new Path(directory, PathNormalizer.name(name), EnumSet.of(Path.Type.directory));
+            }
+            else if("file".equals(type)) {
+                parsed = new Path(directory, PathNormalizer.name(name), EnumSet.of(Path.Type.file));
+            }
+            else if(type.startsWith("os.unix=slink:")) {
+                parsed = new Path(directory, PathNormalizer.name(name), EnumSet.of(Path.Type.file, Path.Type.symboliclink));
+                // Parse symbolic link target in Type=OS.unix=slink:/foobar;Perm=;Unique=keVO1+4G4; foobar
+                final String target = StringUtils.substringAfter(facts.get("type"), ":");
+                if(StringUtils.isNotEmpty(target) && !StringUtils.contains(target, ':')) {
+                    if(target.startsWith(String.valueOf(Path.DELIMITER))) {
+                        parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(target), EnumSet.of(Path.Type.file)));
                     }
                     else {
-                        log.warn(String.format("Missing symbolic link target for type %s in line %s", facts.get("type"), line));
-                        continue;
+                        parsed.setSymlinkTarget(new Path(PathNormalizer.normalize(String.format("%s/%s", directory.getAbsolute(), target)), EnumSet.of(Path.Type.file)));
                     }
                 }
                 else {
-                    log.warn(String.format("Ignored type %s in line %s", facts.get("type"), line));
-                    continue;
-                }
-                if(!success) {
-                    if(parsed.isDirectory() && directory.getName().equals(name)) {
-                        log.warn(String.format("Possibly bogus response line %s", line));
-                    }
-                    else {
-                        success = true;
-                    }
-                }
-                if(name.equals(".") || name.equals("..")) {
-                    if(log.isDebugEnabled()) {
-                        log.debug(String.format("Skip %s", name));
-                    }
-                    continue;
-                }
-                if(facts.containsKey("size")) {
-                    parsed.attributes().setSize(Long.parseLong(facts.get("size")));
-                }
-                if(facts.containsKey("unix.uid")) {
-                    parsed.attributes().setOwner(facts.get("unix.uid"));
+                    log.warn(String.format("Missing symbolic link target for type %s in line %s", facts.get("type"), line));
+                    return null;
                 }
-                if(facts.containsKey("unix.owner")) {
-                    parsed.attributes().setOwner(facts.get("unix.owner"));
-                }
-                if(facts.containsKey("unix.gid")) {
-                    parsed.attributes().setGroup(facts.get("unix.gid"));
+            }
+            else {
+                log.warn(String.format("Ignored type %s in line %s", facts.get("type"), line));
+                return null;
+            }
+            if(!success) {
+                if(parsed.isDirectory() && directory.getName().equals(name)) {
+                    log.warn(String.format("Possibly bogus response line %s", line));
                 }
-                if(facts.containsKey("unix.group")) {
-                    parsed.attributes().setGroup(facts.get("unix.group"));
+                else {
+                    success = true;
                 }
-                if(facts.containsKey("unix.mode")) {
-                    parsed.attributes().setPermission(new Permission(facts.get("unix.mode")));
+            }
+            if(name.equals(".") || name.equals("..")) {
+                if(log.isDebugEnabled()) {
+                    log.debug(String.format("Skip %s", name));
                 }
-                else if(facts.containsKey("perm")) {
-                    if(PreferencesFactory.get().getBoolean("ftp.parser.mlsd.perm.enable")) {
-                        Permission.Action user = Permission.Action.none;
-                        final String flags = facts.get("perm");
-                        if(StringUtils.contains(flags, 'r') || StringUtils.contains(flags, 'l')) {
-                            // RETR command may be applied to that object
-                            // Listing commands, LIST, NLST, and MLSD may be applied
+                return null;
+            }
+            if(facts.containsKey("size")) {
+                parsed.attributes().setSize(Long.parseLong(facts.get("size")));
+            }
+            if(facts.containsKey("unix.uid")) {
+                parsed.attributes().setOwner(facts.get("unix.uid"));
+            }
+            if(facts.containsKey("unix.owner")) {
+                parsed.attributes().setOwner(facts.get("unix.owner"));
+            }
+            if(facts.containsKey("unix.gid")) {
+                parsed.attributes().setGroup(facts.get("unix.gid"));
+            }
+            if(facts.containsKey("unix.group")) {
+                parsed.attributes().setGroup(facts.get("unix.group"));
+            }
+            if(facts.containsKey("unix.mode")) {
+                parsed.attributes().setPermission(new Permission(facts.get("unix.mode")));
+            }
+            else if(facts.containsKey("perm")) {
+                if(perm) {
+                    Permission.Action user = Permission.Action.none;
+                    final String flags = facts.get("perm");
+                    if(StringUtils.contains(flags, 'r') || StringUtils.contains(flags, 'l')) {
+                        // RETR command may be applied to that object
+                        // Listing commands, LIST, NLST, and MLSD may be applied
+                        user = user.or(Permission.Action.read);
+                    }
+                    if(StringUtils.contains(flags, 'w') || StringUtils.contains(flags, 'm') || StringUtils.contains(flags, 'c')) {
+                        user = user.or(Permission.Action.write);
+                    }
+                    if(StringUtils.contains(flags, 'e')) {
+                        // CWD command naming the object should succeed
+                        user = user.or(Permission.Action.execute);
+                        if(parsed.isDirectory()) {
                             user = user.or(Permission.Action.read);
                         }
-                        if(StringUtils.contains(flags, 'w') || StringUtils.contains(flags, 'm') || StringUtils.contains(flags, 'c')) {
-                            user = user.or(Permission.Action.write);
-                        }
-                        if(StringUtils.contains(flags, 'e')) {
-                            // CWD command naming the object should succeed
-                            user = user.or(Permission.Action.execute);
-                            if(parsed.isDirectory()) {
-                                user = user.or(Permission.Action.read);
-                            }
-                        }
-                        final Permission permission = new Permission(user, Permission.Action.none, Permission.Action.none);
-                        parsed.attributes().setPermission(permission);
                     }
+                    final Permission permission = new Permission(user, Permission.Action.none, Permission.Action.none);
+                    parsed.attributes().setPermission(permission);
                 }
-                if(facts.containsKey("modify")) {
-                    // Time values are always represented in UTC
-                    parsed.attributes().setModificationDate(this.parseTimestamp(facts.get("modify")));
-                }
-                if(facts.containsKey("create")) {
-                    // Time values are always represented in UTC
-                    parsed.attributes().setCreationDate(this.parseTimestamp(facts.get("create")));
-                }
-                children.add(parsed);
             }
+            if(facts.containsKey("modify")) {
+                // Time values are always represented in UTC
+                parsed.attributes().setModificationDate(parseTimestamp(facts.get("modify")));
+            }
+            if(facts.containsKey("create")) {
+                // Time values are always represented in UTC
+                parsed.attributes().setCreationDate(parseTimestamp(facts.get("create")));
+            }
+            return parsed;
         }
-        if(!success) {
-            throw new FTPInvalidListException(children);
-        }
-        return children;
     }
 
     /**
@@ -232,28 +265,47 @@ public class FTPMlsdListResponseReader implements FTPDataResponseReader {
      * @return Parsed keys and values
      */
     protected Map<String, Map<String, String>> parseFacts(final String line) {
-        final Pattern p = Pattern.compile("\\s?(\\S+\\=\\S+;)*\\s(.*)");
-        final Matcher result = p.matcher(line);
-        final Map<String, Map<String, String>> file = new HashMap<String, Map<String, String>>();
-        if(result.matches()) {
-            final String filename = result.group(2);
-            final Map<String, String> facts = new HashMap<String, String>();
-            for(String fact : result.group(1).split(";")) {
-                String key = StringUtils.substringBefore(fact, "=");
-                if(StringUtils.isBlank(key)) {
-                    continue;
-                }
-                String value = StringUtils.substringAfter(fact, "=");
-                if(StringUtils.isBlank(value)) {
-                    continue;
-                }
-                facts.put(key.toLowerCase(Locale.ROOT), value);
+        // Optional leading whitespace
+        final int start = line.length() > 0 && isSpace(line.charAt(0)) ? 1 : 0;
+        // Series of facts is terminated by single space before filename
+        int end = start;
+        while(end < line.length() && !isSpace(line.charAt(end))) {
+            end++;
+        }
+        if(end == line.length()) {
+            log.warn(String.format("No match for %s", line));
+            return null;
+        }
+        // Each fact in series must be followed by semicolon
+        final int separator = line.indexOf('=', start + 1);
+        if(end == start || line.charAt(end - 1) != ';' || separator == -1 || separator > end - 3) {
+            log.warn(String.format("No match for %s", line));
+            return null;
+        }
+        final String filename = line.substring(end + 1);
+        final Map<String, String> facts = new HashMap<String, String>();
+        int offset = start;
+        while(offset < end) {
+            final int next = line.indexOf(';', offset);
+            final int equals = line.indexOf('=', offset);
+            if(equals > offset && equals < next - 1) {
+                facts.put(line.substring(offset, equals).toLowerCase(Locale.ROOT), line.substring(equals + 1, next));
             }
-            file.put(filename, facts);
-            return file;
+            offset = next + 1;
         }
-        log.warn(String.format("No match for %s", line));
-        return null;
+        return Collections.singletonMap(filename, facts);
     }
 
+    private static boolean isSpace(final char c) {
+        switch(c) {
+            case ' ':
+            case '\t':
+            case '\f':
+            case '\r':
+            case '\n':
+            case '\u000B':
+                return true;
+        }
+        return false;
+    }
 }
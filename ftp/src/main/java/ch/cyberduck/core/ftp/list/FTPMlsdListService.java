@@ -31,7 +31,6 @@ import ch.cyberduck.core.ftp.FTPSession;
 import org.apache.commons.net.ftp.FTPCmd;
 
 import java.io.IOException;
-import java.util.List;
 
 public class FTPMlsdListService implements ListService {
 
@@ -54,18 +53,20 @@ public class FTPMlsdListService implements ListService {
                 // data connection in type ASCII or type EBCDIC.
                 throw new FTPException(session.getClient().getReplyCode(), session.getClient().getReplyString());
             }
-            final List<String> list = new DataConnectionActionExecutor(session).data(new DataConnectionAction<List<String>>() {
+            return new DataConnectionActionExecutor(session).data(new DataConnectionAction<AttributedList<Path>>() {
                 @Override
-                public List<String> execute() throws BackgroundException {
+                public AttributedList<Path> execute() throws BackgroundException {
+                    // Parse lines as read from data connection
+                    final FTPDataResponseReader.Handler handler = reader.handler(directory, listener);
                     try {
-                        return session.getClient().list(FTPCmd.MLSD);
+                        session.getClient().list(FTPCmd.MLSD, null, handler::line);
                     }
                     catch(IOException e) {
                         throw new FTPExceptionMappingService().map(e);
                     }
+                    return handler.complete();
                 }
             }, listener);
-            return reader.read(directory, list, listener);
         }
         catch(IOException e) {
             throw new FTPExceptionMappingService().map("Listing directory {0} failed", e, directory);
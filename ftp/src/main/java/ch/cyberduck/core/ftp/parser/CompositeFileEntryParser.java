@@ -22,10 +22,19 @@ public class CompositeFileEntryParser extends FTPFileEntryParserImpl implements
     private static final Logger log = Logger.getLogger(CompositeFileEntryParser.class);
 
     private final List<? extends FTPFileEntryParser> parsers;
+    private final UnixFTPEntryTokenizer tokenizer;
     private FTPFileEntryParser current;
 
     public CompositeFileEntryParser(final List<? extends FTPFileEntryParser> parsers) {
+        this(parsers, null);
+    }
+
+    /**
+     * @param tokenizer Parser without regular expressions to try first for lines in UNIX format
+     */
+    public CompositeFileEntryParser(final List<? extends FTPFileEntryParser> parsers, final UnixFTPEntryTokenizer tokenizer) {
         this.parsers = parsers;
+        this.tokenizer = tokenizer;
     }
 
     @Override
@@ -69,6 +78,13 @@ public class CompositeFileEntryParser extends FTPFileEntryParserImpl implements
         return current;
     }
 
+    /**
+     * @return Null if not available for system type
+     */
+    public UnixFTPEntryTokenizer getTokenizer() {
+        return tokenizer;
+    }
+
     @Override
     public void configure(final FTPClientConfig config) {
         for(FTPFileEntryParser parser : parsers) {
@@ -0,0 +1,444 @@
+package ch.cyberduck.core.ftp.parser;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Permission;
+
+import org.apache.commons.net.ftp.FTPFile;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Tokenizer for the common <code>ls -l</code> format of UNIX servers without regular expressions. Accepts a subset
+ * of the lines matched by {@link LaxUnixFTPEntryParser} with the same result. Lines with human readable file sizes,
+ * numeric dates or any other variant are rejected and must be parsed with the regular expression based parsers.
+ * Fields of the last line parsed successfully are available from the getters. Not thread safe.
+ */
+public class UnixFTPEntryTokenizer {
+
+    private static final String[] MONTHS = {
+            "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+    };
+
+    /**
+     * Lenient future dates allowing for clock skew of server
+     */
+    private static final long LENIENCY = 24L * 60L * 60L * 1000L;
+
+    private final Calendar calendar;
+
+    private String line;
+    private int position;
+
+    private int type;
+    private Permission permission;
+    private String user;
+    private String group;
+    private long size;
+    private long timestamp;
+    private String name;
+    private String link;
+
+    /**
+     * @param timezone Server timezone to interpret timestamps
+     */
+    public UnixFTPEntryTokenizer(final TimeZone timezone) {
+        this.calendar = Calendar.getInstance(timezone);
+        this.calendar.setLenient(false);
+    }
+
+    /**
+     * @param line Line of directory listing
+     * @return False if line is not in the format supported
+     */
+    public boolean parse(final String line) {
+        this.line = line;
+        this.position = 0;
+        if(line.length() < 11) {
+            return false;
+        }
+        switch(line.charAt(0)) {
+            case 'd':
+                type = FTPFile.DIRECTORY_TYPE;
+                break;
+            case 'l':
+                type = FTPFile.SYMBOLIC_LINK_TYPE;
+                break;
+            case 'b':
+            case 'c':
+            case 'f':
+            case '-':
+                type = FTPFile.FILE_TYPE;
+                break;
+            case 'm':
+            case 'p':
+            case 'S':
+            case 's':
+                type = FTPFile.UNKNOWN_TYPE;
+                break;
+            default:
+                return false;
+        }
+        final Permission.Action u = this.action(1);
+        final Permission.Action g = this.action(4);
+        final Permission.Action o = this.action(7);
+        if(null == u || null == g || null == o) {
+            return false;
+        }
+        permission = new Permission(u, g, o, this.isSet(9, 't'), this.isSet(3, 's'), this.isSet(6, 's'));
+        position = 10;
+        if(line.charAt(position) == '+') {
+            // Access control list
+            position++;
+        }
+        if(!this.skip()) {
+            return false;
+        }
+        // Hard link count
+        final String links = this.token();
+        if(null == links || !this.isNumeric(links) || !this.skip()) {
+            return false;
+        }
+        final String user = this.token();
+        if(null == user || !this.skip()) {
+            return false;
+        }
+        final int mark = position;
+        // Group, size, month, day and time with group or size, month, day and time without group
+        final String first = this.token();
+        if(null == first || !this.skip()) {
+            return false;
+        }
+        final String second = this.token();
+        if(null == second || !this.skip()) {
+            return false;
+        }
+        final String group;
+        final String filesize;
+        final String month;
+        if(this.isNumeric(second) && this.hasDateAhead()) {
+            group = first;
+            filesize = second;
+            month = this.token();
+            if(!this.skip()) {
+                return false;
+            }
+        }
+        else {
+            position = mark;
+            group = null;
+            filesize = this.token();
+            this.skip();
+            month = this.token();
+            if(!this.skip()) {
+                return false;
+            }
+        }
+        if(!this.isNumeric(filesize) || filesize.length() > 18) {
+            return false;
+        }
+        final String day = this.token();
+        if(null == day || !this.skip()) {
+            return false;
+        }
+        final int start = position;
+        final String time = this.token();
+        if(null == time) {
+            return false;
+        }
+        if(!this.timestamp(month, day, time)) {
+            return false;
+        }
+        // Single separator before filename. Allow for one more with year to align with time.
+        if(!this.isSpace(position)) {
+            return false;
+        }
+        position++;
+        if(position - start == 5 && this.isSpace(position) && this.hasToken(position + 1)) {
+            position++;
+        }
+        if(!this.hasToken(position)) {
+            return false;
+        }
+        this.user = user;
+        this.group = group;
+        this.size = Long.parseLong(filesize);
+        this.name(line.substring(position));
+        return true;
+    }
+
+    private void name(final String remainder) {
+        if(type == FTPFile.SYMBOLIC_LINK_TYPE) {
+            final int end = remainder.indexOf(" -> ");
+            if(end == -1) {
+                // Give up if no link indicator is present
+                name = remainder;
+                link = null;
+            }
+            else {
+                name = remainder.substring(0, end);
+                link = remainder.substring(end + 4);
+            }
+        }
+        else {
+            name = remainder;
+            link = null;
+        }
+    }
+
+    /**
+     * @return Null if characters at offset are not valid permission flags
+     */
+    private Permission.Action action(final int offset) {
+        final char r = line.charAt(offset);
+        final char w = line.charAt(offset + 1);
+        final char x = line.charAt(offset + 2);
+        if(r != 'r' && r != '-') {
+            return null;
+        }
+        if(w != 'w' && w != '-') {
+            return null;
+        }
+        Permission.Action action = Permission.Action.none;
+        if(r == 'r') {
+            action = action.or(Permission.Action.read);
+        }
+        if(w == 'w') {
+            action = action.or(Permission.Action.write);
+        }
+        switch(x) {
+            case 'x':
+            case 's':
+            case 't':
+                action = action.or(Permission.Action.execute);
+                break;
+            case 'S':
+            case 'T':
+            case 'L':
+            case '-':
+                break;
+            default:
+                return null;
+        }
+        return action;
+    }
+
+    private boolean isSet(final int offset, final char flag) {
+        return Character.toLowerCase(line.charAt(offset)) == flag;
+    }
+
+    /**
+     * Parse timestamp in format <code>MMM d HH:mm</code> for recent dates in the current year or
+     * <code>MMM d yyyy</code> otherwise.
+     */
+    private boolean timestamp(final String month, final String day, final String time) {
+        final int m = this.month(month);
+        if(m == -1) {
+            return false;
+        }
+        if(!this.isNumeric(day) || day.length() > 2) {
+            return false;
+        }
+        calendar.clear();
+        try {
+            if(time.length() == 4 && this.isNumeric(time)) {
+                calendar.set(Integer.parseInt(time), m, Integer.parseInt(day), 0, 0);
+                timestamp = calendar.getTimeInMillis();
+                return true;
+            }
+            if(!this.isTime(time)) {
+                return false;
+            }
+            final int colon = time.indexOf(':');
+            final long now = System.currentTimeMillis() + LENIENCY;
+            calendar.setTimeInMillis(now);
+            final int year = calendar.get(Calendar.YEAR);
+            calendar.clear();
+            calendar.set(year, m, Integer.parseInt(day),
+                    Integer.parseInt(time.substring(0, colon)), Integer.parseInt(time.substring(colon + 1)));
+            timestamp = calendar.getTimeInMillis();
+            if(timestamp > now) {
+                // Date in the future is from previous year
+                calendar.add(Calendar.YEAR, -1);
+                timestamp = calendar.getTimeInMillis();
+            }
+            return true;
+        }
+        catch(IllegalArgumentException e) {
+            // Invalid date
+            return false;
+        }
+    }
+
+    private int month(final String month) {
+        if(month.length() != 3) {
+            return -1;
+        }
+        for(int i = 0; i < MONTHS.length; i++) {
+            if(MONTHS[i].equalsIgnoreCase(month)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return True if the following tokens are date and time or year
+     */
+    private boolean hasDateAhead() {
+        final int mark = position;
+        try {
+            final String month = this.token();
+            if(null == month || !this.skip()) {
+                return false;
+            }
+            final String day = this.token();
+            if(null == day || !this.skip()) {
+                return false;
+            }
+            final String time = this.token();
+            return this.isTime(time) && this.isSpace(position);
+        }
+        finally {
+            position = mark;
+        }
+    }
+
+    /**
+     * @return True if token is year or time
+     */
+    private boolean isTime(final String token) {
+        if(null == token) {
+            return false;
+        }
+        if(token.length() == 4 && this.isNumeric(token)) {
+            return true;
+        }
+        final int colon = token.indexOf(':');
+        if(colon < 1 || colon > 2 || token.length() != colon + 3) {
+            return false;
+        }
+        return this.isNumeric(token.substring(0, colon)) && this.isNumeric(token.substring(colon + 1));
+    }
+
+    /**
+     * @return Characters up to next whitespace or null if at end of line
+     */
+    private String token() {
+        final int start = position;
+        while(position < line.length() && !this.isSpace(position)) {
+            position++;
+        }
+        if(start == position) {
+            return null;
+        }
+        return line.substring(start, position);
+    }
+
+    /**
+     * @return False if no whitespace was skipped
+     */
+    private boolean skip() {
+        final int start = position;
+        while(this.isSpace(position)) {
+            position++;
+        }
+        return position > start;
+    }
+
+    private boolean hasToken(final int offset) {
+        for(int i = offset; i < line.length(); i++) {
+            if(!this.isSpace(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSpace(final int offset) {
+        if(offset >= line.length()) {
+            return false;
+        }
+        switch(line.charAt(offset)) {
+            case ' ':
+            case '\t':
+            case '\f':
+            case '\r':
+            case '\n':
+            case '\u000B':
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isNumeric(final String token) {
+        if(null == token || token.isEmpty()) {
+            return false;
+        }
+        for(int i = 0; i < token.length(); i++) {
+            final char c = token.charAt(i);
+            if(c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return One of the types defined in {@link FTPFile}
+     */
+    public int getType() {
+        return type;
+    }
+
+    public Permission getPermission() {
+        return permission;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    /**
+     * @return Null if missing in listing
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return Modification date in milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Symbolic link target or null
+     */
+    public String getLink() {
+        return link;
+    }
+}
@@ -0,0 +1,249 @@
+package ch.cyberduck.core.ftp;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.Credentials;
+import ch.cyberduck.core.DisabledCancelCallback;
+import ch.cyberduck.core.DisabledConnectionCallback;
+import ch.cyberduck.core.DisabledHostKeyCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.DisabledProgressListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Local;
+import ch.cyberduck.core.LoginConnectionService;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathCache;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Read;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.shared.DefaultFindFeature;
+import ch.cyberduck.core.ssl.DefaultX509KeyManager;
+import ch.cyberduck.core.ssl.DefaultX509TrustManager;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.lang3.RandomUtils;
+import org.apache.ftpserver.DataConnectionConfigurationFactory;
+import org.apache.ftpserver.FtpServer;
+import org.apache.ftpserver.FtpServerFactory;
+import org.apache.ftpserver.ftplet.Authority;
+import org.apache.ftpserver.ftplet.DefaultFtpReply;
+import org.apache.ftpserver.ftplet.DefaultFtplet;
+import org.apache.ftpserver.ftplet.FtpException;
+import org.apache.ftpserver.ftplet.FtpReply;
+import org.apache.ftpserver.ftplet.FtpRequest;
+import org.apache.ftpserver.ftplet.FtpSession;
+import org.apache.ftpserver.ftplet.Ftplet;
+import org.apache.ftpserver.ftplet.FtpletResult;
+import org.apache.ftpserver.ftplet.UserManager;
+import org.apache.ftpserver.listener.ListenerFactory;
+import org.apache.ftpserver.usermanager.PropertiesUserManagerFactory;
+import org.apache.ftpserver.usermanager.impl.BaseUser;
+import org.apache.ftpserver.usermanager.impl.WritePermission;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class FTPCopyFeatureTest extends AbstractFTPTest {
+
+    private static final int TARGET_PORT_NUMBER = ThreadLocalRandom.current().nextInt(3000, 4000);
+
+    private FtpServer server;
+    private FTPSession target;
+
+    /**
+     * Set when content is read through client
+     */
+    private final AtomicBoolean read = new AtomicBoolean();
+    /**
+     * Set to refuse next upload to target server
+     */
+    private final AtomicBoolean refuse = new AtomicBoolean();
+
+    @Before
+    public void startTarget() throws Exception {
+        PreferencesFactory.get().setProperty("ftp.fxp.enable", true);
+        final Local home = new Local(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+        home.mkdir();
+        final FtpServerFactory serverFactory = new FtpServerFactory();
+        final UserManager userManager = new PropertiesUserManagerFactory().createUserManager();
+        final BaseUser user = new BaseUser();
+        user.setName("test");
+        user.setPassword("test");
+        user.setHomeDirectory(home.getAbsolute());
+        user.setAuthorities(Collections.<Authority>singletonList(new WritePermission()));
+        userManager.save(user);
+        serverFactory.setUserManager(userManager);
+        final Map<String, Ftplet> ftplets = new HashMap<>();
+        ftplets.put("refuse", new DefaultFtplet() {
+            @Override
+            public FtpletResult onUploadStart(final FtpSession session, final FtpRequest request) throws FtpException, IOException {
+                if(refuse.getAndSet(false)) {
+                    session.write(new DefaultFtpReply(FtpReply.REPLY_451_REQUESTED_ACTION_ABORTED, "Refused"));
+                    return FtpletResult.SKIP;
+                }
+                return FtpletResult.DEFAULT;
+            }
+        });
+        serverFactory.setFtplets(ftplets);
+        final ListenerFactory factory = new ListenerFactory();
+        factory.setPort(TARGET_PORT_NUMBER);
+        // Fail store waiting for data connection before abort is handled
+        final DataConnectionConfigurationFactory data = new DataConnectionConfigurationFactory();
+        data.setIdleTime(1);
+        factory.setDataConnectionConfiguration(data.createDataConnectionConfiguration());
+        serverFactory.addListener("default", factory.createListener());
+        server = serverFactory.createServer();
+        server.start();
+        target = new FTPSession(new Host(new FTPProtocol(), "localhost", TARGET_PORT_NUMBER, new Credentials("test", "test")),
+            new DefaultX509TrustManager(), new DefaultX509KeyManager());
+        new LoginConnectionService(new DisabledLoginCallback() {
+            @Override
+            public void warn(final Host bookmark, final String title, final String message, final String continueButton, final String disconnectButton, final String preference) {
+                //
+            }
+        }, new DisabledHostKeyCallback(), new TestPasswordStore(),
+            new DisabledProgressListener()).check(target, PathCache.empty(), new DisabledCancelCallback());
+    }
+
+    @After
+    public void stopTarget() throws Exception {
+        target.close();
+        server.stop();
+        PreferencesFactory.get().deleteProperty("ftp.fxp.enable");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> T getFeature(final Class<T> type) {
+        if(type == Read.class) {
+            return (T) new Read() {
+                @Override
+                public InputStream read(final Path file, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+                    read.set(true);
+                    return new FTPReadFeature(session).read(file, status, callback);
+                }
+
+                @Override
+                public boolean offset(final Path file) {
+                    return false;
+                }
+            };
+        }
+        return null;
+    }
+
+    @Test
+    public void testCopyServerToServer() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(39865);
+        final Path source = this.write(content);
+        final Path copy = new Path(new FTPWorkdirService(target).find(), UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+        final TransferStatus status = new TransferStatus().length(content.length);
+        new FTPCopyFeature(session).withTarget(target).copy(source, copy, status, new DisabledConnectionCallback());
+        assertFalse(read.get());
+        assertTrue(status.isComplete());
+        assertArrayEquals(content, this.read(copy, content.length));
+        // Control connections usable after transfer
+        assertArrayEquals(content, this.read(copy, content.length));
+        assertTrue(new DefaultFindFeature(session).find(source));
+    }
+
+    @Test
+    public void testCopyServerToServerRefused() throws Exception {
+        final byte[] content = RandomUtils.nextBytes(1024);
+        final Path source = this.write(content);
+        final Path copy = new Path(new FTPWorkdirService(target).find(), UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+        refuse.set(true);
+        new FTPCopyFeature(session).withTarget(target).copy(source, copy, new TransferStatus().length(content.length), new DisabledConnectionCallback());
+        assertFalse(refuse.get());
+        // Fallback to download and upload
+        assertTrue(read.get());
+        assertArrayEquals(content, this.read(copy, content.length));
+    }
+
+    @Test
+    public void testCopyServerToServerSourceNotfound() throws Exception {
+        final Path source = new Path(new FTPWorkdirService(session).find(), UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+        final Path copy = new Path(new FTPWorkdirService(target).find(), UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+        try {
+            new FTPCopyFeature(session).withTarget(target).copy(source, copy, new TransferStatus().length(1024L), new DisabledConnectionCallback());
+            fail();
+        }
+        catch(NotfoundException e) {
+            // Expected from fallback to download and upload
+        }
+        read.set(false);
+        // Store on target aborted and control connection usable
+        final byte[] content = RandomUtils.nextBytes(1024);
+        new FTPCopyFeature(session).withTarget(target).copy(this.write(content), copy, new TransferStatus().length(content.length), new DisabledConnectionCallback());
+        assertFalse(read.get());
+        assertArrayEquals(content, this.read(copy, content.length));
+    }
+
+    @Test
+    public void testCopyDisabled() throws Exception {
+        PreferencesFactory.get().setProperty("ftp.fxp.enable", false);
+        try {
+            final byte[] content = RandomUtils.nextBytes(1024);
+            final Path source = this.write(content);
+            final Path copy = new Path(new FTPWorkdirService(target).find(), UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+            new FTPCopyFeature(session).withTarget(target).copy(source, copy, new TransferStatus().length(content.length), new DisabledConnectionCallback());
+            assertTrue(read.get());
+            assertArrayEquals(content, this.read(copy, content.length));
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("ftp.fxp.enable");
+        }
+    }
+
+    private Path write(final byte[] content) throws Exception {
+        final Path test = new Path(new FTPWorkdirService(session).find(), UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+        final TransferStatus status = new TransferStatus().length(content.length);
+        final OutputStream out = new FTPWriteFeature(session).write(test, status, new DisabledConnectionCallback());
+        new StreamCopier(status, status).withLimit((long) content.length).transfer(new ByteArrayInputStream(content), out);
+        out.close();
+        return test;
+    }
+
+    private byte[] read(final Path file, final int length) throws Exception {
+        final TransferStatus status = new TransferStatus().length(length);
+        final InputStream in = new FTPReadFeature(target).read(file, status, new DisabledConnectionCallback());
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(length);
+        new StreamCopier(status, status).withLimit((long) length).transfer(in, buffer);
+        in.close();
+        return buffer.toByteArray();
+    }
+}
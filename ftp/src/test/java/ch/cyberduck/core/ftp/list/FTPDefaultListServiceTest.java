@@ -16,16 +16,20 @@ package ch.cyberduck.core.ftp.list;
  */
 
 import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.AttributedList;
 import ch.cyberduck.core.DisabledListProgressListener;
 import ch.cyberduck.core.DisabledLoginCallback;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.ListCanceledException;
 import ch.cyberduck.core.features.Delete;
 import ch.cyberduck.core.ftp.AbstractFTPTest;
 import ch.cyberduck.core.ftp.FTPDeleteFeature;
+import ch.cyberduck.core.ftp.FTPParserSelector;
 import ch.cyberduck.core.ftp.FTPTouchFeature;
 import ch.cyberduck.core.ftp.FTPWorkdirService;
 import ch.cyberduck.core.ftp.parser.CompositeFileEntryParser;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 import ch.cyberduck.test.IntegrationTest;
 
@@ -36,7 +40,7 @@ import org.junit.experimental.categories.Category;
 import java.util.Collections;
 import java.util.EnumSet;
 
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 @Category(IntegrationTest.class)
 public class FTPDefaultListServiceTest extends AbstractFTPTest {
@@ -62,4 +66,32 @@ public class FTPDefaultListServiceTest extends AbstractFTPTest {
         assertTrue(list.list(directory, new DisabledListProgressListener()).contains(file));
         new FTPDeleteFeature(session).delete(Collections.singletonList(file), new DisabledLoginCallback(), new Delete.DisabledCallback());
     }
+
+    @Test
+    public void testListCanceled() throws Exception {
+        final ListService list = new FTPDefaultListService(session, new FTPParserSelector().getParser("UNIX"),
+            FTPListService.Command.list);
+        final Path directory = new FTPWorkdirService(session).find();
+        final Path file = new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file));
+        new FTPTouchFeature(session).touch(file, new TransferStatus());
+        PreferencesFactory.get().setProperty("ftp.listing.chunksize", 1);
+        try {
+            list.list(directory, new DisabledListProgressListener() {
+                @Override
+                public void chunk(final Path folder, final AttributedList<Path> list) throws ListCanceledException {
+                    throw new ListCanceledException(list);
+                }
+            });
+            fail();
+        }
+        catch(ListCanceledException e) {
+            assertEquals(1, e.getChunk().size());
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("ftp.listing.chunksize");
+        }
+        // Control connection in sync after aborted listing
+        assertTrue(list.list(directory, new DisabledListProgressListener()).contains(file));
+        new FTPDeleteFeature(session).delete(Collections.singletonList(file), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
 }
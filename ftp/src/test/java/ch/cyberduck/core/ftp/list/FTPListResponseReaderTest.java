@@ -22,12 +22,15 @@ import ch.cyberduck.core.Permission;
 import ch.cyberduck.core.exception.ListCanceledException;
 import ch.cyberduck.core.ftp.FTPParserSelector;
 import ch.cyberduck.core.ftp.parser.CompositeFileEntryParser;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.test.IntegrationTest;
 
+import org.apache.commons.net.ftp.parser.MVSFTPEntryParser;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -49,6 +52,22 @@ public class FTPListResponseReaderTest {
         );
     }
 
+    @Test
+    public void testParseMVSDatasetList() throws Exception {
+        final Path directory = new Path("/SYS1", EnumSet.of(Path.Type.directory));
+        final AttributedList<Path> list = new FTPListResponseReader(new CompositeFileEntryParser(Collections.singletonList(new MVSFTPEntryParser())))
+            .read(directory, Arrays.asList(
+                "Volume Unit    Referred Ext Used Recfm Lrecl BlkSz Dsorg Dsname",
+                "SAVE00 3390   2004/06/23  1    1  FB     128  6144  PS    INCOMING.RPTBM023.D061704",
+                "SAVE01 3390   2004/06/23  1    1  FB     128  6144  PO    INCOMING.RPTBM024.D061704",
+                "SAVE02 3390   2004/06/23  1    1  FB     128  6144  PS    INCOMING.RPTBM025.D061704"
+            ), new DisabledListProgressListener());
+        assertEquals(3, list.size());
+        assertTrue(list.contains(new Path(directory, "INCOMING.RPTBM023.D061704", EnumSet.of(Path.Type.file))));
+        assertTrue(list.contains(new Path(directory, "INCOMING.RPTBM024.D061704", EnumSet.of(Path.Type.directory))));
+        assertTrue(list.contains(new Path(directory, "INCOMING.RPTBM025.D061704", EnumSet.of(Path.Type.file))));
+    }
+
     @Test
     public void testParseSymbolicLink() throws Exception {
         Path path = new Path("/", EnumSet.of(Path.Type.directory));
@@ -159,6 +178,37 @@ public class FTPListResponseReaderTest {
         );
     }
 
+    @Test
+    public void testChunkNotification() throws Exception {
+        PreferencesFactory.get().setProperty("ftp.listing.chunksize", 2);
+        try {
+            final List<Integer> offsets = new ArrayList<>();
+            final FTPDataResponseReader.Handler handler = new FTPListResponseReader(new FTPParserSelector().getParser("UNIX"))
+                .handler(new Path("/", EnumSet.of(Path.Type.directory)), new DisabledListProgressListener() {
+                    @Override
+                    public void chunk(final Path folder, final AttributedList<Path> list, final int offset, final boolean complete) {
+                        assertEquals(offset + 2, list.size());
+                        assertFalse(complete);
+                        offsets.add(offset);
+                    }
+                });
+            handler.line("total 5");
+            handler.line("-rw-r--r--   1 ftp      ftp             0 Jan 22  2009 a");
+            handler.line("-rw-r--r--   1 ftp      ftp             0 Jan 22  2009 b");
+            assertEquals(Collections.singletonList(0), offsets);
+            handler.line("-rw-r--r--   1 ftp      ftp             0 Jan 22  2009 c");
+            handler.line("-rw-rw-rw- 1 ftp operator 9.0M Mar 22 17:44 d");
+            handler.line("-rw-r--r--   1 ftp      ftp             0 Jan 22  2009 e");
+            assertEquals(Arrays.asList(0, 2), offsets);
+            final AttributedList<Path> list = handler.complete();
+            assertEquals(5, list.size());
+            assertEquals(9.0 * 1024 * 1024, list.get(3).attributes().getSize(), 0d);
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("ftp.listing.chunksize");
+        }
+    }
+
     @Test(expected = FTPInvalidListException.class)
     public void testListNoRead() throws Exception {
         final Path directory = new Path("/sandbox/noread", EnumSet.of(Path.Type.directory));
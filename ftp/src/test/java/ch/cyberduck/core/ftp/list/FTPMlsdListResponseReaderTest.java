@@ -27,10 +27,12 @@ import org.junit.experimental.categories.Category;
 
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.TimeZone;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 @Category(IntegrationTest.class)
@@ -291,4 +293,19 @@ public class FTPMlsdListResponseReaderTest {
             .read(directory, Arrays.asList(replies), new DisabledListProgressListener());
         assertEquals(2, children.size());
     }
+
+    @Test
+    public void testParseFacts() {
+        final FTPMlsdListResponseReader reader = new FTPMlsdListResponseReader();
+        assertEquals(Collections.singletonMap(" leading space", Collections.singletonMap("type", "file")),
+            reader.parseFacts("Type=file;Perm=;  leading space"));
+        assertEquals(Collections.singletonMap("a=b; c", Collections.singletonMap("size", "1")),
+            reader.parseFacts(" size=1; a=b; c"));
+        assertEquals(Collections.singletonMap("", Collections.singletonMap("type", "dir")),
+            reader.parseFacts("type=dir; "));
+        assertNull(reader.parseFacts("type=dir;"));
+        assertNull(reader.parseFacts(" name"));
+        assertNull(reader.parseFacts("type=dir name"));
+        assertNull(reader.parseFacts("=; name"));
+    }
 }
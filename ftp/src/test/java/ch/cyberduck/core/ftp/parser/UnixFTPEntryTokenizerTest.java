@@ -0,0 +1,114 @@
+package ch.cyberduck.core.ftp.parser;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.ftp.FTPParserSelector;
+
+import org.apache.commons.net.ftp.FTPFile;
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class UnixFTPEntryTokenizerTest {
+
+    @Test
+    public void testParse() {
+        final UnixFTPEntryTokenizer tokenizer = new UnixFTPEntryTokenizer(TimeZone.getTimeZone("UTC"));
+        assertTrue(tokenizer.parse("drwxr-sr-x  14 17037    209            4096 Oct  6 2000  v3r7"));
+        assertEquals(FTPFile.DIRECTORY_TYPE, tokenizer.getType());
+        assertEquals("v3r7", tokenizer.getName());
+        assertEquals("17037", tokenizer.getUser());
+        assertEquals("209", tokenizer.getGroup());
+        assertEquals(4096L, tokenizer.getSize());
+        assertEquals(970790400000L, tokenizer.getTimestamp());
+        assertEquals(new Permission("2755"), tokenizer.getPermission());
+        assertNull(tokenizer.getLink());
+        assertTrue(tokenizer.parse("lrwxrwxrwx    1 ftp      ftp            23 Feb 05 06:51 debian -> ../pool/4/mirror/debian"));
+        assertEquals(FTPFile.SYMBOLIC_LINK_TYPE, tokenizer.getType());
+        assertEquals("debian", tokenizer.getName());
+        assertEquals("../pool/4/mirror/debian", tokenizer.getLink());
+        assertTrue(tokenizer.parse("-rw-r--r--   1 ftp       1024 Jan 22  2009 missing group"));
+        assertEquals("missing group", tokenizer.getName());
+        assertEquals("ftp", tokenizer.getUser());
+        assertNull(tokenizer.getGroup());
+        assertEquals(1024L, tokenizer.getSize());
+    }
+
+    @Test
+    public void testReject() {
+        final UnixFTPEntryTokenizer tokenizer = new UnixFTPEntryTokenizer(TimeZone.getTimeZone("UTC"));
+        assertFalse(tokenizer.parse("total 1024"));
+        assertFalse(tokenizer.parse("-rw-rw-rw- 1 ftp operator 9.0M Mar 22 17:44 Cyberduck-2.7.3.dmg"));
+        assertFalse(tokenizer.parse("-rw-rw-rw- 1 hoerspiel hoerspiel  3722053 19. Sep 13:24 Offenbarung 23 - Menschenopfer - 02.mp3"));
+        assertFalse(tokenizer.parse("drwxr-xr-x   6 START2   SYS1        8192 Oct 28  2008 "));
+        assertFalse(tokenizer.parse("-rw-r--r--   1 20708    205         3553312 2005-02-18 10:00 D3I0_515.fmr"));
+        assertFalse(tokenizer.parse("01-22-09  09:22AM       <DIR>          contact"));
+    }
+
+    /**
+     * Lines accepted must parse to the same result as with the regular expression based parser
+     */
+    @Test
+    public void testCompareRegularExpressionParser() {
+        final CompositeFileEntryParser parser = new FTPParserSelector().getParser("UNIX");
+        final UnixFTPEntryTokenizer tokenizer = parser.getTokenizer();
+        assertNotNull(tokenizer);
+        final String[] lines = new String[]{
+            "drw-rw-rw-   1 user      ftp             0  DEC 11 20:56 ADMIN_Documentation",
+            "drwxr-xr-x    3 ftp      ftp           512 Mar 15  2004 doc",
+            "drw-rw-rw-   1 user      ftp             0  Mar 11 20:56  ADMIN_Documentation",
+            "drw-rw-rw-   1 user      ftp             0  Mar 11 20:56 ADMIN_Documentation ",
+            "-rw-r--r--   1 20708    205         3553312 Feb 18 2005  D3I0_515.fmr",
+            "-rw-r--r--   1 20708    205         3553312 Feb 18 2005   D3I0_515.fmr",
+            "-rwx------ 1 user group          38635 Jul 13 2006  users.xml",
+            "drwxrwxrwx    41 spinkb  spinkb      1394 jan 21 20:57 Desktop",
+            "drwxrwsr-x+ 34 cristol  molvis      3072 Jul 12 20:16 molvis",
+            "-rw-r--r--   1 www-data www-data      34524204 Dec 20 13:41 Winter 2008 Newsletter.sit",
+            "drwxr--r--   1 user     group          0 Feb 14 18:14 Icon\r",
+            "drwSr--r--   1 user     group          0 Feb 14 18:14 Filename",
+            "drwxr-Sr--   1 user     group          0 Feb 14 18:14 Filename",
+            "drwxr--r-T   1 user     group          0 Feb 14 18:14 Filename",
+            "drwxrwxrwx   1 owner    group               0 Dec  5  0:45 adele.handmadebyflloyd.com",
+            "lrwxrwxrwx    1 ftp      ftp            23 Feb 05 06:51 debian -> ../pool/4/mirror/debian",
+            "lrwxrwxrwx    1 ftp      ftp            23 Feb 05 06:51 debian",
+            "-rw-r--r--   1 ftp       1024 Jan 22  2009 missing group",
+            "prw-r--r--   1 root     root            0 Jan  1  1970 fifo",
+        };
+        for(String line : lines) {
+            assertTrue(line, tokenizer.parse(line));
+            final FTPFile expected = parser.parseFTPEntry(line);
+            assertNotNull(line, expected);
+            assertEquals(line, expected.getName(), tokenizer.getName());
+            assertEquals(line, expected.getLink(), tokenizer.getLink());
+            assertEquals(line, expected.getType(), tokenizer.getType());
+            assertEquals(line, expected.getSize(), tokenizer.getSize());
+            assertEquals(line, expected.getUser(), tokenizer.getUser());
+            assertEquals(line, expected.getGroup(), tokenizer.getGroup());
+            assertEquals(line, expected.getTimestamp().getTimeInMillis(), tokenizer.getTimestamp());
+            final Permission permission = tokenizer.getPermission();
+            assertEquals(line, expected.hasPermission(FTPFile.USER_ACCESS, FTPFile.EXECUTE_PERMISSION), permission.getUser().implies(Permission.Action.execute));
+            assertEquals(line, expected.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.EXECUTE_PERMISSION), permission.getGroup().implies(Permission.Action.execute));
+            assertEquals(line, expected.hasPermission(FTPFile.WORLD_ACCESS, FTPFile.EXECUTE_PERMISSION), permission.getOther().implies(Permission.Action.execute));
+            assertEquals(line, expected.hasPermission(FTPFile.GROUP_ACCESS, FTPFile.WRITE_PERMISSION), permission.getGroup().implies(Permission.Action.write));
+            assertEquals(line, ((FTPExtendedFile) expected).isSetuid(), permission.isSetuid());
+            assertEquals(line, ((FTPExtendedFile) expected).isSetgid(), permission.isSetgid());
+            assertEquals(line, ((FTPExtendedFile) expected).isSticky(), permission.isSticky());
+        }
+    }
+}
@@ -72,6 +72,8 @@ public abstract class AbstractDriveListService implements ListService {
             final AttributedList<Path> children = new AttributedList<>();
             String page = null;
             final String query = this.query(directory, listener);
+            // Index of first file not yet notified to listener
+            int index = 0;
             do {
                 final FileList list = session.getClient().files().list()
                     // Whether Team Drive items should be included in results
@@ -108,8 +110,9 @@ public abstract class AbstractDriveListService implements ListService {
                     }
                     children.add(child);
                 }
-                listener.chunk(directory, children);
                 page = list.getNextPageToken();
+                listener.chunk(directory, children, index, null == page);
+                index = children.size();
                 if(log.isDebugEnabled()) {
                     log.debug(String.format("Continue with next page token %s", page));
                 }
@@ -48,10 +48,23 @@ public class LocalAttributesFinderFeature implements AttributesFinder {
     }
 
     protected PathAttributes convert(final java.nio.file.Path file) throws IOException {
+        return this.convert(file, this.read(file));
+    }
+
+    /**
+     * @return Attributes of file not following symbolic links read with a single call to the file system
+     */
+    protected BasicFileAttributes read(final java.nio.file.Path file) throws IOException {
+        final Class<? extends BasicFileAttributes> provider = session.isPosixFilesystem() ? PosixFileAttributes.class : DosFileAttributes.class;
+        return Files.readAttributes(file, provider, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    /**
+     * @param a Attributes previously read for file
+     */
+    protected PathAttributes convert(final java.nio.file.Path file, final BasicFileAttributes a) {
         final boolean isPosix = session.isPosixFilesystem();
         final PathAttributes attributes = new PathAttributes();
-        final Class<? extends BasicFileAttributes> provider = isPosix ? PosixFileAttributes.class : DosFileAttributes.class;
-        final BasicFileAttributes a = Files.readAttributes(file, provider, LinkOption.NOFOLLOW_LINKS);
         if(a.isRegularFile()) {
             attributes.setSize(a.size());
         }
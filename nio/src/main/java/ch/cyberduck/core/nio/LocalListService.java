@@ -28,6 +28,7 @@ import org.apache.log4j.Logger;
 import java.io.IOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.EnumSet;
 
 public class LocalListService implements ListService {
@@ -50,14 +51,19 @@ public class LocalListService implements ListService {
                     continue;
                 }
                 try {
-                    final PathAttributes attributes = feature.convert(path);
+                    final BasicFileAttributes a = feature.read(path);
+                    final PathAttributes attributes = feature.convert(path, a);
                     final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
-                    if(Files.isDirectory(path)) {
+                    if(a.isDirectory()) {
                         type.add(Path.Type.directory);
                     }
                     else {
                         type.add(Path.Type.file);
                     }
+                    if(a.isSymbolicLink()) {
+                        // Type of target determined in post processing
+                        type.add(Path.Type.symboliclink);
+                    }
                     final Path file = new Path(directory, path.getFileName().toString(), type, attributes);
                     if(this.post(path, file)) {
                         paths.add(file);
@@ -76,7 +82,7 @@ public class LocalListService implements ListService {
     }
 
     protected boolean post(final java.nio.file.Path path, final Path file) {
-        if(Files.isSymbolicLink(path)) {
+        if(file.isSymbolicLink()) {
             try {
                 final java.nio.file.Path p = Files.readSymbolicLink(path);
                 final Path target = new Path(p.toString(), EnumSet.of(Path.Type.file));
@@ -27,7 +27,7 @@ import ch.cyberduck.core.features.Find;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.http.HttpRange;
 import ch.cyberduck.core.http.HttpResponseOutputStream;
-import ch.cyberduck.core.io.MemorySegementingOutputStream;
+import ch.cyberduck.core.io.SlabSegmentingOutputStream;
 import ch.cyberduck.core.onedrive.GraphExceptionMappingService;
 import ch.cyberduck.core.onedrive.GraphSession;
 import ch.cyberduck.core.preferences.Preferences;
@@ -80,7 +80,7 @@ public class GraphWriteFeature implements Write<Void> {
             final ChunkedOutputStream proxy = new ChunkedOutputStream(upload, file, status);
             final int partsize = preferences.getInteger("onedrive.upload.multipart.partsize.minimum")
                 * preferences.getInteger("onedrive.upload.multipart.partsize.factor");
-            return new HttpResponseOutputStream<Void>(new MemorySegementingOutputStream(proxy, partsize)) {
+            return new HttpResponseOutputStream<Void>(new SlabSegmentingOutputStream(proxy, partsize)) {
                 @Override
                 public Void getStatus() {
                     return null;
@@ -137,7 +137,7 @@ public class GraphWriteFeature implements Write<Void> {
 
         @Override
         public void write(final byte[] b, final int off, final int len) throws IOException {
-            final byte[] content = Arrays.copyOfRange(b, off, len);
+            final byte[] content = Arrays.copyOfRange(b, off, off + len);
             final HttpRange range = HttpRange.byLength(offset, content.length);
             final String header;
             if(overall.getLength() == -1L) {
@@ -0,0 +1,106 @@
+package ch.cyberduck.core.openstack;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.FlatListing;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+
+import ch.iterate.openstack.swift.exception.GenericException;
+import ch.iterate.openstack.swift.model.StorageObject;
+
+/**
+ * List all objects with the directory key as prefix without delimiter
+ */
+public class SwiftFlatListService implements FlatListing {
+
+    private final PathContainerService containerService
+        = new PathContainerService();
+
+    private final SwiftSession session;
+    private final SwiftRegionService regionService;
+    private final SwiftAttributesFinderFeature attributes;
+
+    public SwiftFlatListService(final SwiftSession session, final SwiftRegionService regionService) {
+        this.session = session;
+        this.regionService = regionService;
+        this.attributes = new SwiftAttributesFinderFeature(session, regionService);
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(directory.isRoot()) {
+            // Container list
+            throw new UnsupportedException(directory.getAbsolute());
+        }
+        try {
+            final AttributedList<Path> children = new AttributedList<Path>();
+            final int limit = PreferencesFactory.get().getInteger("openstack.list.object.limit");
+            String marker = null;
+            List<StorageObject> list;
+            final Path container = containerService.getContainer(directory);
+            // Index of first file not yet notified to listener
+            int index = 0;
+            do {
+                // Omit delimiter to list objects in all subdirectories
+                list = session.getClient().listObjectsStartingWith(regionService.lookup(container), container.getName(),
+                    containerService.isContainer(directory) ? StringUtils.EMPTY : containerService.getKey(directory) + Path.DELIMITER,
+                    null, limit, marker);
+                for(StorageObject object : list) {
+                    final PathAttributes attr = attributes.toAttributes(object);
+                    final EnumSet<Path.Type> types = "application/directory".equals(object.getMimeType())
+                        || StringUtils.endsWith(object.getName(), String.valueOf(Path.DELIMITER))
+                        ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
+                    attr.setOwner(container.attributes().getOwner());
+                    attr.setRegion(container.attributes().getRegion());
+                    children.add(new Path(PathNormalizer.normalize(String.format("%s%s%s",
+                        container.getAbsolute(), Path.DELIMITER, object.getName())), types, attr));
+                    marker = object.getName();
+                }
+                listener.chunk(directory, children, index, list.size() != limit);
+                index = children.size();
+            }
+            while(list.size() == limit);
+            if(!containerService.isContainer(directory) && children.isEmpty()) {
+                if(!new SwiftFindFeature(session).find(directory)) {
+                    throw new NotfoundException(directory.getAbsolute());
+                }
+            }
+            return children;
+        }
+        catch(GenericException e) {
+            throw new SwiftExceptionMappingService().map("Listing directory {0} failed", e, directory);
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map(e, directory);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package ch.cyberduck.core.openstack;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Multipart;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import ch.iterate.openstack.swift.exception.GenericException;
+import ch.iterate.openstack.swift.model.StorageObject;
+
+/**
+ * Write parts as segments of static large object with manifest created when all segments are written
+ */
+public class SwiftMultipartFeature implements Multipart {
+    private static final Logger log = Logger.getLogger(SwiftMultipartFeature.class);
+
+    /**
+     * Default limit for number of segments in manifest
+     */
+    private static final long MAXIMUM_SEGMENTS = 1000L;
+
+    private final PathContainerService containerService
+        = new PathContainerService();
+
+    private final SwiftSession session;
+    private final SwiftRegionService regionService;
+    private final SwiftSegmentService segmentService;
+    private final SwiftObjectListService listService;
+
+    /**
+     * Each segment, except for the final one, must be at least 1 megabyte
+     */
+    private final Long minimum;
+
+    public SwiftMultipartFeature(final SwiftSession session, final SwiftRegionService regionService) {
+        this(session, regionService, new SwiftSegmentService(session, regionService), new SwiftObjectListService(session, regionService));
+    }
+
+    public SwiftMultipartFeature(final SwiftSession session, final SwiftRegionService regionService,
+                                 final SwiftSegmentService segmentService, final SwiftObjectListService listService) {
+        this.session = session;
+        this.regionService = regionService;
+        this.segmentService = segmentService;
+        this.listService = listService;
+        this.minimum = PreferencesFactory.get().getLong("openstack.upload.largeobject.size.minimum");
+    }
+
+    /**
+     * @return Size of file as segments are written to a directory named after the file and its size
+     */
+    @Override
+    public String start(final Path file, final TransferStatus status) {
+        return String.valueOf(status.getLength());
+    }
+
+    @Override
+    public StatusOutputStream<?> write(final Path file, final String upload, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        final Path segment = segmentService.getSegment(file, Long.valueOf(upload), status.getPart());
+        if(log.isDebugEnabled()) {
+            log.debug(String.format("Write segment %s for part %d of %s", segment, status.getPart(), file));
+        }
+        final TransferStatus part = new TransferStatus().length(status.getLength());
+        part.setSegment(true);
+        return new SwiftWriteFeature(session, regionService).write(segment, part, callback);
+    }
+
+    @Override
+    public void complete(final Path file, final String upload, final TransferStatus status) throws BackgroundException {
+        // Lexicographically ordered list of segments
+        final List<Path> segments = listService.list(segmentService.getSegmentsDirectory(file, Long.valueOf(upload)),
+            new DisabledListProgressListener()).toList();
+        if(segments.size() != status.getSegments().size()) {
+            throw new InteroperabilityException(MessageFormat.format(LocaleFactory.localizedString("Upload {0} failed", "Error"), file.getName()),
+                String.format("Found %d segments for upload with %d segments", segments.size(), status.getSegments().size()));
+        }
+        final List<StorageObject> completed = new ArrayList<StorageObject>();
+        for(Path segment : segments) {
+            final StorageObject stored = new StorageObject(containerService.getKey(segment));
+            if(HashAlgorithm.md5.equals(segment.attributes().getChecksum().algorithm)) {
+                stored.setMd5sum(segment.attributes().getChecksum().hash);
+            }
+            stored.setSize(segment.attributes().getSize());
+            completed.add(stored);
+        }
+        try {
+            final String manifest = segmentService.manifest(containerService.getContainer(file).getName(), completed);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Creating SLO manifest %s for %s", manifest, file));
+            }
+            final String checksum = session.getClient().createSLOManifestObject(regionService.lookup(
+                containerService.getContainer(file)),
+                containerService.getContainer(file).getName(),
+                status.getMime(),
+                containerService.getKey(file), manifest, Collections.emptyMap());
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Completed large object %s with %d segments and checksum %s", file, completed.size(), checksum));
+            }
+        }
+        catch(GenericException e) {
+            throw new SwiftExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+        catch(IOException e) {
+            throw new DefaultIOExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+    }
+
+    /**
+     * Delete segments written
+     */
+    @Override
+    public void abort(final Path file, final String upload) throws BackgroundException {
+        final List<Path> segments;
+        try {
+            segments = listService.list(segmentService.getSegmentsDirectory(file, Long.valueOf(upload)),
+                new DisabledListProgressListener()).toList();
+        }
+        catch(NotfoundException e) {
+            // No segment written
+            return;
+        }
+        for(Path segment : segments) {
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Delete segment %s of failed upload to %s", segment, file));
+            }
+            try {
+                session.getClient().deleteObject(regionService.lookup(segment),
+                    containerService.getContainer(segment).getName(), containerService.getKey(segment));
+            }
+            catch(GenericException e) {
+                throw new SwiftExceptionMappingService().map("Cannot delete {0}", e, segment);
+            }
+            catch(IOException e) {
+                throw new DefaultIOExceptionMappingService().map("Cannot delete {0}", e, segment);
+            }
+        }
+    }
+
+    @Override
+    public long partsize(final long length, final long preferred) {
+        return Math.max(Math.max(length / (MAXIMUM_SEGMENTS - 1), preferred), minimum);
+    }
+}
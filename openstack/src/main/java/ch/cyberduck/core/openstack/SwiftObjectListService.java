@@ -70,6 +70,8 @@ public class SwiftObjectListService implements ListService {
             String marker = null;
             List<StorageObject> list;
             final Path container = containerService.getContainer(directory);
+            // Index of first file not yet notified to listener
+            int index = 0;
             do {
                 list = session.getClient().listObjectsStartingWith(regionService.lookup(container), container.getName(),
                     containerService.isContainer(directory) ? StringUtils.EMPTY : containerService.getKey(directory) + Path.DELIMITER,
@@ -90,7 +92,8 @@ public class SwiftObjectListService implements ListService {
                     children.add(new Path(directory, PathNormalizer.name(object.getName()), types, attr));
                     marker = object.getName();
                 }
-                listener.chunk(directory, children);
+                listener.chunk(directory, children, index, list.size() != limit);
+                index = children.size();
             }
             while(list.size() == limit);
             if(!containerService.isContainer(directory) && children.isEmpty()) {
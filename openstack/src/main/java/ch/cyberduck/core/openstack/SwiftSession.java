@@ -130,6 +130,9 @@ public class SwiftSession extends HttpSession<Client> {
         if(type == ListService.class) {
             return (T) new SwiftListService(this, regionService);
         }
+        if(type == FlatListing.class) {
+            return (T) new SwiftFlatListService(this, regionService);
+        }
         if(type == Read.class) {
             return (T) new SwiftReadFeature(this, regionService);
         }
@@ -139,6 +142,9 @@ public class SwiftSession extends HttpSession<Client> {
         if(type == Write.class) {
             return (T) new SwiftWriteFeature(this, regionService);
         }
+        if(type == Multipart.class) {
+            return (T) new SwiftMultipartFeature(this, regionService);
+        }
         if(type == Upload.class) {
             return (T) new SwiftThresholdUploadService(this, regionService, new SwiftWriteFeature(this, regionService));
         }
@@ -83,6 +83,7 @@ import ch.cyberduck.core.transfer.TransferCallback;
 import ch.cyberduck.core.transfer.TransferItem;
 import ch.cyberduck.core.transfer.TransferOptions;
 import ch.cyberduck.core.transfer.TransferPrompt;
+import ch.cyberduck.core.transfer.TransferQueue;
 import ch.cyberduck.core.transfer.UploadTransfer;
 import ch.cyberduck.core.vault.DefaultVaultRegistry;
 import ch.cyberduck.core.vault.VaultCredentials;
@@ -1738,7 +1739,7 @@ public class BrowserController extends WindowController implements NSToolbar.Del
                                     if(returncode == DEFAULT_OPTION) {
                                         // Delay render until path is cached in the background
                                         background(new WorkerBackgroundAction<AttributedList<Path>>(BrowserController.this, pool,
-                                            new SearchWorker(workdir, filenameFilter, cache, listener) {
+                                            new SearchWorker(workdir, filenameFilter, pool, cache, listener) {
                                                 @Override
                                                 public void cleanup(final AttributedList<Path> list) {
                                                     super.cleanup(list);
@@ -2693,7 +2694,8 @@ public class BrowserController extends WindowController implements NSToolbar.Del
             this.background(new BrowserTransferBackgroundAction(this, pool, transfer, callback));
         }
         else {
-            TransferControllerFactory.get().start(transfer, new TransferOptions(), callback);
+            // Admit transfers started from browser before other queued transfers
+            TransferControllerFactory.get().start(transfer, new TransferOptions().priority(TransferQueue.Priority.high), callback);
         }
     }
 
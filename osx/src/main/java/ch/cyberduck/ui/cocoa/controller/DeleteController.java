@@ -20,6 +20,7 @@ import ch.cyberduck.binding.application.NSAlert;
 import ch.cyberduck.binding.application.SheetCallback;
 import ch.cyberduck.core.LocaleFactory;
 import ch.cyberduck.core.LoginCallbackFactory;
+import ch.cyberduck.core.NullFilter;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathNormalizer;
 import ch.cyberduck.core.threading.WorkerBackgroundAction;
@@ -76,7 +77,7 @@ public class DeleteController extends ProxyController {
 
     private void run(final List<Path> files) {
         parent.background(new WorkerBackgroundAction<List<Path>>(parent, parent.getSession(),
-            new DeleteWorker(LoginCallbackFactory.get(parent), files, parent.getCache(), parent) {
+            new DeleteWorker(LoginCallbackFactory.get(parent), files, parent.getSession(), parent.getCache(), new NullFilter<>(), parent) {
                     @Override
                     public void cleanup(final List<Path> deleted) {
                         super.cleanup(deleted);
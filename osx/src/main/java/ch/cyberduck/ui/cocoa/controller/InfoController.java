@@ -2306,7 +2306,7 @@ public class InfoController extends ToolbarWindowController {
     public void calculateSizeButtonClicked(final ID sender) {
         if(this.toggleSizeSettings(false)) {
             controller.background(new WorkerBackgroundAction<Long>(controller, session,
-                new CalculateSizeWorker(files, controller) {
+                new CalculateSizeWorker(files, session, controller) {
                     @Override
                     public void cleanup(final Long size) {
                         setSize(size);
@@ -0,0 +1,58 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.UnsupportedException;
+import ch.cyberduck.core.features.FlatListing;
+import ch.cyberduck.core.features.Versioning;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+/**
+ * List all objects with the directory key as prefix without delimiter. Incomplete multipart uploads are not included.
+ */
+public class S3FlatListService implements FlatListing {
+
+    private final PathContainerService containerService
+        = new S3PathContainerService();
+
+    private final S3Session session;
+
+    public S3FlatListService(final S3Session session) {
+        this.session = session;
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(directory.isRoot()) {
+            // Bucket list
+            throw new UnsupportedException(directory.getAbsolute());
+        }
+        final Versioning feature = session.getFeature(Versioning.class);
+        if(null != feature) {
+            if(feature.getConfiguration(containerService.getContainer(directory)).isEnabled()) {
+                // Previous versions are only included when listing each directory
+                throw new UnsupportedException(directory.getAbsolute());
+            }
+        }
+        return new S3ObjectListService(session).list(directory, listener, null,
+            PreferencesFactory.get().getInteger("s3.listing.chunksize"));
+    }
+}
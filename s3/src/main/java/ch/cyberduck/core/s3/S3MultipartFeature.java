@@ -0,0 +1,203 @@
+package ch.cyberduck.core.s3;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.LocaleFactory;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathContainerService;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ChecksumException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.features.Multipart;
+import ch.cyberduck.core.http.HttpResponseOutputStream;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.StatusOutputStream;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+import org.jets3t.service.ServiceException;
+import org.jets3t.service.model.MultipartCompleted;
+import org.jets3t.service.model.MultipartPart;
+import org.jets3t.service.model.MultipartUpload;
+import org.jets3t.service.model.S3Object;
+import org.jets3t.service.model.StorageObject;
+
+import java.io.IOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write parts of multipart upload with part number given in transfer status
+ */
+public class S3MultipartFeature implements Multipart {
+    private static final Logger log = Logger.getLogger(S3MultipartFeature.class);
+
+    private final PathContainerService containerService
+        = new S3PathContainerService();
+
+    private final S3Session session;
+    private final S3MultipartService multipartService;
+
+    /**
+     * A split smaller than 5M is not allowed
+     */
+    private final Long minimum;
+
+    public S3MultipartFeature(final S3Session session) {
+        this(session, new S3DefaultMultipartService(session));
+    }
+
+    public S3MultipartFeature(final S3Session session, final S3MultipartService multipartService) {
+        this.session = session;
+        this.multipartService = multipartService;
+        this.minimum = PreferencesFactory.get().getLong("s3.upload.multipart.partsize.minimum");
+    }
+
+    @Override
+    public String start(final Path file, final TransferStatus status) throws BackgroundException {
+        final S3Object object = new S3WriteFeature(session, new S3DisabledMultipartService())
+            .getDetails(file, status);
+        try {
+            final MultipartUpload multipart = session.getClient().multipartStartUpload(
+                containerService.getContainer(file).getName(), object);
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Multipart upload started for %s with ID %s",
+                    multipart.getObjectKey(), multipart.getUploadId()));
+            }
+            return multipart.getUploadId();
+        }
+        catch(ServiceException e) {
+            throw new S3ExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+    }
+
+    @Override
+    public StatusOutputStream<?> write(final Path file, final String upload, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        final Map<String, String> parameters = new HashMap<>();
+        parameters.put("uploadId", upload);
+        parameters.put("partNumber", String.valueOf(status.getPart()));
+        final TransferStatus part = new TransferStatus()
+            .length(status.getLength())
+            .withParameters(parameters);
+        part.setPart(status.getPart());
+        part.setSegment(true);
+        switch(session.getSignatureVersion()) {
+            case AWS4HMACSHA256:
+                // Content of part is not available before upload to compute SHA-256
+                part.setMetadata(Collections.singletonMap("x-amz-content-sha256", S3MultipartUploadService.UNSIGNED_PAYLOAD));
+                break;
+        }
+        final HttpResponseOutputStream<StorageObject> proxy = new S3WriteFeature(session, new S3DisabledMultipartService()).write(file, part, callback);
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        }
+        catch(NoSuchAlgorithmException e) {
+            throw new ChecksumException(LocaleFactory.localizedString("Checksum failure", "Error"), e.getMessage(), e);
+        }
+        // Payload is not signed. Verify MD5 computed in stream with ETag of part
+        return new StatusOutputStream<StorageObject>(new DigestOutputStream(proxy, digest)) {
+            private final AtomicBoolean close = new AtomicBoolean();
+
+            @Override
+            public void close() throws IOException {
+                if(close.get()) {
+                    log.warn(String.format("Skip double close of stream %s", this));
+                    return;
+                }
+                try {
+                    super.close();
+                    verify(file, digest, this.getStatus());
+                }
+                catch(BackgroundException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+                finally {
+                    close.set(true);
+                }
+            }
+
+            @Override
+            public StorageObject getStatus() throws BackgroundException {
+                return proxy.getStatus();
+            }
+        };
+    }
+
+    /**
+     * Compare MD5 hash of content written with ETag returned for part
+     */
+    private void verify(final Path file, final MessageDigest digest, final StorageObject part) throws ChecksumException {
+        if(null != part.getServerSideEncryptionAlgorithm()) {
+            log.warn(String.format("Skip checksum verification for part of %s with server side encryption enabled", file));
+            return;
+        }
+        final Checksum expected = Checksum.parse(Hex.encodeHexString(digest.digest()));
+        final Checksum checksum = Checksum.parse(StringUtils.remove(part.getETag(), '"'));
+        if(!expected.equals(checksum)) {
+            throw new ChecksumException(MessageFormat.format(LocaleFactory.localizedString("Upload {0} failed", "Error"), file.getName()),
+                MessageFormat.format("Mismatch between MD5 hash {0} of uploaded data and ETag {1} returned by the server",
+                    expected, part.getETag()));
+        }
+    }
+
+    @Override
+    public void complete(final Path file, final String upload, final TransferStatus status) throws BackgroundException {
+        final MultipartUpload multipart = new MultipartUpload(upload,
+            containerService.getContainer(file).getName(), containerService.getKey(file));
+        final List<MultipartPart> completed = multipartService.list(multipart);
+        if(completed.size() != status.getSegments().size()) {
+            throw new InteroperabilityException(MessageFormat.format(LocaleFactory.localizedString("Upload {0} failed", "Error"), file.getName()),
+                String.format("Found %d parts for multipart upload with %d segments", completed.size(), status.getSegments().size()));
+        }
+        completed.sort(new MultipartPart.PartNumberComparator());
+        try {
+            final MultipartCompleted complete = session.getClient().multipartCompleteUpload(multipart, completed);
+            if(log.isInfoEnabled()) {
+                log.info(String.format("Completed multipart upload for %s with %d parts and checksum %s",
+                    complete.getObjectKey(), completed.size(), complete.getEtag()));
+            }
+        }
+        catch(ServiceException e) {
+            throw new S3ExceptionMappingService().map("Upload {0} failed", e, file);
+        }
+    }
+
+    @Override
+    public void abort(final Path file, final String upload) throws BackgroundException {
+        if(log.isInfoEnabled()) {
+            log.info(String.format("Abort multipart upload for %s with ID %s", file, upload));
+        }
+        multipartService.delete(new MultipartUpload(upload,
+            containerService.getContainer(file).getName(), containerService.getKey(file)));
+    }
+
+    @Override
+    public long partsize(final long length, final long preferred) {
+        return Math.max(Math.max(length / (S3DefaultMultipartService.MAXIMUM_UPLOAD_PARTS - 1), preferred), minimum);
+    }
+}
@@ -31,6 +31,7 @@ import ch.cyberduck.core.features.Upload;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.http.HttpUploadFeature;
 import ch.cyberduck.core.io.BandwidthThrottle;
+import ch.cyberduck.core.io.Checksum;
 import ch.cyberduck.core.io.ChecksumComputeFactory;
 import ch.cyberduck.core.io.HashAlgorithm;
 import ch.cyberduck.core.io.StreamListener;
@@ -38,8 +39,8 @@ import ch.cyberduck.core.io.StreamProgress;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.threading.BackgroundExceptionCallable;
 import ch.cyberduck.core.threading.DefaultRetryCallable;
+import ch.cyberduck.core.threading.TaskGroupThreadPool;
 import ch.cyberduck.core.threading.ThreadPool;
-import ch.cyberduck.core.threading.ThreadPoolFactory;
 import ch.cyberduck.core.transfer.TransferStatus;
 
 import org.apache.commons.lang3.StringUtils;
@@ -51,9 +52,14 @@ import org.jets3t.service.model.MultipartUpload;
 import org.jets3t.service.model.S3Object;
 import org.jets3t.service.model.StorageObject;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -78,6 +84,16 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
     private final Long partsize;
     private final Integer concurrency;
 
+    /**
+     * Payload hash in signature for parts uploaded without precomputed SHA-256 checksum
+     */
+    static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    /**
+     * Omit payload from signature of part uploads
+     */
+    private final boolean unsigned;
+
     public S3MultipartUploadService(final S3Session session, final Write<StorageObject> writer) {
         this(session, writer, PreferencesFactory.get().getLong("s3.upload.multipart.size"),
             PreferencesFactory.get().getInteger("s3.upload.multipart.concurrency"));
@@ -90,12 +106,14 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
         this.writer = writer;
         this.partsize = partsize;
         this.concurrency = concurrency;
+        this.unsigned = PreferencesFactory.get().getBoolean("s3.upload.multipart.payload.unsigned")
+            && session.getHost().getProtocol().isSecure();
     }
 
     @Override
     public StorageObject upload(final Path file, final Local local, final BandwidthThrottle throttle, final StreamListener listener,
                                 final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
-        final ThreadPool pool = ThreadPoolFactory.get("multipart", concurrency);
+        final ThreadPool pool = TaskGroupThreadPool.get(session.getHost(), "multipart", concurrency);
         try {
             MultipartUpload multipart = null;
             try {
@@ -249,7 +267,13 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
                 status.setNonces(overall.getNonces());
                 switch(session.getSignatureVersion()) {
                     case AWS4HMACSHA256:
-                        status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                        if(unsigned) {
+                            // Skip reading part to compute SHA-256 before upload. Verify MD5 computed in stream with ETag instead
+                            status.setMetadata(Collections.singletonMap("x-amz-content-sha256", UNSIGNED_PAYLOAD));
+                        }
+                        else {
+                            status.setChecksum(writer.checksum(file, status).compute(local.getInputStream(), status));
+                        }
                         break;
                 }
                 status.setSegment(true);
@@ -280,6 +304,44 @@ public class S3MultipartUploadService extends HttpUploadFeature<StorageObject, M
         }, overall));
     }
 
+    @Override
+    protected InputStream decorate(final InputStream in, final MessageDigest digest) throws IOException {
+        if(null == digest) {
+            return super.decorate(in, null);
+        }
+        return new DigestInputStream(super.decorate(in, digest), digest);
+    }
+
+    /**
+     * @return MD5 digest of part computed while uploading. Always verified for parts with unsigned payload regardless
+     * of queue.upload.checksum.calculate as the content is not covered by the signature
+     */
+    @Override
+    protected MessageDigest digest() throws IOException {
+        if(!unsigned) {
+            // Part has been read before to compute checksum
+            return null;
+        }
+        try {
+            return MessageDigest.getInstance("MD5");
+        }
+        catch(NoSuchAlgorithmException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected void post(final Path file, final MessageDigest digest, final StorageObject part) throws BackgroundException {
+        if(null == digest) {
+            return;
+        }
+        if(null != part.getServerSideEncryptionAlgorithm()) {
+            log.warn(String.format("Skip checksum verification for part of %s with server side encryption enabled", file));
+            return;
+        }
+        this.verify(file, digest, Checksum.parse(StringUtils.remove(part.getETag(), '"')));
+    }
+
     @Override
     public Upload<StorageObject> withWriter(final Write<StorageObject> writer) {
         this.writer = writer;
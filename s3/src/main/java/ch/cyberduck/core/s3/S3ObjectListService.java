@@ -81,6 +81,8 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
             final AttributedList<Path> children = new AttributedList<Path>();
             // Null if listing is complete
             String priorLastKey = null;
+            // Index of first file not yet notified to listener
+            int index = 0;
             boolean hasDirectoryPlaceholder = containerService.isContainer(directory);
             do {
                 // Read directory listing in chunks. List results are always returned
@@ -137,7 +139,8 @@ public class S3ObjectListService extends S3AbstractListService implements ListSe
                     children.add(file);
                 }
                 priorLastKey = null != chunk.getPriorLastKey() ? URIEncoder.decode(chunk.getPriorLastKey()) : null;
-                listener.chunk(directory, children);
+                listener.chunk(directory, children, index, null == priorLastKey);
+                index = children.size();
             }
             while(priorLastKey != null);
             if(!hasDirectoryPlaceholder && children.isEmpty()) {
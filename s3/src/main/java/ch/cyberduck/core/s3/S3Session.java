@@ -223,6 +223,12 @@ public class S3Session extends HttpSession<RequestEntityRestStorageService> {
         if(type == Write.class) {
             return (T) new S3WriteFeature(this);
         }
+        if(type == Multipart.class) {
+            if(preferences.getBoolean("s3.upload.multipart")) {
+                return (T) new S3MultipartFeature(this);
+            }
+            return null;
+        }
         if(type == Upload.class) {
             return (T) new S3ThresholdUploadService(this);
         }
@@ -313,6 +319,9 @@ public class S3Session extends HttpSession<RequestEntityRestStorageService> {
         if(type == Search.class) {
             return (T) new S3SearchFeature(this);
         }
+        if(type == FlatListing.class) {
+            return (T) new S3FlatListService(this);
+        }
         if(type == IdProvider.class) {
             return (T) new S3VersionIdProvider(this);
         }
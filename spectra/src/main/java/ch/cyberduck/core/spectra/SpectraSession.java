@@ -59,6 +59,10 @@ public class SpectraSession extends S3Session {
         if(type == ListService.class) {
             return (T) new SpectraListService(this);
         }
+        if(type == FlatListing.class) {
+            // Only list each directory with Spectra list service
+            return null;
+        }
         if(type == Bulk.class) {
             return (T) new SpectraBulkService(this);
         }
@@ -92,7 +96,7 @@ public class SpectraSession extends S3Session {
             // Disable operation not supported
             return null;
         }
-        if(type == MultipartWrite.class) {
+        if(type == MultipartWrite.class || type == Multipart.class) {
             return null;
         }
         if(type == Write.class) {
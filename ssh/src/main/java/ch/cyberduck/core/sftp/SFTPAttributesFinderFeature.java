@@ -20,15 +20,25 @@ package ch.cyberduck.core.sftp;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.InteroperabilityException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.features.AttributesFinder;
 
+import org.apache.log4j.Logger;
+
 import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 import net.schmizz.sshj.sftp.FileAttributes;
+import net.schmizz.sshj.sftp.PacketType;
+import net.schmizz.sshj.sftp.SFTPException;
 
 public class SFTPAttributesFinderFeature implements AttributesFinder {
+    private static final Logger log = Logger.getLogger(SFTPAttributesFinderFeature.class);
 
     private final SFTPSession session;
 
@@ -73,6 +83,41 @@ public class SFTPAttributesFinderFeature implements AttributesFinder {
         }
     }
 
+    /**
+     * Read attributes following symbolic links for multiple files with requests pipelined on a single channel
+     *
+     * @param files Files
+     * @return Attributes for files found. Files not found or not accessible are missing.
+     */
+    public Map<Path, FileAttributes> stat(final Collection<Path> files) throws BackgroundException {
+        final Map<Path, FileAttributes> stats = new HashMap<>();
+        try {
+            new SFTPRequestPipeline<Path>(session.sftp()).run(files,
+                (engine, file) -> SFTPRequestPipeline.stat(engine, file.getAbsolute()),
+                (file, response) -> {
+                    try {
+                        response.ensurePacketTypeIs(PacketType.ATTRS);
+                        stats.put(file, response.readFileAttributes());
+                    }
+                    catch(SFTPException e) {
+                        final BackgroundException reason = new SFTPExceptionMappingService().map(e);
+                        if(reason instanceof NotfoundException
+                            || reason instanceof AccessDeniedException
+                            || reason instanceof InteroperabilityException) {
+                            log.warn(String.format("Failure %s reading attributes of %s", reason, file));
+                        }
+                        else {
+                            throw e;
+                        }
+                    }
+                });
+        }
+        catch(IOException e) {
+            throw new SFTPExceptionMappingService().map(e);
+        }
+        return stats;
+    }
+
     public PathAttributes toAttributes(final FileAttributes stat) {
         final PathAttributes attributes = new PathAttributes();
         switch(stat.getType()) {
@@ -0,0 +1,179 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.TranscriptListener;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.features.RemoteChecksum;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.schmizz.sshj.sftp.PacketType;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPEngine;
+
+/**
+ * Compute checksum on server using the check-file-name extension or with a command in a shell if the extension is
+ * not supported.
+ */
+public class SFTPChecksumFeature implements RemoteChecksum {
+    private static final Logger log = Logger.getLogger(SFTPChecksumFeature.class);
+
+    private static final String EXTENSION = "check-file-name";
+
+    private final Preferences preferences = PreferencesFactory.get();
+
+    private final SFTPSession session;
+
+    /**
+     * Cleared when server has replied that extension or command is not supported
+     */
+    private boolean extension = true;
+    private boolean command = true;
+
+    public SFTPChecksumFeature(final SFTPSession session) {
+        this.session = session;
+    }
+
+    @Override
+    public Checksum compute(final Path file, final HashAlgorithm algorithm) throws BackgroundException {
+        if(extension) {
+            try {
+                return this.extension(file, algorithm);
+            }
+            catch(ConnectionCanceledException e) {
+                throw e;
+            }
+            catch(BackgroundException e) {
+                log.warn(String.format("Failure %s computing checksum for %s with extension %s", e, file, EXTENSION));
+                if(SFTPRequestPipeline.isUnsupported(e)) {
+                    extension = false;
+                }
+            }
+        }
+        if(command) {
+            try {
+                return this.command(file, algorithm);
+            }
+            catch(ConnectionCanceledException e) {
+                throw e;
+            }
+            catch(BackgroundException e) {
+                log.warn(String.format("Failure %s computing checksum for %s with command", e, file));
+                if(SFTPCommandFeature.isNotFound(e)) {
+                    command = false;
+                }
+            }
+        }
+        // Checksum not available for comparison
+        return Checksum.NONE;
+    }
+
+    private Checksum extension(final Path file, final HashAlgorithm algorithm) throws BackgroundException {
+        // Preferred algorithm first
+        final List<String> algorithms = new ArrayList<>();
+        algorithms.add(algorithm.name());
+        for(HashAlgorithm a : HashAlgorithm.values()) {
+            if(a != algorithm && a != HashAlgorithm.crc32) {
+                algorithms.add(a.name());
+            }
+        }
+        try {
+            final SFTPEngine engine = session.sftp();
+            final Response response = engine.request(engine.newExtendedRequest(EXTENSION)
+                .putString(file.getAbsolute())
+                .putString(StringUtils.join(algorithms, ','))
+                // Hash of entire file
+                .putUInt64(0L).putUInt64(0L).putUInt32(0L)).retrieve(engine.getTimeoutMs(), TimeUnit.MILLISECONDS);
+            response.ensurePacketTypeIs(PacketType.EXTENDED_REPLY);
+            // Extension name
+            response.readString();
+            final String name = response.readString();
+            final byte[] hash = new byte[response.available()];
+            response.readRawBytes(hash);
+            for(HashAlgorithm a : HashAlgorithm.values()) {
+                if(a.name().equals(name)) {
+                    return new Checksum(a, Hex.encodeHexString(strip(hash)));
+                }
+            }
+            log.warn(String.format("Unsupported algorithm %s in reply for %s", name, file));
+            return Checksum.NONE;
+        }
+        catch(IOException e) {
+            throw new SFTPExceptionMappingService().map("Failure to read attributes of {0}", e, file);
+        }
+    }
+
+    /**
+     * Servers such as Apache SSHD send the hash as a string with its length prepended instead of raw bytes
+     *
+     * @param hash Remaining data of reply
+     * @return Hash without length prefix
+     */
+    protected static byte[] strip(final byte[] hash) {
+        if(hash.length < 4) {
+            return hash;
+        }
+        final long length = ((hash[0] & 0xFFL) << 24) | ((hash[1] & 0xFFL) << 16) | ((hash[2] & 0xFFL) << 8) | (hash[3] & 0xFFL);
+        if(length == hash.length - 4) {
+            return Arrays.copyOfRange(hash, 4, hash.length);
+        }
+        return hash;
+    }
+
+    private Checksum command(final Path file, final HashAlgorithm algorithm) throws BackgroundException {
+        final String template = preferences.getProperty(String.format("sftp.checksum.command.%s", algorithm.name()));
+        if(StringUtils.isBlank(template)) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("No command to compute checksum with %s", algorithm));
+            }
+            return Checksum.NONE;
+        }
+        final StringBuilder output = new StringBuilder();
+        new SFTPCommandFeature(session).send(MessageFormat.format(template, SFTPCommandFeature.escape(file.getAbsolute())),
+            new DisabledProgressListener(), new TranscriptListener() {
+                @Override
+                public void log(final Type request, final String message) {
+                    if(output.length() == 0) {
+                        output.append(message);
+                    }
+                }
+            });
+        // Output hash followed by filename
+        final Checksum checksum = Checksum.parse(StringUtils.substringBefore(StringUtils.trim(output.toString()), " "));
+        if(checksum.algorithm != algorithm) {
+            throw new InteroperabilityException(String.format("Unexpected output %s", output));
+        }
+        return checksum;
+    }
+}
@@ -18,6 +18,7 @@ package ch.cyberduck.core.sftp;
  */
 
 import ch.cyberduck.core.DefaultIOExceptionMappingService;
+import ch.cyberduck.core.Path;
 import ch.cyberduck.core.ProgressListener;
 import ch.cyberduck.core.TranscriptListener;
 import ch.cyberduck.core.exception.BackgroundException;
@@ -107,4 +108,34 @@ public class SFTPCommandFeature implements Command {
             throw new DefaultIOExceptionMappingService().map(e);
         }
     }
+
+    /**
+     * @param failure Failure sending command
+     * @return True if the shell reported that the command is not found
+     */
+    public static boolean isNotFound(final BackgroundException failure) {
+        if(failure instanceof InteroperabilityException) {
+            // Error output such as "sh: md5sum: command not found" or "'md5sum' is not recognized as an internal or external command"
+            return StringUtils.containsAny(StringUtils.lowerCase(failure.getDetail(false)), "not found", "not recognized");
+        }
+        return false;
+    }
+
+    /**
+     * @param path Filename
+     * @return Path with all characters but alphanumerics and delimiter escaped for shell
+     */
+    public static String escape(final String path) {
+        final StringBuilder escaped = new StringBuilder();
+        for(char c : path.toCharArray()) {
+            if(StringUtils.isAlphanumeric(String.valueOf(c))
+                    || c == Path.DELIMITER) {
+                escaped.append(c);
+            }
+            else {
+                escaped.append("\\").append(c);
+            }
+        }
+        return escaped.toString();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.ConnectionCallback;
+import ch.cyberduck.core.DisabledProgressListener;
+import ch.cyberduck.core.DisabledTranscriptListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.Session;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.ConnectionCanceledException;
+import ch.cyberduck.core.exception.InteroperabilityException;
+import ch.cyberduck.core.features.Copy;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.shared.DefaultCopyFeature;
+import ch.cyberduck.core.transfer.TransferStatus;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import net.schmizz.sshj.sftp.OpenMode;
+import net.schmizz.sshj.sftp.PacketType;
+import net.schmizz.sshj.sftp.Request;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPEngine;
+
+/**
+ * Copy files on the server using the copy-data extension if announced by the server or with a command in a shell
+ * otherwise. Falls back to download and upload of content if neither is available or when copying to another host.
+ */
+public class SFTPCopyFeature implements Copy {
+    private static final Logger log = Logger.getLogger(SFTPCopyFeature.class);
+
+    private static final String EXTENSION = "copy-data";
+
+    private final SFTPSession session;
+    private Session<?> target;
+
+    /**
+     * Cleared when server has replied that extension or command is not supported
+     */
+    private boolean extension = true;
+    private boolean command = StringUtils.isNotBlank(PreferencesFactory.get().getProperty("sftp.copy.command"));
+
+    public SFTPCopyFeature(final SFTPSession session) {
+        this.session = session;
+        this.target = session;
+    }
+
+    @Override
+    public Path copy(final Path source, final Path copy, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
+        if(Objects.equals(session.getHost(), target.getHost())) {
+            // Check before opening or creating any file on the server
+            if(extension && session.isExtensionSupported(EXTENSION)) {
+                try {
+                    this.copy(source, copy);
+                    return new Path(copy.getParent(), copy.getName(), copy.getType(), new PathAttributes(source.attributes()));
+                }
+                catch(InteroperabilityException e) {
+                    log.warn(String.format("Failure %s copying %s with extension %s", e, source, EXTENSION));
+                    if(SFTPRequestPipeline.isUnsupported(e)) {
+                        extension = false;
+                    }
+                }
+            }
+            if(command) {
+                try {
+                    new SFTPCommandFeature(session).send(MessageFormat.format(PreferencesFactory.get().getProperty("sftp.copy.command"),
+                        SFTPCommandFeature.escape(source.getAbsolute()), SFTPCommandFeature.escape(copy.getAbsolute())),
+                        new DisabledProgressListener(), new DisabledTranscriptListener());
+                    return new Path(copy.getParent(), copy.getName(), copy.getType(), new PathAttributes(source.attributes()));
+                }
+                catch(ConnectionCanceledException e) {
+                    throw e;
+                }
+                catch(BackgroundException e) {
+                    log.warn(String.format("Failure %s copying %s with command", e, source));
+                    if(SFTPCommandFeature.isNotFound(e)) {
+                        command = false;
+                    }
+                }
+            }
+        }
+        return new DefaultCopyFeature(session).withTarget(target).copy(source, copy, status, callback);
+    }
+
+    /**
+     * Copy content from handle of source to handle of target opened for writing
+     *
+     * @throws InteroperabilityException Extension not supported by server or failure status
+     */
+    private void copy(final Path source, final Path copy) throws BackgroundException {
+        try {
+            final SFTPEngine engine = session.sftp();
+            final byte[] read = this.open(engine, source.getAbsolute(), EnumSet.of(OpenMode.READ));
+            try {
+                final byte[] write = this.open(engine, copy.getAbsolute(), EnumSet.of(OpenMode.WRITE, OpenMode.CREAT, OpenMode.TRUNC));
+                try {
+                    this.retrieve(engine, engine.newExtendedRequest(EXTENSION)
+                        .putString(read)
+                        // Read from offset until end of file
+                        .putUInt64(0L).putUInt64(0L)
+                        .putString(write)
+                        .putUInt64(0L)).ensureStatusPacketIsOK();
+                }
+                finally {
+                    this.retrieve(engine, SFTPRequestPipeline.close(engine, write)).ensureStatusPacketIsOK();
+                }
+            }
+            finally {
+                this.retrieve(engine, SFTPRequestPipeline.close(engine, read)).ensureStatusPacketIsOK();
+            }
+        }
+        catch(IOException e) {
+            throw new SFTPExceptionMappingService().map("Cannot copy {0}", e, source);
+        }
+    }
+
+    private byte[] open(final SFTPEngine engine, final String path, final EnumSet<OpenMode> modes) throws IOException {
+        final Response response = this.retrieve(engine, SFTPRequestPipeline.open(engine, path, modes));
+        response.ensurePacketTypeIs(PacketType.HANDLE);
+        return response.readBytes();
+    }
+
+    private Response retrieve(final SFTPEngine engine, final Request request) throws IOException {
+        return engine.request(request).retrieve(engine.getTimeoutMs(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean isRecursive(final Path source, final Path target) {
+        return false;
+    }
+
+    @Override
+    public boolean isSupported(final Path source, final Path target) {
+        return new DefaultCopyFeature(session).withTarget(this.target).isSupported(source, target);
+    }
+
+    @Override
+    public SFTPCopyFeature withTarget(final Session<?> session) {
+        this.target = session;
+        return this;
+    }
+}
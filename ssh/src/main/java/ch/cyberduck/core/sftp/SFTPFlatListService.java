@@ -0,0 +1,156 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.ListProgressListener;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.features.FlatListing;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import net.schmizz.sshj.sftp.FileAttributes;
+import net.schmizz.sshj.sftp.PacketType;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPEngine;
+import net.schmizz.sshj.sftp.SFTPException;
+
+/**
+ * List directory tree with requests to open and read directories pipelined on a single channel instead of listing
+ * one directory after another. Symbolic links to directories are not followed. Subdirectories that cannot be opened
+ * or read are skipped.
+ */
+public class SFTPFlatListService implements FlatListing {
+    private static final Logger log = Logger.getLogger(SFTPFlatListService.class);
+
+    private final SFTPSession session;
+    private final SFTPListService service;
+
+    public SFTPFlatListService(final SFTPSession session) {
+        this.session = session;
+        this.service = new SFTPListService(session);
+    }
+
+    @Override
+    public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        final AttributedList<Path> children = new AttributedList<Path>();
+        // Directories not yet opened
+        final Deque<Path> pending = new ArrayDeque<>();
+        pending.add(directory);
+        // Handles of directories not yet closed
+        final List<byte[]> handles = new ArrayList<>();
+        final SFTPEngine engine = session.sftp();
+        final SFTPRequestPipeline<Operation> pipeline = new SFTPRequestPipeline<>(engine);
+        Path current = directory;
+        try {
+            while(!pending.isEmpty() || !pipeline.isEmpty()) {
+                while(!pipeline.isFull() && !pending.isEmpty()) {
+                    final Path next = pending.poll();
+                    pipeline.send(new Operation(next, null), SFTPRequestPipeline.opendir(engine, next.getAbsolute()));
+                }
+                final Map.Entry<Operation, Response> entry = pipeline.take();
+                final Operation operation = entry.getKey();
+                final Response response = entry.getValue();
+                current = operation.directory;
+                if(null == operation.handle) {
+                    if(response.getType() == PacketType.STATUS && !operation.directory.equals(directory)) {
+                        // Skip subdirectory that cannot be opened
+                        final Response.StatusCode code = response.readStatusCode();
+                        log.warn(String.format("Skip directory %s failed to open with status %s %s", operation.directory, code, response.readString()));
+                        continue;
+                    }
+                    response.ensurePacketTypeIs(PacketType.HANDLE);
+                    final byte[] handle = response.readBytes();
+                    handles.add(handle);
+                    pipeline.send(new Operation(operation.directory, handle), SFTPRequestPipeline.readdir(engine, handle));
+                    continue;
+                }
+                if(response.getType() == PacketType.STATUS) {
+                    final Response.StatusCode code = response.readStatusCode();
+                    if(code != Response.StatusCode.EOF) {
+                        if(operation.directory.equals(directory)) {
+                            throw new SFTPException(code, response.readString());
+                        }
+                        // Skip remaining files of subdirectory failed to read
+                        log.warn(String.format("Skip reading directory %s failed with status %s %s", operation.directory, code, response.readString()));
+                    }
+                    handles.remove(operation.handle);
+                    // Response to close ignored
+                    engine.request(SFTPRequestPipeline.close(engine, operation.handle));
+                    continue;
+                }
+                response.ensurePacketTypeIs(PacketType.NAME);
+                final List<Path> files = new ArrayList<>();
+                final int count = response.readUInt32AsInt();
+                for(int i = 0; i < count; i++) {
+                    final String name = response.readString();
+                    // Long name
+                    response.readString();
+                    final FileAttributes attributes = response.readFileAttributes();
+                    if(".".equals(name) || "..".equals(name)) {
+                        continue;
+                    }
+                    final Path file = service.toPath(operation.directory, name, attributes);
+                    if(file.isDirectory()) {
+                        pending.add(file);
+                    }
+                    files.add(file);
+                }
+                final int offset = children.size();
+                children.addAll(service.post(files));
+                // Only files read from this response are new
+                listener.chunk(directory, children, offset, false);
+                pipeline.send(operation, SFTPRequestPipeline.readdir(engine, operation.handle));
+            }
+            listener.chunk(directory, children, children.size(), true);
+            return children;
+        }
+        catch(IOException e) {
+            throw new SFTPExceptionMappingService().map("Listing directory {0} failed", e, current);
+        }
+        finally {
+            for(byte[] handle : handles) {
+                try {
+                    engine.request(SFTPRequestPipeline.close(engine, handle));
+                }
+                catch(IOException e) {
+                    log.warn(String.format("Failure %s closing directory handle", e));
+                }
+            }
+        }
+    }
+
+    private static final class Operation {
+        private final Path directory;
+        /**
+         * Null until directory is opened
+         */
+        private final byte[] handle;
+
+        public Operation(final Path directory, final byte[] handle) {
+            this.directory = directory;
+            this.handle = handle;
+        }
+    }
+}
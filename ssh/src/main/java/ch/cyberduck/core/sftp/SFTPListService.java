@@ -24,16 +24,20 @@ import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
 import ch.cyberduck.core.PathNormalizer;
-import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
-import ch.cyberduck.core.exception.InteroperabilityException;
-import ch.cyberduck.core.exception.NotfoundException;
 
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
+import net.schmizz.sshj.common.Buffer;
 import net.schmizz.sshj.sftp.FileAttributes;
 import net.schmizz.sshj.sftp.FileMode;
 import net.schmizz.sshj.sftp.RemoteDirectory;
@@ -55,7 +59,7 @@ public class SFTPListService implements ListService {
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
         try {
-            final AttributedList<Path> children = new AttributedList<Path>();
+            final List<Path> files = new ArrayList<>();
             final RemoteDirectory handle = session.sftp().openDir(directory.getAbsolute());
             for(RemoteResourceInfo f : handle.scan(new RemoteResourceFilter() {
                 @Override
@@ -63,24 +67,14 @@ public class SFTPListService implements ListService {
                     return true;
                 }
             })) {
-                final PathAttributes attr = attributes.toAttributes(f.getAttributes());
-                final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
-                if(f.getAttributes().getType().equals(FileMode.Type.DIRECTORY)) {
-                    type.add(Path.Type.directory);
-                }
-                if(f.getAttributes().getType().equals(FileMode.Type.REGULAR)) {
-                    type.add(Path.Type.file);
-                }
-                if(f.getAttributes().getType().equals(FileMode.Type.SYMLINK)) {
-                    type.add(Path.Type.symboliclink);
-                }
-                final Path file = new Path(directory, f.getName(), type, attr);
-                if(this.post(file)) {
-                    children.add(file);
-                    listener.chunk(directory, children);
-                }
+                files.add(this.toPath(directory, f.getName(), f.getAttributes()));
             }
             handle.close();
+            final AttributedList<Path> children = new AttributedList<Path>();
+            for(Path file : this.post(files)) {
+                children.add(file);
+                listener.chunk(directory, children);
+            }
             return children;
         }
         catch(IOException e) {
@@ -94,21 +88,77 @@ public class SFTPListService implements ListService {
         return this;
     }
 
-    protected boolean post(final Path file) throws BackgroundException {
-        if(file.isSymbolicLink()) {
-            final Path target;
-            Path.Type type;
-            PathAttributes attr;
-            try {
-                final String link = session.sftp().readLink(file.getAbsolute());
-                if(link.startsWith(String.valueOf(Path.DELIMITER))) {
-                    target = new Path(PathNormalizer.normalize(link), EnumSet.of(Path.Type.file));
+    protected Path toPath(final Path directory, final String name, final FileAttributes stat) {
+        final PathAttributes attr = attributes.toAttributes(stat);
+        final EnumSet<Path.Type> type = EnumSet.noneOf(Path.Type.class);
+        if(stat.getType().equals(FileMode.Type.DIRECTORY)) {
+            type.add(Path.Type.directory);
+        }
+        if(stat.getType().equals(FileMode.Type.REGULAR)) {
+            type.add(Path.Type.file);
+        }
+        if(stat.getType().equals(FileMode.Type.SYMLINK)) {
+            type.add(Path.Type.symboliclink);
+        }
+        return new Path(directory, name, type, attr);
+    }
+
+    /**
+     * Resolve targets of symbolic links. Requests to read links and then the attributes of their targets are
+     * pipelined instead of waiting for each response in turn.
+     *
+     * @param files Files in directory
+     * @return Files without symbolic links that cannot be read
+     */
+    protected List<Path> post(final List<Path> files) throws BackgroundException {
+        final List<Path> links = files.stream().filter(Path::isSymbolicLink).collect(Collectors.toList());
+        if(links.isEmpty()) {
+            return files;
+        }
+        final Map<Path, Path> targets = new IdentityHashMap<>();
+        try {
+            new SFTPRequestPipeline<Path>(session.sftp()).run(links,
+                (engine, file) -> SFTPRequestPipeline.readlink(engine, file.getAbsolute()),
+                (file, response) -> {
+                    try {
+                        final String link = SFTPRequestPipeline.readSingleName(response);
+                        if(link.startsWith(String.valueOf(Path.DELIMITER))) {
+                            targets.put(file, new Path(PathNormalizer.normalize(link), EnumSet.of(Path.Type.file)));
+                        }
+                        else {
+                            targets.put(file, new Path(PathNormalizer.normalize(String.format("%s/%s", file.getParent().getAbsolute(), link)), EnumSet.of(Path.Type.file)));
+                        }
+                    }
+                    catch(SFTPException | Buffer.BufferException e) {
+                        log.warn(String.format("Failure to read symbolic link of %s. %s", file, e.getMessage()));
+                    }
+                });
+        }
+        catch(IOException e) {
+            throw new SFTPExceptionMappingService().map(e);
+        }
+        final Map<Path, FileAttributes> stats = attributes.stat(new HashSet<>(targets.values()));
+        // Lookup before changing type of targets
+        final Map<Path, FileAttributes> resolved = new IdentityHashMap<>();
+        for(Map.Entry<Path, Path> entry : targets.entrySet()) {
+            resolved.put(entry.getKey(), stats.get(entry.getValue()));
+        }
+        final List<Path> result = new ArrayList<>(files.size());
+        for(Path file : files) {
+            if(file.isSymbolicLink()) {
+                final Path target = targets.get(file);
+                if(null == target) {
+                    continue;
                 }
-                else {
-                    target = new Path(PathNormalizer.normalize(String.format("%s/%s", file.getParent().getAbsolute(), link)), EnumSet.of(Path.Type.file));
+                final Path.Type type;
+                final PathAttributes attr;
+                final FileAttributes stat = resolved.get(file);
+                if(null == stat) {
+                    log.warn(String.format("Cannot find symbolic link target of %s", file));
+                    type = Path.Type.file;
+                    attr = PathAttributes.EMPTY;
                 }
-                try {
-                    final FileAttributes stat = session.sftp().stat(target.getAbsolute());
+                else {
                     if(stat.getType().equals(FileMode.Type.DIRECTORY)) {
                         type = Path.Type.directory;
                     }
@@ -117,34 +167,13 @@ public class SFTPListService implements ListService {
                     }
                     attr = attributes.toAttributes(stat);
                 }
-                catch(SFTPException e) {
-                    final BackgroundException reason = new SFTPExceptionMappingService().map(e);
-                    if(reason instanceof NotfoundException) {
-                        log.warn(String.format("Cannot find symbolic link target of %s. %s", file, reason.toString()));
-                    }
-                    else if(reason instanceof AccessDeniedException) {
-                        log.warn(String.format("Cannot find symbolic link target of %s. %s", file, reason.toString()));
-                    }
-                    else if(reason instanceof InteroperabilityException) {
-                        log.warn(String.format("Cannot find symbolic link target of %s. %s", file, reason.toString()));
-                    }
-                    else {
-                        log.warn(String.format("Unknown failure reading symbolic link target of %s. %s", file, reason.toString()));
-                        throw reason;
-                    }
-                    type = Path.Type.file;
-                    attr = PathAttributes.EMPTY;
-                }
                 file.setType(EnumSet.of(Path.Type.symboliclink, type));
                 target.setType(EnumSet.of(type));
                 target.setAttributes(attr);
                 file.setSymlinkTarget(target);
             }
-            catch(IOException e) {
-                log.warn(String.format("Failure to read symbolic link of %s. %s", file, e.getMessage()));
-                return false;
-            }
+            result.add(file);
         }
-        return true;
+        return result;
     }
 }
@@ -0,0 +1,181 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import net.schmizz.concurrent.Promise;
+import net.schmizz.sshj.sftp.FileAttributes;
+import net.schmizz.sshj.sftp.OpenMode;
+import net.schmizz.sshj.sftp.PacketType;
+import net.schmizz.sshj.sftp.Request;
+import net.schmizz.sshj.sftp.Response;
+import net.schmizz.sshj.sftp.SFTPEngine;
+import net.schmizz.sshj.sftp.SFTPException;
+
+/**
+ * Keep multiple requests in flight on the SFTP channel instead of waiting for the response to each request before
+ * sending the next. Responses are returned in the order requests were sent.
+ *
+ * @param <T> Reference to item of request
+ */
+public class SFTPRequestPipeline<T> {
+
+    private final SFTPEngine engine;
+    private final int depth;
+
+    private final Deque<Map.Entry<T, Promise<Response, SFTPException>>> inflight = new ArrayDeque<>();
+
+    public SFTPRequestPipeline(final SFTPEngine engine) {
+        this(engine, PreferencesFactory.get().getInteger("sftp.pipeline.requests"));
+    }
+
+    /**
+     * @param depth Maximum number of requests awaiting response
+     */
+    public SFTPRequestPipeline(final SFTPEngine engine, final int depth) {
+        this.engine = engine;
+        this.depth = Math.max(1, depth);
+    }
+
+    /**
+     * @return True if no more requests should be sent before taking the oldest response
+     */
+    public boolean isFull() {
+        return inflight.size() >= depth;
+    }
+
+    public boolean isEmpty() {
+        return inflight.isEmpty();
+    }
+
+    /**
+     * Send request without waiting for response
+     *
+     * @param item    Reference returned with response
+     * @param request Request created with engine
+     */
+    public void send(final T item, final Request request) throws IOException {
+        inflight.add(new AbstractMap.SimpleImmutableEntry<>(item, engine.request(request)));
+    }
+
+    /**
+     * Wait for response to oldest request
+     *
+     * @return Null if no request is in flight
+     */
+    public Map.Entry<T, Response> take() throws IOException {
+        final Map.Entry<T, Promise<Response, SFTPException>> next = inflight.poll();
+        if(null == next) {
+            return null;
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(next.getKey(),
+            next.getValue().retrieve(engine.getTimeoutMs(), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Send request for every item and handle responses in order
+     *
+     * @param items     Items to send request for
+     * @param requester Create request for item
+     * @param handler   Handle response to request for item
+     */
+    public void run(final Iterable<T> items, final Requester<T> requester, final Handler<T> handler) throws IOException {
+        for(T item : items) {
+            if(this.isFull()) {
+                this.handle(handler);
+            }
+            this.send(item, requester.request(engine, item));
+        }
+        while(!this.isEmpty()) {
+            this.handle(handler);
+        }
+    }
+
+    private void handle(final Handler<T> handler) throws IOException {
+        final Map.Entry<T, Response> response = this.take();
+        handler.handle(response.getKey(), response.getValue());
+    }
+
+    public interface Requester<T> {
+        Request request(SFTPEngine engine, T item);
+    }
+
+    public interface Handler<T> {
+        /**
+         * @param item     Item of request
+         * @param response Response including status responses for failures
+         */
+        void handle(T item, Response response) throws IOException;
+    }
+
+    /**
+     * @param failure Failure mapped from status response
+     * @return True if server replied that the request is not supported
+     */
+    public static boolean isUnsupported(final BackgroundException failure) {
+        final Throwable cause = ExceptionUtils.getRootCause(failure);
+        return cause instanceof SFTPException && ((SFTPException) cause).getStatusCode() == Response.StatusCode.OP_UNSUPPORTED;
+    }
+
+    public static Request readlink(final SFTPEngine engine, final String path) {
+        return engine.newRequest(PacketType.READLINK).putString(path);
+    }
+
+    public static Request stat(final SFTPEngine engine, final String path) {
+        return engine.newRequest(PacketType.STAT).putString(path);
+    }
+
+    public static Request opendir(final SFTPEngine engine, final String path) {
+        return engine.newRequest(PacketType.OPENDIR).putString(path);
+    }
+
+    public static Request readdir(final SFTPEngine engine, final byte[] handle) {
+        return engine.newRequest(PacketType.READDIR).putString(handle);
+    }
+
+    public static Request open(final SFTPEngine engine, final String path, final Set<OpenMode> modes) {
+        return engine.newRequest(PacketType.OPEN).putString(path).putUInt32(OpenMode.toMask(modes)).putFileAttributes(FileAttributes.EMPTY);
+    }
+
+    public static Request close(final SFTPEngine engine, final byte[] handle) {
+        return engine.newRequest(PacketType.CLOSE).putString(handle);
+    }
+
+    /**
+     * @param response Response to readlink request
+     * @return Target of link
+     * @throws SFTPException Failure status returned
+     */
+    public static String readSingleName(final Response response) throws IOException {
+        response.ensurePacketTypeIs(PacketType.NAME);
+        if(response.readUInt32AsInt() == 1) {
+            return response.readString();
+        }
+        throw new SFTPException(String.format("Unexpected data in %s packet", response.getType()));
+    }
+}
@@ -326,6 +326,18 @@ public class SFTPSession extends Session<SSHClient> {
         return sftp;
     }
 
+    /**
+     * @param name Extension name without vendor domain
+     * @return True if the extension is announced by the server when initializing the subsystem
+     */
+    public boolean isExtensionSupported(final String name) throws LoginCanceledException {
+        final SFTPEngine engine = this.sftp();
+        if(engine instanceof LoggingSFTPEngine) {
+            return ((LoggingSFTPEngine) engine).isExtensionSupported(name);
+        }
+        return false;
+    }
+
     @Override
     protected void logout() throws BackgroundException {
         try {
@@ -356,6 +368,9 @@ public class SFTPSession extends Session<SSHClient> {
         if(type == ListService.class) {
             return (T) new SFTPListService(this);
         }
+        if(type == FlatListing.class) {
+            return (T) new SFTPFlatListService(this);
+        }
         if(type == Find.class) {
             return (T) new SFTPFindFeature(this);
         }
@@ -377,6 +392,12 @@ public class SFTPSession extends Session<SSHClient> {
         if(type == Move.class) {
             return (T) new SFTPMoveFeature(this);
         }
+        if(type == Copy.class) {
+            return (T) new SFTPCopyFeature(this);
+        }
+        if(type == RemoteChecksum.class) {
+            return (T) new SFTPChecksumFeature(this);
+        }
         if(type == UnixPermission.class) {
             return (T) new SFTPUnixPermissionFeature(this);
         }
@@ -437,5 +458,21 @@ public class SFTPSession extends Session<SSHClient> {
             transcript.log(Type.request, String.format("%d %s", req.getRequestID(), req.getType()));
             return super.request(req);
         }
+
+        /**
+         * Extensions are announced by name in the version reply or listed in the data of the supported extension
+         */
+        public boolean isExtensionSupported(final String name) {
+            if(serverExtensions.containsKey(name)) {
+                return true;
+            }
+            for(String key : new String[]{"supported2", "supported"}) {
+                final String data = serverExtensions.get(key);
+                if(null != data && data.contains(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 }
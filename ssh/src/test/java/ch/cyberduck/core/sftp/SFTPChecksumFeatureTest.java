@@ -0,0 +1,68 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledConnectionCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.io.Checksum;
+import ch.cyberduck.core.io.HashAlgorithm;
+import ch.cyberduck.core.io.SHA256ChecksumCompute;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+@Category(IntegrationTest.class)
+public class SFTPChecksumFeatureTest extends AbstractSFTPTest {
+
+    @Test
+    public void testCompute() throws Exception {
+        final Path test = new Path(new SFTPHomeDirectoryService(session).find(), UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+        final byte[] content = RandomUtils.nextBytes(1024);
+        final TransferStatus status = new TransferStatus().length(content.length);
+        final OutputStream out = new SFTPWriteFeature(session).write(test, status, new DisabledConnectionCallback());
+        new StreamCopier(status, status).withLimit((long) content.length).transfer(new ByteArrayInputStream(content), out);
+        out.close();
+        final Checksum checksum = new SFTPChecksumFeature(session).compute(test, HashAlgorithm.sha256);
+        assertEquals(new SHA256ChecksumCompute().compute(new ByteArrayInputStream(content), new TransferStatus()), checksum);
+        new SFTPDeleteFeature(session).delete(Collections.singletonList(test), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+
+    @Test
+    public void testStripLengthPrefix() {
+        final byte[] hash = new byte[32];
+        Arrays.fill(hash, (byte) 1);
+        assertArrayEquals(hash, SFTPChecksumFeature.strip(ByteBuffer.allocate(36).putInt(32).put(hash).array()));
+        assertArrayEquals(hash, SFTPChecksumFeature.strip(hash));
+        assertArrayEquals(new byte[]{0, 0}, SFTPChecksumFeature.strip(new byte[]{0, 0}));
+    }
+}
@@ -0,0 +1,68 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.DisabledConnectionCallback;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.io.StreamCopier;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.apache.commons.lang3.RandomUtils;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class SFTPCopyFeatureTest extends AbstractSFTPTest {
+
+    @Test
+    public void testCopy() throws Exception {
+        final Path home = new SFTPHomeDirectoryService(session).find();
+        final Path source = new Path(home, UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+        final byte[] content = RandomUtils.nextBytes(39865);
+        {
+            final TransferStatus status = new TransferStatus().length(content.length);
+            final OutputStream out = new SFTPWriteFeature(session).write(source, status, new DisabledConnectionCallback());
+            new StreamCopier(status, status).withLimit((long) content.length).transfer(new ByteArrayInputStream(content), out);
+            out.close();
+        }
+        final Path target = new Path(home, UUID.randomUUID().toString(), EnumSet.of(Path.Type.file));
+        new SFTPCopyFeature(session).copy(source, target, new TransferStatus().length(content.length), new DisabledConnectionCallback());
+        assertTrue(new SFTPFindFeature(session).find(source));
+        assertTrue(new SFTPFindFeature(session).find(target));
+        {
+            final TransferStatus status = new TransferStatus().length(content.length);
+            final InputStream in = new SFTPReadFeature(session).read(target, status, new DisabledConnectionCallback());
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length);
+            new StreamCopier(status, status).withLimit((long) content.length).transfer(in, buffer);
+            in.close();
+            assertArrayEquals(content, buffer.toByteArray());
+        }
+        new SFTPDeleteFeature(session).delete(Arrays.asList(source, target), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+}
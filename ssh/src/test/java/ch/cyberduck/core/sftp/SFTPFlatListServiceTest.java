@@ -0,0 +1,104 @@
+package ch.cyberduck.core.sftp;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AlphanumericRandomStringService;
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.DisabledLoginCallback;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.Permission;
+import ch.cyberduck.core.exception.NotfoundException;
+import ch.cyberduck.core.features.Delete;
+import ch.cyberduck.core.transfer.TransferStatus;
+import ch.cyberduck.test.IntegrationTest;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class SFTPFlatListServiceTest extends AbstractSFTPTest {
+
+    @Test
+    public void testList() throws Exception {
+        final Path home = new SFTPHomeDirectoryService(session).find();
+        final Path directory = new SFTPDirectoryFeature(session).mkdir(new Path(home, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final Path subdirectory = new SFTPDirectoryFeature(session).mkdir(new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final Path file = new SFTPTouchFeature(session).touch(new Path(subdirectory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file)), new TransferStatus());
+        final Path symlink = new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory, Path.Type.symboliclink));
+        new SFTPSymlinkFeature(session).symlink(symlink, subdirectory.getAbsolute());
+        final AttributedList<Path> list = new SFTPFlatListService(session).list(directory, new DisabledListProgressListener());
+        assertTrue(list.contains(subdirectory));
+        assertTrue(list.contains(file));
+        assertTrue(list.contains(symlink));
+        assertEquals(subdirectory, list.get(symlink).getSymlinkTarget());
+        // Symbolic link to directory not followed
+        assertEquals(3, list.size());
+        new SFTPDeleteFeature(session).delete(Arrays.asList(file, symlink, subdirectory, directory), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+
+    @Test
+    public void testListSkipDirectoryNotReadable() throws Exception {
+        final Path home = new SFTPHomeDirectoryService(session).find();
+        final Path directory = new SFTPDirectoryFeature(session).mkdir(new Path(home, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final Path denied = new SFTPDirectoryFeature(session).mkdir(new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final Path file = new SFTPTouchFeature(session).touch(new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file)), new TransferStatus());
+        new SFTPUnixPermissionFeature(session).setUnixPermission(denied, new Permission("000"));
+        final AttributedList<Path> list = new SFTPFlatListService(session).list(directory, new DisabledListProgressListener());
+        assertTrue(list.contains(denied));
+        assertTrue(list.contains(file));
+        assertEquals(2, list.size());
+        new SFTPUnixPermissionFeature(session).setUnixPermission(denied, new Permission("700"));
+        new SFTPDeleteFeature(session).delete(Arrays.asList(file, denied, directory), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+
+    @Test
+    public void testListChunk() throws Exception {
+        final Path home = new SFTPHomeDirectoryService(session).find();
+        final Path directory = new SFTPDirectoryFeature(session).mkdir(new Path(home, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final Path subdirectory = new SFTPDirectoryFeature(session).mkdir(new Path(directory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.directory)), null, new TransferStatus());
+        final Path file = new SFTPTouchFeature(session).touch(new Path(subdirectory, new AlphanumericRandomStringService().random(), EnumSet.of(Path.Type.file)), new TransferStatus());
+        final List<Path> notified = new ArrayList<>();
+        final AtomicBoolean complete = new AtomicBoolean();
+        final AttributedList<Path> list = new SFTPFlatListService(session).list(directory, new DisabledListProgressListener() {
+            @Override
+            public void chunk(final Path folder, final AttributedList<Path> list, final int offset, final boolean done) {
+                assertFalse(complete.get());
+                assertEquals(notified.size(), offset);
+                notified.addAll(list.toList().subList(offset, list.size()));
+                complete.set(done);
+            }
+        });
+        assertTrue(complete.get());
+        assertEquals(list.toList(), notified);
+        assertEquals(2, notified.size());
+        new SFTPDeleteFeature(session).delete(Arrays.asList(file, subdirectory, directory), new DisabledLoginCallback(), new Delete.DisabledCallback());
+    }
+
+    @Test(expected = NotfoundException.class)
+    public void testListNotfound() throws Exception {
+        new SFTPFlatListService(session).list(new Path(UUID.randomUUID().toString(), EnumSet.of(Path.Type.directory)), new DisabledListProgressListener());
+    }
+}
@@ -28,7 +28,7 @@ import ch.cyberduck.core.features.MultipartWrite;
 import ch.cyberduck.core.features.Write;
 import ch.cyberduck.core.http.HttpRange;
 import ch.cyberduck.core.http.HttpResponseOutputStream;
-import ch.cyberduck.core.io.MemorySegementingOutputStream;
+import ch.cyberduck.core.io.SlabSegmentingOutputStream;
 import ch.cyberduck.core.preferences.PreferencesFactory;
 import ch.cyberduck.core.shared.DefaultAttributesFinderFeature;
 import ch.cyberduck.core.shared.DefaultFindFeature;
@@ -99,7 +99,7 @@ public class StoregateMultipartWriteFeature implements MultipartWrite<VersionId>
     public HttpResponseOutputStream<VersionId> write(final Path file, final TransferStatus status, final ConnectionCallback callback) throws BackgroundException {
         final String location = new StoregateWriteFeature(session, fileid).start(file, status);
         final MultipartOutputStream proxy = new MultipartOutputStream(location, file, status);
-        return new HttpResponseOutputStream<VersionId>(new MemorySegementingOutputStream(proxy,
+        return new HttpResponseOutputStream<VersionId>(new SlabSegmentingOutputStream(proxy,
             PreferencesFactory.get().getInteger("storegate.upload.multipart.chunksize"))) {
             @Override
             public VersionId getStatus() {
@@ -136,7 +136,7 @@ public class StoregateMultipartWriteFeature implements MultipartWrite<VersionId>
                 if(null != canceled.get()) {
                     throw canceled.get();
                 }
-                final byte[] content = Arrays.copyOfRange(b, off, len);
+                final byte[] content = Arrays.copyOfRange(b, off, off + len);
                 new DefaultRetryCallable<>(session.getHost(), new BackgroundExceptionCallable<Void>() {
                     @Override
                     public Void call() throws BackgroundException {
@@ -37,18 +37,25 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import com.github.sardine.DavResource;
 import com.github.sardine.impl.SardineImpl;
 import com.github.sardine.impl.handler.MultiStatusResponseHandler;
 import com.github.sardine.impl.handler.VoidResponseHandler;
 import com.github.sardine.impl.methods.HttpPropFind;
+import com.github.sardine.model.Allprop;
 import com.github.sardine.model.Multistatus;
+import com.github.sardine.model.ObjectFactory;
+import com.github.sardine.model.Prop;
 import com.github.sardine.model.Propfind;
 import com.github.sardine.model.Response;
 import com.github.sardine.util.SardineUtil;
 
+import javax.xml.namespace.QName;
+
 public class DAVClient extends SardineImpl {
     private static final Logger log = Logger.getLogger(DAVClient.class);
 
@@ -100,6 +107,78 @@ public class DAVClient extends SardineImpl {
         return resources;
     }
 
+    /**
+     * Notified of every resource as soon as parsed from the multistatus response
+     */
+    public interface ResourceListener {
+        void resource(DavResource resource) throws IOException;
+    }
+
+    /**
+     * Request all properties
+     *
+     * @param depth    Depth header or negative value for infinity
+     * @param listener Notified of every resource as soon as parsed
+     */
+    public void list(final String url, final int depth, final boolean allProp, final ResourceListener listener) throws IOException {
+        if(allProp) {
+            final Propfind body = new Propfind();
+            body.setAllprop(new Allprop());
+            this.propfind(url, depth, body, listener);
+        }
+        else {
+            this.list(url, depth, Collections.emptySet(), listener);
+        }
+    }
+
+    /**
+     * Request default properties and custom properties given
+     *
+     * @param depth    Depth header or negative value for infinity
+     * @param props    Custom properties
+     * @param listener Notified of every resource as soon as parsed
+     */
+    public void list(final String url, final int depth, final Set<QName> props, final ResourceListener listener) throws IOException {
+        final Propfind body = new Propfind();
+        final Prop prop = new Prop();
+        final ObjectFactory factory = new ObjectFactory();
+        prop.setGetcontentlength(factory.createGetcontentlength());
+        prop.setGetlastmodified(factory.createGetlastmodified());
+        prop.setCreationdate(factory.createCreationdate());
+        prop.setDisplayname(factory.createDisplayname());
+        prop.setGetcontenttype(factory.createGetcontenttype());
+        prop.setResourcetype(factory.createResourcetype());
+        prop.setGetetag(factory.createGetetag());
+        for(QName name : props) {
+            prop.getAny().add(SardineUtil.createElement(name));
+        }
+        body.setProp(prop);
+        this.propfind(url, depth, body, listener);
+    }
+
+    protected void propfind(final String url, final int depth, final Propfind body, final ResourceListener listener) throws IOException {
+        if(!PreferencesFactory.get().getBoolean("webdav.list.handler.sax")) {
+            for(DavResource resource : this.propfind(url, depth, body)) {
+                listener.resource(resource);
+            }
+            return;
+        }
+        final HttpPropFind entity = new HttpPropFind(url);
+        entity.setDepth(depth < 0 ? "infinity" : Integer.toString(depth));
+        entity.setEntity(new StringEntity(SardineUtil.toXml(body), StandardCharsets.UTF_8));
+        this.execute(entity, new SaxPropFindResponseHandler(response -> {
+            final DavResource resource;
+            try {
+                resource = new DavResource(response);
+            }
+            catch(URISyntaxException e) {
+                log.warn(String.format("Ignore resource with invalid URI %s", response.getHref().get(0)));
+                return;
+            }
+            listener.resource(resource);
+        }));
+    }
+
     @Override
     public ContentLengthStatusInputStream get(final String url, final List<Header> headers) throws IOException {
         HttpGet get = new HttpGet(url);
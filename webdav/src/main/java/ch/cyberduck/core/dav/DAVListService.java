@@ -23,28 +23,38 @@ import ch.cyberduck.core.ListProgressListener;
 import ch.cyberduck.core.ListService;
 import ch.cyberduck.core.Path;
 import ch.cyberduck.core.PathAttributes;
+import ch.cyberduck.core.PathCache;
 import ch.cyberduck.core.PathNormalizer;
+import ch.cyberduck.core.exception.AccessDeniedException;
 import ch.cyberduck.core.exception.BackgroundException;
+import ch.cyberduck.core.exception.InteroperabilityException;
 import ch.cyberduck.core.exception.NotfoundException;
 import ch.cyberduck.core.http.HttpExceptionMappingService;
+import ch.cyberduck.core.preferences.Preferences;
+import ch.cyberduck.core.preferences.PreferencesFactory;
 
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
 import java.util.EnumSet;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import com.github.sardine.DavResource;
 import com.github.sardine.impl.SardineException;
 
 public class DAVListService implements ListService {
     private static final Logger log = Logger.getLogger(DAVListService.class);
 
+    private final Preferences preferences = PreferencesFactory.get();
+
     private final DAVSession session;
     private final DAVAttributesFinderFeature attributes;
 
+    private Cache<Path> cache = PathCache.empty();
+
     public DAVListService(final DAVSession session) {
         this(session, new DAVAttributesFinderFeature(session));
     }
@@ -56,26 +66,76 @@ public class DAVListService implements ListService {
 
     @Override
     public AttributedList<Path> list(final Path directory, final ListProgressListener listener) throws BackgroundException {
+        if(preferences.getBoolean("webdav.list.depth.infinity") && PathCache.empty() != cache) {
+            try {
+                return this.list(directory, listener, -1);
+            }
+            catch(AccessDeniedException | InteroperabilityException e) {
+                // Servers may reject depth infinity with 403 and precondition propfind-finite-depth
+                log.warn(String.format("Failure %s listing %s recursively", e, directory));
+            }
+        }
+        return this.list(directory, listener, 1);
+    }
+
+    /**
+     * Children are added to the listing as soon as parsed from the response. Descendants are placed in the listing
+     * of their parent found by the path of their href when listing recursively. Fails with interoperability
+     * failure for descendants with a href not relative to the directory listed.
+     *
+     * @param depth Negative value to list all descendants and save them in cache
+     */
+    protected AttributedList<Path> list(final Path directory, final ListProgressListener listener, final int depth) throws BackgroundException {
+        final AttributedList<Path> children = new AttributedList<Path>();
+        // Listings of descendants when listing recursively
+        final Map<Path, AttributedList<Path>> descendants = new HashMap<>();
+        final int chunksize = preferences.getInteger("webdav.listing.chunksize");
+        // Index of first file not yet notified
+        final AtomicInteger offset = new AtomicInteger();
         try {
-            final AttributedList<Path> children = new AttributedList<Path>();
-            for(final DavResource resource : this.list(directory)) {
+            this.list(directory, depth, resource -> {
                 // Try to parse as RFC 2396
                 final String href = PathNormalizer.normalize(resource.getHref().getPath(), true);
                 if(href.equals(directory.getAbsolute())) {
                     log.warn(String.format("Ignore resource %s", href));
                     // Do not include self
                     if(resource.isDirectory()) {
-                        continue;
+                        return;
                     }
-                    throw new NotfoundException(directory.getAbsolute());
+                    throw new ListingException(new NotfoundException(directory.getAbsolute()));
                 }
                 final PathAttributes attr = attributes.toAttributes(resource);
-                final Path file = new Path(directory, PathNormalizer.name(href),
-                    resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file), attr);
+                final EnumSet<Path.Type> type = resource.isDirectory() ? EnumSet.of(Path.Type.directory) : EnumSet.of(Path.Type.file);
+                if(depth < 0) {
+                    final String parent = PathNormalizer.parent(href, Path.DELIMITER);
+                    if(!directory.getAbsolute().equals(parent)) {
+                        if(null == parent || !href.startsWith(directory.isRoot() ? directory.getAbsolute() :
+                            String.format("%s%s", directory.getAbsolute(), Path.DELIMITER))) {
+                            // Cannot place descendants with href not relative to directory
+                            throw new ListingException(new InteroperabilityException(
+                                String.format("Resource %s not in %s", href, directory.getAbsolute())));
+                        }
+                        final Path file = new Path(new Path(parent, EnumSet.of(Path.Type.directory)), PathNormalizer.name(href), type, attr);
+                        descendants.computeIfAbsent(file.getParent(), p -> new AttributedList<>()).add(file);
+                        if(resource.isDirectory()) {
+                            descendants.computeIfAbsent(file, p -> new AttributedList<>());
+                        }
+                        return;
+                    }
+                }
+                final Path file = new Path(directory, PathNormalizer.name(href), type, attr);
                 children.add(file);
-                listener.chunk(directory, children);
-            }
-            return children;
+                if(children.size() % chunksize == 0) {
+                    this.chunk(directory, children, offset, false, listener);
+                }
+                if(depth < 0 && resource.isDirectory()) {
+                    descendants.computeIfAbsent(file, p -> new AttributedList<>());
+                }
+            });
+            this.chunk(directory, children, offset, true, listener);
+        }
+        catch(ListingException e) {
+            throw e.getCause();
         }
         catch(SardineException e) {
             throw new DAVExceptionMappingService().map("Listing directory {0} failed", e, directory);
@@ -83,13 +143,57 @@ public class DAVListService implements ListService {
         catch(IOException e) {
             throw new HttpExceptionMappingService().map(e, directory);
         }
+        for(Map.Entry<Path, AttributedList<Path>> entry : descendants.entrySet()) {
+            if(log.isDebugEnabled()) {
+                log.debug(String.format("Cache %d files in %s from recursive listing", entry.getValue().size(), entry.getKey()));
+            }
+            cache.put(entry.getKey(), entry.getValue());
+        }
+        return children;
     }
 
-    protected List<DavResource> list(final Path directory) throws IOException {
-        return session.getClient().list(new DAVPathEncoder().encode(directory), 1,
+    /**
+     * Notify listener with files added since previous notification
+     */
+    private void chunk(final Path directory, final AttributedList<Path> children, final AtomicInteger offset,
+                       final boolean complete, final ListProgressListener listener) throws ListingException {
+        try {
+            listener.chunk(directory, children, offset.getAndSet(children.size()), complete);
+        }
+        catch(BackgroundException e) {
+            throw new ListingException(e);
+        }
+    }
+
+    /**
+     * @param depth    Depth header or negative value for infinity
+     * @param listener Notified of each resource as soon as parsed
+     */
+    protected void list(final Path directory, final int depth, final DAVClient.ResourceListener listener) throws IOException {
+        session.getClient().list(new DAVPathEncoder().encode(directory), depth,
             Stream.of(
                 DAVTimestampFeature.LAST_MODIFIED_CUSTOM_NAMESPACE,
                 DAVTimestampFeature.LAST_MODIFIED_SERVER_CUSTOM_NAMESPACE).
-                collect(Collectors.toSet()));
+                collect(Collectors.toSet()), listener);
+    }
+
+    @Override
+    public ListService withCache(final Cache<Path> cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Failure passing resource to listener while reading response
+     */
+    private static final class ListingException extends IOException {
+        public ListingException(final BackgroundException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized BackgroundException getCause() {
+            return (BackgroundException) super.getCause();
+        }
     }
 }
@@ -40,6 +40,27 @@ import com.github.sardine.util.SardineUtil;
 public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
     private static final Logger log = Logger.getLogger(SaxPropFindResponseHandler.class);
 
+    /**
+     * Notified of every response parsed or null to collect all responses in multistatus
+     */
+    private final ResponseListener listener;
+
+    public SaxPropFindResponseHandler() {
+        this(null);
+    }
+
+    /**
+     * @param listener Notified of every response as soon as parsed. Responses are not retained in the multistatus
+     *                 returned
+     */
+    public SaxPropFindResponseHandler(final ResponseListener listener) {
+        this.listener = listener;
+    }
+
+    public interface ResponseListener {
+        void response(Response response) throws IOException;
+    }
+
     @Override
     protected Multistatus getMultistatus(final InputStream stream) throws IOException {
         final SAXParserFactory spf = SAXParserFactory.newInstance();
@@ -47,19 +68,28 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         try {
             final SAXParser saxParser = spf.newSAXParser();
             final XMLReader xmlReader = saxParser.getXMLReader();
-            final SaxHandler handler = new SaxHandler();
+            final SaxHandler handler = new SaxHandler(listener);
             xmlReader.setContentHandler(handler);
             xmlReader.setErrorHandler(new LoggingErrorHandler());
             xmlReader.parse(new InputSource(stream));
             return handler.getMultistatus();
         }
-        catch(IOException | SAXException | ParserConfigurationException e) {
+        catch(SAXException e) {
+            if(e.getException() instanceof IOException) {
+                // Failure in listener
+                throw (IOException) e.getException();
+            }
+            throw new IOException("Not a valid DAV response", e);
+        }
+        catch(IOException | ParserConfigurationException e) {
             throw new IOException("Not a valid DAV response", e);
         }
     }
 
     private static final class SaxHandler extends DefaultHandler {
 
+        private final ResponseListener listener;
+
         private Multistatus multistatus;
         private Response response;
         private Propstat propstat;
@@ -72,6 +102,10 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
         private final StringBuilder text = new StringBuilder();
         private final Element root = SardineUtil.createElement(SardineUtil.createQNameWithCustomNamespace("root"));
 
+        public SaxHandler(final ResponseListener listener) {
+            this.listener = listener;
+        }
+
         @Override
         public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
             switch(localName) {
@@ -80,7 +114,7 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
                     break;
                 case "response":
                     response = new Response();
-                    if(multistatus != null) {
+                    if(multistatus != null && null == listener) {
                         multistatus.getResponse().add(response);
                     }
                     break;
@@ -125,17 +159,27 @@ public class SaxPropFindResponseHandler extends MultiStatusResponseHandler {
                     break;
             }
             text.setLength(0);
-            text.trimToSize();
         }
 
         @Override
         public void characters(final char[] ch, final int start, final int length) {
-            text.append(new String(ch, start, length));
+            text.append(ch, start, length);
         }
 
         @Override
-        public void endElement(final String uri, final String localName, final String qName) {
-            if(StringUtils.isBlank(text.toString())) {
+        public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+            if(listener != null && response != null && "response".equals(localName)) {
+                final Response complete = response;
+                response = null;
+                try {
+                    listener.response(complete);
+                }
+                catch(IOException e) {
+                    throw new SAXException(e);
+                }
+                return;
+            }
+            if(StringUtils.isBlank(text)) {
                 return;
             }
             if(response != null) {
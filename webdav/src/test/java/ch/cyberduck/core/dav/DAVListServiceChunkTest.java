@@ -0,0 +1,90 @@
+package ch.cyberduck.core.dav;
+
+/*
+ * Copyright (c) 2002-2020 iterate GmbH. All rights reserved.
+ * https://cyberduck.io/
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ */
+
+import ch.cyberduck.core.AttributedList;
+import ch.cyberduck.core.DisabledListProgressListener;
+import ch.cyberduck.core.Host;
+import ch.cyberduck.core.Path;
+import ch.cyberduck.core.preferences.PreferencesFactory;
+import ch.cyberduck.core.ssl.DefaultX509KeyManager;
+import ch.cyberduck.core.ssl.DisabledX509TrustManager;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import com.github.sardine.DavResource;
+import com.github.sardine.model.Response;
+
+import static org.junit.Assert.*;
+
+public class DAVListServiceChunkTest {
+
+    @Test
+    public void testChunkIncremental() throws Exception {
+        final StringBuilder multistatus = new StringBuilder("<?xml version=\"1.0\" encoding=\"utf-8\"?><d:multistatus xmlns:d=\"DAV:\">");
+        multistatus.append("<d:response><d:href>/dav/</d:href><d:propstat><d:prop><d:resourcetype><d:collection/></d:resourcetype></d:prop>" +
+            "<d:status>HTTP/1.1 200 OK</d:status></d:propstat></d:response>");
+        for(int i = 1; i <= 5; i++) {
+            multistatus.append(String.format("<d:response><d:href>/dav/f%d</d:href><d:propstat><d:prop><d:resourcetype/></d:prop>" +
+                "<d:status>HTTP/1.1 200 OK</d:status></d:propstat></d:response>", i));
+        }
+        multistatus.append("</d:multistatus>");
+        final DAVSession session = new DAVSession(new Host(new DAVProtocol(), "localhost"), new DisabledX509TrustManager(), new DefaultX509KeyManager());
+        final DAVListService service = new DAVListService(session) {
+            @Override
+            protected void list(final Path directory, final int depth, final DAVClient.ResourceListener listener) throws IOException {
+                new SaxPropFindResponseHandler(response -> {
+                    try {
+                        listener.resource(new DavResource(response));
+                    }
+                    catch(URISyntaxException e) {
+                        throw new IOException(e);
+                    }
+                }).getMultistatus(IOUtils.toInputStream(multistatus.toString(), StandardCharsets.UTF_8));
+            }
+        };
+        final List<Integer> offsets = new ArrayList<>();
+        final List<Integer> sizes = new ArrayList<>();
+        final List<Boolean> complete = new ArrayList<>();
+        PreferencesFactory.get().setProperty("webdav.listing.chunksize", 2);
+        try {
+            final AttributedList<Path> list = service.list(new Path("/dav", EnumSet.of(Path.Type.directory)), new DisabledListProgressListener() {
+                @Override
+                public void chunk(final Path folder, final AttributedList<Path> list, final int offset, final boolean done) {
+                    offsets.add(offset);
+                    sizes.add(list.size());
+                    complete.add(done);
+                }
+            });
+            assertEquals(5, list.size());
+        }
+        finally {
+            PreferencesFactory.get().deleteProperty("webdav.listing.chunksize");
+        }
+        // Only files added since previous notification
+        assertArrayEquals(new Integer[]{0, 2, 4}, offsets.toArray());
+        assertArrayEquals(new Integer[]{2, 4, 5}, sizes.toArray());
+        assertArrayEquals(new Boolean[]{false, false, true}, complete.toArray());
+    }
+}